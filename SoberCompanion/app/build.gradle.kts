@@ -64,6 +64,20 @@ android {
         kotlinCompilerExtensionVersion = "1.5.5"
     }
 
+    testOptions {
+        // Robolectric이 병합된 매니페스트와 리소스를 읽도록 포함
+        unitTests.isIncludeAndroidResources = true
+        // ./gradlew testDebugUnitTest -PyearReplayReport 로 실행하면 YearReplayTest 요약을 build/reports/year-replay.txt에 남김
+        unitTests.all { test ->
+            if (project.hasProperty("yearReplayReport")) {
+                test.systemProperty(
+                    "yearReplayReport",
+                    layout.buildDirectory.file("reports/year-replay.txt").get().asFile.path
+                )
+            }
+        }
+    }
+
     packaging {
         resources {
             excludes += setOf(
@@ -102,10 +116,16 @@ dependencies {
     // Room Database
     implementation("androidx.room:room-runtime:2.6.1")
     implementation("androidx.room:room-ktx:2.6.1")
+    implementation("androidx.room:room-paging:2.6.1")
     ksp("androidx.room:room-compiler:2.6.1")
 
+    // Paging (메모 검색 결과, 기록 이력 목록)
+    implementation("androidx.paging:paging-runtime-ktx:3.2.1")
+    implementation("androidx.paging:paging-compose:3.2.1")
+
     // DataStore
-    implementation("androidx.datastore:datastore-preferences:1.0.0")
+    implementation("androidx.datastore:datastore:1.0.0")
+    implementation("androidx.datastore:datastore-preferences:1.0.0") // 이전 파일 마이그레이션용
 
     // WorkManager
     implementation("androidx.work:work-runtime-ktx:2.9.0")
@@ -119,6 +139,12 @@ dependencies {
 
     // Testing
     testImplementation("junit:junit:4.13.2")
+    // JVM 테스트에서 메모리 Room DB 사용 (Robolectric)
+    testImplementation("org.robolectric:robolectric:4.11.1")
+    testImplementation("androidx.test:core-ktx:1.5.0")
+    // 가상 시간으로 1년치 사용을 재생하는 테스트 (YearReplayTest)
+    testImplementation("org.jetbrains.kotlinx:kotlinx-coroutines-test:1.7.3")
+    testImplementation("androidx.work:work-testing:2.9.0")
     androidTestImplementation("androidx.test.ext:junit:1.1.5")
     androidTestImplementation("androidx.test.espresso:espresso-core:3.5.1")
     androidTestImplementation(platform("androidx.compose:compose-bom:2024.04.01"))
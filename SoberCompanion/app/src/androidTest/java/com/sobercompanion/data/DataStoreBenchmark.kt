@@ -0,0 +1,201 @@
+package com.sobercompanion.data
+
+import android.content.Context
+import android.util.Log
+import androidx.datastore.core.DataStore
+import androidx.datastore.core.DataStoreFactory
+import androidx.datastore.preferences.core.PreferenceDataStoreFactory
+import androidx.datastore.preferences.core.Preferences
+import androidx.datastore.preferences.core.booleanPreferencesKey
+import androidx.datastore.preferences.core.edit
+import androidx.datastore.preferences.core.stringPreferencesKey
+import androidx.test.core.app.ApplicationProvider
+import androidx.test.ext.junit.runners.AndroidJUnit4
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.Job
+import kotlinx.coroutines.cancelAndJoin
+import kotlinx.coroutines.flow.first
+import kotlinx.coroutines.runBlocking
+import org.junit.Test
+import org.junit.runner.RunWith
+import java.io.File
+import java.time.LocalDate
+import java.time.format.DateTimeFormatter
+
+/**
+ * 오늘 상태 저장소를 이전 Preferences(sober_data) 방식과 현재 타입 지정 DataStore(sober_state.pb) 방식으로 비교하는 기기 벤치마크.
+ *
+ * 같은 오늘 상태(마지막 기록 날짜, 상태, 위로 메시지 플래그)를 두 방식으로 저장해 두고
+ * - 콜드 읽기: 앱 시작처럼 DataStore를 새로 열어 첫 값을 받아 화면 값으로 바꾸기까지
+ * - 쓰기: 성공 기록 한 번에 해당하는 edit/updateData (파일 쓰기·fsync 포함)
+ * - 파일 크기
+ * 를 잽니다. 결과는 logcat의 [TAG] 태그로 출력되며, 기기에 따라 값이 달라지므로 판정은 하지 않습니다.
+ *
+ * 실행: ./gradlew :app:connectedDebugAndroidTest
+ *   -Pandroid.testInstrumentationRunnerArguments.class=com.sobercompanion.data.DataStoreBenchmark
+ */
+@RunWith(AndroidJUnit4::class)
+class DataStoreBenchmark {
+
+    private val context = ApplicationProvider.getApplicationContext<Context>()
+    private val dir = File(context.cacheDir, "datastore_benchmark")
+
+    private val startDate = LocalDate.of(2024, 5, 8)
+
+    @Test
+    fun preferencesVersusTypedStore() = runBlocking {
+        dir.deleteRecursively()
+        dir.mkdirs()
+        try {
+            val preferencesFile = File(dir, "sober_data.preferences_pb")
+            val typedFile = File(dir, "sober_state.pb")
+
+            val preferences = Variant(
+                measureColdRead = { coldRead(preferencesFile, ::openPreferences) { prefs -> prefs.toSnapshot() } },
+                measureWrite = { day -> writePreferences(preferencesFile, day) },
+                file = preferencesFile
+            )
+            val typed = Variant(
+                measureColdRead = { coldRead(typedFile, ::openTyped) { it } },
+                measureWrite = { day -> writeTyped(typedFile, day) },
+                file = typedFile
+            )
+
+            for ((label, variant) in listOf("이전 (Preferences)" to preferences, "이후 (sober_state.pb)" to typed)) {
+                Log.i(TAG, "$label: ${variant.run()}")
+            }
+        } finally {
+            dir.deleteRecursively()
+        }
+    }
+
+    private class Variant(
+        val measureColdRead: suspend () -> Long,
+        val measureWrite: suspend (Int) -> Long,
+        val file: File
+    ) {
+        suspend fun run(): Result {
+            // 쓰기를 먼저 재서 읽기 측정 때 파일이 채워져 있도록 함
+            val writes = LongArray(MEASURED_WRITES) { measureWrite(it) }
+            repeat(WARMUP_READS) { measureColdRead() }
+            val reads = LongArray(MEASURED_READS) { measureColdRead() }
+            writes.sort()
+            reads.sort()
+            return Result(
+                readP50Micros = reads[reads.size / 2] / 1_000,
+                readP95Micros = reads[reads.size * 95 / 100] / 1_000,
+                writeP50Micros = writes[writes.size / 2] / 1_000,
+                writeP95Micros = writes[writes.size * 95 / 100] / 1_000,
+                fileBytes = file.length()
+            )
+        }
+    }
+
+    /** DataStore를 새로 열어 첫 값을 받고 화면 값으로 바꾸는 시간 (ns) */
+    private suspend fun <T> coldRead(
+        file: File,
+        open: (CoroutineScope, File) -> DataStore<T>,
+        toSnapshot: (T) -> SoberSnapshot
+    ): Long {
+        val job = Job()
+        val store = open(CoroutineScope(Dispatchers.IO + job), file)
+        val start = System.nanoTime()
+        toSnapshot(store.data.first())
+        val elapsed = System.nanoTime() - start
+        // 같은 파일에 DataStore가 둘 이상 열려 있으면 안 되므로 다음 측정 전에 닫음
+        job.cancelAndJoin()
+        return elapsed
+    }
+
+    /** 이미 열린 Preferences DataStore에 성공 기록 한 번을 쓰는 시간 (ns) */
+    private suspend fun writePreferences(file: File, day: Int): Long =
+        withStore(file, ::openPreferences) { store ->
+            val date = startDate.plusDays(day.toLong()).format(DateTimeFormatter.ISO_LOCAL_DATE)
+            timed {
+                store.edit { prefs ->
+                    prefs[LAST_RECORD_DATE] = date
+                    prefs[DAILY_STATUS] = RecordStatus.SUCCESS.name
+                    prefs[COMFORT_READY_FLAG] = day % 2 == 0
+                    prefs[COMFORT_MESSAGE_SHOWN] = false
+                }
+            }
+        }
+
+    /** 이미 열린 sober_state.pb DataStore에 성공 기록 한 번을 쓰는 시간 (ns) */
+    private suspend fun writeTyped(file: File, day: Int): Long =
+        withStore(file, ::openTyped) { store ->
+            val date = startDate.plusDays(day.toLong())
+            timed {
+                store.updateData {
+                    it.copy(
+                        lastRecordDate = date,
+                        dailyStatus = RecordStatus.SUCCESS,
+                        comfortReady = day % 2 == 0,
+                        comfortShown = false
+                    )
+                }
+            }
+        }
+
+    private suspend fun <T> withStore(
+        file: File,
+        open: (CoroutineScope, File) -> DataStore<T>,
+        block: suspend (DataStore<T>) -> Long
+    ): Long {
+        val job = Job()
+        val store = open(CoroutineScope(Dispatchers.IO + job), file)
+        store.data.first() // 열기 비용은 쓰기 측정에서 제외
+        return try {
+            block(store)
+        } finally {
+            job.cancelAndJoin()
+        }
+    }
+
+    private inline fun timed(block: () -> Unit): Long {
+        val start = System.nanoTime()
+        block()
+        return System.nanoTime() - start
+    }
+
+    private fun openPreferences(scope: CoroutineScope, file: File): DataStore<Preferences> =
+        PreferenceDataStoreFactory.create(scope = scope, produceFile = { file })
+
+    private fun openTyped(scope: CoroutineScope, file: File): DataStore<SoberSnapshot> =
+        DataStoreFactory.create(serializer = SoberSnapshotSerializer, scope = scope, produceFile = { file })
+
+    /** 이전 AppDataStore가 Preferences에서 화면 값을 만들던 방식 (문자열 날짜·상태 파싱) */
+    private fun Preferences.toSnapshot() = SoberSnapshot(
+        lastRecordDate = this[LAST_RECORD_DATE]?.let { LocalDate.parse(it, DateTimeFormatter.ISO_LOCAL_DATE) },
+        dailyStatus = RecordStatus.fromString(this[DAILY_STATUS]),
+        comfortReady = this[COMFORT_READY_FLAG] ?: false,
+        comfortShown = this[COMFORT_MESSAGE_SHOWN] ?: false
+    )
+
+    private data class Result(
+        val readP50Micros: Long,
+        val readP95Micros: Long,
+        val writeP50Micros: Long,
+        val writeP95Micros: Long,
+        val fileBytes: Long
+    ) {
+        override fun toString() =
+            "콜드 읽기 p50 ${readP50Micros}µs, p95 ${readP95Micros}µs / " +
+                "쓰기 p50 ${writeP50Micros}µs, p95 ${writeP95Micros}µs / 파일 ${fileBytes}바이트"
+    }
+
+    companion object {
+        private const val TAG = "DataStoreBenchmark"
+
+        private const val WARMUP_READS = 20
+        private const val MEASURED_READS = 200
+        private const val MEASURED_WRITES = 200
+
+        // 이전 sober_data 파일의 키 이름
+        private val LAST_RECORD_DATE = stringPreferencesKey("last_record_date")
+        private val DAILY_STATUS = stringPreferencesKey("daily_status")
+        private val COMFORT_READY_FLAG = booleanPreferencesKey("comfort_ready_flag")
+        private val COMFORT_MESSAGE_SHOWN = booleanPreferencesKey("comfort_message_shown")
+    }
+}
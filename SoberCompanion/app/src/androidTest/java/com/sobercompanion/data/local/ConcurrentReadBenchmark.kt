@@ -0,0 +1,158 @@
+package com.sobercompanion.data.local
+
+import android.content.Context
+import android.util.Log
+import androidx.room.Room
+import androidx.room.RoomDatabase
+import androidx.room.withTransaction
+import androidx.test.core.app.ApplicationProvider
+import androidx.test.ext.junit.runners.AndroidJUnit4
+import com.sobercompanion.data.local.entity.DailyLog
+import com.sobercompanion.data.local.entity.Milestone
+import com.sobercompanion.data.local.entity.RollupPeriod
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.cancelAndJoin
+import kotlinx.coroutines.coroutineScope
+import kotlinx.coroutines.flow.first
+import kotlinx.coroutines.isActive
+import kotlinx.coroutines.launch
+import kotlinx.coroutines.runBlocking
+import org.junit.Test
+import org.junit.runner.RunWith
+import java.time.LocalDate
+import java.util.concurrent.atomic.AtomicInteger
+
+/**
+ * 백그라운드 쓰기가 계속되는 동안 통계·마일스톤 화면 읽기 지연을 설정별로 비교하는 기기 벤치마크.
+ *
+ * - 이전: Room 기본 설정 (기본 실행기, PRAGMA 없음)
+ * - 이후: [DatabaseConfig] (전용 읽기/쓰기 실행기, 연결별 PRAGMA)
+ * - 참고: 전용 실행기는 그대로 두고 저널만 TRUNCATE로 바꾼 경우 (WAL 효과 확인용)
+ *
+ * 같은 기록을 채운 DB마다 쓰기 코루틴이 일일 기록 저장(롤업 갱신 포함)을 쉬지 않고 반복하는 동안
+ * 화면이 여는 읽기 묶음(통계 요약, 이번 달 롤업, 최근 기록, 마일스톤 목록)의 지연을 잽니다.
+ * 결과는 logcat의 [TAG] 태그로 출력되며, 기기·부하에 따라 값이 달라지므로 판정은 하지 않습니다.
+ *
+ * 실행: ./gradlew :app:connectedDebugAndroidTest
+ *   -Pandroid.testInstrumentationRunnerArguments.class=com.sobercompanion.data.local.ConcurrentReadBenchmark
+ */
+@RunWith(AndroidJUnit4::class)
+class ConcurrentReadBenchmark {
+
+    private val context = ApplicationProvider.getApplicationContext<Context>()
+
+    @Test
+    fun readLatencyWhileWorkerWrites() = runBlocking {
+        val variants = listOf<Pair<String, (String) -> SoberDatabase>>(
+            "이전 (Room 기본)" to { name ->
+                Room.databaseBuilder(context, SoberDatabase::class.java, name).build()
+            },
+            "이후 (DatabaseConfig)" to { name ->
+                SoberDatabase.create(context, name, DatabaseConfig())
+            },
+            "참고 (전용 실행기 + TRUNCATE 저널)" to { name ->
+                Room.databaseBuilder(context, SoberDatabase::class.java, name)
+                    .setJournalMode(RoomDatabase.JournalMode.TRUNCATE)
+                    .setQueryExecutor(DatabaseConfig().createQueryExecutor())
+                    .setTransactionExecutor(DatabaseConfig().createTransactionExecutor())
+                    .build()
+            }
+        )
+
+        for ((label, open) in variants) {
+            val result = measure(open)
+            Log.i(TAG, "$label: $result")
+        }
+    }
+
+    private suspend fun measure(open: (String) -> SoberDatabase): Result = coroutineScope {
+        context.deleteDatabase(DB_NAME)
+        val database = open(DB_NAME)
+        val dao = database.sobrietyDao()
+        try {
+            seed(database)
+
+            val today = LocalDate.of(2024, 6, 30)
+            suspend fun readScreens() {
+                dao.getStatisticsSummary(today, 7).first()
+                dao.getRollup(RollupPeriod.MONTH, RollupPeriod.MONTH.startOf(today)).first()
+                dao.getRecentDailyLogs(7).first()
+                dao.getAllMilestones().first()
+            }
+            repeat(WARMUP_READS) { readScreens() }
+
+            // Worker처럼 쉬지 않고 쓰기 (기존 날짜를 번갈아 덮어써 롤업 갱신까지 포함)
+            val writes = AtomicInteger()
+            val writer = launch(Dispatchers.IO) {
+                var day = 0L
+                while (isActive) {
+                    val date = FIRST_DAY.plusDays(day++ % SEED_DAYS)
+                    dao.upsertDailyLogAndRollups(log(date, salt = writes.get()))
+                    writes.incrementAndGet()
+                }
+            }
+
+            val latencies = LongArray(MEASURED_READS)
+            for (i in latencies.indices) {
+                val start = System.nanoTime()
+                readScreens()
+                latencies[i] = System.nanoTime() - start
+            }
+            writer.cancelAndJoin()
+
+            latencies.sort()
+            Result(
+                p50Micros = latencies[latencies.size / 2] / 1_000,
+                p95Micros = latencies[latencies.size * 95 / 100] / 1_000,
+                maxMicros = latencies.last() / 1_000,
+                writes = writes.get()
+            )
+        } finally {
+            database.close()
+            context.deleteDatabase(DB_NAME)
+        }
+    }
+
+    /** [SEED_DAYS]일치 기록과 기본 마일스톤을 한 트랜잭션으로 채우고 롤업을 계산합니다 */
+    private suspend fun seed(database: SoberDatabase) {
+        val dao = database.sobrietyDao()
+        database.withTransaction {
+            for (day in 0 until SEED_DAYS) {
+                dao.insertDailyLog(log(FIRST_DAY.plusDays(day), salt = day.toInt()))
+            }
+            if (dao.getAllMilestones().first().isEmpty()) {
+                dao.insertMilestones(
+                    SeedData.MILESTONES.map { (title, description, days) ->
+                        Milestone(title = title, description = description, targetDays = days)
+                    }
+                )
+            }
+        }
+        dao.rebuildRollups()
+    }
+
+    private fun log(date: LocalDate, salt: Int) = DailyLog(
+        date = date,
+        mood = salt % 5 + 1,
+        cravingLevel = (salt * 7) % 5 + 1,
+        didDrink = salt % 11 == 0,
+        drinkAmount = if (salt % 11 == 0) 2 else 0,
+        note = "벤치마크 기록 $salt",
+        createdAt = date.atTime(21, 0)
+    )
+
+    private data class Result(val p50Micros: Long, val p95Micros: Long, val maxMicros: Long, val writes: Int) {
+        override fun toString() =
+            "읽기 p50 ${p50Micros}µs, p95 ${p95Micros}µs, 최대 ${maxMicros}µs (측정 중 쓰기 ${writes}건)"
+    }
+
+    companion object {
+        private const val TAG = "DbBenchmark"
+        private const val DB_NAME = "benchmark_db"
+
+        private val FIRST_DAY: LocalDate = LocalDate.of(2021, 7, 1)
+        private const val SEED_DAYS = 1_095L
+        private const val WARMUP_READS = 20
+        private const val MEASURED_READS = 300
+    }
+}
@@ -0,0 +1,100 @@
+package com.sobercompanion
+
+import android.content.Context
+import androidx.work.WorkManager
+import com.sobercompanion.data.AppDataStore
+import com.sobercompanion.data.SoberRepository
+import com.sobercompanion.data.datastore.UserPreferencesRepository
+import com.sobercompanion.data.local.SoberDatabase
+import com.sobercompanion.data.local.dao.SobrietyDao
+import com.sobercompanion.data.repository.HistoryRepository
+import com.sobercompanion.data.repository.QuoteRepository
+import com.sobercompanion.data.repository.SobrietyRepository
+import com.sobercompanion.util.DayBoundaryMonitor
+import com.sobercompanion.util.SystemTimeSource
+import com.sobercompanion.util.TimeSource
+import com.sobercompanion.workers.BackgroundScheduler
+import com.sobercompanion.workers.WorkManagerQueue
+import com.sobercompanion.workers.WorkQueue
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.SupervisorJob
+
+/**
+ * 앱 전역 의존성 컨테이너. [SoberCompanionApp]이 하나만 만들어 보유합니다.
+ *
+ * 화면·ViewModel·Worker는 Repository를 직접 생성하지 않고 여기서 꺼내 씁니다.
+ * Repository가 하나뿐이므로 그 안의 공유 Flow(앱 스코프에서 shareIn)도 하나뿐이고,
+ * 화면을 오가도 이미 메모리에 있는 조회 결과를 다시 쿼리하지 않습니다.
+ *
+ * 시계·스코프·오늘 상태 저장소·작업 큐는 생성자에서 바꿀 수 있어, 테스트는 가상 시간 위에서
+ * 같은 컨테이너를 조립해 화면 ViewModel과 Worker를 그대로 실행할 수 있습니다. (YearReplayTest 참고)
+ *
+ * @param context Application Context
+ * @param database 앱 전체에서 공유하는 Room DB
+ * @param timeSource 앱 전체가 쓰는 시계. 현재 시각·날짜가 필요한 곳은 모두 이 시계를 씁니다
+ * @param appScope 공유 Flow를 유지하는 앱 수명 스코프.
+ *   한 구독의 실패가 다른 공유 Flow를 취소하지 않도록 SupervisorJob을 사용합니다
+ * @param appDataStore 오늘 세션 상태 저장소 (sober_state.pb)
+ * @param workQueue 백그라운드 작업을 예약하는 큐 (기본값은 WorkManager)
+ */
+class AppContainer(
+    context: Context,
+    val database: SoberDatabase,
+    val timeSource: TimeSource = SystemTimeSource,
+    val appScope: CoroutineScope = CoroutineScope(SupervisorJob() + Dispatchers.Default),
+    val appDataStore: AppDataStore = AppDataStore(context),
+    workQueue: WorkQueue = WorkManagerQueue(WorkManager.getInstance(context))
+) {
+
+    val sobrietyDao: SobrietyDao = database.sobrietyDao()
+
+    /** 앱 전체가 함께 쓰는 오늘 날짜. 날짜에 따라 달라지는 Flow는 모두 이 값을 구독합니다 */
+    val dayBoundaryMonitor: DayBoundaryMonitor = DayBoundaryMonitor(context, timeSource)
+
+    /** 사용자 설정 저장소 */
+    val userPreferencesRepository: UserPreferencesRepository = UserPreferencesRepository(context)
+
+    /** 금주 기록·일일 로그·마일스톤·통계 Repository (공유 Flow 보유) */
+    val sobrietyRepository: SobrietyRepository = SobrietyRepository(sobrietyDao, appScope, dayBoundaryMonitor.today, timeSource)
+
+    /** 홈 화면 금주 추적 Repository. 활성 금주 기록은 [sobrietyRepository]의 공유 Flow를 함께 씁니다 */
+    val soberRepository: SoberRepository =
+        SoberRepository(
+            dataStore = appDataStore,
+            dao = sobrietyDao,
+            today = dayBoundaryMonitor.today,
+            timeSource = timeSource,
+            activeRecord = sobrietyRepository.activeSobrietyRecord
+        )
+
+    /** 기록 알림·위로 메시지 준비·날짜 변경 리셋을 WorkManager 작업 하나로 예약하는 스케줄러 */
+    val backgroundScheduler: BackgroundScheduler =
+        BackgroundScheduler(
+            context,
+            appDataStore,
+            userPreferencesRepository,
+            dayBoundaryMonitor,
+            appScope,
+            timeSource,
+            workQueue
+        )
+
+    /** 이력 화면 페이징 Repository */
+    val historyRepository: HistoryRepository by lazy { HistoryRepository(database) }
+
+    /**
+     * 명언 랜덤 선택 Repository (메모리 캐시 보유).
+     * DB InvalidationTracker에 옵저버를 등록하므로 앱 전체에서 하나만 생성합니다.
+     */
+    val quoteRepository: QuoteRepository by lazy { QuoteRepository(database, timeSource = timeSource) }
+}
+
+/**
+ * [AppContainer]를 보유한 Application. 앱에서는 [SoberCompanionApp]입니다.
+ * ViewModel·Worker는 Application을 이 타입으로 보고 컨테이너를 꺼내므로,
+ * 테스트는 자기 Application에 가짜 시계·저장소로 만든 컨테이너를 넣어 같은 코드를 실행할 수 있습니다.
+ */
+interface AppContainerOwner {
+    val container: AppContainer
+}
@@ -1,5 +1,6 @@
 package com.sobercompanion
 
+import android.content.Intent
 import android.os.Bundle
 import androidx.activity.ComponentActivity
 import androidx.activity.compose.setContent
@@ -7,20 +8,34 @@ import androidx.activity.enableEdgeToEdge
 import androidx.compose.foundation.layout.fillMaxSize
 import androidx.compose.material3.MaterialTheme
 import androidx.compose.material3.Surface
+import androidx.compose.runtime.getValue
+import androidx.compose.runtime.mutableIntStateOf
+import androidx.compose.runtime.setValue
 import androidx.compose.ui.Modifier
+import androidx.lifecycle.lifecycleScope
 import com.sobercompanion.ui.SoberCompanionNavHost
 import com.sobercompanion.ui.theme.SoberCompanionTheme
+import com.sobercompanion.util.ShakyTimerNotification
+import kotlinx.coroutines.launch
 
 /**
  * 앱의 유일한 Activity. 싱글 액티비티 패턴을 사용합니다.
  *
  * 화면 전환은 Jetpack Navigation Compose로 처리되므로
  * 이 Activity에는 UI 로직이 거의 없습니다.
+ * 흔들림 타이머 알림으로 열리면 홈 화면으로 돌아가 위로 메시지 카드를 엽니다.
  */
 class MainActivity : ComponentActivity() {
+
+    /** 알림으로 위로 메시지를 요청받은 횟수. 값이 바뀌면 내비게이션이 홈 화면으로 돌아감 */
+    private var comfortRequest by mutableIntStateOf(0)
+
     override fun onCreate(savedInstanceState: Bundle?) {
         super.onCreate(savedInstanceState)
 
+        // 화면 회전 등으로 다시 만들어질 때는 같은 Intent를 다시 처리하지 않음
+        if (savedInstanceState == null) handleIntent(intent)
+
         // 상태바/내비게이션바 영역까지 콘텐츠를 확장 (Edge-to-Edge)
         enableEdgeToEdge()
 
@@ -32,9 +47,21 @@ class MainActivity : ComponentActivity() {
                     color = MaterialTheme.colorScheme.background
                 ) {
                     // 앱 전체 네비게이션 그래프 진입점
-                    SoberCompanionNavHost()
+                    SoberCompanionNavHost(openComfortRequest = comfortRequest)
                 }
             }
         }
     }
+
+    override fun onNewIntent(intent: Intent) {
+        super.onNewIntent(intent)
+        handleIntent(intent)
+    }
+
+    private fun handleIntent(intent: Intent?) {
+        if (intent?.getBooleanExtra(ShakyTimerNotification.EXTRA_OPEN_COMFORT, false) != true) return
+        val repository = (application as AppContainerOwner).container.soberRepository
+        lifecycleScope.launch { repository.reopenComfortMessage() }
+        comfortRequest++
+    }
 }
@@ -11,17 +11,23 @@ import com.sobercompanion.data.local.SoberDatabase
  *
  * 역할:
  * - Room 데이터베이스 싱글턴 초기화
+ * - 앱 전역 의존성 컨테이너([AppContainer]) 보유
  * - Android 8.0(Oreo) 이상에서 알림 채널 생성
+ * - 백그라운드 작업 예약 시작 (BackgroundScheduler)
  * - 전역 인스턴스 제공 (WorkManager 콜백 등에서 Context 필요 시)
  *
  * AndroidManifest.xml의 android:name 속성에 등록되어 있습니다.
  */
-class SoberCompanionApp : Application() {
+class SoberCompanionApp : Application(), AppContainerOwner {
 
     /** 앱 전체에서 공유하는 Room DB 인스턴스 */
     lateinit var database: SoberDatabase
         private set
 
+    /** 앱 전체에서 공유하는 Repository 모음. 화면·Worker는 Repository를 직접 만들지 말고 여기서 꺼내 씁니다 */
+    override lateinit var container: AppContainer
+        private set
+
     override fun onCreate() {
         super.onCreate()
 
@@ -30,9 +36,13 @@ class SoberCompanionApp : Application() {
 
         // DB는 앱 시작 시 한 번만 초기화 (Singleton)
         database = SoberDatabase.getInstance(this)
+        container = AppContainer(this, database)
 
         // Android O(API 26) 이상에서는 알림 채널이 필수
         createNotificationChannel()
+
+        // 기록 알림·위로 메시지·날짜 변경 작업을 상태에 맞춰 예약 (이후 상태가 바뀌면 자동으로 다시 예약)
+        container.backgroundScheduler.start()
     }
 
     /**
@@ -42,6 +52,9 @@ class SoberCompanionApp : Application() {
      * 생성된 채널: "금주 알림" (중요도: 기본)
      * - 흔들림 후 위로 메시지 알림에 사용 (현재 버전에서는 앱 내 카드로 표시)
      * - 매일 저녁 리마인더 알림에 사용
+     *
+     * 생성된 채널: "흔들림 타이머" (중요도: 낮음)
+     * - 흔들림 후 카운트다운 진행 중 알림에 사용 (소리·진동 없이 알림창에만 표시)
      */
     private fun createNotificationChannel() {
         if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
@@ -52,9 +65,16 @@ class SoberCompanionApp : Application() {
             ).apply {
                 description = "금주 기록 및 응원 알림"
             }
+            val shakyTimerChannel = NotificationChannel(
+                SHAKY_TIMER_CHANNEL_ID,
+                "흔들림 타이머",
+                NotificationManager.IMPORTANCE_LOW
+            ).apply {
+                description = "흔들림 기록 후 위로 메시지까지 남은 시간"
+            }
 
             val notificationManager = getSystemService(NotificationManager::class.java)
-            notificationManager.createNotificationChannel(channel)
+            notificationManager.createNotificationChannels(listOf(channel, shakyTimerChannel))
         }
     }
 
@@ -62,6 +82,9 @@ class SoberCompanionApp : Application() {
         /** WorkManager/Worker에서 알림 전송 시 사용하는 채널 ID */
         const val NOTIFICATION_CHANNEL_ID = "sober_companion_channel"
 
+        /** 흔들림 타이머 카운트다운 알림 채널 ID */
+        const val SHAKY_TIMER_CHANNEL_ID = "shaky_timer_channel"
+
         /**
          * Application 인스턴스 전역 참조.
          * Activity 없이 Context가 필요한 곳(Worker 등)에서만 사용하세요.
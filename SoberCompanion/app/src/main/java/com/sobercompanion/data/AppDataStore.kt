@@ -1,190 +1,261 @@
 package com.sobercompanion.data
 
 import android.content.Context
+import androidx.datastore.core.DataMigration
 import androidx.datastore.core.DataStore
+import androidx.datastore.core.handlers.ReplaceFileCorruptionHandler
+import androidx.datastore.dataStore
 import androidx.datastore.preferences.core.Preferences
 import androidx.datastore.preferences.core.booleanPreferencesKey
 import androidx.datastore.preferences.core.edit
 import androidx.datastore.preferences.core.intPreferencesKey
 import androidx.datastore.preferences.core.stringPreferencesKey
 import androidx.datastore.preferences.preferencesDataStore
+import androidx.datastore.preferences.preferencesDataStoreFile
 import kotlinx.coroutines.flow.Flow
+import kotlinx.coroutines.flow.distinctUntilChanged
+import kotlinx.coroutines.flow.first
 import kotlinx.coroutines.flow.map
+import java.io.File
+import java.time.Instant
 import java.time.LocalDate
 import java.time.LocalDateTime
 import java.time.format.DateTimeFormatter
 
 /**
- * Context 확장 프로퍼티로 DataStore 인스턴스를 생성합니다.
- * 앱 전역에서 동일한 "sober_data" 파일을 공유합니다.
+ * 오늘 상태를 담는 타입 지정 DataStore. 앱 전역에서 동일한 "sober_state.pb" 파일을 공유합니다.
+ *
+ * 처음 열 때 이전 버전의 Preferences 파일(sober_data)에서 오늘 상태를 한 번 옮겨옵니다.
+ * 파일이 손상되면 기본값으로 다시 시작합니다. (오늘 상태는 하루 단위라 잃어도 복구 가능)
+ */
+val Context.soberStateStore: DataStore<SoberSnapshot> by dataStore(
+    fileName = "sober_state.pb",
+    serializer = SoberSnapshotSerializer,
+    corruptionHandler = ReplaceFileCorruptionHandler { SoberSnapshot() },
+    produceMigrations = { context ->
+        listOf(SoberDataMigration(context.preferencesDataStoreFile(LEGACY_FILE_NAME), context.legacySoberDataStore))
+    }
+)
+
+/**
+ * 이전 버전이 쓰던 Preferences DataStore. 이전(migration) 용도로만 읽고 새로 쓰지 않습니다.
  */
-val Context.soberDataStore: DataStore<Preferences> by preferencesDataStore(name = "sober_data")
+private val Context.legacySoberDataStore: DataStore<Preferences> by preferencesDataStore(name = LEGACY_FILE_NAME)
+
+private const val LEGACY_FILE_NAME = "sober_data"
+
+/**
+ * 이전 버전 sober_data 파일의 키 상수 모음.
+ * 키 이름은 기존 파일과 일치해야 하므로 바꾸지 마세요.
+ */
+private object LegacyKeys {
+    // 시작일은 이제 Room의 활성 금주 기록에 있으며 이전 후 삭제됨
+    val START_DATE = stringPreferencesKey("start_date")         // 금주 시작 날짜 (ISO-8601)
+    val CURRENT_STREAK = intPreferencesKey("current_streak")     // 연속 금주 일수
+    // 흔들림 기록은 이제 Room의 shaky_events에 있으며 이전 후 삭제됨
+    val SHAKY_COUNT_TODAY = intPreferencesKey("shaky_count_today") // 오늘 흔들림 횟수
+    val SHAKY_TIMESTAMPS = stringPreferencesKey("shaky_timestamps") // 발생 시각 목록 ("|" 구분)
+    // 오늘 상태는 sober_state.pb로 옮겨진 뒤 삭제됨
+    val LAST_RECORD_DATE = stringPreferencesKey("last_record_date") // 마지막 기록 날짜
+    val DAILY_STATUS = stringPreferencesKey("daily_status")       // 오늘 상태 (SUCCESS/SHAKY/FAIL)
+    val COMFORT_READY_FLAG = booleanPreferencesKey("comfort_ready_flag") // 위로 메시지 표시 준비 플래그
+    val COMFORT_MESSAGE_SHOWN = booleanPreferencesKey("comfort_message_shown") // 위로 메시지 확인 여부
+
+    val SESSION_KEYS = listOf(LAST_RECORD_DATE, DAILY_STATUS, COMFORT_READY_FLAG, COMFORT_MESSAGE_SHOWN)
+}
+
+/**
+ * sober_data의 오늘 상태 키를 [SoberSnapshot]으로 옮기는 DataStore 마이그레이션.
+ *
+ * 옮긴 키만 지우고, 시작일·흔들림 기록 키는 Room 이전([AppDataStore.takeLegacyStartDate] 등)이
+ * 가져갈 때까지 남겨 둡니다. 이전 파일이 없으면 새로 만들지 않고 바로 건너뜁니다.
+ *
+ * @param legacyFile 이전 sober_data 파일 (존재 여부 확인용)
+ * @param legacyStore [legacyFile]을 여는 Preferences DataStore
+ */
+internal class SoberDataMigration(
+    private val legacyFile: File,
+    private val legacyStore: DataStore<Preferences>
+) : DataMigration<SoberSnapshot> {
+
+    override suspend fun shouldMigrate(currentData: SoberSnapshot): Boolean {
+        if (!legacyFile.exists()) return false
+        val prefs = legacyStore.data.first()
+        return LegacyKeys.SESSION_KEYS.any { it in prefs }
+    }
+
+    override suspend fun migrate(currentData: SoberSnapshot): SoberSnapshot {
+        val prefs = legacyStore.data.first()
+        return SoberSnapshot(
+            lastRecordDate = prefs[LegacyKeys.LAST_RECORD_DATE]
+                ?.let { LocalDate.parse(it, DateTimeFormatter.ISO_LOCAL_DATE) },
+            dailyStatus = RecordStatus.fromString(prefs[LegacyKeys.DAILY_STATUS]),
+            comfortReady = prefs[LegacyKeys.COMFORT_READY_FLAG] ?: false,
+            comfortShown = prefs[LegacyKeys.COMFORT_MESSAGE_SHOWN] ?: false
+        )
+    }
+
+    override suspend fun cleanUp() {
+        legacyStore.edit { prefs ->
+            LegacyKeys.SESSION_KEYS.forEach { prefs.remove(it) }
+        }
+    }
+}
 
 /**
  * 금주 앱의 실시간 세션 데이터를 저장하는 DataStore 래퍼 클래스.
  *
  * Room DB와의 역할 분리:
- * - AppDataStore: 빠른 읽기/쓰기가 필요한 현재 상태 (오늘 기록, 스트릭, 타이머 등)
- * - Room DB: 장기 이력 보관 및 복잡한 쿼리 (통계, 마일스톤 등)
+ * - AppDataStore: 하루 단위로 초기화되는 오늘 상태 (오늘 기록, 위로 메시지 등)
+ * - Room DB: 금주 시작일·연속 일수의 기준인 활성 금주 기록, 흔들림 기록, 장기 이력, 통계, 마일스톤
  *
+ * 오늘 상태는 [SoberSnapshot] 하나로 sober_state.pb에 저장됩니다. ([SoberSnapshotSerializer] 참고)
  * 모든 Flow는 데이터 변경 시 자동으로 UI에 반영됩니다.
- * 타임스탬프 목록은 "|" 구분자로 직렬화하여 단일 문자열로 저장합니다.
+ *
+ * @param context 이전 버전 sober_data 파일을 찾는 데 쓰는 Context
+ * @param store 오늘 상태 DataStore. 앱에서는 [soberStateStore], 테스트에서는 임시 파일 DataStore를 넘깁니다
  */
-class AppDataStore(private val context: Context) {
-
-    /**
-     * DataStore 키 상수 모음.
-     * 키 이름 변경 시 기존 사용자의 데이터가 손실되므로 신중하게 수정해야 합니다.
-     */
-    private object Keys {
-        val START_DATE = stringPreferencesKey("start_date")           // 금주 시작 날짜 (ISO-8601)
-        val CURRENT_STREAK = intPreferencesKey("current_streak")      // 연속 금주 일수
-        val LAST_RECORD_DATE = stringPreferencesKey("last_record_date") // 마지막 기록 날짜
-        val DAILY_STATUS = stringPreferencesKey("daily_status")       // 오늘 상태 (SUCCESS/SHAKY/FAIL)
-        val SHAKY_COUNT_TODAY = intPreferencesKey("shaky_count_today") // 오늘 흔들림 횟수
-        val SHAKY_TIMESTAMPS = stringPreferencesKey("shaky_timestamps") // 흔들림 발생 시각 목록 ("|" 구분)
-        val COMFORT_READY_FLAG = booleanPreferencesKey("comfort_ready_flag") // 위로 메시지 표시 준비 플래그
-        val COMFORT_MESSAGE_SHOWN = booleanPreferencesKey("comfort_message_shown") // 위로 메시지 확인 여부
-    }
+class AppDataStore(
+    private val context: Context,
+    private val store: DataStore<SoberSnapshot> = context.soberStateStore
+) {
 
     private val dateFormatter = DateTimeFormatter.ISO_LOCAL_DATE
     private val dateTimeFormatter = DateTimeFormatter.ISO_LOCAL_DATE_TIME
 
     // ========== Read Operations (Flow) ==========
-    // 각 Flow는 DataStore 값이 바뀌면 자동으로 새 값을 emit합니다.
+    // DataStore가 파일을 읽을 때 SoberSnapshot을 한 번만 만들고,
+    // 필드 Flow는 스냅샷에서 꺼낸 값이 바뀔 때만 emit합니다.
 
-    /** 금주 시작 날짜. 온보딩 미완료 또는 아직 설정 전이면 null */
-    val startDate: Flow<LocalDate?> = context.soberDataStore.data.map { prefs ->
-        prefs[Keys.START_DATE]?.let { LocalDate.parse(it, dateFormatter) }
-    }
-
-    /** 현재 연속 금주 일수. 자정마다 또는 음주 기록 시 업데이트됨 */
-    val currentStreak: Flow<Int> = context.soberDataStore.data.map { prefs ->
-        prefs[Keys.CURRENT_STREAK] ?: 0
-    }
+    /** 오늘 상태 전체. 값이 같은 emit은 건너뜁니다 */
+    val snapshot: Flow<SoberSnapshot> = store.data.distinctUntilChanged()
 
     /** 마지막으로 상태를 기록한 날짜. 자정 리셋 여부 판단에 사용됨 */
-    val lastRecordDate: Flow<LocalDate?> = context.soberDataStore.data.map { prefs ->
-        prefs[Keys.LAST_RECORD_DATE]?.let { LocalDate.parse(it, dateFormatter) }
-    }
+    val lastRecordDate: Flow<LocalDate?> = field { it.lastRecordDate }
 
     /** 오늘의 금주 상태. 알 수 없는 값이면 SUCCESS로 기본 처리됨 */
-    val dailyStatus: Flow<RecordStatus> = context.soberDataStore.data.map { prefs ->
-        RecordStatus.fromString(prefs[Keys.DAILY_STATUS])
-    }
-
-    /** 오늘 흔들림 버튼을 누른 횟수. 자정에 0으로 초기화됨 */
-    val shakyCountToday: Flow<Int> = context.soberDataStore.data.map { prefs ->
-        prefs[Keys.SHAKY_COUNT_TODAY] ?: 0
-    }
-
-    /**
-     * 오늘 흔들림이 발생한 시각 목록.
-     * 저장 형식: "2024-01-15T10:30:00|2024-01-15T14:20:00"
-     * 가장 최근 타임스탬프를 기준으로 3시간 타이머를 복원하는 데 사용됨
-     */
-    val shakyTimestamps: Flow<List<LocalDateTime>> = context.soberDataStore.data.map { prefs ->
-        prefs[Keys.SHAKY_TIMESTAMPS]
-            ?.takeIf { it.isNotEmpty() }
-            ?.split(TIMESTAMP_DELIMITER)
-            ?.map { LocalDateTime.parse(it, dateTimeFormatter) }
-            ?: emptyList()
-    }
+    val dailyStatus: Flow<RecordStatus> = field { it.dailyStatus }
 
     /**
      * 위로 메시지 표시 준비 플래그.
-     * ComfortMessageWorker가 3시간 후 true로 설정하면 UI에 메시지 카드가 나타남.
+     * 흔들림 타이머가 끝나 ScheduledTasksWorker가 true로 설정하면 UI에 메시지 카드가 나타남.
      * 사용자가 메시지를 확인하면 false로 리셋됨
      */
-    val comfortReadyFlag: Flow<Boolean> = context.soberDataStore.data.map { prefs ->
-        prefs[Keys.COMFORT_READY_FLAG] ?: false
-    }
+    val comfortReadyFlag: Flow<Boolean> = field { it.comfortReady }
 
     /**
      * 위로 메시지 확인 여부.
      * true이면 같은 흔들림 이벤트에서 메시지가 중복 표시되지 않음.
      * 자정 리셋 시 false로 초기화됨
      */
-    val comfortMessageShown: Flow<Boolean> = context.soberDataStore.data.map { prefs ->
-        prefs[Keys.COMFORT_MESSAGE_SHOWN] ?: false
-    }
+    val comfortMessageShown: Flow<Boolean> = field { it.comfortShown }
 
-    // ========== Write Operations ==========
+    private fun <T> field(selector: (SoberSnapshot) -> T): Flow<T> =
+        snapshot.map(selector).distinctUntilChanged()
 
-    /** 금주 시작 날짜를 설정합니다. 온보딩 완료 또는 스트릭 리셋 시 호출됨 */
-    suspend fun setStartDate(date: LocalDate) {
-        context.soberDataStore.edit { prefs ->
-            prefs[Keys.START_DATE] = date.format(dateFormatter)
-        }
-    }
+    // ========== Write Operations ==========
 
-    /** 연속 금주 일수를 업데이트합니다. startDate로부터 계산된 값을 저장 */
-    suspend fun setCurrentStreak(streak: Int) {
-        context.soberDataStore.edit { prefs ->
-            prefs[Keys.CURRENT_STREAK] = streak
-        }
+    /**
+     * 한 번의 사용자 액션에 해당하는 필드 변경을 updateData 한 번(파일 쓰기·fsync 한 번)으로 적용합니다.
+     *
+     * [transform]은 현재 스냅샷을 받아 바뀐 스냅샷을 반환합니다. 읽기와 쓰기가 같은 edit 안에서
+     * 처리되므로 UI는 일부 필드만 바뀐 중간 상태를 보지 않습니다.
+     * 결과가 현재 값과 같으면 DataStore가 파일을 다시 쓰지 않습니다.
+     *
+     * 사용 예: `dataStore.update { it.copy(dailyStatus = RecordStatus.FAIL, lastRecordDate = today) }`
+     */
+    suspend fun update(transform: (SoberSnapshot) -> SoberSnapshot) {
+        store.updateData { current -> transform(current) }
     }
 
     /** 마지막 기록 날짜를 오늘로 업데이트합니다. 성공/실패 기록 시 호출됨 */
-    suspend fun setLastRecordDate(date: LocalDate) {
-        context.soberDataStore.edit { prefs ->
-            prefs[Keys.LAST_RECORD_DATE] = date.format(dateFormatter)
-        }
-    }
+    suspend fun setLastRecordDate(date: LocalDate) = update { it.copy(lastRecordDate = date) }
 
     /** 오늘의 금주 상태를 저장합니다 */
-    suspend fun setDailyStatus(status: RecordStatus) {
-        context.soberDataStore.edit { prefs ->
-            prefs[Keys.DAILY_STATUS] = status.name
-        }
-    }
+    suspend fun setDailyStatus(status: RecordStatus) = update { it.copy(dailyStatus = status) }
 
-    /** 흔들림 횟수를 직접 지정합니다 (주로 리셋 시 0으로 설정) */
-    suspend fun setShakyCountToday(count: Int) {
-        context.soberDataStore.edit { prefs ->
-            prefs[Keys.SHAKY_COUNT_TODAY] = count
-        }
-    }
+    /** 위로 메시지 표시 준비 플래그를 설정합니다 */
+    suspend fun setComfortReadyFlag(ready: Boolean) = update { it.copy(comfortReady = ready) }
+
+    /** 위로 메시지를 확인했음을 저장합니다 */
+    suspend fun setComfortMessageShown(shown: Boolean) = update { it.copy(comfortShown = shown) }
+
+    // ========== Legacy Migration ==========
 
-    /** 흔들림 타임스탬프 목록 전체를 교체합니다 */
-    suspend fun setShakyTimestamps(timestamps: List<LocalDateTime>) {
-        context.soberDataStore.edit { prefs ->
-            prefs[Keys.SHAKY_TIMESTAMPS] = timestamps
-                .joinToString(TIMESTAMP_DELIMITER) { it.format(dateTimeFormatter) }
+    /**
+     * 이전 버전이 저장한 금주 시작 날짜를 읽고 관련 키를 삭제합니다.
+     * 시작일을 Room으로 옮길 때 한 번만 사용합니다. 저장된 값이 없으면 null
+     */
+    suspend fun takeLegacyStartDate(): LocalDate? {
+        if (!hasLegacyFile()) return null
+        var startDate: LocalDate? = null
+        context.legacySoberDataStore.edit { prefs ->
+            startDate = prefs[LegacyKeys.START_DATE]?.let { LocalDate.parse(it, dateFormatter) }
+            prefs.remove(LegacyKeys.START_DATE)
+            prefs.remove(LegacyKeys.CURRENT_STREAK)
         }
+        return startDate
     }
 
     /**
-     * 새 흔들림 타임스탬프를 목록에 추가합니다.
-     * 기존 목록을 읽어서 새 항목을 덧붙이고, 카운트도 함께 업데이트합니다.
-     * DataStore의 트랜잭션 내에서 읽기/쓰기를 원자적으로 처리합니다.
+     * 이전 버전이 "|"로 이어 저장한 흔들림 시각 목록을 읽고 관련 키를 삭제합니다.
+     * shaky_events 테이블로 옮길 때 한 번만 사용합니다. 저장된 값이 없으면 빈 목록
      */
-    suspend fun addShakyTimestamp(timestamp: LocalDateTime) {
-        context.soberDataStore.edit { prefs ->
-            val current = prefs[Keys.SHAKY_TIMESTAMPS]
+    suspend fun takeLegacyShakyTimestamps(): List<LocalDateTime> {
+        if (!hasLegacyFile()) return emptyList()
+        var timestamps = emptyList<LocalDateTime>()
+        context.legacySoberDataStore.edit { prefs ->
+            timestamps = prefs[LegacyKeys.SHAKY_TIMESTAMPS]
                 ?.takeIf { it.isNotEmpty() }
                 ?.split(TIMESTAMP_DELIMITER)
-                ?.toMutableList()
-                ?: mutableListOf()
-
-            current.add(timestamp.format(dateTimeFormatter))
-            prefs[Keys.SHAKY_TIMESTAMPS] = current.joinToString(TIMESTAMP_DELIMITER)
-            prefs[Keys.SHAKY_COUNT_TODAY] = current.size
+                ?.map { LocalDateTime.parse(it, dateTimeFormatter) }
+                ?: emptyList()
+            prefs.remove(LegacyKeys.SHAKY_TIMESTAMPS)
+            prefs.remove(LegacyKeys.SHAKY_COUNT_TODAY)
         }
+        return timestamps
     }
 
-    /** 위로 메시지 표시 준비 플래그를 설정합니다 */
-    suspend fun setComfortReadyFlag(ready: Boolean) {
-        context.soberDataStore.edit { prefs ->
-            prefs[Keys.COMFORT_READY_FLAG] = ready
+    /** 새로 설치한 기기에서 빈 sober_data 파일을 만들지 않도록 존재 여부를 먼저 확인 */
+    private fun hasLegacyFile(): Boolean =
+        context.preferencesDataStoreFile(LEGACY_FILE_NAME).exists()
+
+    // ========== Export / Import ==========
+
+    /**
+     * 내보내기용 현재 상태 스냅샷 (키 이름 → String/Boolean 값).
+     * 키 이름과 값 형식은 이전 Preferences 시절과 같아 기존 백업 파일과 호환됩니다.
+     * 마지막 기록 날짜와 흔들림 타이머가 없으면 포함되지 않습니다. (data.backup.DataExporter 참고)
+     */
+    suspend fun exportState(): Map<String, Any> {
+        val state = snapshot.first()
+        return buildMap {
+            state.lastRecordDate?.let { put(KEY_LAST_RECORD_DATE, it.format(dateFormatter)) }
+            put(KEY_DAILY_STATUS, state.dailyStatus.name)
+            put(KEY_COMFORT_READY_FLAG, state.comfortReady)
+            put(KEY_COMFORT_MESSAGE_SHOWN, state.comfortShown)
+            state.shakyDeadline?.let { put(KEY_SHAKY_DEADLINE, it.toString()) }
         }
     }
 
-    /** 위로 메시지를 확인했음을 저장합니다 */
-    suspend fun setComfortMessageShown(shown: Boolean) {
-        context.soberDataStore.edit { prefs ->
-            prefs[Keys.COMFORT_MESSAGE_SHOWN] = shown
-        }
+    /**
+     * 가져온 상태로 전체를 교체합니다. 한 번의 쓰기로 처리되어 중간 상태가 보이지 않습니다.
+     * 알 수 없는 키나 타입·형식이 맞지 않는 값은 무시하고 기본값을 씁니다.
+     * 마지막 알림 날짜는 백업 대상이 아니므로 현재 값을 유지합니다.
+     */
+    suspend fun importState(values: Map<String, Any>) {
+        val imported = SoberSnapshot(
+            lastRecordDate = (values[KEY_LAST_RECORD_DATE] as? String)?.let {
+                runCatching { LocalDate.parse(it, dateFormatter) }.getOrNull()
+            },
+            dailyStatus = RecordStatus.fromString(values[KEY_DAILY_STATUS] as? String),
+            comfortReady = values[KEY_COMFORT_READY_FLAG] as? Boolean ?: false,
+            comfortShown = values[KEY_COMFORT_MESSAGE_SHOWN] as? Boolean ?: false,
+            shakyDeadline = (values[KEY_SHAKY_DEADLINE] as? String)?.let {
+                runCatching { Instant.parse(it) }.getOrNull()
+            }
+        )
+        store.updateData { current -> imported.copy(lastReminderDate = current.lastReminderDate) }
     }
 
     // ========== Batch Operations ==========
@@ -192,44 +263,35 @@ class AppDataStore(private val context: Context) {
     /**
      * 오늘의 일일 데이터를 초기 상태로 리셋합니다.
      * 자정이 지나거나 온보딩 완료 시 호출됩니다.
-     * startDate와 currentStreak는 유지됩니다.
      */
-    suspend fun resetDailyData() {
-        context.soberDataStore.edit { prefs ->
-            prefs[Keys.DAILY_STATUS] = RecordStatus.SUCCESS.name
-            prefs[Keys.SHAKY_COUNT_TODAY] = 0
-            prefs[Keys.SHAKY_TIMESTAMPS] = ""
-            prefs[Keys.COMFORT_READY_FLAG] = false
-            prefs[Keys.COMFORT_MESSAGE_SHOWN] = false
-        }
+    suspend fun resetDailyData() = update {
+        it.copy(dailyStatus = RecordStatus.SUCCESS, comfortReady = false, comfortShown = false, shakyDeadline = null)
     }
 
     /**
-     * 흔들림 관련 데이터만 리셋합니다.
+     * 위로 메시지 관련 데이터만 리셋합니다.
      * 자정이 지났을 때 새날을 시작하면서 호출됩니다.
-     * 금주 상태(SUCCESS/FAIL)는 유지됩니다.
+     * 금주 상태(SUCCESS/FAIL)는 유지되며, 흔들림 기록은 Room에 그대로 남습니다.
      */
-    suspend fun resetShakyAndComfortData() {
-        context.soberDataStore.edit { prefs ->
-            prefs[Keys.SHAKY_COUNT_TODAY] = 0
-            prefs[Keys.SHAKY_TIMESTAMPS] = ""
-            prefs[Keys.COMFORT_READY_FLAG] = false
-            prefs[Keys.COMFORT_MESSAGE_SHOWN] = false
-        }
-    }
+    suspend fun resetComfortData() = update { it.copy(comfortReady = false, comfortShown = false) }
 
     /**
      * 모든 데이터를 초기화합니다.
      * 앱 완전 리셋 또는 개발/테스트 목적으로만 사용하세요.
      */
     suspend fun resetAllData() {
-        context.soberDataStore.edit { prefs ->
-            prefs.clear()
-        }
+        store.updateData { SoberSnapshot() }
     }
 
     companion object {
-        /** 타임스탬프 목록 직렬화에 사용하는 구분자. 날짜 포맷에 포함되지 않는 문자여야 함 */
+        /** 이전 버전의 흔들림 시각 목록 구분자 */
         private const val TIMESTAMP_DELIMITER = "|"
+
+        // 내보내기/가져오기 키 이름 (이전 Preferences 키 이름과 동일)
+        private const val KEY_LAST_RECORD_DATE = "last_record_date"
+        private const val KEY_DAILY_STATUS = "daily_status"
+        private const val KEY_COMFORT_READY_FLAG = "comfort_ready_flag"
+        private const val KEY_COMFORT_MESSAGE_SHOWN = "comfort_message_shown"
+        private const val KEY_SHAKY_DEADLINE = "shaky_deadline" // ISO-8601 Instant
     }
 }
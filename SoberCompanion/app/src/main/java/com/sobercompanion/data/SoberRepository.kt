@@ -1,9 +1,23 @@
 package com.sobercompanion.data
 
+import com.sobercompanion.data.local.dao.ShakyDaySummary
+import com.sobercompanion.data.local.dao.SobrietyDao
+import com.sobercompanion.data.local.entity.DayOutcome
+import com.sobercompanion.data.local.entity.Milestone
+import com.sobercompanion.data.local.entity.ShakyEvent
+import com.sobercompanion.data.local.entity.SobrietyRecord
+import com.sobercompanion.util.SystemTimeSource
+import com.sobercompanion.util.TimeSource
+import kotlinx.coroutines.ExperimentalCoroutinesApi
 import kotlinx.coroutines.flow.Flow
+import kotlinx.coroutines.flow.StateFlow
 import kotlinx.coroutines.flow.combine
+import kotlinx.coroutines.flow.distinctUntilChanged
 import kotlinx.coroutines.flow.first
+import kotlinx.coroutines.flow.flatMapLatest
 import kotlinx.coroutines.flow.map
+import java.time.Duration
+import java.time.Instant
 import java.time.LocalDate
 import java.time.LocalDateTime
 import java.time.temporal.ChronoUnit
@@ -11,147 +25,209 @@ import java.time.temporal.ChronoUnit
 /**
  * 금주 추적 비즈니스 로직을 담당하는 Repository.
  *
- * AppDataStore를 직접 노출하지 않고 의미 있는 Flow와 액션으로 래핑합니다.
- * ViewModel은 이 클래스만 참조하며 DataStore 구조를 몰라도 됩니다.
+ * AppDataStore와 Room을 직접 노출하지 않고 의미 있는 Flow와 액션으로 래핑합니다.
+ * ViewModel은 이 클래스만 참조하며 저장 구조를 몰라도 됩니다.
+ *
+ * 금주 시작일과 연속 일수는 Room의 활성 금주 기록(sobriety_records)이 유일한 기준입니다.
+ * 홈 화면과 통계·마일스톤 화면이 같은 기록을 읽으므로 서로 다른 값을 보여주지 않습니다.
+ * 흔들림은 Room의 shaky_events에 한 건씩 추가되며, 오늘 횟수는 날짜 인덱스로 조회합니다.
+ * 성공/음주 액션의 Room 변경(하루 기록, 금주 기록, 마일스톤)은 DAO의 트랜잭션 한 번으로 처리되고,
+ * DataStore에는 오늘 상태만 씁니다. 액션 하나의 DataStore 변경(날짜가 바뀐 경우의 리셋 포함)은
+ * [AppDataStore.update] 한 번으로 모아서 씁니다.
+ *
+ * "오늘 기록했는지"의 기준은 Room의 day_outcomes입니다. 날짜당 한 행이라 같은 날 두 번 기록되지 않으며,
+ * 트랜잭션 커밋 뒤 DataStore를 쓰기 전에 앱이 종료돼도 다음 [ensureTracking]에서 DataStore를 맞춥니다.
  *
  * @param dataStore DataStore 래퍼 인스턴스
+ * @param dao 금주 기록 DAO
+ * @param today 앱 전체가 함께 쓰는 오늘 날짜 (DayBoundaryMonitor). 자정·시계·시간대 변경 시 바뀝니다
+ * @param timeSource 기록 시각과 흔들림 타이머 종료 시각을 정하는 시계
+ * @param activeRecord 활성 금주 기록 Flow. 앱에서는 SobrietyRepository의 공유 Flow를 넘겨 같은 구독을 씁니다
  */
-class SoberRepository(private val dataStore: AppDataStore) {
+class SoberRepository(
+    private val dataStore: AppDataStore,
+    private val dao: SobrietyDao,
+    private val today: StateFlow<LocalDate>,
+    private val timeSource: TimeSource = SystemTimeSource,
+    activeRecord: Flow<SobrietyRecord?> = dao.getActiveSobrietyRecord()
+) {
 
     // ========== Individual Flows ==========
-    // DataStore Flow를 그대로 노출합니다.
 
-    val startDate: Flow<LocalDate?> = dataStore.startDate
-    val currentStreak: Flow<Int> = dataStore.currentStreak
+    /** 활성 금주 기록의 시작 날짜. 아직 추적 전이면 null */
+    val startDate: Flow<LocalDate?> = activeRecord
+        .map { it?.startDate?.toLocalDate() }
+        .distinctUntilChanged()
+
+    /** 시작 날짜부터 오늘까지의 연속 금주 일수. 날짜가 바뀌면 다시 계산됩니다 */
+    val currentStreak: Flow<Int> = combine(startDate, today, ::streakDays).distinctUntilChanged()
+
+    // DataStore의 오늘 상태 Flow를 그대로 노출합니다.
+
     val lastRecordDate: Flow<LocalDate?> = dataStore.lastRecordDate
     val dailyStatus: Flow<RecordStatus> = dataStore.dailyStatus
-    val shakyCountToday: Flow<Int> = dataStore.shakyCountToday
-    val shakyTimestamps: Flow<List<LocalDateTime>> = dataStore.shakyTimestamps
     val comfortReadyFlag: Flow<Boolean> = dataStore.comfortReadyFlag
     val comfortMessageShown: Flow<Boolean> = dataStore.comfortMessageShown
 
+    /** 오늘 흔들림 횟수와 마지막 시각. 날짜가 바뀌면 새 날짜로 다시 조회합니다 */
+    @OptIn(ExperimentalCoroutinesApi::class)
+    val shakyToday: Flow<ShakyDaySummary> = today.flatMapLatest { dao.getShakyDaySummary(it) }
+
     // ========== Derived Flows ==========
     // 저장된 값에서 파생된 계산 결과를 Flow로 제공합니다.
 
     /** 금주 추적이 시작됐는지 여부 (startDate가 설정되어 있으면 true) */
     val isTracking: Flow<Boolean> = startDate.map { it != null }
 
-    /**
-     * startDate로부터 오늘까지의 실제 경과 일수.
-     * currentStreak(저장값)과 다를 수 있으니 주의하세요.
-     * currentStreak는 자정 리셋 시 업데이트되므로, 앱이 오랫동안 실행되지 않았다면
-     * 이 값이 더 정확합니다.
-     */
-    val actualStreakDays: Flow<Int> = startDate.map { start ->
-        start?.let {
-            ChronoUnit.DAYS.between(it, LocalDate.now()).toInt()
-        } ?: 0
-    }
-
     /**
      * 오늘 기록이 필요한지 여부.
      * lastRecordDate가 null이거나 오늘 이전 날짜면 true를 emit합니다.
      */
-    val needsDailyReset: Flow<Boolean> = lastRecordDate.map { lastDate ->
-        lastDate == null || lastDate.isBefore(LocalDate.now())
+    val needsDailyReset: Flow<Boolean> = combine(lastRecordDate, today) { lastDate, date ->
+        lastDate == null || lastDate.isBefore(date)
     }
 
     /**
      * 오늘 하루의 상태를 하나의 Flow로 묶어서 제공합니다.
      * 홈 화면에서 여러 값을 개별 구독하는 대신 이 Flow 하나만 구독하면 됩니다.
      */
-    val todayState: Flow<TodayState> = combine(
-        dailyStatus,
-        shakyCountToday,
-        shakyTimestamps,
-        comfortReadyFlag,
-        comfortMessageShown
-    ) { status, shakyCount, timestamps, comfortReady, comfortShown ->
-        TodayState(
-            status = status,
-            shakyCount = shakyCount,
-            shakyTimestamps = timestamps,
-            comfortReady = comfortReady,
-            comfortShown = comfortShown
-        )
-    }
+    val todayState: Flow<TodayState> = combine(dataStore.snapshot, shakyToday, ::toTodayState)
 
     /**
      * 앱 전체 상태를 하나의 Flow로 묶어서 제공합니다.
      * MainViewModel의 uiState를 구성하는 데 사용됩니다.
+     *
+     * DataStore는 스냅샷 하나만 구독하므로 한 번의 쓰기가 디코딩 한 번, 상태 객체 하나로 이어집니다.
+     * (todayState·currentStreak를 다시 combine하면 같은 소스를 두 번 구독하게 되므로 여기서 직접 만듭니다)
      */
     val fullState: Flow<SoberState> = combine(
         startDate,
-        currentStreak,
-        lastRecordDate,
-        todayState
-    ) { start, streak, lastRecord, today ->
+        today,
+        dataStore.snapshot,
+        shakyToday
+    ) { start, date, snapshot, shaky ->
         SoberState(
             startDate = start,
-            currentStreak = streak,
-            lastRecordDate = lastRecord,
-            todayState = today
+            currentStreak = streakDays(start, date),
+            lastRecordDate = snapshot.lastRecordDate,
+            todayState = toTodayState(snapshot, shaky)
         )
-    }
+    }.distinctUntilChanged()
+
+    private fun streakDays(start: LocalDate?, date: LocalDate): Int =
+        start?.let { ChronoUnit.DAYS.between(it, date).toInt() } ?: 0
+
+    private fun toTodayState(snapshot: SoberSnapshot, shaky: ShakyDaySummary) = TodayState(
+        status = snapshot.dailyStatus,
+        shakyCount = shaky.count,
+        lastShakyAt = shaky.lastAt,
+        comfortReady = snapshot.comfortReady,
+        comfortShown = snapshot.comfortShown,
+        shakyDeadline = snapshot.shakyDeadline
+    )
 
     // ========== Actions ==========
 
     /**
-     * 금주 추적을 시작합니다.
-     * 온보딩 완료 시 또는 스트릭 재시작 시 호출됩니다.
+     * 활성 금주 기록이 없으면 추적을 시작합니다. 앱 시작 시 호출됩니다.
      *
-     * @param date 금주 시작 날짜 (기본값: 오늘)
+     * 이전 버전이 DataStore에 저장한 시작 날짜가 있으면 그 날짜로 Room 기록을 만들고
+     * DataStore 값은 삭제합니다. 없으면 오늘부터 시작합니다.
+     * DataStore에 남은 흔들림 시각 목록도 shaky_events로 옮기고,
+     * 오늘의 성공/음주 기록이 DataStore에 반영되지 않았으면 반영합니다.
      */
-    suspend fun startTracking(date: LocalDate = LocalDate.now()) {
-        dataStore.setStartDate(date)
-        dataStore.setCurrentStreak(0)
-        dataStore.resetDailyData()
+    suspend fun ensureTracking() {
+        val legacyShaky = dataStore.takeLegacyShakyTimestamps()
+        if (legacyShaky.isNotEmpty()) {
+            dao.insertShakyEvents(legacyShaky.map { ShakyEvent(day = it.toLocalDate(), occurredAt = it) })
+        }
+
+        // 오늘 기록이 Room에만 있으면(DataStore를 쓰기 전에 종료) DataStore를 맞춤
+        val outcome = dao.getDayOutcome(today.value)
+        if (outcome != null && dataStore.snapshot.first().lastRecordDate != outcome.date) {
+            applyDayOutcome(outcome, advanceDate())
+        }
+
+        val legacyStart = dataStore.takeLegacyStartDate()
+        if (dao.getActiveSobrietyRecordOnce() != null) return
+
+        dao.ensureActiveSobriety((legacyStart ?: today.value).atStartOfDay())
+        if (legacyStart == null) dataStore.resetDailyData()
     }
 
-    /** 모든 데이터를 초기화하고 추적을 중단합니다 */
+    /** 진행 중인 금주 기록을 종료하고 오늘 상태를 모두 초기화해 추적을 중단합니다 */
     suspend fun resetTracking() {
+        dao.stopTracking(timeSource.localNow(), today.value)
         dataStore.resetAllData()
     }
 
-    /** 오늘부터 새로 금주를 시작합니다 (음주 후 재시작과 동일) */
-    suspend fun restartFromToday() {
-        startTracking(LocalDate.now())
-    }
-
     /**
      * 오늘 금주 성공을 기록합니다.
-     * 중복 기록 방지는 ViewModel에서 처리합니다 (hasRecordedToday 확인).
+     * 오늘 이미 성공이나 음주를 기록했으면 Room은 바꾸지 않고 DataStore만 그 기록에 맞춥니다.
+     *
+     * @return 이번에 새로 달성한 마일스톤 목록
      */
-    suspend fun recordSuccess() {
-        checkAndResetIfNewDay()
-        dataStore.setDailyStatus(RecordStatus.SUCCESS)
-        dataStore.setLastRecordDate(LocalDate.now())
-        updateStreak()
+    suspend fun recordSuccess(): List<Milestone> {
+        val date = today.value
+        val newDay = advanceDate()
+        val achieved = dao.recordSoberDay(date, timeSource.localNow())
+        syncDayOutcome(date, newDay)
+        return achieved.orEmpty()
     }
 
     /**
      * 흔들림(음주 충동)을 기록합니다.
-     * 성공/실패와 달리 하루에 여러 번 기록할 수 있습니다.
+     * 성공/실패와 달리 하루에 여러 번 기록할 수 있으며, 매번 shaky_events에 한 행만 추가됩니다.
      * comfortReadyFlag를 true로 설정해 위로 메시지 준비 상태를 알립니다.
+     * 흔들림 타이머 종료 시각을 지금부터 [SHAKY_TIMER_DURATION] 뒤로 다시 정합니다.
+     *
+     * @param cravingLevel 당시 음주 욕구 수준 (입력하지 않으면 null)
+     * @param situation 상황 메모 (입력하지 않으면 null)
+     * @return 새로 정한 흔들림 타이머 종료 시각
      */
-    suspend fun recordShaky() {
-        checkAndResetIfNewDay()
-        dataStore.setDailyStatus(RecordStatus.SHAKY)
-        dataStore.addShakyTimestamp(LocalDateTime.now())
-        dataStore.setComfortReadyFlag(true)
+    suspend fun recordShaky(cravingLevel: Int? = null, situation: String? = null): Instant {
+        val newDay = advanceDate()
+        val now = timeSource.localNow()
+        dao.insertShakyEvent(
+            ShakyEvent(
+                day = now.toLocalDate(),
+                occurredAt = now,
+                cravingLevel = cravingLevel,
+                situation = situation
+            )
+        )
+        val deadline = timeSource.now().plus(SHAKY_TIMER_DURATION)
+        dataStore.update {
+            it.startingNewDay(newDay).copy(
+                dailyStatus = RecordStatus.SHAKY,
+                comfortReady = true,
+                shakyDeadline = deadline
+            )
+        }
+        return deadline
     }
 
     /**
      * 음주(실패)를 기록합니다.
-     * startDate를 오늘로 리셋해 스트릭을 0부터 다시 시작합니다.
+     * 현재 금주 기록을 종료하고 지금부터 새 기록을 시작해 스트릭을 0부터 다시 셉니다.
+     * 마일스톤 달성 상태도 같은 트랜잭션에서 되돌립니다.
+     * 오늘 이미 성공이나 음주를 기록했으면 Room은 바꾸지 않고 DataStore만 그 기록에 맞춥니다.
      */
     suspend fun recordFail() {
-        checkAndResetIfNewDay()
-        dataStore.setDailyStatus(RecordStatus.FAIL)
-        dataStore.setLastRecordDate(LocalDate.now())
-        // 음주 시 streak 리셋: 오늘부터 새로 카운트
-        dataStore.setStartDate(LocalDate.now())
-        dataStore.setCurrentStreak(0)
+        val date = today.value
+        val newDay = advanceDate()
+        dao.recordDrinkDay(date, timeSource.localNow())
+        syncDayOutcome(date, newDay)
+    }
+
+    /**
+     * 홈 화면 밖(일일 기록 화면의 음주 저장)에서 [date]의 성공/음주가 Room에 기록된 뒤 호출합니다.
+     * 오늘 기록이면 DataStore의 오늘 상태를 그 기록에 맞춰 홈 화면 버튼이 다시 기록하지 않게 합니다.
+     * 지난 날짜의 기록은 오늘 상태와 무관하므로 아무것도 하지 않습니다.
+     */
+    suspend fun syncRecordedDay(date: LocalDate) {
+        if (date != today.value) return
+        syncDayOutcome(date, advanceDate())
     }
 
     /**
@@ -159,55 +235,107 @@ class SoberRepository(private val dataStore: AppDataStore) {
      * comfortShown = true, comfortReadyFlag = false로 설정해 중복 표시를 막습니다.
      */
     suspend fun markComfortMessageShown() {
-        dataStore.setComfortMessageShown(true)
-        dataStore.setComfortReadyFlag(false)
+        dataStore.update { it.copy(comfortShown = true, comfortReady = false) }
+    }
+
+    /**
+     * 흔들림 타이머 알림을 눌렀을 때 위로 메시지 카드를 다시 엽니다.
+     * 이미 닫은 카드라도 사용자가 직접 찾은 것이므로 다시 보여줍니다. 타이머가 없으면 아무것도 하지 않습니다.
+     */
+    suspend fun reopenComfortMessage() {
+        dataStore.update {
+            if (it.shakyDeadline == null) it else it.copy(comfortReady = true, comfortShown = false)
+        }
+    }
+
+    /**
+     * 흔들림 타이머 종료 시각이 [now] 이전이면 타이머를 끝내고 위로 메시지 표시를 준비합니다.
+     * 이미 위로 메시지를 확인했으면 다시 띄우지 않습니다. 백그라운드 예약 작업이 호출합니다.
+     *
+     * @return 이번에 타이머를 끝냈으면 true, 타이머가 없거나 아직 남았으면 false
+     */
+    suspend fun completeShakyTimer(now: Instant = timeSource.now()): Boolean {
+        var completed = false
+        dataStore.update {
+            val deadline = it.shakyDeadline
+            completed = deadline != null && !deadline.isAfter(now)
+            if (!completed) it else it.copy(shakyDeadline = null, comfortReady = it.comfortReady || !it.comfortShown)
+        }
+        return completed
+    }
+
+    /** 매일 기록 알림을 [date]에 보냈음을 기록합니다 */
+    suspend fun markReminderSent(date: LocalDate) {
+        dataStore.update { it.copy(lastReminderDate = date) }
     }
 
     /**
-     * 날짜가 바뀌었으면 흔들림 데이터를 리셋하고 스트릭을 갱신합니다.
+     * 날짜가 바뀌었으면 위로 메시지 상태를 리셋합니다. (흔들림 기록 자체는 지우지 않음)
+     * [today]가 바뀔 때와 앱 시작·백그라운드 작업 실행 시 호출됩니다.
      *
-     * 판단 기준: lastRecordDate와 마지막 shakyTimestamp 중 더 최근 날짜가 오늘 이전이면 리셋.
+     * 판단 기준: lastRecordDate와 마지막 흔들림 시각 중 더 최근 날짜가 오늘 이전이면 리셋.
      * 앱이 오랫동안 실행되지 않아도 올바르게 동작하도록 두 값을 모두 확인합니다.
      *
      * @return 리셋이 실행됐으면 true, 이미 오늘이면 false
      */
     suspend fun checkAndResetIfNewDay(): Boolean {
-        val lastDate = dataStore.lastRecordDate.first()
-        val timestamps = dataStore.shakyTimestamps.first()
-        val today = LocalDate.now()
+        val newDay = advanceDate()
+        if (newDay) dataStore.update { it.startingNewDay(true) }
+        return newDay
+    }
+
+    /**
+     * 마지막 활동 이후 날짜가 바뀌었는지 반환합니다. (쓰기 없음)
+     * 액션은 이 결과를 자기 [AppDataStore.update]에 합쳐 한 번에 씁니다.
+     */
+    private suspend fun advanceDate(): Boolean {
+        val lastDate = dataStore.snapshot.first().lastRecordDate
+        val lastShakyAt = dao.getLatestShakyAt()
+        val date = today.value
 
-        // 마지막 활동 날짜 = lastRecordDate와 shakyTimestamp 중 더 최근 날짜
+        // 마지막 활동 날짜 = lastRecordDate와 마지막 흔들림 중 더 최근 날짜
         val lastActivityDate = listOfNotNull(
             lastDate,
-            timestamps.lastOrNull()?.toLocalDate()
+            lastShakyAt?.toLocalDate()
         ).maxOrNull()
 
-        if (lastActivityDate != null && lastActivityDate.isBefore(today)) {
-            dataStore.resetShakyAndComfortData()
-            updateStreak()
-            return true
-        }
-        return false
+        return lastActivityDate != null && lastActivityDate.isBefore(date)
     }
 
-    /**
-     * startDate로부터 오늘까지의 일수를 계산해 currentStreak를 업데이트합니다.
-     * startDate가 없으면 아무 작업도 하지 않습니다.
-     */
-    private suspend fun updateStreak() {
-        val start = dataStore.startDate.first() ?: return
-        val streak = ChronoUnit.DAYS.between(start, LocalDate.now()).toInt()
-        dataStore.setCurrentStreak(streak)
+    /** [date]의 Room 기록을 오늘 상태에 반영합니다 */
+    private suspend fun syncDayOutcome(date: LocalDate, newDay: Boolean) {
+        dao.getDayOutcome(date)?.let { applyDayOutcome(it, newDay) }
     }
 
+    private suspend fun applyDayOutcome(outcome: DayOutcome, newDay: Boolean) {
+        dataStore.update {
+            it.startingNewDay(newDay).copy(
+                dailyStatus = if (outcome.didDrink) RecordStatus.FAIL else RecordStatus.SUCCESS,
+                lastRecordDate = outcome.date,
+                shakyDeadline = null
+            )
+        }
+    }
+
+    /** 날짜가 바뀌었으면 위로 메시지 상태와 흔들림 타이머를 초기화한 스냅샷 */
+    private fun SoberSnapshot.startingNewDay(newDay: Boolean): SoberSnapshot =
+        if (newDay) copy(comfortReady = false, comfortShown = false, shakyDeadline = null) else this
+
     // ========== Query Methods ==========
     // Flow 대신 일회성 값이 필요할 때 사용합니다.
+    // 시작일·연속 일수는 공유 Flow에 남은 값이 아니라 DB를 직접 한 번 조회합니다.
 
-    suspend fun getStartDate(): LocalDate? = dataStore.startDate.first()
-    suspend fun getCurrentStreak(): Int = dataStore.currentStreak.first()
+    suspend fun getStartDate(): LocalDate? = dao.getActiveSobrietyRecordOnce()?.startDate?.toLocalDate()
+    suspend fun getCurrentStreak(): Int = streakDays(getStartDate(), today.value)
     suspend fun getDailyStatus(): RecordStatus = dataStore.dailyStatus.first()
-    suspend fun getShakyCountToday(): Int = dataStore.shakyCountToday.first()
+    suspend fun getShakyCountToday(): Int = shakyToday.first().count
+    suspend fun getLatestShakyAt(): LocalDateTime? = dao.getLatestShakyAt()
     suspend fun isComfortReady(): Boolean = dataStore.comfortReadyFlag.first()
+
+    companion object {
+        /** 흔들림 후 위로 메시지까지의 타이머 길이 */
+        val SHAKY_TIMER_DURATION: Duration = Duration.ofHours(3)
+    }
 }
 
 // ========== Data Classes ==========
@@ -218,10 +346,11 @@ class SoberRepository(private val dataStore: AppDataStore) {
  */
 data class TodayState(
     val status: RecordStatus = RecordStatus.SUCCESS,
-    val shakyCount: Int = 0,                              // 오늘 흔들림 횟수
-    val shakyTimestamps: List<LocalDateTime> = emptyList(), // 흔들림 발생 시각 목록
-    val comfortReady: Boolean = false,                    // 위로 메시지 표시 준비 완료
-    val comfortShown: Boolean = false                     // 위로 메시지 이미 확인함
+    val shakyCount: Int = 0,               // 오늘 흔들림 횟수
+    val lastShakyAt: LocalDateTime? = null, // 오늘 마지막 흔들림 시각
+    val comfortReady: Boolean = false,     // 위로 메시지 표시 준비 완료
+    val comfortShown: Boolean = false,     // 위로 메시지 이미 확인함
+    val shakyDeadline: Instant? = null     // 흔들림 타이머 종료 시각 (없으면 null)
 )
 
 /**
@@ -237,11 +366,8 @@ data class SoberState(
     /** 금주 추적이 시작된 상태인지 여부 */
     val isTracking: Boolean get() = startDate != null
 
-    /**
-     * startDate로부터 계산한 실제 경과 일수.
-     * currentStreak와 달리 자정 업데이트 없이도 항상 정확한 값을 반환합니다.
-     */
-    val actualDays: Int get() = startDate?.let {
-        ChronoUnit.DAYS.between(it, LocalDate.now()).toInt()
+    /** startDate로부터 [today]까지 계산한 경과 일수 */
+    fun actualDays(today: LocalDate): Int = startDate?.let {
+        ChronoUnit.DAYS.between(it, today).toInt()
     } ?: 0
 }
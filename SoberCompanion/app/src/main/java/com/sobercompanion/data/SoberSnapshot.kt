@@ -0,0 +1,34 @@
+package com.sobercompanion.data
+
+import java.time.Instant
+import java.time.LocalDate
+
+/**
+ * sober_state.pb DataStore에 저장되는 오늘 상태 전체의 불변 스냅샷.
+ *
+ * 파일 형식은 [SoberSnapshotSerializer]가 정합니다. DataStore가 파일을 읽을 때 이 객체를 하나만 만들고,
+ * 개별 필드 Flow는 이 스냅샷에서 값을 꺼내 쓰므로 같은 값을 여러 번 디코딩하지 않습니다.
+ * 여러 필드가 함께 필요하면 필드 Flow를 combine하지 말고 스냅샷을 직접 구독하세요.
+ */
+data class SoberSnapshot(
+    /** 마지막으로 성공/실패를 기록한 날짜. 기록 전이면 null */
+    val lastRecordDate: LocalDate? = null,
+
+    /** 오늘의 금주 상태 */
+    val dailyStatus: RecordStatus = RecordStatus.SUCCESS,
+
+    /** 위로 메시지 표시 준비 플래그 */
+    val comfortReady: Boolean = false,
+
+    /** 이번 흔들림 이벤트에서 위로 메시지를 이미 확인했는지 여부 */
+    val comfortShown: Boolean = false,
+
+    /**
+     * 흔들림 타이머가 끝나는 시각. 타이머가 없으면 null.
+     * 남은 시간은 저장하지 않고 화면이 보일 때만 이 시각에서 계산합니다.
+     */
+    val shakyDeadline: Instant? = null,
+
+    /** 매일 기록 알림을 마지막으로 보낸 날짜. 같은 날 알림을 두 번 보내지 않는 데 씁니다 */
+    val lastReminderDate: LocalDate? = null
+)
@@ -0,0 +1,107 @@
+package com.sobercompanion.data
+
+import androidx.datastore.core.CorruptionException
+import androidx.datastore.core.Serializer
+import java.io.DataInputStream
+import java.io.DataOutputStream
+import java.io.IOException
+import java.io.InputStream
+import java.io.OutputStream
+import java.time.Instant
+import java.time.LocalDate
+
+/**
+ * [SoberSnapshot]을 sober_state.pb 파일에 쓰는 DataStore 직렬화기.
+ *
+ * 파일 구조 (빅엔디언):
+ * - u8  형식 버전 ([VERSION])
+ * - u8  플래그 (bit0 마지막 기록 날짜 있음, bit1 위로 메시지 준비, bit2 위로 메시지 확인,
+ *       bit3 흔들림 타이머 있음, bit4 마지막 알림 날짜 있음)
+ * - i64 마지막 기록 날짜 epochDay (bit0이 켜진 경우만)
+ * - u8  오늘 상태 코드 (0 SUCCESS, 1 SHAKY, 2 FAIL)
+ * - i64 흔들림 타이머 종료 시각 epoch millis (v2부터, bit3이 켜진 경우만)
+ * - i64 마지막 알림 날짜 epochDay (v3부터, bit4가 켜진 경우만)
+ *
+ * 날짜는 epochDay 숫자, 상태는 고정 코드로 저장하므로 읽을 때 문자열 파싱이 없습니다.
+ * 필드는 끝에만 추가하고 버전을 올립니다. 낮은 버전 파일은 없는 필드를 기본값으로 읽고,
+ * 더 높은 버전 파일도 아는 필드까지는 그대로 읽습니다.
+ */
+object SoberSnapshotSerializer : Serializer<SoberSnapshot> {
+
+    private const val VERSION = 3
+
+    private const val FLAG_HAS_LAST_RECORD_DATE = 1
+    private const val FLAG_COMFORT_READY = 1 shl 1
+    private const val FLAG_COMFORT_SHOWN = 1 shl 2
+    private const val FLAG_HAS_SHAKY_DEADLINE = 1 shl 3
+    private const val FLAG_HAS_LAST_REMINDER_DATE = 1 shl 4
+
+    override val defaultValue: SoberSnapshot = SoberSnapshot()
+
+    override suspend fun readFrom(input: InputStream): SoberSnapshot {
+        val data = DataInputStream(input)
+        try {
+            val version = data.readUnsignedByte()
+            if (version < 1) throw CorruptionException("알 수 없는 sober_state 버전: $version")
+            val flags = data.readUnsignedByte()
+            val lastRecordDate = if (flags and FLAG_HAS_LAST_RECORD_DATE != 0) {
+                LocalDate.ofEpochDay(data.readLong())
+            } else {
+                null
+            }
+            val dailyStatus = statusOf(data.readUnsignedByte())
+            val shakyDeadline = if (version >= 2 && flags and FLAG_HAS_SHAKY_DEADLINE != 0) {
+                Instant.ofEpochMilli(data.readLong())
+            } else {
+                null
+            }
+            val lastReminderDate = if (version >= 3 && flags and FLAG_HAS_LAST_REMINDER_DATE != 0) {
+                LocalDate.ofEpochDay(data.readLong())
+            } else {
+                null
+            }
+            return SoberSnapshot(
+                lastRecordDate = lastRecordDate,
+                dailyStatus = dailyStatus,
+                comfortReady = flags and FLAG_COMFORT_READY != 0,
+                comfortShown = flags and FLAG_COMFORT_SHOWN != 0,
+                shakyDeadline = shakyDeadline,
+                lastReminderDate = lastReminderDate
+            )
+        } catch (e: IOException) {
+            // EOFException 포함: 쓰다 만 파일은 손상으로 보고 corruptionHandler에 맡김
+            throw CorruptionException("sober_state를 읽을 수 없습니다", e)
+        }
+    }
+
+    override suspend fun writeTo(t: SoberSnapshot, output: OutputStream) {
+        val data = DataOutputStream(output)
+        var flags = 0
+        if (t.lastRecordDate != null) flags = flags or FLAG_HAS_LAST_RECORD_DATE
+        if (t.comfortReady) flags = flags or FLAG_COMFORT_READY
+        if (t.comfortShown) flags = flags or FLAG_COMFORT_SHOWN
+        if (t.shakyDeadline != null) flags = flags or FLAG_HAS_SHAKY_DEADLINE
+        if (t.lastReminderDate != null) flags = flags or FLAG_HAS_LAST_REMINDER_DATE
+
+        data.writeByte(VERSION)
+        data.writeByte(flags)
+        t.lastRecordDate?.let { data.writeLong(it.toEpochDay()) }
+        data.writeByte(codeOf(t.dailyStatus))
+        t.shakyDeadline?.let { data.writeLong(it.toEpochMilli()) }
+        t.lastReminderDate?.let { data.writeLong(it.toEpochDay()) }
+        data.flush()
+    }
+
+    // enum ordinal은 선언 순서가 바뀌면 깨지므로 코드를 명시적으로 고정
+    private fun codeOf(status: RecordStatus): Int = when (status) {
+        RecordStatus.SUCCESS -> 0
+        RecordStatus.SHAKY -> 1
+        RecordStatus.FAIL -> 2
+    }
+
+    private fun statusOf(code: Int): RecordStatus = when (code) {
+        1 -> RecordStatus.SHAKY
+        2 -> RecordStatus.FAIL
+        else -> RecordStatus.SUCCESS // 알 수 없는 코드는 fromString과 같이 성공 상태로 취급
+    }
+}
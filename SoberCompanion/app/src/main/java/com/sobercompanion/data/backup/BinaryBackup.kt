@@ -0,0 +1,546 @@
+package com.sobercompanion.data.backup
+
+import android.content.Context
+import android.database.Cursor
+import androidx.sqlite.db.SupportSQLiteStatement
+import com.sobercompanion.data.AppDataStore
+import com.sobercompanion.data.datastore.UserPreferencesRepository
+import com.sobercompanion.data.local.NoteTokenizer
+import com.sobercompanion.data.local.SoberDatabase
+import com.sobercompanion.data.local.entity.RollupSql
+import com.sobercompanion.util.SystemTimeSource
+import com.sobercompanion.util.TimeSource
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.ensureActive
+import kotlinx.coroutines.withContext
+import java.io.File
+import java.io.FileOutputStream
+import java.io.IOException
+import java.io.RandomAccessFile
+import java.nio.BufferUnderflowException
+import java.nio.ByteBuffer
+import java.nio.channels.FileChannel
+import java.util.zip.CRC32
+
+/**
+ * Room DB와 두 DataStore(sober_data, user_preferences)를 하나의 작은 바이너리 파일로 백업/복원합니다.
+ *
+ * 파일 구조 (정수는 빅 엔디언):
+ * ```
+ * 헤더   "SCBK"(4) | 형식 버전(u16) | 생성 시각 epoch millis(i64)
+ * 섹션*  종류(u8) | 내용 길이(u32) | 내용 | CRC32(u32, 내용 기준)
+ * 끝     종류 0
+ * ```
+ * 섹션 내용은 행 수(varint) 뒤에 행을 이어 붙입니다.
+ * - 정수: LEB128 varint, 부호가 있거나 차이값이면 zigzag varint
+ * - 문자열: 바이트 길이(varint) + UTF-8
+ * - daily_logs는 날짜순으로 정렬해 이전 행과의 날짜 차이(대부분 1)를 저장하고,
+ *   createdAt은 그날 0시 기준 차이로 저장합니다. shaky_events의 occurredAt도 같은 방식입니다.
+ *
+ * 쓰기는 Room 테이블을 한 트랜잭션에서 읽어 일관된 스냅숏으로 인코딩하고,
+ * 섹션마다 FileChannel로 임시 파일에 쓴 뒤 이름을 바꿔 교체합니다.
+ * 읽기는 파일을 메모리 맵으로 열어 모든 섹션의 CRC를 먼저 확인한 다음
+ * 엔티티 객체 없이 바로 INSERT 문에 바인딩합니다.
+ * 복원은 한 트랜잭션으로 처리되어 실패하면 기존 데이터가 그대로 남습니다.
+ *
+ * 기본 위치([defaultFile])는 filesDir 아래이므로 안드로이드 자동 백업에 포함됩니다.
+ *
+ * @param timeSource 헤더의 생성 시각을 정하는 시계
+ */
+class BinaryBackup(
+    private val database: SoberDatabase,
+    private val dataStore: AppDataStore,
+    private val userPreferences: UserPreferencesRepository,
+    private val timeSource: TimeSource = SystemTimeSource
+) {
+
+    /**
+     * 현재 데이터를 [file]에 씁니다. 같은 폴더의 임시 파일에 먼저 쓰므로
+     * 중간에 실패하거나 취소돼도 기존 백업 파일은 손상되지 않습니다.
+     *
+     * @return 파일 크기(바이트)
+     */
+    suspend fun write(file: File): Long = withContext(Dispatchers.IO) {
+        file.parentFile?.mkdirs()
+        val temp = File(file.path + ".tmp")
+
+        FileOutputStream(temp).channel.use { channel ->
+            val header = ByteBuffer.allocate(HEADER_SIZE)
+                .put(MAGIC)
+                .putShort(VERSION.toShort())
+                .putLong(timeSource.now().toEpochMilli())
+            header.flip()
+            channel.writeFully(header)
+
+            // Room 테이블은 한 트랜잭션 안에서 모두 읽어 같은 시점의 스냅숏으로 인코딩
+            // (WAL이라 화면 읽기는 막히지 않고, 그동안의 쓰기만 잠깐 기다림)
+            val roomSections = database.runInTransaction<List<Pair<Int, ByteSink>>> {
+                ROOM_SECTIONS.map { section ->
+                    ensureActive()
+                    val sink = ByteSink()
+                    when (section) {
+                        SECTION_SOBRIETY_RECORDS -> encodeSobrietyRecords(sink)
+                        SECTION_DAILY_LOGS -> encodeDailyLogs(sink)
+                        SECTION_MILESTONES -> encodeMilestones(sink)
+                        SECTION_SHAKY_EVENTS -> encodeShakyEvents(sink)
+                    }
+                    section to sink
+                }
+            }
+            roomSections.forEach { (section, sink) -> channel.writeSection(section, sink) }
+
+            val sink = ByteSink()
+            encodePreferences(sink, dataStore.exportState())
+            channel.writeSection(SECTION_APP_STATE, sink)
+            sink.reset()
+            encodePreferences(sink, userPreferences.exportState())
+            channel.writeSection(SECTION_USER_PREFERENCES, sink)
+
+            channel.writeFully(ByteBuffer.wrap(byteArrayOf(SECTION_END.toByte())))
+            channel.force(true)
+        }
+
+        if (!temp.renameTo(file)) {
+            temp.delete()
+            throw IOException("백업 파일을 저장하지 못했습니다: ${file.path}")
+        }
+        file.length()
+    }
+
+    /**
+     * [file]로 전체 데이터를 교체합니다.
+     *
+     * @throws InvalidTransferFileException 헤더가 다르거나, 지원하지 않는 버전이거나, CRC가 맞지 않는 경우
+     */
+    suspend fun restore(file: File) = withContext(Dispatchers.IO) {
+        RandomAccessFile(file, "r").channel.use { channel ->
+            val buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size())
+            val sections = try {
+                readSections(buffer)
+            } catch (e: BufferUnderflowException) {
+                throw InvalidTransferFileException("백업 파일이 중간에 잘렸습니다")
+            }
+
+            // Room 테이블은 한 트랜잭션에서 교체하고 롤업까지 다시 계산
+            database.runInTransaction {
+                sections[SECTION_SOBRIETY_RECORDS]?.let { restoreSobrietyRecords(SectionReader(it)) }
+                sections[SECTION_DAILY_LOGS]?.let { restoreDailyLogs(SectionReader(it)) }
+                sections[SECTION_MILESTONES]?.let { restoreMilestones(SectionReader(it)) }
+                // 섹션 6이 없는 백업은 흔들림 기록이 Room에 없던 버전이 만든 것.
+                // 현재 기록을 남기면 복원한 금주 기록과 어긋나므로 비움
+                val shakyEvents = sections[SECTION_SHAKY_EVENTS]
+                if (shakyEvents != null) {
+                    restoreShakyEvents(SectionReader(shakyEvents))
+                } else {
+                    clearRows(TransferFormat.SHAKY_EVENTS)
+                }
+                val db = database.openHelper.writableDatabase
+                RollupSql.REBUILD.forEach { db.execSQL(it) }
+            }
+
+            sections[SECTION_APP_STATE]?.let { dataStore.importState(decodePreferences(SectionReader(it))) }
+            sections[SECTION_USER_PREFERENCES]?.let {
+                userPreferences.importState(decodePreferences(SectionReader(it)))
+            }
+        }
+    }
+
+    // ========== Encoding ==========
+
+    private fun encodeSobrietyRecords(sink: ByteSink) {
+        database.query(
+            "SELECT id, startDate, endDate, isActive, reason, note FROM sobriety_records ORDER BY startDate",
+            null
+        ).use { cursor ->
+            sink.writeVarint(cursor.count.toLong())
+            var previousId = 0L
+            var previousStart = 0L
+            while (cursor.moveToNext()) {
+                val id = cursor.getLong(0)
+                val start = cursor.getLong(1)
+                sink.writeZigzag(id - previousId)
+                sink.writeZigzag(start - previousStart)
+                sink.writeNullableLong(cursor.nullableLong(2)?.minus(start))
+                sink.writeByte(cursor.getInt(3))
+                sink.writeString(cursor.getString(4))
+                sink.writeString(cursor.getString(5))
+                previousId = id
+                previousStart = start
+            }
+        }
+    }
+
+    private fun encodeDailyLogs(sink: ByteSink) {
+        database.query(
+            "SELECT id, date, mood, cravingLevel, didDrink, drinkAmount, note, createdAt " +
+                "FROM daily_logs ORDER BY date",
+            null
+        ).use { cursor ->
+            sink.writeVarint(cursor.count.toLong())
+            var previousId = 0L
+            var previousDay = 0L
+            while (cursor.moveToNext()) {
+                val id = cursor.getLong(0)
+                val day = cursor.getLong(1)
+                sink.writeZigzag(id - previousId)
+                sink.writeZigzag(day - previousDay)
+                sink.writeByte(cursor.getInt(2))
+                sink.writeByte(cursor.getInt(3))
+                sink.writeByte(cursor.getInt(4))
+                sink.writeVarint(cursor.getLong(5))
+                sink.writeString(cursor.getString(6))
+                sink.writeZigzag(cursor.getLong(7) - day * MILLIS_PER_DAY)
+                previousId = id
+                previousDay = day
+            }
+        }
+    }
+
+    private fun encodeMilestones(sink: ByteSink) {
+        database.query(
+            "SELECT id, title, description, targetDays, achievedAt, isAchieved FROM milestones ORDER BY id",
+            null
+        ).use { cursor ->
+            sink.writeVarint(cursor.count.toLong())
+            var previousId = 0L
+            while (cursor.moveToNext()) {
+                val id = cursor.getLong(0)
+                sink.writeZigzag(id - previousId)
+                sink.writeString(cursor.getString(1))
+                sink.writeString(cursor.getString(2))
+                sink.writeVarint(cursor.getLong(3))
+                sink.writeNullableLong(cursor.nullableLong(4))
+                sink.writeByte(cursor.getInt(5))
+                previousId = id
+            }
+        }
+    }
+
+    private fun encodeShakyEvents(sink: ByteSink) {
+        database.query(
+            "SELECT id, day, occurredAt, cravingLevel, situation FROM shaky_events ORDER BY day, occurredAt",
+            null
+        ).use { cursor ->
+            sink.writeVarint(cursor.count.toLong())
+            var previousId = 0L
+            var previousDay = 0L
+            while (cursor.moveToNext()) {
+                val id = cursor.getLong(0)
+                val day = cursor.getLong(1)
+                sink.writeZigzag(id - previousId)
+                sink.writeZigzag(day - previousDay)
+                sink.writeZigzag(cursor.getLong(2) - day * MILLIS_PER_DAY)
+                sink.writeNullableLong(cursor.nullableLong(3))
+                sink.writeNullableString(if (cursor.isNull(4)) null else cursor.getString(4))
+                previousId = id
+                previousDay = day
+            }
+        }
+    }
+
+    private fun encodePreferences(sink: ByteSink, values: Map<String, Any>) {
+        sink.writeVarint(values.size.toLong())
+        values.forEach { (name, value) ->
+            sink.writeString(name)
+            when (value) {
+                is Boolean -> {
+                    sink.writeByte(PREF_BOOLEAN)
+                    sink.writeByte(if (value) 1 else 0)
+                }
+                is Int -> {
+                    sink.writeByte(PREF_INT)
+                    sink.writeZigzag(value.toLong())
+                }
+                else -> {
+                    sink.writeByte(PREF_STRING)
+                    sink.writeString(value.toString())
+                }
+            }
+        }
+    }
+
+    // ========== Decoding ==========
+
+    /** 헤더를 확인하고 모든 섹션의 CRC를 검증한 뒤 종류별 내용 버퍼를 반환합니다 */
+    private fun readSections(buffer: ByteBuffer): Map<Int, ByteBuffer> {
+        if (buffer.remaining() < HEADER_SIZE) throw InvalidTransferFileException("백업 파일이 너무 짧습니다")
+        val magic = ByteArray(MAGIC.size).also { buffer.get(it) }
+        if (!magic.contentEquals(MAGIC)) throw InvalidTransferFileException("백업 파일 형식이 아닙니다")
+        val version = buffer.short.toInt()
+        if (version > VERSION) throw InvalidTransferFileException("더 최신 버전 앱에서 만든 백업입니다 (v$version)")
+        buffer.long // 생성 시각 (현재는 사용하지 않음)
+
+        val sections = HashMap<Int, ByteBuffer>()
+        val crc = CRC32()
+        while (true) {
+            val type = buffer.get().toInt() and 0xFF
+            if (type == SECTION_END) break
+
+            val length = buffer.int
+            if (length < 0 || length + CRC_SIZE > buffer.remaining()) {
+                throw InvalidTransferFileException("백업 섹션 길이가 잘못되었습니다")
+            }
+            val content = buffer.slice().also { it.limit(length) }
+            buffer.position(buffer.position() + length)
+
+            crc.reset()
+            crc.update(content.duplicate())
+            if (crc.value.toInt() != buffer.int) {
+                throw InvalidTransferFileException("백업 파일이 손상되었습니다 (섹션 $type)")
+            }
+            // 모르는 섹션은 건너뜀 (새 버전이 추가한 섹션)
+            sections[type] = content
+        }
+        return sections
+    }
+
+    private fun restoreSobrietyRecords(reader: SectionReader) {
+        replaceRows(TransferFormat.SOBRIETY_RECORDS) { statement ->
+            var id = 0L
+            var start = 0L
+            repeat(reader.readVarint().toInt()) {
+                id += reader.readZigzag()
+                start += reader.readZigzag()
+                statement.bindLong(1, id)
+                statement.bindLong(2, start)
+                statement.bindNullableLong(3, reader.readNullableLong()?.plus(start))
+                statement.bindLong(4, reader.readByte().toLong())
+                statement.bindString(5, reader.readString())
+                statement.bindString(6, reader.readString())
+                statement.executeInsert()
+            }
+        }
+    }
+
+    private fun restoreDailyLogs(reader: SectionReader) {
+        replaceRows(TransferFormat.DAILY_LOGS) { statement ->
+            var id = 0L
+            var day = 0L
+            repeat(reader.readVarint().toInt()) {
+                id += reader.readZigzag()
+                day += reader.readZigzag()
+                statement.bindLong(1, id)
+                statement.bindLong(2, day)
+                statement.bindLong(3, reader.readByte().toLong())
+                statement.bindLong(4, reader.readByte().toLong())
+                statement.bindLong(5, reader.readByte().toLong())
+                statement.bindLong(6, reader.readVarint())
+                val note = reader.readString()
+                statement.bindString(7, note)
+                statement.bindLong(8, day * MILLIS_PER_DAY + reader.readZigzag())
+                statement.bindString(9, NoteTokenizer.tokenize(note))
+                statement.executeInsert()
+            }
+        }
+    }
+
+    private fun restoreMilestones(reader: SectionReader) {
+        replaceRows(TransferFormat.MILESTONES) { statement ->
+            var id = 0L
+            repeat(reader.readVarint().toInt()) {
+                id += reader.readZigzag()
+                statement.bindLong(1, id)
+                statement.bindString(2, reader.readString())
+                statement.bindString(3, reader.readString())
+                statement.bindLong(4, reader.readVarint())
+                statement.bindNullableLong(5, reader.readNullableLong())
+                statement.bindLong(6, reader.readByte().toLong())
+                statement.executeInsert()
+            }
+        }
+    }
+
+    private fun restoreShakyEvents(reader: SectionReader) {
+        replaceRows(TransferFormat.SHAKY_EVENTS) { statement ->
+            var id = 0L
+            var day = 0L
+            repeat(reader.readVarint().toInt()) {
+                id += reader.readZigzag()
+                day += reader.readZigzag()
+                statement.bindLong(1, id)
+                statement.bindLong(2, day)
+                statement.bindLong(3, day * MILLIS_PER_DAY + reader.readZigzag())
+                statement.bindNullableLong(4, reader.readNullableLong())
+                val situation = reader.readNullableString()
+                if (situation == null) statement.bindNull(5) else statement.bindString(5, situation)
+                statement.executeInsert()
+            }
+        }
+    }
+
+    private fun decodePreferences(reader: SectionReader): Map<String, Any> {
+        val count = reader.readVarint().toInt()
+        val values = HashMap<String, Any>(count)
+        repeat(count) {
+            val name = reader.readString()
+            values[name] = when (reader.readByte()) {
+                PREF_BOOLEAN -> reader.readByte() != 0
+                PREF_INT -> reader.readZigzag().toInt()
+                else -> reader.readString()
+            }
+        }
+        return values
+    }
+
+    /** 테이블을 비우고 한 INSERT 문을 재사용해 행을 넣습니다 (현재 트랜잭션 안에서 호출) */
+    private inline fun replaceRows(table: TableSpec, insert: (SupportSQLiteStatement) -> Unit) {
+        clearRows(table)
+        database.compileStatement(table.insertSql).use(insert)
+    }
+
+    private fun clearRows(table: TableSpec) {
+        database.compileStatement("DELETE FROM ${table.name}").use { it.executeUpdateDelete() }
+    }
+
+    private fun Cursor.nullableLong(index: Int): Long? = if (isNull(index)) null else getLong(index)
+
+    private fun SupportSQLiteStatement.bindNullableLong(index: Int, value: Long?) {
+        if (value == null) bindNull(index) else bindLong(index, value)
+    }
+
+    private fun FileChannel.writeFully(buffer: ByteBuffer) {
+        while (buffer.hasRemaining()) write(buffer)
+    }
+
+    private fun FileChannel.writeSection(type: Int, sink: ByteSink) {
+        val crc = CRC32().apply { update(sink.bytes, 0, sink.size) }
+        val header = ByteBuffer.allocate(SECTION_HEADER_SIZE).put(type.toByte()).putInt(sink.size)
+        header.flip()
+        writeFully(header)
+        writeFully(ByteBuffer.wrap(sink.bytes, 0, sink.size))
+        writeFully(ByteBuffer.allocate(CRC_SIZE).putInt(crc.value.toInt()).also { it.flip() })
+    }
+
+    companion object {
+        /** 백업 형식 버전. 섹션 내용의 인코딩이 바뀔 때만 올립니다 (섹션 추가는 하위 호환) */
+        const val VERSION = 1
+
+        private val MAGIC = byteArrayOf('S'.code.toByte(), 'C'.code.toByte(), 'B'.code.toByte(), 'K'.code.toByte())
+        private const val HEADER_SIZE = 4 + 2 + 8
+        private const val SECTION_HEADER_SIZE = 1 + 4
+        private const val CRC_SIZE = 4
+
+        private const val SECTION_END = 0
+        private const val SECTION_SOBRIETY_RECORDS = 1
+        private const val SECTION_DAILY_LOGS = 2
+        private const val SECTION_MILESTONES = 3
+        private const val SECTION_APP_STATE = 4
+        private const val SECTION_USER_PREFERENCES = 5
+        private const val SECTION_SHAKY_EVENTS = 6
+
+        /** 한 읽기 트랜잭션에서 인코딩하는 Room 섹션 (파일에 쓰는 순서) */
+        private val ROOM_SECTIONS = listOf(
+            SECTION_SOBRIETY_RECORDS,
+            SECTION_DAILY_LOGS,
+            SECTION_MILESTONES,
+            SECTION_SHAKY_EVENTS
+        )
+
+        private const val PREF_STRING = 0
+        private const val PREF_INT = 1
+        private const val PREF_BOOLEAN = 2
+
+        private const val MILLIS_PER_DAY = 86_400_000L
+
+        /** 자동 백업에 포함되는 기본 백업 파일 위치 */
+        fun defaultFile(context: Context): File =
+            File(context.filesDir, "backup/sober-companion.scbk")
+    }
+}
+
+/** 섹션 내용을 쌓는 재사용 가능한 바이트 버퍼 */
+private class ByteSink {
+    var bytes = ByteArray(16 * 1024)
+        private set
+    var size = 0
+        private set
+
+    fun reset() {
+        size = 0
+    }
+
+    fun writeByte(value: Int) {
+        ensureCapacity(1)
+        bytes[size++] = value.toByte()
+    }
+
+    fun writeVarint(value: Long) {
+        var remaining = value
+        while (remaining and 0x7FL.inv() != 0L) {
+            writeByte(((remaining and 0x7F) or 0x80).toInt())
+            remaining = remaining ushr 7
+        }
+        writeByte(remaining.toInt())
+    }
+
+    fun writeZigzag(value: Long) = writeVarint((value shl 1) xor (value shr 63))
+
+    /** null이면 0, 아니면 1 뒤에 zigzag 값 */
+    fun writeNullableLong(value: Long?) {
+        if (value == null) {
+            writeByte(0)
+        } else {
+            writeByte(1)
+            writeZigzag(value)
+        }
+    }
+
+    /** null이면 0, 아니면 1 뒤에 문자열 */
+    fun writeNullableString(value: String?) {
+        if (value == null) {
+            writeByte(0)
+        } else {
+            writeByte(1)
+            writeString(value)
+        }
+    }
+
+    fun writeString(value: String) {
+        val encoded = value.toByteArray(Charsets.UTF_8)
+        writeVarint(encoded.size.toLong())
+        ensureCapacity(encoded.size)
+        encoded.copyInto(bytes, size)
+        size += encoded.size
+    }
+
+    private fun ensureCapacity(extra: Int) {
+        if (size + extra > bytes.size) {
+            bytes = bytes.copyOf(maxOf(bytes.size * 2, size + extra))
+        }
+    }
+}
+
+/** 메모리 맵 버퍼에서 섹션 내용을 읽습니다. 문자열 디코딩용 바이트 배열을 재사용합니다 */
+private class SectionReader(private val buffer: ByteBuffer) {
+    private var scratch = ByteArray(256)
+
+    fun readByte(): Int = buffer.get().toInt() and 0xFF
+
+    fun readVarint(): Long {
+        var result = 0L
+        var shift = 0
+        while (shift < 64) {
+            val byte = buffer.get().toInt()
+            result = result or ((byte and 0x7F).toLong() shl shift)
+            if (byte and 0x80 == 0) return result
+            shift += 7
+        }
+        throw InvalidTransferFileException("백업 파일의 숫자 형식이 잘못되었습니다")
+    }
+
+    fun readZigzag(): Long {
+        val value = readVarint()
+        return (value ushr 1) xor -(value and 1)
+    }
+
+    fun readNullableLong(): Long? = if (readByte() == 0) null else readZigzag()
+
+    fun readNullableString(): String? = if (readByte() == 0) null else readString()
+
+    fun readString(): String {
+        val length = readVarint().toInt()
+        if (length > scratch.size) scratch = ByteArray(maxOf(length, scratch.size * 2))
+        buffer.get(scratch, 0, length)
+        return String(scratch, 0, length, Charsets.UTF_8)
+    }
+}
@@ -0,0 +1,168 @@
+package com.sobercompanion.data.backup
+
+import android.database.Cursor
+import android.util.JsonWriter
+import com.sobercompanion.data.AppDataStore
+import com.sobercompanion.data.local.SoberDatabase
+import com.sobercompanion.util.SystemTimeSource
+import com.sobercompanion.util.TimeSource
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.ensureActive
+import kotlinx.coroutines.withContext
+import java.io.BufferedWriter
+import java.io.OutputStream
+import java.io.OutputStreamWriter
+import java.io.Writer
+
+/**
+ * 금주 기록 전체를 파일로 내보내는 클래스.
+ *
+ * Room 커서에서 한 행씩 읽어 바로 스트림에 쓰므로 목록 객체를 만들지 않습니다.
+ * 기록이 수만 건이어도 메모리 사용량은 커서 윈도우와 버퍼 크기로 일정합니다.
+ * 테이블마다 별도 커서를 열며, 내보내는 동안 쓰기를 막지 않습니다.
+ *
+ * [OutputStream]은 호출한 쪽이 열고 닫습니다. (SAF의 ContentResolver.openOutputStream 등)
+ *
+ * @param database 내보낼 Room DB
+ * @param dataStore 함께 내보낼 현재 세션 상태
+ * @param timeSource 내보낸 시각(exportedAt)을 정하는 시계
+ */
+class DataExporter(
+    private val database: SoberDatabase,
+    private val dataStore: AppDataStore,
+    private val timeSource: TimeSource = SystemTimeSource
+) {
+
+    /**
+     * 모든 테이블과 DataStore 상태를 JSON으로 내보냅니다. (형식은 [TransferFormat] 참고)
+     * 코루틴이 취소되면 다음 행을 쓰기 전에 중단됩니다.
+     *
+     * @param onProgress 테이블마다 [PROGRESS_INTERVAL]행 단위로 호출
+     * @return 내보낸 전체 행 수
+     */
+    suspend fun exportJson(
+        output: OutputStream,
+        onProgress: (TransferProgress) -> Unit = {}
+    ): Int = withContext(Dispatchers.IO) {
+        val writer = JsonWriter(bufferedWriter(output))
+        var total = 0
+
+        writer.beginObject()
+        writer.name(TransferFormat.FIELD_FORMAT).value(TransferFormat.FORMAT_NAME)
+        writer.name(TransferFormat.FIELD_VERSION).value(TransferFormat.VERSION.toLong())
+        writer.name(TransferFormat.FIELD_EXPORTED_AT).value(timeSource.now().toEpochMilli())
+
+        TransferFormat.TABLES.forEach { table ->
+            writer.name(table.name).beginArray()
+            var rows = 0
+            database.query(table.selectSql, null).use { cursor ->
+                while (cursor.moveToNext()) {
+                    ensureActive()
+                    writer.beginObject()
+                    table.columns.forEachIndexed { index, column ->
+                        writer.name(column)
+                        writeValue(writer, cursor, index)
+                    }
+                    writer.endObject()
+                    rows++
+                    total++
+                    if (rows % PROGRESS_INTERVAL == 0) {
+                        onProgress(TransferProgress(table.name, rows, total))
+                    }
+                }
+            }
+            writer.endArray()
+            onProgress(TransferProgress(table.name, rows, total))
+        }
+
+        writer.name(TransferFormat.FIELD_APP_STATE).beginObject()
+        dataStore.exportState().forEach { (key, value) ->
+            writer.name(key)
+            when (value) {
+                is Boolean -> writer.value(value)
+                is Int -> writer.value(value.toLong())
+                else -> writer.value(value.toString())
+            }
+        }
+        writer.endObject()
+
+        writer.endObject()
+        writer.flush()
+        total
+    }
+
+    /**
+     * 일일 기록을 CSV로 내보냅니다. (스프레드시트·상담 기록용, 가져오기는 JSON만 지원)
+     * 날짜는 ISO 형식(yyyy-MM-dd)으로, 음주 여부는 0/1로 씁니다.
+     *
+     * @return 내보낸 행 수
+     */
+    suspend fun exportDailyLogsCsv(
+        output: OutputStream,
+        onProgress: (TransferProgress) -> Unit = {}
+    ): Int = withContext(Dispatchers.IO) {
+        val writer = bufferedWriter(output)
+        var rows = 0
+
+        // 엑셀에서 한글이 깨지지 않도록 UTF-8 BOM을 붙임
+        writer.write("\uFEFF")
+        writer.write(CSV_HEADER)
+        writer.write("\r\n")
+
+        database.query(CSV_SELECT, null).use { cursor ->
+            while (cursor.moveToNext()) {
+                ensureActive()
+                for (index in 0 until cursor.columnCount) {
+                    if (index > 0) writer.write(",")
+                    writer.write(csvField(cursor.getString(index) ?: ""))
+                }
+                writer.write("\r\n")
+                rows++
+                if (rows % PROGRESS_INTERVAL == 0) {
+                    onProgress(TransferProgress(DAILY_LOGS_TABLE, rows, rows))
+                }
+            }
+        }
+
+        writer.flush()
+        onProgress(TransferProgress(DAILY_LOGS_TABLE, rows, rows))
+        rows
+    }
+
+    /** 커서 값을 SQLite 저장 타입 그대로 JSON 값으로 씁니다 */
+    private fun writeValue(writer: JsonWriter, cursor: Cursor, index: Int) {
+        when (cursor.getType(index)) {
+            Cursor.FIELD_TYPE_NULL -> writer.nullValue()
+            Cursor.FIELD_TYPE_INTEGER -> writer.value(cursor.getLong(index))
+            Cursor.FIELD_TYPE_FLOAT -> writer.value(cursor.getDouble(index))
+            else -> writer.value(cursor.getString(index))
+        }
+    }
+
+    /** 쉼표·따옴표·줄바꿈이 있으면 따옴표로 감싸고 내부 따옴표를 두 번 씀 (RFC 4180) */
+    private fun csvField(value: String): String =
+        if (value.any { it == ',' || it == '"' || it == '\n' || it == '\r' }) {
+            "\"" + value.replace("\"", "\"\"") + "\""
+        } else {
+            value
+        }
+
+    private fun bufferedWriter(output: OutputStream): Writer =
+        BufferedWriter(OutputStreamWriter(output, Charsets.UTF_8), BUFFER_SIZE)
+
+    companion object {
+        /** 진행 상황 콜백 간격(행) */
+        const val PROGRESS_INTERVAL = 500
+
+        private const val BUFFER_SIZE = 64 * 1024
+
+        private const val DAILY_LOGS_TABLE = "daily_logs"
+
+        private const val CSV_HEADER = "date,mood,craving_level,did_drink,drink_amount,note"
+
+        /** date(epoch day)를 SQLite에서 바로 ISO 날짜 문자열로 변환 */
+        private const val CSV_SELECT =
+            "SELECT date(date * 86400, 'unixepoch'), mood, cravingLevel, didDrink, drinkAmount, note " +
+                "FROM daily_logs ORDER BY date"
+    }
+}
@@ -0,0 +1,234 @@
+package com.sobercompanion.data.backup
+
+import android.util.JsonReader
+import android.util.JsonToken
+import androidx.room.withTransaction
+import androidx.sqlite.db.SupportSQLiteStatement
+import com.sobercompanion.data.AppDataStore
+import com.sobercompanion.data.local.SoberDatabase
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.ensureActive
+import kotlinx.coroutines.withContext
+import java.io.InputStream
+import java.io.InputStreamReader
+
+/**
+ * [DataExporter]가 만든 JSON 파일을 가져오는 클래스.
+ *
+ * 파일 맨 앞의 format·version 헤더를 먼저 확인하고, 맞지 않으면 아무것도 바꾸지 않고 실패합니다.
+ * 그다음 JsonReader로 한 행씩 읽어 테이블마다 임시 스테이징 테이블(temp.import_…)에
+ * [TransferFormat.IMPORT_CHUNK_SIZE]행씩 넣습니다. 파일 전체를 메모리에 올리지 않으며,
+ * 스테이징 중에는 실제 테이블을 건드리지 않으므로 화면 읽기와 Worker 쓰기가 그대로 진행됩니다.
+ *
+ * 파일을 끝까지 읽은 뒤 한 트랜잭션에서 스테이징 내용을 실제 테이블로 옮기고 통계 롤업을 다시 계산합니다.
+ * - sobriety_records, daily_logs, shaky_events: 기기의 기존 기록을 지우고 파일 내용으로 교체 (기기 이전)
+ * - milestones: 같은 id의 달성 상태를 파일 값으로 교체
+ * - 파일에 없는 테이블은 그대로 둠
+ * - app_state: 교체가 커밋된 뒤 DataStore 세션 상태 전체를 교체
+ *
+ * 파일이 중간에 잘렸거나, 형식이 틀렸거나, 코루틴이 취소되면 교체 전에 중단되므로 기기 데이터는 바뀌지 않습니다.
+ *
+ * @param database 가져올 Room DB
+ * @param dataStore 가져올 세션 상태 저장소
+ */
+class DataImporter(
+    private val database: SoberDatabase,
+    private val dataStore: AppDataStore
+) {
+
+    /**
+     * JSON 파일을 가져옵니다. [InputStream]은 호출한 쪽이 열고 닫습니다.
+     *
+     * @param onProgress 스테이징 청크를 넣을 때마다 호출
+     * @return 가져온 전체 행 수
+     * @throws InvalidTransferFileException 헤더가 없거나, 형식 이름이 다르거나, 지원하지 않는 버전인 경우
+     */
+    suspend fun importJson(
+        input: InputStream,
+        onProgress: (TransferProgress) -> Unit = {}
+    ): Int = withContext(Dispatchers.IO) {
+        val reader = JsonReader(InputStreamReader(input.buffered(), Charsets.UTF_8))
+        val tables = TransferFormat.TABLES.associateBy { it.name }
+        val staged = ArrayList<TableSpec>()
+        var total = 0
+        var appState: Map<String, Any>? = null
+
+        reader.beginObject()
+        readHeader(reader)
+        try {
+            while (reader.hasNext()) {
+                val field = reader.nextName()
+                val table = tables[field]
+                when {
+                    table != null -> {
+                        if (table !in staged) {
+                            createStaging(table)
+                            staged.add(table)
+                        }
+                        total = stageTable(reader, table, total, onProgress)
+                    }
+                    field == TransferFormat.FIELD_APP_STATE -> appState = readAppState(reader)
+                    else -> reader.skipValue()
+                }
+            }
+            reader.endObject()
+            ensureActive()
+
+            // 기록 교체와 롤업 재계산을 한 트랜잭션으로: 실패하면 기존 기록·롤업이 그대로 남음
+            database.withTransaction {
+                staged.forEach { swapIn(it) }
+                database.sobrietyDao().rebuildRollups()
+            }
+        } finally {
+            staged.forEach { dropStaging(it) }
+        }
+
+        // 세션 상태는 기록 교체가 커밋된 뒤에 교체
+        appState?.let {
+            dataStore.importState(it)
+            onProgress(TransferProgress(TransferFormat.FIELD_APP_STATE, it.size, total))
+        }
+        total
+    }
+
+    /**
+     * 파일 맨 앞의 format, version 필드를 순서대로 확인합니다.
+     * DataExporter는 항상 이 둘을 먼저 쓰므로 헤더가 없으면 이 앱의 파일이 아닙니다.
+     */
+    private fun readHeader(reader: JsonReader) {
+        if (!reader.hasNext() || reader.nextName() != TransferFormat.FIELD_FORMAT) {
+            throw InvalidTransferFileException("파일 형식 정보가 없습니다")
+        }
+        val format = if (reader.peek() == JsonToken.STRING) reader.nextString() else null
+        if (format != TransferFormat.FORMAT_NAME) {
+            throw InvalidTransferFileException("지원하지 않는 파일 형식입니다: $format")
+        }
+        if (!reader.hasNext() || reader.nextName() != TransferFormat.FIELD_VERSION ||
+            reader.peek() != JsonToken.NUMBER
+        ) {
+            throw InvalidTransferFileException("파일 버전 정보가 없습니다")
+        }
+        val version = reader.nextInt()
+        if (version > TransferFormat.VERSION) {
+            throw InvalidTransferFileException("더 최신 버전 앱에서 만든 파일입니다 (v$version)")
+        }
+    }
+
+    /**
+     * 테이블 배열 하나를 스테이징 테이블에 청크 단위로 넣습니다.
+     * 같은 테이블이 파일에 두 번 나오면 이어서 넣고, 교체할 때 나중 행이 앞 행을 덮어씁니다.
+     */
+    private fun CoroutineScope.stageTable(
+        reader: JsonReader,
+        table: TableSpec,
+        totalBefore: Int,
+        onProgress: (TransferProgress) -> Unit
+    ): Int {
+        val chunk = ArrayList<List<Any?>>(TransferFormat.IMPORT_CHUNK_SIZE)
+        var rows = 0
+        var total = totalBefore
+
+        fun flush() {
+            database.runInTransaction {
+                database.compileStatement(table.stagingInsertSql).use { statement ->
+                    chunk.forEach { values -> bindAndInsert(statement, values) }
+                }
+            }
+            rows += chunk.size
+            total += chunk.size
+            chunk.clear()
+            onProgress(TransferProgress(table.name, rows, total))
+        }
+
+        reader.beginArray()
+        while (reader.hasNext()) {
+            ensureActive()
+            val row = readRow(reader)
+            chunk.add(table.columns.map { row[it] } + table.derive(row))
+            if (chunk.size >= TransferFormat.IMPORT_CHUNK_SIZE) flush()
+        }
+        reader.endArray()
+        if (chunk.isNotEmpty()) flush()
+
+        return total
+    }
+
+    /**
+     * 실제 테이블과 같은 컬럼의 빈 임시 테이블을 만듭니다.
+     * 임시 테이블은 쓰기 연결에만 보이며 연결이 닫히면 사라집니다.
+     */
+    private fun createStaging(table: TableSpec) {
+        dropStaging(table)
+        execSql(
+            "CREATE TEMP TABLE ${table.stagingName} AS " +
+                "SELECT ${table.allColumns.joinToString(", ")} FROM ${table.name} WHERE 0"
+        )
+    }
+
+    private fun dropStaging(table: TableSpec) {
+        execSql("DROP TABLE IF EXISTS temp.${table.stagingName}")
+    }
+
+    /** 스테이징 행을 넣은 순서대로 실제 테이블에 INSERT OR REPLACE (milestones 외에는 먼저 비움) */
+    private fun swapIn(table: TableSpec) {
+        if (table !== TransferFormat.MILESTONES) execSql("DELETE FROM ${table.name}")
+        val columns = table.allColumns.joinToString(", ")
+        execSql(
+            "INSERT OR REPLACE INTO ${table.name} ($columns) " +
+                "SELECT $columns FROM temp.${table.stagingName} ORDER BY rowid"
+        )
+    }
+
+    private fun execSql(sql: String) {
+        database.compileStatement(sql).use { it.execute() }
+    }
+
+    /** JSON 객체 하나를 컬럼 이름 → 값(Long/Double/String/null)으로 읽습니다 */
+    private fun readRow(reader: JsonReader): Map<String, Any?> {
+        val row = HashMap<String, Any?>()
+        reader.beginObject()
+        while (reader.hasNext()) {
+            val name = reader.nextName()
+            row[name] = when (reader.peek()) {
+                JsonToken.NULL -> reader.nextNull().let { null }
+                JsonToken.NUMBER -> reader.nextString().let { it.toLongOrNull() ?: it.toDouble() }
+                JsonToken.BOOLEAN -> if (reader.nextBoolean()) 1L else 0L
+                JsonToken.STRING -> reader.nextString()
+                else -> reader.skipValue().let { null }
+            }
+        }
+        reader.endObject()
+        return row
+    }
+
+    private fun readAppState(reader: JsonReader): Map<String, Any> {
+        val state = HashMap<String, Any>()
+        reader.beginObject()
+        while (reader.hasNext()) {
+            val name = reader.nextName()
+            when (reader.peek()) {
+                JsonToken.BOOLEAN -> state[name] = reader.nextBoolean()
+                JsonToken.NUMBER -> state[name] = reader.nextInt()
+                JsonToken.STRING -> state[name] = reader.nextString()
+                else -> reader.skipValue()
+            }
+        }
+        reader.endObject()
+        return state
+    }
+
+    private fun bindAndInsert(statement: SupportSQLiteStatement, values: List<Any?>) {
+        statement.clearBindings()
+        values.forEachIndexed { index, value ->
+            val position = index + 1
+            when (value) {
+                null -> statement.bindNull(position)
+                is Long -> statement.bindLong(position, value)
+                is Double -> statement.bindDouble(position, value)
+                else -> statement.bindString(position, value.toString())
+            }
+        }
+        statement.executeInsert()
+    }
+}
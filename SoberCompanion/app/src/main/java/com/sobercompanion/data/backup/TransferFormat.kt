@@ -0,0 +1,117 @@
+package com.sobercompanion.data.backup
+
+import com.sobercompanion.data.local.NoteTokenizer
+
+/**
+ * 내보내기/가져오기 파일 형식 정의.
+ *
+ * JSON 구조:
+ * ```
+ * {
+ *   "format": "sober-companion",
+ *   "version": 1,
+ *   "exportedAt": 1700000000000,
+ *   "sobriety_records": [ { "id": 1, "startDate": …, … }, … ],
+ *   "daily_logs": [ … ],
+ *   "milestones": [ … ],
+ *   "shaky_events": [ … ],
+ *   "app_state": { "start_date": "2024-01-01", … }
+ * }
+ * ```
+ * 테이블 값은 DB에 저장된 그대로 씁니다. (날짜 = epoch day, 시각 = epoch millis, Boolean = 0/1)
+ * 검색 토큰(daily_logs.noteTokens)처럼 다른 컬럼에서 계산되는 값은 파일에 넣지 않고 가져올 때 다시 계산합니다.
+ */
+object TransferFormat {
+    const val FORMAT_NAME = "sober-companion"
+
+    /** 파일 형식 버전. 필드 의미가 바뀔 때만 올립니다 (컬럼 추가는 하위 호환) */
+    const val VERSION = 1
+
+    const val FIELD_FORMAT = "format"
+    const val FIELD_VERSION = "version"
+    const val FIELD_EXPORTED_AT = "exportedAt"
+    const val FIELD_APP_STATE = "app_state"
+
+    /** 가져오기 시 스테이징 테이블에 한 트랜잭션으로 넣는 행 수 */
+    const val IMPORT_CHUNK_SIZE = 500
+
+    val SOBRIETY_RECORDS = TableSpec(
+        name = "sobriety_records",
+        columns = listOf("id", "startDate", "endDate", "isActive", "reason", "note")
+    )
+
+    val DAILY_LOGS = TableSpec(
+        name = "daily_logs",
+        columns = listOf(
+            "id", "date", "mood", "cravingLevel", "didDrink", "drinkAmount", "note", "createdAt"
+        ),
+        derivedColumns = listOf("noteTokens"),
+        derive = { row -> listOf(NoteTokenizer.tokenize(row["note"] as? String ?: "")) }
+    )
+
+    val MILESTONES = TableSpec(
+        name = "milestones",
+        columns = listOf("id", "title", "description", "targetDays", "achievedAt", "isAchieved")
+    )
+
+    val SHAKY_EVENTS = TableSpec(
+        name = "shaky_events",
+        columns = listOf("id", "day", "occurredAt", "cravingLevel", "situation")
+    )
+
+    /** 내보내기 순서이자 가져오기 대상 테이블 */
+    val TABLES = listOf(SOBRIETY_RECORDS, DAILY_LOGS, MILESTONES, SHAKY_EVENTS)
+}
+
+/**
+ * 내보내기/가져오기 대상 테이블 한 개의 컬럼 정의.
+ *
+ * @param name 테이블 이름 (JSON 필드 이름과 같음)
+ * @param columns 파일에 쓰는 컬럼
+ * @param derivedColumns 파일에 없고 가져올 때 [derive]로 계산하는 컬럼
+ * @param derive 한 행(컬럼 이름 → 값)에서 [derivedColumns] 값을 계산
+ */
+class TableSpec(
+    val name: String,
+    val columns: List<String>,
+    val derivedColumns: List<String> = emptyList(),
+    val derive: (Map<String, Any?>) -> List<Any?> = { emptyList() }
+) {
+    /** 내보내기용 SELECT (id 순으로 커서를 열어 한 행씩 읽음) */
+    val selectSql: String
+        get() = "SELECT ${columns.joinToString(", ")} FROM $name ORDER BY id"
+
+    /** 파일 컬럼 + 계산 컬럼 */
+    val allColumns: List<String>
+        get() = columns + derivedColumns
+
+    /** 복원용 INSERT. 같은 id(또는 daily_logs의 같은 date)가 있으면 교체 */
+    val insertSql: String
+        get() = "INSERT OR REPLACE INTO $name (${allColumns.joinToString(", ")}) " +
+            "VALUES (${allColumns.joinToString(", ") { "?" }})"
+
+    /** 가져오는 동안 행을 모아 두는 임시 테이블 이름 */
+    val stagingName: String
+        get() = "import_$name"
+
+    /** 스테이징 테이블용 INSERT (제약이 없으므로 파일 순서대로 모두 쌓임) */
+    val stagingInsertSql: String
+        get() = "INSERT INTO temp.$stagingName (${allColumns.joinToString(", ")}) " +
+            "VALUES (${allColumns.joinToString(", ") { "?" }})"
+}
+
+/**
+ * 내보내기/가져오기 진행 상황.
+ *
+ * @param table 현재 처리 중인 테이블 (DataStore 상태는 "app_state")
+ * @param rows 이 테이블에서 지금까지 처리한 행 수
+ * @param totalRows 전체 처리 행 수 (모든 테이블 합계)
+ */
+data class TransferProgress(
+    val table: String,
+    val rows: Int,
+    val totalRows: Int
+)
+
+/** 가져오기 파일 형식이 올바르지 않을 때 발생 */
+class InvalidTransferFileException(message: String) : Exception(message)
@@ -1,79 +1,141 @@
 package com.sobercompanion.data.datastore
 
 import android.content.Context
+import androidx.datastore.core.DataMigration
 import androidx.datastore.core.DataStore
+import androidx.datastore.core.handlers.ReplaceFileCorruptionHandler
+import androidx.datastore.dataStore
 import androidx.datastore.preferences.core.Preferences
 import androidx.datastore.preferences.core.booleanPreferencesKey
 import androidx.datastore.preferences.core.edit
 import androidx.datastore.preferences.core.intPreferencesKey
 import androidx.datastore.preferences.core.stringPreferencesKey
 import androidx.datastore.preferences.preferencesDataStore
+import androidx.datastore.preferences.preferencesDataStoreFile
 import kotlinx.coroutines.flow.Flow
+import kotlinx.coroutines.flow.distinctUntilChanged
+import kotlinx.coroutines.flow.first
 import kotlinx.coroutines.flow.map
 
-val Context.dataStore: DataStore<Preferences> by preferencesDataStore(name = "user_preferences")
+/**
+ * 사용자 설정 DataStore. 처음 열 때 이전 Preferences 파일(user_preferences)의 값을 옮겨옵니다.
+ */
+val Context.userSettingsStore: DataStore<UserSettings> by dataStore(
+    fileName = "user_settings.pb",
+    serializer = UserSettingsSerializer,
+    corruptionHandler = ReplaceFileCorruptionHandler { UserSettings() },
+    produceMigrations = { context -> listOf(UserPreferencesMigration(context)) }
+)
 
-class UserPreferencesRepository(private val context: Context) {
+/** 이전 버전이 쓰던 Preferences DataStore. 이전 용도로만 읽습니다 */
+private val Context.legacyUserPreferencesStore: DataStore<Preferences> by preferencesDataStore(name = LEGACY_FILE_NAME)
 
-    private object PreferencesKeys {
-        val USER_NAME = stringPreferencesKey("user_name")
-        val DAILY_REMINDER_ENABLED = booleanPreferencesKey("daily_reminder_enabled")
-        val REMINDER_HOUR = intPreferencesKey("reminder_hour")
-        val REMINDER_MINUTE = intPreferencesKey("reminder_minute")
-        val THEME_MODE = stringPreferencesKey("theme_mode") // "system", "light", "dark"
-        val SOBRIETY_GOAL_REASON = stringPreferencesKey("sobriety_goal_reason")
-    }
+private const val LEGACY_FILE_NAME = "user_preferences"
 
-    val userName: Flow<String> = context.dataStore.data.map { preferences ->
-        preferences[PreferencesKeys.USER_NAME] ?: ""
-    }
+/** 이전 user_preferences 파일의 키. 백업 파일의 키 이름으로도 그대로 쓰입니다 */
+private object PreferencesKeys {
+    val USER_NAME = stringPreferencesKey("user_name")
+    val DAILY_REMINDER_ENABLED = booleanPreferencesKey("daily_reminder_enabled")
+    val REMINDER_HOUR = intPreferencesKey("reminder_hour")
+    val REMINDER_MINUTE = intPreferencesKey("reminder_minute")
+    val THEME_MODE = stringPreferencesKey("theme_mode") // "system", "light", "dark"
+    val SOBRIETY_GOAL_REASON = stringPreferencesKey("sobriety_goal_reason")
 
-    val isDailyReminderEnabled: Flow<Boolean> = context.dataStore.data.map { preferences ->
-        preferences[PreferencesKeys.DAILY_REMINDER_ENABLED] ?: true
-    }
+    // user_settings.pb 전환 이후 추가된 설정 (백업 키로만 쓰임)
+    val SHAKY_TIMER_NOTIFICATION_ENABLED = booleanPreferencesKey("shaky_timer_notification_enabled")
+}
 
-    val reminderTime: Flow<Pair<Int, Int>> = context.dataStore.data.map { preferences ->
-        val hour = preferences[PreferencesKeys.REMINDER_HOUR] ?: 20
-        val minute = preferences[PreferencesKeys.REMINDER_MINUTE] ?: 0
-        Pair(hour, minute)
-    }
+/** user_preferences의 값을 [UserSettings]로 한 번 옮기고 이전 파일을 비웁니다 */
+private class UserPreferencesMigration(private val context: Context) : DataMigration<UserSettings> {
 
-    val themeMode: Flow<String> = context.dataStore.data.map { preferences ->
-        preferences[PreferencesKeys.THEME_MODE] ?: "system"
+    override suspend fun shouldMigrate(currentData: UserSettings): Boolean {
+        if (!context.preferencesDataStoreFile(LEGACY_FILE_NAME).exists()) return false
+        return context.legacyUserPreferencesStore.data.first().asMap().isNotEmpty()
     }
 
-    val sobrietyGoalReason: Flow<String> = context.dataStore.data.map { preferences ->
-        preferences[PreferencesKeys.SOBRIETY_GOAL_REASON] ?: ""
+    override suspend fun migrate(currentData: UserSettings): UserSettings {
+        val preferences = context.legacyUserPreferencesStore.data.first()
+        return UserSettings(
+            userName = preferences[PreferencesKeys.USER_NAME] ?: "",
+            dailyReminderEnabled = preferences[PreferencesKeys.DAILY_REMINDER_ENABLED] ?: true,
+            reminderHour = preferences[PreferencesKeys.REMINDER_HOUR] ?: 20,
+            reminderMinute = preferences[PreferencesKeys.REMINDER_MINUTE] ?: 0,
+            themeMode = preferences[PreferencesKeys.THEME_MODE] ?: UserSettings.THEME_SYSTEM,
+            sobrietyGoalReason = preferences[PreferencesKeys.SOBRIETY_GOAL_REASON] ?: ""
+        )
     }
 
-    suspend fun setUserName(name: String) {
-        context.dataStore.edit { preferences ->
-            preferences[PreferencesKeys.USER_NAME] = name
-        }
+    override suspend fun cleanUp() {
+        context.legacyUserPreferencesStore.edit { it.clear() }
     }
+}
 
-    suspend fun setDailyReminderEnabled(enabled: Boolean) {
-        context.dataStore.edit { preferences ->
-            preferences[PreferencesKeys.DAILY_REMINDER_ENABLED] = enabled
-        }
-    }
+class UserPreferencesRepository(private val context: Context) {
+
+    private val settings: Flow<UserSettings> = context.userSettingsStore.data
+
+    val userName: Flow<String> = field { it.userName }
+
+    val isDailyReminderEnabled: Flow<Boolean> = field { it.dailyReminderEnabled }
+
+    val isShakyTimerNotificationEnabled: Flow<Boolean> = field { it.shakyTimerNotificationEnabled }
+
+    val reminderTime: Flow<Pair<Int, Int>> = field { Pair(it.reminderHour, it.reminderMinute) }
+
+    val themeMode: Flow<String> = field { it.themeMode }
+
+    val sobrietyGoalReason: Flow<String> = field { it.sobrietyGoalReason }
+
+    private fun <T> field(selector: (UserSettings) -> T): Flow<T> =
+        settings.map(selector).distinctUntilChanged()
+
+    suspend fun setUserName(name: String) = update { it.copy(userName = name) }
+
+    suspend fun setDailyReminderEnabled(enabled: Boolean) = update { it.copy(dailyReminderEnabled = enabled) }
+
+    suspend fun setShakyTimerNotificationEnabled(enabled: Boolean) =
+        update { it.copy(shakyTimerNotificationEnabled = enabled) }
+
+    suspend fun setReminderTime(hour: Int, minute: Int) =
+        update { it.copy(reminderHour = hour, reminderMinute = minute) }
+
+    suspend fun setThemeMode(mode: String) = update { it.copy(themeMode = mode) }
+
+    suspend fun setSobrietyGoalReason(reason: String) = update { it.copy(sobrietyGoalReason = reason) }
 
-    suspend fun setReminderTime(hour: Int, minute: Int) {
-        context.dataStore.edit { preferences ->
-            preferences[PreferencesKeys.REMINDER_HOUR] = hour
-            preferences[PreferencesKeys.REMINDER_MINUTE] = minute
-        }
+    private suspend fun update(transform: (UserSettings) -> UserSettings) {
+        context.userSettingsStore.updateData { current -> transform(current) }
     }
 
-    suspend fun setThemeMode(mode: String) {
-        context.dataStore.edit { preferences ->
-            preferences[PreferencesKeys.THEME_MODE] = mode
-        }
+    /** 백업용 현재 설정 스냅샷 (키 이름 → String/Int/Boolean). 키 이름은 이전 Preferences 키와 동일 */
+    suspend fun exportState(): Map<String, Any> {
+        val current = settings.first()
+        return mapOf(
+            PreferencesKeys.USER_NAME.name to current.userName,
+            PreferencesKeys.DAILY_REMINDER_ENABLED.name to current.dailyReminderEnabled,
+            PreferencesKeys.SHAKY_TIMER_NOTIFICATION_ENABLED.name to current.shakyTimerNotificationEnabled,
+            PreferencesKeys.REMINDER_HOUR.name to current.reminderHour,
+            PreferencesKeys.REMINDER_MINUTE.name to current.reminderMinute,
+            PreferencesKeys.THEME_MODE.name to current.themeMode,
+            PreferencesKeys.SOBRIETY_GOAL_REASON.name to current.sobrietyGoalReason
+        )
     }
 
-    suspend fun setSobrietyGoalReason(reason: String) {
-        context.dataStore.edit { preferences ->
-            preferences[PreferencesKeys.SOBRIETY_GOAL_REASON] = reason
-        }
+    /** 백업한 설정으로 전체를 교체합니다. 알 수 없는 키나 타입이 맞지 않는 값은 무시하고 기본값을 씀 */
+    suspend fun importState(values: Map<String, Any>) {
+        val defaults = UserSettings()
+        val imported = UserSettings(
+            userName = values[PreferencesKeys.USER_NAME.name] as? String ?: defaults.userName,
+            dailyReminderEnabled = values[PreferencesKeys.DAILY_REMINDER_ENABLED.name] as? Boolean
+                ?: defaults.dailyReminderEnabled,
+            shakyTimerNotificationEnabled = values[PreferencesKeys.SHAKY_TIMER_NOTIFICATION_ENABLED.name] as? Boolean
+                ?: defaults.shakyTimerNotificationEnabled,
+            reminderHour = values[PreferencesKeys.REMINDER_HOUR.name] as? Int ?: defaults.reminderHour,
+            reminderMinute = values[PreferencesKeys.REMINDER_MINUTE.name] as? Int ?: defaults.reminderMinute,
+            themeMode = values[PreferencesKeys.THEME_MODE.name] as? String ?: defaults.themeMode,
+            sobrietyGoalReason = values[PreferencesKeys.SOBRIETY_GOAL_REASON.name] as? String
+                ?: defaults.sobrietyGoalReason
+        )
+        context.userSettingsStore.updateData { imported }
     }
 }
@@ -0,0 +1,132 @@
+package com.sobercompanion.data.datastore
+
+import androidx.datastore.core.CorruptionException
+import androidx.datastore.core.Serializer
+import java.io.DataInputStream
+import java.io.DataOutputStream
+import java.io.IOException
+import java.io.InputStream
+import java.io.OutputStream
+
+/**
+ * 사용자 설정 전체의 불변 스냅샷. user_settings.pb 파일에 [UserSettingsSerializer]로 저장됩니다.
+ */
+data class UserSettings(
+    /** 사용자 이름. 입력 전이면 빈 문자열 */
+    val userName: String = "",
+
+    /** 매일 기록 알림 사용 여부 */
+    val dailyReminderEnabled: Boolean = true,
+
+    /** 흔들림 타이머를 알림창에 카운트다운으로 띄울지 여부 (기본 꺼짐) */
+    val shakyTimerNotificationEnabled: Boolean = false,
+
+    /** 알림 시각 (0~23시) */
+    val reminderHour: Int = 20,
+
+    /** 알림 분 (0~59분) */
+    val reminderMinute: Int = 0,
+
+    /** 테마 모드 ("system", "light", "dark") */
+    val themeMode: String = THEME_SYSTEM,
+
+    /** 금주 목표 이유. 입력 전이면 빈 문자열 */
+    val sobrietyGoalReason: String = ""
+) {
+    companion object {
+        const val THEME_SYSTEM = "system"
+        const val THEME_LIGHT = "light"
+        const val THEME_DARK = "dark"
+    }
+}
+
+/**
+ * [UserSettings] DataStore 직렬화기.
+ *
+ * 파일 구조 (빅엔디언):
+ * - u8  형식 버전 ([VERSION])
+ * - u8  플래그 (bit0 매일 알림 사용, bit1 흔들림 타이머 알림 사용)
+ * - u8  알림 시, u8 알림 분
+ * - u8  테마 코드 (0 system, 1 light, 2 dark)
+ * - 문자열 2개 (사용자 이름, 금주 목표 이유): i32 UTF-8 바이트 길이 + 바이트
+ *
+ * 필드는 끝에만 추가합니다. 더 높은 버전 파일도 아는 필드까지는 그대로 읽습니다.
+ * 플래그 비트는 레이아웃을 바꾸지 않으므로 추가해도 버전을 올리지 않습니다. (이전 파일은 꺼짐으로 읽힘)
+ */
+object UserSettingsSerializer : Serializer<UserSettings> {
+
+    private const val VERSION = 1
+
+    private const val FLAG_DAILY_REMINDER_ENABLED = 1
+    private const val FLAG_SHAKY_TIMER_NOTIFICATION_ENABLED = 1 shl 1
+
+    /** 손상된 길이 값으로 큰 배열을 할당하지 않도록 문자열 길이 상한을 둠 */
+    private const val MAX_STRING_BYTES = 1 shl 20
+
+    override val defaultValue: UserSettings = UserSettings()
+
+    override suspend fun readFrom(input: InputStream): UserSettings {
+        val data = DataInputStream(input)
+        try {
+            val version = data.readUnsignedByte()
+            if (version < 1) throw CorruptionException("알 수 없는 user_settings 버전: $version")
+            val flags = data.readUnsignedByte()
+            val reminderHour = data.readUnsignedByte()
+            val reminderMinute = data.readUnsignedByte()
+            val themeMode = themeOf(data.readUnsignedByte())
+            return UserSettings(
+                userName = data.readString(),
+                dailyReminderEnabled = flags and FLAG_DAILY_REMINDER_ENABLED != 0,
+                shakyTimerNotificationEnabled = flags and FLAG_SHAKY_TIMER_NOTIFICATION_ENABLED != 0,
+                reminderHour = reminderHour.coerceIn(0, 23),
+                reminderMinute = reminderMinute.coerceIn(0, 59),
+                themeMode = themeMode,
+                sobrietyGoalReason = data.readString()
+            )
+        } catch (e: IOException) {
+            throw CorruptionException("user_settings를 읽을 수 없습니다", e)
+        }
+    }
+
+    override suspend fun writeTo(t: UserSettings, output: OutputStream) {
+        val data = DataOutputStream(output)
+        var flags = 0
+        if (t.dailyReminderEnabled) flags = flags or FLAG_DAILY_REMINDER_ENABLED
+        if (t.shakyTimerNotificationEnabled) flags = flags or FLAG_SHAKY_TIMER_NOTIFICATION_ENABLED
+
+        data.writeByte(VERSION)
+        data.writeByte(flags)
+        data.writeByte(t.reminderHour)
+        data.writeByte(t.reminderMinute)
+        data.writeByte(codeOf(t.themeMode))
+        data.writeString(t.userName)
+        data.writeString(t.sobrietyGoalReason)
+        data.flush()
+    }
+
+    private fun DataOutputStream.writeString(value: String) {
+        val bytes = value.toByteArray(Charsets.UTF_8)
+        writeInt(bytes.size)
+        write(bytes)
+    }
+
+    private fun DataInputStream.readString(): String {
+        val size = readInt()
+        if (size !in 0..MAX_STRING_BYTES) throw CorruptionException("잘못된 문자열 길이: $size")
+        val bytes = ByteArray(size)
+        readFully(bytes)
+        return String(bytes, Charsets.UTF_8)
+    }
+
+    private fun codeOf(themeMode: String): Int = when (themeMode) {
+        UserSettings.THEME_LIGHT -> 1
+        UserSettings.THEME_DARK -> 2
+        else -> 0
+    }
+
+    private fun themeOf(code: Int): String = when (code) {
+        1 -> UserSettings.THEME_LIGHT
+        2 -> UserSettings.THEME_DARK
+        else -> UserSettings.THEME_SYSTEM
+    }
+}
@@ -1,47 +1,49 @@
 package com.sobercompanion.data.local
 
 import androidx.room.TypeConverter
+import java.time.Instant
 import java.time.LocalDate
 import java.time.LocalDateTime
-import java.time.format.DateTimeFormatter
+import java.time.ZoneOffset
 
 /**
  * Room이 SQLite에 저장할 수 없는 Java/Kotlin 타입을 변환하는 TypeConverter.
  *
  * Room은 기본적으로 String, Int, Long, Double, Boolean만 저장할 수 있습니다.
- * LocalDate와 LocalDateTime은 ISO-8601 형식의 문자열로 변환해 TEXT 컬럼에 저장합니다.
+ * LocalDate와 LocalDateTime은 정수(epoch 값)로 변환해 INTEGER 컬럼에 저장합니다.
+ * 문자열 비교/파싱 없이 정수 범위 스캔과 정렬이 가능해 날짜 쿼리가 인덱스를 탈 수 있습니다.
  *
- * 저장 형식:
- * - LocalDateTime: "2024-01-15T10:30:00" (ISO_LOCAL_DATE_TIME)
- * - LocalDate: "2024-01-15" (ISO_LOCAL_DATE)
+ * 저장 형식 (스키마 버전 2부터):
+ * - LocalDateTime: epoch millis. 벽시계 시각을 UTC로 간주해 변환하므로
+ *   기기 시간대가 바뀌어도 저장된 값이 달라지지 않습니다.
+ * - LocalDate: epoch day (1970-01-01 = 0)
  *
+ * 버전 1의 ISO-8601 문자열 데이터는 [MIGRATION_1_2]에서 정수로 변환됩니다.
  * SoberDatabase 클래스의 @TypeConverters 어노테이션에 등록되어 있습니다.
  */
 class Converters {
-    private val dateTimeFormatter = DateTimeFormatter.ISO_LOCAL_DATE_TIME
-    private val dateFormatter = DateTimeFormatter.ISO_LOCAL_DATE
 
-    /** LocalDateTime → String (DB에 저장할 때) */
+    /** LocalDateTime → epoch millis (DB에 저장할 때) */
     @TypeConverter
-    fun fromLocalDateTime(value: LocalDateTime?): String? {
-        return value?.format(dateTimeFormatter)
+    fun fromLocalDateTime(value: LocalDateTime?): Long? {
+        return value?.toInstant(ZoneOffset.UTC)?.toEpochMilli()
     }
 
-    /** String → LocalDateTime (DB에서 읽을 때) */
+    /** epoch millis → LocalDateTime (DB에서 읽을 때) */
     @TypeConverter
-    fun toLocalDateTime(value: String?): LocalDateTime? {
-        return value?.let { LocalDateTime.parse(it, dateTimeFormatter) }
+    fun toLocalDateTime(value: Long?): LocalDateTime? {
+        return value?.let { LocalDateTime.ofInstant(Instant.ofEpochMilli(it), ZoneOffset.UTC) }
     }
 
-    /** LocalDate → String (DB에 저장할 때) */
+    /** LocalDate → epoch day (DB에 저장할 때) */
     @TypeConverter
-    fun fromLocalDate(value: LocalDate?): String? {
-        return value?.format(dateFormatter)
+    fun fromLocalDate(value: LocalDate?): Long? {
+        return value?.toEpochDay()
     }
 
-    /** String → LocalDate (DB에서 읽을 때) */
+    /** epoch day → LocalDate (DB에서 읽을 때) */
     @TypeConverter
-    fun toLocalDate(value: String?): LocalDate? {
-        return value?.let { LocalDate.parse(it, dateFormatter) }
+    fun toLocalDate(value: Long?): LocalDate? {
+        return value?.let { LocalDate.ofEpochDay(it) }
     }
 }
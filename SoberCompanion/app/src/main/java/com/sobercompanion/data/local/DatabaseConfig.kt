@@ -0,0 +1,93 @@
+package com.sobercompanion.data.local
+
+import android.os.Build
+import androidx.sqlite.db.SupportSQLiteDatabase
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.ThreadFactory
+import java.util.concurrent.atomic.AtomicInteger
+
+/**
+ * SoberDatabase 연결·실행기 설정.
+ *
+ * 저널 모드는 Room 기본값(AUTOMATIC)을 따르며, 저사양(low RAM) 기기가 아니면 WAL입니다.
+ * WAL(Write-Ahead Logging) 모드에서는 쓰기가 별도 로그 파일에 기록되므로
+ * Worker가 쓰는 동안에도 통계/마일스톤 화면의 읽기가 막히지 않습니다.
+ * 읽기는 [queryThreads]개 스레드가 병렬로 처리하고, 쓰기 트랜잭션은
+ * 단일 스레드에서 순서대로 실행되어 읽기 스레드를 점유하지 않습니다.
+ *
+ * PRAGMA는 연결 단위 설정이므로 DB를 열 때(onOpen) 연결 종류에 맞게 적용합니다.
+ * - synchronous, cache_size: API 30 이상에서는 execPerConnectionSQL로 풀의 모든 연결
+ *   (이미 열린 연결과 이후 새로 여는 읽기 전용 연결)에 적용합니다.
+ *   API 29 이하에는 연결마다 실행할 방법이 없어 쓰기를 담당하는 기본 연결에만 적용됩니다.
+ * - mmap_size, wal_autocheckpoint: 결과 행을 돌려주는 PRAGMA라 execPerConnectionSQL로 실행할 수 없어
+ *   기본 연결에만 적용합니다. 자동 체크포인트는 커밋한 연결에서만 일어나므로 이것으로 충분하지만,
+ *   mmap은 쓰기 트랜잭션 안의 읽기에만 쓰이고 읽기 전용 연결은 SQLite 기본값을 사용합니다.
+ *
+ * @param queryThreads 읽기 쿼리 스레드 수. 안드로이드 WAL 연결 풀 크기(기본 4)를 넘지 않게 둡니다
+ * @param cacheSizeKb 연결별 페이지 캐시 크기(KB). PRAGMA cache_size에 음수로 전달됩니다
+ * @param mmapSizeBytes 기본 연결의 메모리 맵 I/O 크기(바이트). 0이면 사용하지 않음
+ * @param synchronous 동기화 수준. WAL에서는 NORMAL이어도 커밋된 데이터가 손상되지 않습니다
+ * @param walAutoCheckpointPages WAL 파일이 이 페이지 수를 넘으면 자동 체크포인트
+ */
+data class DatabaseConfig(
+    val queryThreads: Int = 4,
+    val cacheSizeKb: Int = 2048,
+    val mmapSizeBytes: Long = 8L * 1024 * 1024,
+    val synchronous: Synchronous = Synchronous.NORMAL,
+    val walAutoCheckpointPages: Int = 1000
+) {
+    /** PRAGMA synchronous 값 */
+    enum class Synchronous { OFF, NORMAL, FULL }
+
+    /**
+     * PRAGMA를 적용합니다. SoberDatabase의 onOpen 콜백에서 한 번 호출됩니다.
+     *
+     * 기본 연결에만 적용하는 PRAGMA는 트랜잭션 안에서 실행합니다.
+     * 트랜잭션 밖의 문장은 읽기 전용 연결로 보내질 수 있어 어느 연결에 적용될지 정해지지 않기 때문입니다.
+     * 일부 PRAGMA는 결과 행을 반환하므로 execSQL 대신 query로 실행하고 커서를 닫습니다.
+     */
+    fun applyPragmas(db: SupportSQLiteDatabase) {
+        val perConnection = listOf(
+            "PRAGMA synchronous = ${synchronous.name}",
+            "PRAGMA cache_size = -$cacheSizeKb"
+        )
+        val primaryOnly = listOf(
+            "PRAGMA mmap_size = $mmapSizeBytes",
+            "PRAGMA wal_autocheckpoint = $walAutoCheckpointPages"
+        )
+
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.R) {
+            // 지금 열린 연결에 바로 실행되고, 풀이 이후에 여는 연결에도 자동으로 실행됨
+            perConnection.forEach { db.execPerConnectionSQL(it, null) }
+            runOnPrimary(db, primaryOnly)
+        } else {
+            runOnPrimary(db, perConnection + primaryOnly)
+        }
+    }
+
+    private fun runOnPrimary(db: SupportSQLiteDatabase, pragmas: List<String>) {
+        db.beginTransaction()
+        try {
+            pragmas.forEach { pragma -> db.query(pragma).use { it.moveToFirst() } }
+            db.setTransactionSuccessful()
+        } finally {
+            db.endTransaction()
+        }
+    }
+
+    /** 읽기 쿼리용 고정 크기 스레드 풀 */
+    fun createQueryExecutor(): ExecutorService =
+        Executors.newFixedThreadPool(queryThreads, namedThreadFactory("sober-db-query"))
+
+    /** 쓰기 트랜잭션용 단일 스레드 (SQLite 쓰기는 어차피 한 번에 하나만 가능) */
+    fun createTransactionExecutor(): ExecutorService =
+        Executors.newSingleThreadExecutor(namedThreadFactory("sober-db-transaction"))
+
+    private fun namedThreadFactory(prefix: String): ThreadFactory {
+        val count = AtomicInteger()
+        return ThreadFactory { runnable ->
+            Thread(runnable, "$prefix-${count.incrementAndGet()}").apply { isDaemon = true }
+        }
+    }
+}
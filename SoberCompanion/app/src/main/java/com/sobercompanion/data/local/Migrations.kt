@@ -0,0 +1,304 @@
+package com.sobercompanion.data.local
+
+import androidx.room.migration.Migration
+import androidx.sqlite.db.SupportSQLiteDatabase
+import com.sobercompanion.data.local.entity.RollupSql
+
+/**
+ * SoberDatabase 스키마 마이그레이션 모음.
+ *
+ * 새 버전을 추가할 때는 MIGRATION_N_(N+1)을 이 파일에 정의하고
+ * SoberDatabase.getInstance()의 addMigrations()에 등록하세요.
+ *
+ * CREATE TABLE 문은 Room이 엔티티로부터 생성하는 SQL과 정확히 같아야 합니다.
+ * (컬럼 순서·타입·NOT NULL이 다르면 앱 시작 시 스키마 검증에서 실패합니다)
+ */
+
+/**
+ * ISO 날짜/시각 문자열(TEXT) → epoch 정수(INTEGER) 변환 SQL 식.
+ * SQLite는 컬럼 타입을 바꿀 수 없으므로 새 테이블에 변환해서 복사합니다.
+ *
+ * - 날짜: epoch day (strftime('%s')는 UTC 기준 초이므로 86400으로 나눔)
+ * - 시각: epoch millis (초 단위 + '%f'의 소수점 이하 3자리)
+ */
+private fun epochDayOf(column: String) =
+    "CAST(strftime('%s', $column) AS INTEGER) / 86400"
+
+private fun epochMillisOf(column: String) =
+    "CAST(strftime('%s', $column) AS INTEGER) * 1000 + " +
+        "CAST(substr(strftime('%f', $column), 4, 3) AS INTEGER)"
+
+/**
+ * 버전 1 → 2: 날짜/시각 컬럼을 ISO-8601 문자열에서 epoch 정수로 변경합니다.
+ *
+ * - daily_logs.date → epoch day
+ * - sobriety_records.startDate/endDate, daily_logs.createdAt, milestones.achievedAt → epoch millis
+ *
+ * 기존 행은 모두 유지되며 id도 그대로 보존됩니다.
+ */
+val MIGRATION_1_2 = object : Migration(1, 2) {
+    override fun migrate(db: SupportSQLiteDatabase) {
+        // ── sobriety_records ────────────────────────────────────────────────
+        db.execSQL(
+            "CREATE TABLE IF NOT EXISTS `sobriety_records_new` (" +
+                "`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, " +
+                "`startDate` INTEGER NOT NULL, " +
+                "`endDate` INTEGER, " +
+                "`isActive` INTEGER NOT NULL, " +
+                "`reason` TEXT NOT NULL, " +
+                "`note` TEXT NOT NULL)"
+        )
+        db.execSQL(
+            "INSERT INTO `sobriety_records_new` (id, startDate, endDate, isActive, reason, note) " +
+                "SELECT id, ${epochMillisOf("startDate")}, " +
+                "CASE WHEN endDate IS NULL THEN NULL ELSE ${epochMillisOf("endDate")} END, " +
+                "isActive, reason, note FROM `sobriety_records`"
+        )
+        db.execSQL("DROP TABLE `sobriety_records`")
+        db.execSQL("ALTER TABLE `sobriety_records_new` RENAME TO `sobriety_records`")
+
+        // ── daily_logs ──────────────────────────────────────────────────────
+        db.execSQL(
+            "CREATE TABLE IF NOT EXISTS `daily_logs_new` (" +
+                "`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, " +
+                "`date` INTEGER NOT NULL, " +
+                "`mood` INTEGER NOT NULL, " +
+                "`cravingLevel` INTEGER NOT NULL, " +
+                "`didDrink` INTEGER NOT NULL, " +
+                "`drinkAmount` INTEGER NOT NULL, " +
+                "`note` TEXT NOT NULL, " +
+                "`createdAt` INTEGER NOT NULL)"
+        )
+        db.execSQL(
+            "INSERT INTO `daily_logs_new` " +
+                "(id, date, mood, cravingLevel, didDrink, drinkAmount, note, createdAt) " +
+                "SELECT id, ${epochDayOf("date")}, mood, cravingLevel, didDrink, drinkAmount, note, " +
+                "${epochMillisOf("createdAt")} FROM `daily_logs`"
+        )
+        db.execSQL("DROP TABLE `daily_logs`")
+        db.execSQL("ALTER TABLE `daily_logs_new` RENAME TO `daily_logs`")
+
+        // ── milestones ──────────────────────────────────────────────────────
+        db.execSQL(
+            "CREATE TABLE IF NOT EXISTS `milestones_new` (" +
+                "`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, " +
+                "`title` TEXT NOT NULL, " +
+                "`description` TEXT NOT NULL, " +
+                "`targetDays` INTEGER NOT NULL, " +
+                "`achievedAt` INTEGER, " +
+                "`isAchieved` INTEGER NOT NULL)"
+        )
+        db.execSQL(
+            "INSERT INTO `milestones_new` (id, title, description, targetDays, achievedAt, isAchieved) " +
+                "SELECT id, title, description, targetDays, " +
+                "CASE WHEN achievedAt IS NULL THEN NULL ELSE ${epochMillisOf("achievedAt")} END, " +
+                "isAchieved FROM `milestones`"
+        )
+        db.execSQL("DROP TABLE `milestones`")
+        db.execSQL("ALTER TABLE `milestones_new` RENAME TO `milestones`")
+    }
+}
+
+/**
+ * 버전 2 → 3: daily_logs.date에 UNIQUE 인덱스를 추가합니다.
+ *
+ * 이전 버전의 조회 후 삽입 경쟁으로 같은 날짜 행이 여러 개 생겼을 수 있으므로,
+ * 인덱스 생성 전에 날짜별로 가장 최근(id가 가장 큰) 행만 남깁니다.
+ */
+val MIGRATION_2_3 = object : Migration(2, 3) {
+    override fun migrate(db: SupportSQLiteDatabase) {
+        db.execSQL(
+            "DELETE FROM `daily_logs` WHERE id NOT IN " +
+                "(SELECT MAX(id) FROM `daily_logs` GROUP BY date)"
+        )
+        db.execSQL(
+            "CREATE UNIQUE INDEX IF NOT EXISTS `index_daily_logs_date` ON `daily_logs` (`date`)"
+        )
+    }
+}
+
+/**
+ * 버전 3 → 4: DAO 쿼리별 인덱스를 추가합니다.
+ *
+ * - sobriety_records: isActive, startDate
+ * - milestones: targetDays, (isAchieved, targetDays), (isAchieved, achievedAt)
+ */
+val MIGRATION_3_4 = object : Migration(3, 4) {
+    override fun migrate(db: SupportSQLiteDatabase) {
+        db.execSQL(
+            "CREATE INDEX IF NOT EXISTS `index_sobriety_records_isActive` " +
+                "ON `sobriety_records` (`isActive`)"
+        )
+        db.execSQL(
+            "CREATE INDEX IF NOT EXISTS `index_sobriety_records_startDate` " +
+                "ON `sobriety_records` (`startDate`)"
+        )
+        db.execSQL(
+            "CREATE INDEX IF NOT EXISTS `index_milestones_targetDays` " +
+                "ON `milestones` (`targetDays`)"
+        )
+        db.execSQL(
+            "CREATE INDEX IF NOT EXISTS `index_milestones_isAchieved_targetDays` " +
+                "ON `milestones` (`isAchieved`, `targetDays`)"
+        )
+        db.execSQL(
+            "CREATE INDEX IF NOT EXISTS `index_milestones_isAchieved_achievedAt` " +
+                "ON `milestones` (`isAchieved`, `achievedAt`)"
+        )
+    }
+}
+
+/**
+ * 버전 4 → 5: 통계 롤업 테이블(stats_rollups)을 추가하고
+ * 기존 daily_logs로부터 모든 구간을 한 번 계산해 채웁니다.
+ */
+val MIGRATION_4_5 = object : Migration(4, 5) {
+    override fun migrate(db: SupportSQLiteDatabase) {
+        db.execSQL(
+            "CREATE TABLE IF NOT EXISTS `stats_rollups` (" +
+                "`period` TEXT NOT NULL, " +
+                "`periodStart` INTEGER NOT NULL, " +
+                "`logCount` INTEGER NOT NULL, " +
+                "`moodSum` INTEGER NOT NULL, " +
+                "`moodMin` INTEGER NOT NULL, " +
+                "`moodMax` INTEGER NOT NULL, " +
+                "`cravingSum` INTEGER NOT NULL, " +
+                "`cravingMin` INTEGER NOT NULL, " +
+                "`cravingMax` INTEGER NOT NULL, " +
+                "`drinkDays` INTEGER NOT NULL, " +
+                "`drinkAmount` INTEGER NOT NULL, " +
+                "PRIMARY KEY(`period`, `periodStart`))"
+        )
+        RollupSql.REBUILD.forEach { db.execSQL(it) }
+    }
+}
+
+/**
+ * 버전 5 → 6: 명언 분류 컬럼과 노출 기록 테이블을 추가합니다.
+ *
+ * - motivational_quotes.category (+ 인덱스): 분류별 랜덤 선택
+ * - quote_impressions: 최근 노출 명언 (같은 명언 반복 방지)
+ */
+val MIGRATION_5_6 = object : Migration(5, 6) {
+    override fun migrate(db: SupportSQLiteDatabase) {
+        db.execSQL(
+            "ALTER TABLE `motivational_quotes` ADD COLUMN `category` TEXT NOT NULL DEFAULT ''"
+        )
+        db.execSQL(
+            "CREATE INDEX IF NOT EXISTS `index_motivational_quotes_category` " +
+                "ON `motivational_quotes` (`category`)"
+        )
+        db.execSQL(
+            "CREATE TABLE IF NOT EXISTS `quote_impressions` (" +
+                "`quoteId` INTEGER NOT NULL, " +
+                "`shownAt` INTEGER NOT NULL, " +
+                "PRIMARY KEY(`quoteId`))"
+        )
+        db.execSQL(
+            "CREATE INDEX IF NOT EXISTS `index_quote_impressions_shownAt` " +
+                "ON `quote_impressions` (`shownAt`)"
+        )
+    }
+}
+
+/**
+ * 버전 6 → 7: 일일 기록 메모 전문 검색을 추가합니다.
+ *
+ * - daily_logs.noteTokens: 기존 메모를 NoteTokenizer로 나눈 바이그램 토큰으로 채움
+ * - daily_logs_fts: noteTokens를 색인하는 FTS4 외부 콘텐츠 테이블 + Room 동기화 트리거
+ *
+ * 트리거 이름과 SQL은 Room이 @Fts4(contentEntity) 엔티티에 생성하는 것과 같습니다.
+ */
+val MIGRATION_6_7 = object : Migration(6, 7) {
+    override fun migrate(db: SupportSQLiteDatabase) {
+        db.execSQL(
+            "ALTER TABLE `daily_logs` ADD COLUMN `noteTokens` TEXT NOT NULL DEFAULT ''"
+        )
+
+        // 토큰화는 SQL로 할 수 없으므로 메모가 있는 행만 읽어 Kotlin에서 계산
+        val update = db.compileStatement("UPDATE `daily_logs` SET `noteTokens` = ? WHERE `id` = ?")
+        db.query("SELECT `id`, `note` FROM `daily_logs` WHERE `note` != ''").use { cursor ->
+            while (cursor.moveToNext()) {
+                update.bindString(1, NoteTokenizer.tokenize(cursor.getString(1)))
+                update.bindLong(2, cursor.getLong(0))
+                update.executeUpdateDelete()
+                update.clearBindings()
+            }
+        }
+        update.close()
+
+        db.execSQL(
+            "CREATE VIRTUAL TABLE IF NOT EXISTS `daily_logs_fts` " +
+                "USING FTS4(`noteTokens` TEXT NOT NULL, content=`daily_logs`)"
+        )
+        listOf(
+            "BEFORE_UPDATE" to "BEFORE UPDATE",
+            "BEFORE_DELETE" to "BEFORE DELETE"
+        ).forEach { (name, event) ->
+            db.execSQL(
+                "CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_daily_logs_fts_$name " +
+                    "$event ON `daily_logs` BEGIN " +
+                    "DELETE FROM `daily_logs_fts` WHERE `docid`=OLD.`rowid`; END"
+            )
+        }
+        listOf(
+            "AFTER_UPDATE" to "AFTER UPDATE",
+            "AFTER_INSERT" to "AFTER INSERT"
+        ).forEach { (name, event) ->
+            db.execSQL(
+                "CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_daily_logs_fts_$name " +
+                    "$event ON `daily_logs` BEGIN " +
+                    "INSERT INTO `daily_logs_fts`(`docid`, `noteTokens`) " +
+                    "VALUES (NEW.`rowid`, NEW.`noteTokens`); END"
+            )
+        }
+
+        // 기존 행 전체를 한 번에 색인
+        db.execSQL("INSERT INTO `daily_logs_fts`(`daily_logs_fts`) VALUES('rebuild')")
+    }
+}
+
+/**
+ * 버전 7 → 8: 흔들림 기록 테이블을 추가합니다.
+ *
+ * - shaky_events (+ (day, occurredAt) 인덱스): 흔들림 한 건당 한 행, 자정에 지우지 않고 보관
+ *
+ * 이전 버전이 DataStore에 "|"로 이어 저장한 오늘 기록은 앱 시작 시
+ * SoberRepository.ensureTracking()에서 이 테이블로 옮깁니다.
+ */
+val MIGRATION_7_8 = object : Migration(7, 8) {
+    override fun migrate(db: SupportSQLiteDatabase) {
+        db.execSQL(
+            "CREATE TABLE IF NOT EXISTS `shaky_events` (" +
+                "`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, " +
+                "`day` INTEGER NOT NULL, " +
+                "`occurredAt` INTEGER NOT NULL, " +
+                "`cravingLevel` INTEGER, " +
+                "`situation` TEXT)"
+        )
+        db.execSQL(
+            "CREATE INDEX IF NOT EXISTS `index_shaky_events_day_occurredAt` " +
+                "ON `shaky_events` (`day`, `occurredAt`)"
+        )
+    }
+}
+
+/**
+ * 버전 8 → 9: 하루 성공/음주 기록 테이블을 추가합니다.
+ *
+ * - day_outcomes (date 기본 키): 성공/음주 버튼을 누른 날마다 한 행
+ *
+ * 이전 버전에서 오늘 이미 기록한 상태는 DataStore에만 있으므로 옮기지 않습니다.
+ * (화면의 중복 기록 확인이 DataStore 값을 함께 보므로 오늘 다시 기록되지 않음)
+ */
+val MIGRATION_8_9 = object : Migration(8, 9) {
+    override fun migrate(db: SupportSQLiteDatabase) {
+        db.execSQL(
+            "CREATE TABLE IF NOT EXISTS `day_outcomes` (" +
+                "`date` INTEGER NOT NULL, " +
+                "`didDrink` INTEGER NOT NULL, " +
+                "`recordedAt` INTEGER NOT NULL, " +
+                "PRIMARY KEY(`date`))"
+        )
+    }
+}
@@ -0,0 +1,63 @@
+package com.sobercompanion.data.local
+
+import java.nio.ByteBuffer
+import java.nio.ByteOrder
+import kotlin.math.ln
+
+/**
+ * 메모 검색 결과의 관련도 점수(BM25)를 FTS4 matchinfo 값으로 계산합니다.
+ *
+ * 안드로이드 SQLite의 FTS4에는 bm25()나 rank 같은 순위 함수가 없으므로
+ * 쿼리는 matchinfo(daily_logs_fts, '[MATCHINFO_FORMAT]')만 돌려주고 점수는 여기서 매깁니다.
+ *
+ * matchinfo 'pcnalx' 형식 (부호 없는 32비트 정수, 기기 바이트 순서):
+ * - p: 검색 구(phrase) 수, c: 열 수, n: 전체 기록 수
+ * - a[c]: 열별 평균 토큰 수, l[c]: 이 기록의 열별 토큰 수
+ * - x[p × c × 3]: 구·열마다 (이 기록의 일치 수, 전체 일치 수, 일치한 기록 수)
+ *
+ * 구마다 BM25 값을 더하므로 여러 단어를 검색하면 드문 단어가 많이 나오는 짧은 메모가 앞에 옵니다.
+ */
+object NoteSearchRanker {
+
+    /** SobrietyDao.getNoteMatches가 요청하는 matchinfo 형식 */
+    const val MATCHINFO_FORMAT = "pcnalx"
+
+    /** 일치 횟수 포화 정도 */
+    private const val K1 = 1.2
+
+    /** 문서 길이 정규화 정도 */
+    private const val B = 0.75
+
+    /**
+     * 절반 넘는 기록에 나오는 구는 BM25 IDF가 0 이하가 되므로 작은 양수로 바꿔
+     * 흔한 단어도 일치 횟수만큼은 점수에 반영합니다.
+     */
+    private const val MIN_IDF = 1e-6
+
+    /** matchinfo('pcnalx') 값 → BM25 점수 (클수록 관련도 높음) */
+    fun score(matchInfo: ByteArray): Double {
+        val values = ByteBuffer.wrap(matchInfo).order(ByteOrder.nativeOrder()).asIntBuffer()
+        val phrases = values[0]
+        val columns = values[1]
+        val documents = values[2]
+        val averageLengthAt = 3
+        val lengthAt = averageLengthAt + columns
+        val hitsAt = lengthAt + columns
+
+        var score = 0.0
+        for (phrase in 0 until phrases) {
+            for (column in 0 until columns) {
+                val x = hitsAt + 3 * (phrase * columns + column)
+                val hits = values[x]
+                if (hits == 0) continue
+                val documentsWithHit = values[x + 2]
+                val idf = ln((documents - documentsWithHit + 0.5) / (documentsWithHit + 0.5))
+                    .coerceAtLeast(MIN_IDF)
+                val averageLength = values[averageLengthAt + column].coerceAtLeast(1)
+                val lengthRatio = values[lengthAt + column].toDouble() / averageLength
+                score += idf * hits * (K1 + 1) / (hits + K1 * (1 - B + B * lengthRatio))
+            }
+        }
+        return score
+    }
+}
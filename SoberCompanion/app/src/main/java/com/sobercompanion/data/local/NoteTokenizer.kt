@@ -0,0 +1,74 @@
+package com.sobercompanion.data.local
+
+/**
+ * 일일 기록 메모 전문 검색용 바이그램(2-gram) 토크나이저.
+ *
+ * SQLite FTS의 기본 토크나이저는 공백 기준으로 단어를 나누므로
+ * 띄어쓰기 없이 붙여 쓴 한국어("오늘술자리있었다")에서 "술자리"를 찾을 수 없습니다.
+ * 안드로이드 SQLite에는 n-gram 토크나이저가 없으므로 Kotlin에서 미리 바이그램으로 나눈
+ * 문자열(daily_logs.noteTokens)을 FTS 테이블이 공백 기준으로 색인하게 합니다.
+ *
+ * 색인 형식: 단어마다 연속된 두 글자 토큰을 순서대로 나열하고, 마지막 글자를 한 글자 토큰으로 덧붙입니다.
+ * - "술자리" → "술자 자리 리"
+ * - "a" → "a"
+ *
+ * 검색어도 같은 방식으로 나눠 토큰이 연속으로 나타나는 구(phrase) 검색을 하므로
+ * 결과는 원문에 검색어가 부분 문자열로 포함된 경우와 같습니다.
+ */
+object NoteTokenizer {
+
+    /** 메모 원문 → FTS에 색인할 토큰 문자열 */
+    fun tokenize(text: String): String =
+        words(text).joinToString(" ") { wordTokens(it).joinToString(" ") }
+
+    /**
+     * 사용자 검색어 → FTS4 MATCH 식.
+     *
+     * 단어마다 구 검색("토큰1 토큰2 …")을 만들고 공백으로 이어 모든 단어를 포함하는 기록만 찾습니다.
+     * 한 글자 단어는 그 글자로 시작하는 토큰의 접두사 검색(글자*)으로 처리합니다.
+     *
+     * @return MATCH 식. 검색할 단어가 없으면 null
+     */
+    fun toMatchQuery(query: String): String? {
+        val terms = words(query).map { word ->
+            if (word.length == 1) {
+                "$word*"
+            } else {
+                // 마지막 한 글자 토큰은 단어 끝에만 붙으므로 검색 구에서는 제외
+                "\"" + bigrams(word).joinToString(" ") + "\""
+            }
+        }
+        return terms.takeIf { it.isNotEmpty() }?.joinToString(" ")
+    }
+
+    /**
+     * 검색 결과 목록에 보여줄 원문 발췌.
+     * 가장 먼저 나오는 검색어 주변 [radius]글자를 잘라내고, 잘린 쪽에 말줄임표를 붙입니다.
+     */
+    fun snippet(text: String, query: String, radius: Int = 24): String {
+        val lower = text.lowercase()
+        val first = words(query)
+            .map { lower.indexOf(it) }
+            .filter { it >= 0 }
+            .minOrNull()
+            ?: return text.take(radius * 2).let { if (text.length > it.length) "$it…" else it }
+
+        val start = (first - radius).coerceAtLeast(0)
+        val end = (first + radius).coerceAtMost(text.length)
+        val prefix = if (start > 0) "…" else ""
+        val suffix = if (end < text.length) "…" else ""
+        return prefix + text.substring(start, end).replace('\n', ' ') + suffix
+    }
+
+    /** 글자·숫자가 아닌 문자로 나눈 소문자 단어 목록 */
+    private fun words(text: String): List<String> =
+        text.lowercase()
+            .split(Regex("[^\\p{L}\\p{N}]+"))
+            .filter { it.isNotEmpty() }
+
+    private fun wordTokens(word: String): List<String> =
+        bigrams(word) + word.last().toString()
+
+    private fun bigrams(word: String): List<String> =
+        (0 until word.length - 1).map { word.substring(it, it + 2) }
+}
@@ -0,0 +1,75 @@
+package com.sobercompanion.data.local
+
+import androidx.sqlite.db.SupportSQLiteDatabase
+
+/**
+ * DB 최초 생성 시 삽입하는 기본 데이터(마일스톤·명언) 카탈로그.
+ *
+ * SoberDatabase.DatabaseCallback.onCreate에서 [insertInto]로 삽입되며,
+ * 테이블 생성과 같은 트랜잭션 안에서 실행되므로 DB가 열리는 시점에는
+ * 항상 기본 데이터가 들어 있습니다. (별도 코루틴/INSTANCE 참조 없음)
+ *
+ * 새 명언이나 마일스톤을 추가하고 싶으면 아래 목록에 항목을 추가하세요.
+ * (단, 이미 설치된 앱에는 반영되지 않습니다 — DB 마이그레이션 필요)
+ */
+object SeedData {
+
+    /** 기본 마일스톤: (제목, 설명, 목표 일수). 1일부터 1년까지 9단계 */
+    val MILESTONES = listOf(
+        Triple("첫 발걸음", "금주 1일 달성!", 1),
+        Triple("3일의 기적", "금주 3일 달성!", 3),
+        Triple("일주일 챔피언", "금주 7일 달성!", 7),
+        Triple("2주 전사", "금주 14일 달성!", 14),
+        Triple("한 달의 승리", "금주 30일 달성!", 30),
+        Triple("60일 마스터", "금주 60일 달성!", 60),
+        Triple("90일 영웅", "금주 90일 달성!", 90),
+        Triple("반년의 결실", "금주 180일 달성!", 180),
+        Triple("1년의 전설", "금주 365일 달성!", 365)
+    )
+
+    /** 기본 동기 부여 명언 (홈 화면 "오늘의 한마디", 리마인더 알림에 랜덤 표시) */
+    val QUOTES = listOf(
+        "오늘 하루도 잘 해냈습니다. 내일도 할 수 있어요!",
+        "변화는 불편함에서 시작됩니다.",
+        "어제보다 나은 오늘, 오늘보다 나은 내일.",
+        "포기하지 않는 한, 실패는 없습니다.",
+        "작은 진전도 여전히 진전입니다.",
+        "당신은 생각보다 강합니다.",
+        "매일 조금씩, 꾸준히.",
+        "건강한 습관이 건강한 인생을 만듭니다.",
+        "오늘의 선택이 내일의 나를 만듭니다.",
+        "힘든 순간이 지나면 더 강해진 내가 있습니다."
+    )
+
+    /**
+     * 기본 데이터를 삽입합니다.
+     * 테이블별로 INSERT 문을 한 번만 컴파일하고 값만 바꿔 실행합니다.
+     *
+     * 호출자가 연 트랜잭션 안에서 실행되어야 합니다.
+     * (Room Callback.onCreate는 SQLiteOpenHelper의 생성 트랜잭션 안에서 호출됨)
+     */
+    fun insertInto(db: SupportSQLiteDatabase) {
+        db.compileStatement(
+            "INSERT INTO milestones (title, description, targetDays, achievedAt, isAchieved) " +
+                "VALUES (?, ?, ?, NULL, 0)"
+        ).use { statement ->
+            MILESTONES.forEach { (title, description, targetDays) ->
+                statement.bindString(1, title)
+                statement.bindString(2, description)
+                statement.bindLong(3, targetDays.toLong())
+                statement.executeInsert()
+                statement.clearBindings()
+            }
+        }
+
+        db.compileStatement(
+            "INSERT INTO motivational_quotes (quote, author, category) VALUES (?, '', '')"
+        ).use { statement ->
+            QUOTES.forEach { quote ->
+                statement.bindString(1, quote)
+                statement.executeInsert()
+                statement.clearBindings()
+            }
+        }
+    }
+}
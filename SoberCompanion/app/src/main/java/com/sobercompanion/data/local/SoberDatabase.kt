@@ -8,12 +8,14 @@ import androidx.room.TypeConverters
 import androidx.sqlite.db.SupportSQLiteDatabase
 import com.sobercompanion.data.local.dao.SobrietyDao
 import com.sobercompanion.data.local.entity.DailyLog
+import com.sobercompanion.data.local.entity.DailyLogFts
+import com.sobercompanion.data.local.entity.DayOutcome
 import com.sobercompanion.data.local.entity.Milestone
 import com.sobercompanion.data.local.entity.MotivationalQuote
+import com.sobercompanion.data.local.entity.QuoteImpression
+import com.sobercompanion.data.local.entity.ShakyEvent
 import com.sobercompanion.data.local.entity.SobrietyRecord
-import kotlinx.coroutines.CoroutineScope
-import kotlinx.coroutines.Dispatchers
-import kotlinx.coroutines.launch
+import com.sobercompanion.data.local.entity.StatsRollup
 
 /**
  * 앱의 Room 데이터베이스 싱글턴 클래스.
@@ -21,23 +23,47 @@ import kotlinx.coroutines.launch
  * 포함된 테이블:
  * - sobriety_records: 금주 기록 (시작/종료 시각, 활성 여부)
  * - daily_logs: 일일 기분/욕구 기록
+ * - daily_logs_fts: daily_logs 메모 전문 검색 색인 (FTS4)
  * - milestones: 마일스톤 달성 현황
  * - motivational_quotes: 홈 화면에 표시할 명언
+ * - quote_impressions: 명언 최근 노출 기록
+ * - stats_rollups: daily_logs의 일/주/월/연/전체 구간 집계
+ * - shaky_events: 흔들림(음주 충동) 발생 기록
+ * - day_outcomes: 하루 성공/음주 기록 (날짜당 한 행)
  *
- * 스키마 변경 시 version을 올리고 Migration을 추가해야 합니다.
+ * 스키마 변경 시 version을 올리고 Migration을 추가해야 합니다. (Migrations.kt 참고)
  * exportSchema = false: 스키마 JSON 파일을 생성하지 않음 (CI 불필요 시)
+ *
+ * 저널 모드는 Room 기본값(AUTOMATIC, 대부분의 기기에서 WAL)이며,
+ * 읽기/쓰기 실행기와 PRAGMA는 [DatabaseConfig]로 조정합니다.
+ *
+ * 버전 이력:
+ * - 1: 최초 스키마 (날짜/시각을 ISO-8601 문자열로 저장)
+ * - 2: 날짜는 epoch day, 시각은 epoch millis 정수로 저장
+ * - 3: daily_logs.date UNIQUE 인덱스
+ * - 4: sobriety_records/milestones 쿼리별 인덱스
+ * - 5: stats_rollups 집계 테이블
+ * - 6: motivational_quotes.category, quote_impressions
+ * - 7: daily_logs.noteTokens, daily_logs_fts 전문 검색
+ * - 8: shaky_events 흔들림 기록
+ * - 9: day_outcomes 하루 성공/음주 기록
  */
 @Database(
     entities = [
         SobrietyRecord::class,
         DailyLog::class,
+        DailyLogFts::class,
         Milestone::class,
-        MotivationalQuote::class
+        MotivationalQuote::class,
+        QuoteImpression::class,
+        StatsRollup::class,
+        ShakyEvent::class,
+        DayOutcome::class
     ],
-    version = 1,
+    version = 9,
     exportSchema = false
 )
-@TypeConverters(Converters::class) // LocalDate/LocalDateTime 변환
+@TypeConverters(Converters::class) // LocalDate/LocalDateTime ↔ epoch 정수 변환
 abstract class SoberDatabase : RoomDatabase() {
 
     /** 모든 테이블에 접근하는 DAO */
@@ -58,74 +84,67 @@ abstract class SoberDatabase : RoomDatabase() {
          * 두 스레드가 동시에 DB를 생성하는 경쟁 조건을 방지합니다.
          *
          * @param context applicationContext를 사용해 메모리 누수를 방지합니다
+         * @param config 실행기·PRAGMA 설정. 최초 생성 시에만 적용됩니다
          */
-        fun getInstance(context: Context): SoberDatabase {
+        fun getInstance(
+            context: Context,
+            config: DatabaseConfig = DatabaseConfig()
+        ): SoberDatabase {
             return INSTANCE ?: synchronized(this) {
-                val instance = Room.databaseBuilder(
-                    context.applicationContext,
-                    SoberDatabase::class.java,
-                    "sober_companion_db"  // DB 파일명
-                )
-                    .addCallback(DatabaseCallback())
-                    .build()
+                val instance = create(context, DATABASE_NAME, config)
                 INSTANCE = instance
                 instance
             }
         }
+
+        /**
+         * 싱글턴과 상관없이 앱과 같은 설정(마이그레이션, 실행기, 콜백)으로 DB를 엽니다.
+         * 앱에서는 [getInstance]를 사용하고, 설정을 비교하는 벤치마크 등에서만 직접 호출합니다.
+         *
+         * @param name DB 파일명
+         */
+        internal fun create(context: Context, name: String, config: DatabaseConfig): SoberDatabase =
+            Room.databaseBuilder(context.applicationContext, SoberDatabase::class.java, name)
+                .addMigrations(
+                    MIGRATION_1_2,
+                    MIGRATION_2_3,
+                    MIGRATION_3_4,
+                    MIGRATION_4_5,
+                    MIGRATION_5_6,
+                    MIGRATION_6_7,
+                    MIGRATION_7_8,
+                    MIGRATION_8_9
+                )
+                .setQueryExecutor(config.createQueryExecutor())
+                .setTransactionExecutor(config.createTransactionExecutor())
+                .addCallback(DatabaseCallback(config))
+                .build()
+
+        /** DB 파일명 */
+        private const val DATABASE_NAME = "sober_companion_db"
     }
 
     /**
-     * DB 생성 시 최초 1회 실행되는 콜백.
-     * 기본 마일스톤과 명언을 삽입합니다.
+     * DB 생성·열기 콜백.
+     * 생성 시 최초 1회 기본 마일스톤과 명언을 삽입하고 (SeedData 참고),
+     * 열 때마다 [DatabaseConfig]의 PRAGMA를 적용합니다. (연결별 적용 범위는 DatabaseConfig 참고)
      *
      * onCreate는 DB가 처음 생성될 때만 호출됩니다.
      * (앱을 삭제하고 재설치하면 다시 실행됩니다)
+     *
+     * 테이블 생성과 같은 트랜잭션에서 동기적으로 삽입하므로,
+     * DB를 처음 연 쿼리도 기본 데이터가 채워진 상태를 보게 됩니다.
+     * 삽입이 실패하면 DB 생성 전체가 롤백되어 다음 실행에서 다시 시도됩니다.
      */
-    private class DatabaseCallback : Callback() {
+    private class DatabaseCallback(private val config: DatabaseConfig) : Callback() {
         override fun onCreate(db: SupportSQLiteDatabase) {
             super.onCreate(db)
-            // IO 디스패처에서 코루틴으로 비동기 실행 (UI 스레드 블로킹 방지)
-            INSTANCE?.let { database ->
-                CoroutineScope(Dispatchers.IO).launch {
-                    populateDatabase(database.sobrietyDao())
-                }
-            }
+            SeedData.insertInto(db)
         }
 
-        /**
-         * 기본 마일스톤 9개와 동기 부여 명언 10개를 삽입합니다.
-         * 새 명언을 추가하고 싶으면 이 함수의 quotes 리스트에 항목을 추가하세요.
-         * (단, 이미 설치된 앱에는 반영되지 않습니다 — DB 마이그레이션 필요)
-         */
-        private suspend fun populateDatabase(dao: SobrietyDao) {
-            // 기본 마일스톤: 1일부터 1년까지 9단계
-            val milestones = listOf(
-                Milestone(title = "첫 발걸음", description = "금주 1일 달성!", targetDays = 1),
-                Milestone(title = "3일의 기적", description = "금주 3일 달성!", targetDays = 3),
-                Milestone(title = "일주일 챔피언", description = "금주 7일 달성!", targetDays = 7),
-                Milestone(title = "2주 전사", description = "금주 14일 달성!", targetDays = 14),
-                Milestone(title = "한 달의 승리", description = "금주 30일 달성!", targetDays = 30),
-                Milestone(title = "60일 마스터", description = "금주 60일 달성!", targetDays = 60),
-                Milestone(title = "90일 영웅", description = "금주 90일 달성!", targetDays = 90),
-                Milestone(title = "반년의 결실", description = "금주 180일 달성!", targetDays = 180),
-                Milestone(title = "1년의 전설", description = "금주 365일 달성!", targetDays = 365)
-            )
-            dao.insertMilestones(milestones)
-
-            // 기본 동기 부여 명언 (홈 화면 "오늘의 한마디"에 랜덤 표시)
-            val quotes = listOf(
-                MotivationalQuote(quote = "오늘 하루도 잘 해냈습니다. 내일도 할 수 있어요!", author = ""),
-                MotivationalQuote(quote = "변화는 불편함에서 시작됩니다.", author = ""),
-                MotivationalQuote(quote = "어제보다 나은 오늘, 오늘보다 나은 내일.", author = ""),
-                MotivationalQuote(quote = "포기하지 않는 한, 실패는 없습니다.", author = ""),
-                MotivationalQuote(quote = "작은 진전도 여전히 진전입니다.", author = ""),
-                MotivationalQuote(quote = "당신은 생각보다 강합니다.", author = ""),
-                MotivationalQuote(quote = "매일 조금씩, 꾸준히.", author = ""),
-                MotivationalQuote(quote = "건강한 습관이 건강한 인생을 만듭니다.", author = ""),
-                MotivationalQuote(quote = "오늘의 선택이 내일의 나를 만듭니다.", author = ""),
-                MotivationalQuote(quote = "힘든 순간이 지나면 더 강해진 내가 있습니다.", author = "")
-            )
-            dao.insertQuotes(quotes)
+        override fun onOpen(db: SupportSQLiteDatabase) {
+            super.onOpen(db)
+            config.applyPragmas(db)
         }
     }
 }
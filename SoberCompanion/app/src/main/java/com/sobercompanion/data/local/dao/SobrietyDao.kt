@@ -5,13 +5,25 @@ import androidx.room.Delete
 import androidx.room.Insert
 import androidx.room.OnConflictStrategy
 import androidx.room.Query
+import androidx.room.Transaction
 import androidx.room.Update
+import com.sobercompanion.data.local.NoteSearchRanker
+import com.sobercompanion.data.local.NoteTokenizer
 import com.sobercompanion.data.local.entity.DailyLog
+import com.sobercompanion.data.local.entity.DayOutcome
 import com.sobercompanion.data.local.entity.Milestone
 import com.sobercompanion.data.local.entity.MotivationalQuote
+import com.sobercompanion.data.local.entity.QuoteImpression
+import com.sobercompanion.data.local.entity.RollupPeriod
+import com.sobercompanion.data.local.entity.RollupSql
+import com.sobercompanion.data.local.entity.ShakyEvent
 import com.sobercompanion.data.local.entity.SobrietyRecord
+import com.sobercompanion.data.local.entity.StatsRollup
 import kotlinx.coroutines.flow.Flow
 import java.time.LocalDate
+import java.time.LocalDateTime
+import java.time.LocalTime
+import java.time.temporal.ChronoUnit
 
 /**
  * Room 데이터베이스의 모든 쿼리를 정의하는 Data Access Object.
@@ -20,6 +32,10 @@ import java.time.LocalDate
  * suspend 함수는 일회성 읽기/쓰기에 사용됩니다.
  *
  * OnConflictStrategy.REPLACE: 같은 PK가 있으면 기존 행을 삭제하고 새로 삽입합니다.
+ *
+ * 조회 쿼리는 모두 엔티티에 선언된 인덱스로 응답하도록 작성되어 있습니다.
+ * (전체 스캔이나 임시 B-tree 정렬이 생기지 않도록) 새 쿼리를 추가할 때는
+ * WHERE/ORDER BY 컬럼에 맞는 인덱스가 있는지 먼저 확인하세요.
  */
 @Dao
 interface SobrietyDao {
@@ -47,31 +63,219 @@ interface SobrietyDao {
     @Query("SELECT * FROM sobriety_records WHERE isActive = 1 LIMIT 1")
     fun getActiveSobrietyRecord(): Flow<SobrietyRecord?>
 
-    /** 모든 금주 기록을 최신순으로 반환합니다 (통계/이력 조회용) */
+    /**
+     * 모든 금주 기록을 최신순으로 반환합니다.
+     * 쓰기마다 전체 목록을 다시 읽으므로 화면 목록에는 HistoryRepository의 페이징을 사용하세요.
+     */
     @Query("SELECT * FROM sobriety_records ORDER BY startDate DESC")
     fun getAllSobrietyRecords(): Flow<List<SobrietyRecord>>
 
+    // 이력 화면 키셋 페이징 (startDate 인덱스 범위 스캔, HistoryRepository 참고)
+
+    @Query("SELECT * FROM sobriety_records ORDER BY startDate DESC LIMIT :limit")
+    suspend fun getLatestSobrietyRecords(limit: Int): List<SobrietyRecord>
+
+    @Query(
+        "SELECT * FROM sobriety_records WHERE startDate <= :startDate " +
+            "ORDER BY startDate DESC LIMIT :limit"
+    )
+    suspend fun getSobrietyRecordsAtOrBefore(startDate: LocalDateTime, limit: Int): List<SobrietyRecord>
+
+    @Query(
+        "SELECT * FROM sobriety_records WHERE startDate < :startDate " +
+            "ORDER BY startDate DESC LIMIT :limit"
+    )
+    suspend fun getSobrietyRecordsBefore(startDate: LocalDateTime, limit: Int): List<SobrietyRecord>
+
+    /** [startDate]보다 나중 기록을 가까운 순(오름차순)으로 반환합니다 */
+    @Query(
+        "SELECT * FROM sobriety_records WHERE startDate > :startDate " +
+            "ORDER BY startDate ASC LIMIT :limit"
+    )
+    suspend fun getSobrietyRecordsAfter(startDate: LocalDateTime, limit: Int): List<SobrietyRecord>
+
+    @Query("SELECT COUNT(*) FROM sobriety_records WHERE startDate < :startDate")
+    suspend fun countSobrietyRecordsBefore(startDate: LocalDateTime): Int
+
+    @Query("SELECT COUNT(*) FROM sobriety_records WHERE startDate > :startDate")
+    suspend fun countSobrietyRecordsAfter(startDate: LocalDateTime): Int
+
     /**
      * 현재 활성 기록을 종료합니다 (음주 기록 시 호출).
      * isActive=0으로 변경하고 endDate를 기록합니다.
      */
     @Query("UPDATE sobriety_records SET isActive = 0, endDate = :endDate WHERE isActive = 1")
-    suspend fun endCurrentSobriety(endDate: java.time.LocalDateTime)
+    suspend fun endCurrentSobriety(endDate: LocalDateTime)
+
+    /** 현재 활성 기록을 한 번만 조회합니다. 없으면 null */
+    @Query("SELECT * FROM sobriety_records WHERE isActive = 1 LIMIT 1")
+    suspend fun getActiveSobrietyRecordOnce(): SobrietyRecord?
+
+    /**
+     * 활성 기록이 없을 때만 [startDate]부터 새 기록을 시작합니다. (최초 실행, 기존 설치 이전)
+     * @return 활성 기록 (이미 있으면 그 기록)
+     */
+    @Transaction
+    suspend fun ensureActiveSobriety(startDate: LocalDateTime): SobrietyRecord {
+        getActiveSobrietyRecordOnce()?.let { return it }
+        val record = SobrietyRecord(startDate = startDate)
+        return record.copy(id = insertSobrietyRecord(record))
+    }
+
+    /**
+     * 현재 활성 기록을 [now]에 종료하고 같은 시각부터 새 기록을 시작합니다. (음주 후 재시작)
+     * 금주 일수가 0이 되므로 마일스톤 달성 상태도 같은 트랜잭션에서 되돌립니다.
+     */
+    @Transaction
+    suspend fun restartSobriety(now: LocalDateTime, reason: String) {
+        endCurrentSobriety(now)
+        insertSobrietyRecord(SobrietyRecord(startDate = now, reason = reason))
+        recomputeMilestones(0, now)
+    }
+
+    /**
+     * 오늘 금주 성공을 반영합니다. 활성 기록이 없으면 [now]부터 시작하고,
+     * 시작일로부터의 날짜 수로 마일스톤을 갱신합니다.
+     *
+     * @return 새로 달성한 마일스톤 목록
+     */
+    @Transaction
+    suspend fun confirmSoberDay(now: LocalDateTime): List<Milestone> {
+        val active = ensureActiveSobriety(now)
+        val days = ChronoUnit.DAYS.between(active.startDate.toLocalDate(), now.toLocalDate()).toInt()
+        return recomputeMilestones(days, now)
+    }
+
+    // ========== Day Outcomes ==========
+
+    /**
+     * 하루 성공/음주 기록을 삽입합니다.
+     * @return 삽입된 행의 rowid. 그 날짜가 이미 기록돼 있으면 -1
+     */
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    suspend fun insertDayOutcome(outcome: DayOutcome): Long
+
+    /** [date]의 성공/음주 기록. 아직 기록하지 않았으면 null */
+    @Query("SELECT * FROM day_outcomes WHERE date = :date")
+    suspend fun getDayOutcome(date: LocalDate): DayOutcome?
+
+    /** [date]의 성공/음주 기록을 지웁니다 (추적 중단 시 같은 날 다시 기록할 수 있도록) */
+    @Query("DELETE FROM day_outcomes WHERE date = :date")
+    suspend fun deleteDayOutcome(date: LocalDate)
+
+    /**
+     * [date]의 금주 성공을 한 번만 기록합니다. 성공 기록과 마일스톤 갱신이 한 트랜잭션이므로
+     * 이미 기록된 날에 다시 호출되면(중복 탭, 재시도) 아무것도 바꾸지 않습니다.
+     *
+     * @return 새로 달성한 마일스톤 목록. 그 날짜가 이미 기록돼 있으면 null
+     */
+    @Transaction
+    suspend fun recordSoberDay(date: LocalDate, now: LocalDateTime): List<Milestone>? {
+        if (insertDayOutcome(DayOutcome(date = date, didDrink = false, recordedAt = now)) == -1L) return null
+        return confirmSoberDay(now)
+    }
+
+    /**
+     * [date]의 음주를 한 번만 기록하고 금주 기록을 그날 안에서 다시 시작합니다.
+     * 이미 기록된 날이면 아무것도 바꾸지 않습니다.
+     *
+     * 재시작 시각은 [now]이지만, 자정을 넘겨 전날([date])을 기록하면 그날의 마지막 시각입니다.
+     * 진행 중인 기록이 그 시각 이후에 시작됐으면(이후 날짜의 음주로 이미 재시작) 기록만 남기고 재시작하지 않습니다.
+     *
+     * @return 이번에 기록했으면 true, 그 날짜가 이미 기록돼 있으면 false
+     */
+    @Transaction
+    suspend fun recordDrinkDay(date: LocalDate, now: LocalDateTime): Boolean {
+        if (insertDayOutcome(DayOutcome(date = date, didDrink = true, recordedAt = now)) == -1L) return false
+        val restartAt = minOf(now, date.atTime(LocalTime.MAX))
+        val active = getActiveSobrietyRecordOnce()
+        if (active == null || active.startDate.isBefore(restartAt)) restartSobriety(restartAt, reason = "")
+        return true
+    }
+
+    /** 활성 금주 기록을 [now]에 종료하고 [today]의 성공/음주 기록을 지웁니다 (추적 중단) */
+    @Transaction
+    suspend fun stopTracking(now: LocalDateTime, today: LocalDate) {
+        endCurrentSobriety(now)
+        deleteDayOutcome(today)
+    }
 
     // ========== Daily Logs ==========
 
     /**
      * 일일 기록을 삽입하거나 같은 날짜의 기존 기록을 덮어씁니다.
-     * DailyLogScreen에서 저장 버튼 클릭 시 호출됩니다.
+     * (date UNIQUE 인덱스 충돌 시 기존 행을 삭제하고 새 id로 삽입)
+     * 날짜별 저장에는 id를 유지하는 [upsertDailyLog]를 사용하세요.
      */
     @Insert(onConflict = OnConflictStrategy.REPLACE)
     suspend fun insertDailyLog(log: DailyLog): Long
 
+    /**
+     * 같은 날짜의 기록이 없을 때만 삽입합니다.
+     * @return 삽입된 행의 ID. 이미 같은 날짜의 기록이 있으면 -1
+     */
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    suspend fun insertDailyLogIfAbsent(log: DailyLog): Long
+
+    /**
+     * 날짜로 기존 기록의 내용을 갱신합니다. date UNIQUE 인덱스로 한 행만 찾아 수정합니다.
+     * id와 createdAt(최초 작성 시각)은 유지됩니다.
+     */
+    @Query(
+        "UPDATE daily_logs SET mood = :mood, cravingLevel = :cravingLevel, didDrink = :didDrink, " +
+            "drinkAmount = :drinkAmount, note = :note, noteTokens = :noteTokens WHERE date = :date"
+    )
+    suspend fun updateDailyLogByDate(
+        date: LocalDate,
+        mood: Int,
+        cravingLevel: Int,
+        didDrink: Boolean,
+        drinkAmount: Int,
+        note: String,
+        noteTokens: String
+    ): Int
+
+    /** 특정 날짜 기록의 id만 조회합니다 (date 인덱스만으로 응답) */
+    @Query("SELECT id FROM daily_logs WHERE date = :date")
+    suspend fun getDailyLogIdByDate(date: LocalDate): Long?
+
+    /**
+     * 하루 기록을 한 트랜잭션 안에서 저장합니다 (DailyLogScreen 저장 버튼).
+     *
+     * 새 날짜면 INSERT 한 번으로 끝나고, 이미 기록이 있으면 INSERT가 무시된 뒤
+     * 같은 트랜잭션에서 인덱스 기반 UPDATE를 실행합니다.
+     * 조회 후 삽입 방식과 달리 동시에 두 번 저장해도 같은 날짜의 행이 중복 생성되지 않습니다.
+     *
+     * Room의 @Upsert는 PK 충돌만 처리하고, SQLite의 ON CONFLICT DO UPDATE는
+     * 3.24(API 30) 이상에서만 지원되므로 minSdk 26에서는 이 방식을 사용합니다.
+     * 검색 토큰(noteTokens)은 넘겨받은 값을 쓰지 않고 저장하는 note로부터 다시 계산합니다.
+     *
+     * @return 저장된 행의 ID
+     */
+    @Transaction
+    suspend fun upsertDailyLog(log: DailyLog): Long {
+        val noteTokens = NoteTokenizer.tokenize(log.note)
+        val insertedId = insertDailyLogIfAbsent(log.copy().also { it.noteTokens = noteTokens })
+        if (insertedId != -1L) return insertedId
+
+        updateDailyLogByDate(
+            date = log.date,
+            mood = log.mood,
+            cravingLevel = log.cravingLevel,
+            didDrink = log.didDrink,
+            drinkAmount = log.drinkAmount,
+            note = log.note,
+            noteTokens = noteTokens
+        )
+        return getDailyLogIdByDate(log.date) ?: -1L
+    }
+
     @Update
     suspend fun updateDailyLog(log: DailyLog)
 
+    /** 일일 기록 행만 삭제합니다. 롤업까지 함께 갱신하는 [deleteDailyLogAndRollups]를 사용하세요 */
     @Delete
-    suspend fun deleteDailyLog(log: DailyLog)
+    suspend fun deleteDailyLogRow(log: DailyLog)
 
     /**
      * 특정 날짜의 일일 기록을 조회합니다.
@@ -80,10 +284,34 @@ interface SobrietyDao {
     @Query("SELECT * FROM daily_logs WHERE date = :date LIMIT 1")
     suspend fun getDailyLogByDate(date: LocalDate): DailyLog?
 
-    /** 모든 일일 기록을 최신순으로 Flow로 반환합니다 */
+    /**
+     * 모든 일일 기록을 최신순으로 Flow로 반환합니다.
+     * 쓰기마다 전체 목록을 다시 읽으므로 화면 목록에는 HistoryRepository의 페이징을 사용하세요.
+     */
     @Query("SELECT * FROM daily_logs ORDER BY date DESC")
     fun getAllDailyLogs(): Flow<List<DailyLog>>
 
+    // 이력 화면 키셋 페이징 (date UNIQUE 인덱스 범위 스캔, HistoryRepository 참고)
+
+    @Query("SELECT * FROM daily_logs ORDER BY date DESC LIMIT :limit")
+    suspend fun getLatestDailyLogs(limit: Int): List<DailyLog>
+
+    @Query("SELECT * FROM daily_logs WHERE date <= :date ORDER BY date DESC LIMIT :limit")
+    suspend fun getDailyLogsAtOrBefore(date: LocalDate, limit: Int): List<DailyLog>
+
+    @Query("SELECT * FROM daily_logs WHERE date < :date ORDER BY date DESC LIMIT :limit")
+    suspend fun getDailyLogsBefore(date: LocalDate, limit: Int): List<DailyLog>
+
+    /** [date]보다 나중 기록을 가까운 순(오름차순)으로 반환합니다 */
+    @Query("SELECT * FROM daily_logs WHERE date > :date ORDER BY date ASC LIMIT :limit")
+    suspend fun getDailyLogsAfter(date: LocalDate, limit: Int): List<DailyLog>
+
+    @Query("SELECT COUNT(*) FROM daily_logs WHERE date < :date")
+    suspend fun countDailyLogsBefore(date: LocalDate): Int
+
+    @Query("SELECT COUNT(*) FROM daily_logs WHERE date > :date")
+    suspend fun countDailyLogsAfter(date: LocalDate): Int
+
     /**
      * 특정 기간의 일일 기록을 날짜 오름차순으로 반환합니다.
      * 트렌드 차트 등 기간별 분석에 사용됩니다.
@@ -100,6 +328,58 @@ interface SobrietyDao {
     @Query("SELECT * FROM daily_logs ORDER BY date DESC LIMIT :limit")
     fun getRecentDailyLogs(limit: Int): Flow<List<DailyLog>>
 
+    /**
+     * 메모 전문 검색에 일치한 기록마다 id, 날짜, FTS4 matchinfo 값을 반환합니다.
+     *
+     * daily_logs_fts의 바이그램 색인으로 후보를 찾고 rowid(= daily_logs.id)로 날짜만 가져오므로
+     * LIKE '%…%' 전체 스캔과 달리 기록 수가 늘어도 색인 조회 비용만 듭니다. 본문은 읽지 않습니다.
+     * FTS4에는 bm25 같은 관련도 함수가 없으므로 순위는 NoteSearchRanker가 matchinfo로 계산합니다.
+     *
+     * @param match FTS4 MATCH 식. 사용자 입력은 NoteTokenizer.toMatchQuery로 변환해 전달하세요
+     */
+    @Query(
+        "SELECT daily_logs.id AS id, daily_logs.date AS date, " +
+            "matchinfo(daily_logs_fts, '" + NoteSearchRanker.MATCHINFO_FORMAT + "') AS matchInfo " +
+            "FROM daily_logs_fts JOIN daily_logs ON daily_logs.id = daily_logs_fts.rowid " +
+            "WHERE daily_logs_fts MATCH :match"
+    )
+    suspend fun getNoteMatches(match: String): List<NoteMatch>
+
+    /** id 목록에 해당하는 일일 기록 (PK 조회, 순서는 보장하지 않음) */
+    @Query("SELECT * FROM daily_logs WHERE id IN (:ids)")
+    suspend fun getDailyLogsByIds(ids: List<Long>): List<DailyLog>
+
+    // ========== Shaky Events ==========
+
+    /** 흔들림 한 건을 추가합니다 (INSERT 한 번, 기존 행은 건드리지 않음) */
+    @Insert
+    suspend fun insertShakyEvent(event: ShakyEvent): Long
+
+    /** 여러 흔들림을 한 번에 추가합니다 (이전 버전 DataStore 기록 이전 시 사용) */
+    @Insert
+    suspend fun insertShakyEvents(events: List<ShakyEvent>)
+
+    /**
+     * 하루의 흔들림 횟수와 마지막 시각을 Flow로 반환합니다.
+     * (day, occurredAt) 인덱스만으로 응답하며 행 목록을 읽지 않습니다.
+     */
+    @Query(
+        "SELECT COUNT(*) AS count, MAX(occurredAt) AS lastAt " +
+            "FROM shaky_events WHERE day = :day"
+    )
+    fun getShakyDaySummary(day: LocalDate): Flow<ShakyDaySummary>
+
+    /** 가장 최근 흔들림 시각. 기록이 없으면 null (인덱스 역순 첫 행) */
+    @Query("SELECT occurredAt FROM shaky_events ORDER BY day DESC, occurredAt DESC LIMIT 1")
+    suspend fun getLatestShakyAt(): LocalDateTime?
+
+    /** [from]~[to] 기간의 흔들림을 시간순으로 반환합니다 (패턴 분석용) */
+    @Query(
+        "SELECT * FROM shaky_events WHERE day BETWEEN :from AND :to " +
+            "ORDER BY day, occurredAt"
+    )
+    fun getShakyEventsBetween(from: LocalDate, to: LocalDate): Flow<List<ShakyEvent>>
+
     // ========== Milestones ==========
 
     @Insert(onConflict = OnConflictStrategy.REPLACE)
@@ -125,14 +405,61 @@ interface SobrietyDao {
     fun getAchievedMilestones(): Flow<List<Milestone>>
 
     /**
-     * 현재 금주 일수로 새로 달성 가능한 마일스톤 목록을 조회합니다.
-     * 금주 일수가 업데이트될 때마다 호출해 isAchieved를 true로 업데이트합니다.
+     * 현재 금주 일수로 새로 달성 가능한 마일스톤 목록을 목표 일수 오름차순으로 조회합니다.
+     * (isAchieved, targetDays) 인덱스 범위 스캔으로 응답합니다.
      *
      * @param days 현재 금주 일수
      */
-    @Query("SELECT * FROM milestones WHERE targetDays <= :days AND isAchieved = 0")
+    @Query(
+        "SELECT * FROM milestones WHERE isAchieved = 0 AND targetDays <= :days " +
+            "ORDER BY targetDays ASC"
+    )
     suspend fun getMilestonesToAchieve(days: Int): List<Milestone>
 
+    /**
+     * 목표 일수에 도달한 미달성 마일스톤을 UPDATE 한 번으로 모두 달성 처리합니다.
+     * @return 달성 처리된 행 수
+     */
+    @Query(
+        "UPDATE milestones SET isAchieved = 1, achievedAt = :achievedAt " +
+            "WHERE targetDays <= :days AND isAchieved = 0"
+    )
+    suspend fun markMilestonesAchieved(days: Int, achievedAt: LocalDateTime): Int
+
+    /**
+     * 현재 금주 일수보다 목표가 큰 달성 마일스톤을 UPDATE 한 번으로 미달성으로 되돌립니다.
+     * 음주로 금주 기록이 끝나고 새로 시작될 때 사용됩니다.
+     * @return 되돌린 행 수
+     */
+    @Query(
+        "UPDATE milestones SET isAchieved = 0, achievedAt = NULL " +
+            "WHERE targetDays > :days AND isAchieved = 1"
+    )
+    suspend fun resetMilestonesAbove(days: Int): Int
+
+    /**
+     * 현재 금주 일수 기준으로 마일스톤 달성 상태를 한 트랜잭션에서 다시 맞춥니다.
+     *
+     * 1. 목표가 현재 일수를 넘는 달성 마일스톤은 미달성으로 되돌림 (재시작된 금주 기록)
+     * 2. 목표에 도달한 미달성 마일스톤을 한 번에 달성 처리
+     *
+     * 행마다 UPDATE하지 않고 조건 UPDATE 두 번으로 처리하므로 마일스톤 수와 무관하게 일정합니다.
+     *
+     * @param days 현재 금주 일수
+     * @param now 달성 시각으로 기록할 시각
+     * @return 이번 호출에서 새로 달성한 마일스톤 (목표 일수 오름차순, 축하 표시용)
+     */
+    @Transaction
+    suspend fun recomputeMilestones(days: Int, now: LocalDateTime): List<Milestone> {
+        resetMilestonesAbove(days)
+
+        val newlyAchieved = getMilestonesToAchieve(days)
+        if (newlyAchieved.isEmpty()) return emptyList()
+
+        markMilestonesAchieved(days, now)
+        return newlyAchieved.map { it.copy(isAchieved = true, achievedAt = now) }
+    }
+
     // ========== Motivational Quotes ==========
 
     @Insert(onConflict = OnConflictStrategy.REPLACE)
@@ -142,15 +469,214 @@ interface SobrietyDao {
     @Insert(onConflict = OnConflictStrategy.REPLACE)
     suspend fun insertQuotes(quotes: List<MotivationalQuote>)
 
+    /** 명언 하나를 PK로 조회합니다. 없으면 null */
+    @Query("SELECT * FROM motivational_quotes WHERE id = :id")
+    suspend fun getQuoteById(id: Long): MotivationalQuote?
+
     /**
-     * DB에서 랜덤으로 명언 하나를 조회합니다.
-     * 홈 화면 "오늘의 한마디" 섹션에서 사용됩니다.
-     * 명언이 없으면 null을 반환합니다.
+     * 모든 명언의 id 목록을 반환합니다 (QuoteRepository의 랜덤 선택용 캐시).
+     * 행 전체가 아닌 PK만 읽으므로 명언 팩이 커도 가볍습니다.
      */
-    @Query("SELECT * FROM motivational_quotes ORDER BY RANDOM() LIMIT 1")
-    suspend fun getRandomQuote(): MotivationalQuote?
+    @Query("SELECT id FROM motivational_quotes")
+    suspend fun getAllQuoteIds(): List<Long>
+
+    /** 특정 분류의 명언 id 목록을 반환합니다 (category 인덱스 사용) */
+    @Query("SELECT id FROM motivational_quotes WHERE category = :category")
+    suspend fun getQuoteIdsByCategory(category: String): List<Long>
+
+    /** 명언 노출을 기록합니다. 같은 명언이면 노출 시각을 덮어씁니다 */
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    suspend fun insertQuoteImpression(impression: QuoteImpression)
+
+    /** [since] 이후에 노출된 명언 기록을 반환합니다 (no-repeat 목록 복원용) */
+    @Query("SELECT * FROM quote_impressions WHERE shownAt >= :since")
+    suspend fun getQuoteImpressionsSince(since: LocalDateTime): List<QuoteImpression>
+
+    /** [before] 이전의 오래된 노출 기록을 삭제합니다 */
+    @Query("DELETE FROM quote_impressions WHERE shownAt < :before")
+    suspend fun deleteQuoteImpressionsBefore(before: LocalDateTime)
 
     /** 저장된 명언 총 개수를 반환합니다 (초기 데이터 중복 삽입 방지에 사용) */
     @Query("SELECT COUNT(*) FROM motivational_quotes")
     suspend fun getQuoteCount(): Int
+
+    // ========== Statistics ==========
+
+    /**
+     * StatisticsScreen 상단 요약 수치를 SQLite에서 한 번에 집계해 한 행으로 반환합니다.
+     * 레코드 목록 전체를 객체로 만들지 않고, 테이블이 바뀔 때만 다시 계산됩니다.
+     *
+     * 금주 일수는 시작 날짜부터 종료 날짜(진행 중이면 [today])까지의 날짜 차이입니다.
+     * 시각은 보지 않으므로 홈 화면 연속 일수와 같은 기준이며, 하루 안에서는 값이 바뀌지 않습니다.
+     * (저장된 epoch millis를 86400000으로 나누면 그 날짜의 epoch day.
+     * ChronoUnit.DAYS.between(startDate.toLocalDate(), endDate.toLocalDate())와 같은 결과)
+     *
+     * @param today 진행 중인 기록의 종료 날짜로 사용할 오늘 날짜
+     * @param recentDays 평균 기분/욕구를 계산할 최근 기록 수
+     */
+    @Query(
+        "SELECT " +
+            "(SELECT COALESCE(SUM(COALESCE(endDate / 86400000, :today) - startDate / 86400000), 0) " +
+            "FROM sobriety_records) AS totalSoberDays, " +
+            "(SELECT COALESCE(MAX(COALESCE(endDate / 86400000, :today) - startDate / 86400000), 0) " +
+            "FROM sobriety_records) AS longestStreak, " +
+            "(SELECT COUNT(*) FROM sobriety_records WHERE isActive = 0) AS relapseCount, " +
+            "(SELECT COALESCE(AVG(mood), 0) FROM " +
+            "(SELECT mood FROM daily_logs ORDER BY date DESC LIMIT :recentDays)) AS averageMood, " +
+            "(SELECT COALESCE(AVG(cravingLevel), 0) FROM " +
+            "(SELECT cravingLevel FROM daily_logs ORDER BY date DESC LIMIT :recentDays)) AS averageCraving"
+    )
+    fun getStatisticsSummary(today: LocalDate, recentDays: Int): Flow<StatisticsSummary>
+
+    // ========== Stats Rollups ==========
+
+    /**
+     * 특정 구간 단위의 롤업을 기간 오름차순으로 반환합니다 (주/월/연 추이용).
+     * PK(period, periodStart) 범위 스캔만으로 응답합니다.
+     */
+    @Query(
+        "SELECT * FROM stats_rollups WHERE period = :period " +
+            "AND periodStart BETWEEN :from AND :to ORDER BY periodStart ASC"
+    )
+    fun getRollups(period: RollupPeriod, from: LocalDate, to: LocalDate): Flow<List<StatsRollup>>
+
+    /** 구간 하나의 롤업을 반환합니다. 해당 구간에 기록이 없으면 null */
+    @Query("SELECT * FROM stats_rollups WHERE period = :period AND periodStart = :periodStart")
+    fun getRollup(period: RollupPeriod, periodStart: LocalDate): Flow<StatsRollup?>
+
+    @Query("DELETE FROM stats_rollups WHERE period = :period AND periodStart = :periodStart")
+    suspend fun deleteRollup(period: RollupPeriod, periodStart: LocalDate)
+
+    @Query(RollupSql.INSERT_DAY)
+    suspend fun insertDayRollup(date: LocalDate)
+
+    @Query(RollupSql.INSERT_FROM_SOURCE)
+    suspend fun insertRollupFromSource(
+        period: RollupPeriod,
+        periodStart: LocalDate,
+        source: RollupPeriod,
+        from: LocalDate,
+        to: LocalDate
+    )
+
+    @Query(RollupSql.DELETE_ALL)
+    suspend fun deleteAllRollups()
+
+    @Query(RollupSql.INSERT_ALL_DAYS)
+    suspend fun insertAllDayRollups()
+
+    @Query(RollupSql.INSERT_ALL_WEEKS)
+    suspend fun insertAllWeekRollups()
+
+    @Query(RollupSql.INSERT_ALL_MONTHS)
+    suspend fun insertAllMonthRollups()
+
+    @Query(RollupSql.INSERT_ALL_YEARS)
+    suspend fun insertAllYearRollups()
+
+    @Query(RollupSql.INSERT_ALL_TIME)
+    suspend fun insertAllTimeRollup()
+
+    /**
+     * [date]가 포함된 일/주/월/연/전체 롤업을 다시 계산합니다.
+     * 하위 구간부터 순서대로 갱신하며, 각 단계가 읽는 행은 최대 31개입니다.
+     * daily_logs를 직접 수정한 뒤에는 같은 트랜잭션에서 이 함수를 호출해야 합니다.
+     */
+    @Transaction
+    suspend fun refreshRollupsFor(date: LocalDate) {
+        deleteRollup(RollupPeriod.DAY, date)
+        insertDayRollup(date)
+
+        for (period in listOf(RollupPeriod.WEEK, RollupPeriod.MONTH, RollupPeriod.YEAR, RollupPeriod.ALL)) {
+            val source = period.source ?: continue
+            val periodStart = period.startOf(date)
+            deleteRollup(period, periodStart)
+            insertRollupFromSource(
+                period = period,
+                periodStart = periodStart,
+                source = source,
+                from = periodStart,
+                to = period.endOf(date)
+            )
+        }
+    }
+
+    /**
+     * 일일 기록 저장과 롤업 갱신을 하나의 트랜잭션으로 처리합니다.
+     * @return 저장된 일일 기록의 ID
+     */
+    @Transaction
+    suspend fun upsertDailyLogAndRollups(log: DailyLog): Long {
+        val id = upsertDailyLog(log)
+        refreshRollupsFor(log.date)
+        return id
+    }
+
+    /** 일일 기록 삭제와 그 날짜가 속한 롤업 갱신을 하나의 트랜잭션으로 처리합니다 */
+    @Transaction
+    suspend fun deleteDailyLogAndRollups(log: DailyLog) {
+        deleteDailyLogRow(log)
+        refreshRollupsFor(log.date)
+    }
+
+    /**
+     * 음주한 날의 일일 기록 저장, 롤업 갱신, 그날의 음주 기록([recordDrinkDay])을 하나의 트랜잭션으로 처리합니다.
+     *
+     * 금주 기록 재시작은 day_outcomes에 그 날짜가 새로 기록될 때만 일어납니다.
+     * 같은 날 기록을 고쳐 다시 저장하거나 홈 화면에서 이미 성공/음주를 기록한 날이면 일일 기록만 바뀝니다.
+     *
+     * @return 저장된 일일 기록의 ID
+     */
+    @Transaction
+    suspend fun upsertDailyLogAndRecordDrink(log: DailyLog, now: LocalDateTime): Long {
+        val id = upsertDailyLogAndRollups(log)
+        recordDrinkDay(log.date, now)
+        return id
+    }
+
+    /**
+     * 모든 롤업을 daily_logs에서 처음부터 다시 계산합니다.
+     * 기존 설치의 마이그레이션, 데이터 가져오기 후 등 대량 변경 시 사용합니다.
+     */
+    @Transaction
+    suspend fun rebuildRollups() {
+        deleteAllRollups()
+        insertAllDayRollups()
+        insertAllWeekRollups()
+        insertAllMonthRollups()
+        insertAllYearRollups()
+        insertAllTimeRollup()
+    }
 }
+
+// ========== Query Results ==========
+
+/**
+ * [SobrietyDao.getStatisticsSummary]의 집계 결과.
+ * 엔티티가 아닌 조회 전용 프로젝션입니다.
+ */
+data class StatisticsSummary(
+    val totalSoberDays: Int = 0,      // 모든 금주 기록의 일수 합계
+    val longestStreak: Int = 0,       // 가장 긴 금주 기록의 일수
+    val relapseCount: Int = 0,        // 종료된(음주로 끝난) 금주 기록 수
+    val averageMood: Double = 0.0,    // 최근 기록의 평균 기분 (기록 없으면 0)
+    val averageCraving: Double = 0.0  // 최근 기록의 평균 음주 욕구 (기록 없으면 0)
+)
+
+/**
+ * [SobrietyDao.getShakyDaySummary]의 하루 흔들림 요약.
+ */
+data class ShakyDaySummary(
+    val count: Int = 0,               // 그날 흔들림 횟수
+    val lastAt: LocalDateTime? = null // 그날 마지막 흔들림 시각 (없으면 null)
+)
+
+/**
+ * [SobrietyDao.getNoteMatches]의 검색 일치 한 건.
+ * 본문 없이 순위 계산에 필요한 값만 담습니다.
+ */
+class NoteMatch(
+    val id: Long,                     // daily_logs.id
+    val date: LocalDate,              // 점수가 같을 때 최근 기록을 먼저 보여주기 위한 날짜
+    val matchInfo: ByteArray          // matchinfo(daily_logs_fts, 'pcnalx')
+)
@@ -0,0 +1,23 @@
+package com.sobercompanion.data.local.entity
+
+import androidx.room.Entity
+import androidx.room.Fts4
+
+/**
+ * daily_logs 메모 전문 검색용 FTS4 테이블.
+ *
+ * contentEntity로 daily_logs를 지정했으므로 텍스트를 따로 저장하지 않고 색인만 보관합니다.
+ * Room이 daily_logs에 INSERT/UPDATE/DELETE 동기화 트리거를 만들어 항상 같은 내용을 유지합니다.
+ * docid(rowid)는 daily_logs.id와 같습니다.
+ *
+ * 색인 대상은 원문 note가 아니라 NoteTokenizer가 바이그램으로 나눈 noteTokens입니다.
+ * (SobrietyDao.getNoteMatches 참고)
+ *
+ * 테이블명: daily_logs_fts
+ */
+@Fts4(contentEntity = DailyLog::class)
+@Entity(tableName = "daily_logs_fts")
+data class DailyLogFts(
+    /** 바이그램 토큰 문자열 (daily_logs.noteTokens) */
+    val noteTokens: String
+)
@@ -0,0 +1,28 @@
+package com.sobercompanion.data.local.entity
+
+import androidx.room.Entity
+import androidx.room.PrimaryKey
+import java.time.LocalDate
+import java.time.LocalDateTime
+
+/**
+ * 하루의 성공/음주 기록 엔티티. 홈 화면 "오늘도 성공"·"음주했어요"를 누른 날마다 한 행입니다.
+ *
+ * 날짜가 기본 키이므로 같은 날 두 번 기록되지 않습니다.
+ * 금주 기록·마일스톤 변경과 같은 트랜잭션에서 삽입되므로 "오늘 기록했는지"의 기준이 되며,
+ * DataStore의 오늘 상태는 이 값을 따라갑니다. (SoberRepository.recordSuccess, ensureTracking 참고)
+ *
+ * 테이블명: day_outcomes
+ */
+@Entity(tableName = "day_outcomes")
+data class DayOutcome(
+    /** 기록한 날짜 (하루 하나) */
+    @PrimaryKey
+    val date: LocalDate,
+
+    /** 음주했으면 true, 금주 성공이면 false */
+    val didDrink: Boolean,
+
+    /** 기록한 시각 */
+    val recordedAt: LocalDateTime
+)
@@ -0,0 +1,37 @@
+package com.sobercompanion.data.local.entity
+
+import androidx.room.Entity
+import androidx.room.Index
+import androidx.room.PrimaryKey
+import java.time.LocalDate
+import java.time.LocalDateTime
+
+/**
+ * 흔들림(음주 충동) 기록 엔티티. 홈 화면 "흔들려요" 버튼을 누를 때마다 한 행이 추가됩니다.
+ *
+ * 자정에 지우지 않고 모두 보관하므로 시간대·요일별 충동 패턴 분석에 사용할 수 있습니다.
+ * 오늘 횟수와 마지막 시각은 (day, occurredAt) 인덱스 범위 스캔으로 조회합니다.
+ * (SobrietyDao.getShakyDaySummary 참고)
+ *
+ * 테이블명: shaky_events
+ */
+@Entity(
+    tableName = "shaky_events",
+    indices = [Index(value = ["day", "occurredAt"])]
+)
+data class ShakyEvent(
+    @PrimaryKey(autoGenerate = true)
+    val id: Long = 0,
+
+    /** 발생 날짜 (occurredAt의 날짜 부분, 하루 단위 조회용) */
+    val day: LocalDate,
+
+    /** 발생 시각 */
+    val occurredAt: LocalDateTime,
+
+    /** 당시 음주 욕구 수준 (1~5). 입력하지 않았으면 null */
+    val cravingLevel: Int? = null,
+
+    /** 상황 메모 (장소, 계기 등). 입력하지 않았으면 null */
+    val situation: String? = null
+)
@@ -1,7 +1,10 @@
 package com.sobercompanion.data.local.entity
 
+import androidx.room.ColumnInfo
 import androidx.room.Entity
+import androidx.room.Index
 import androidx.room.PrimaryKey
+import com.sobercompanion.data.local.NoteTokenizer
 import java.time.LocalDate
 import java.time.LocalDateTime
 
@@ -13,9 +16,19 @@ import java.time.LocalDateTime
  * - 음주(FAIL) 기록 시 현재 레코드의 endDate를 설정하고 isActive=false로 변경
  * - 새 레코드가 다시 isActive=true로 생성됨
  *
+ * 인덱스:
+ * - isActive: 활성 기록 조회/종료 (WHERE isActive = 1)
+ * - startDate: 이력 최신순 정렬 (ORDER BY startDate DESC)
+ *
  * 테이블명: sobriety_records
  */
-@Entity(tableName = "sobriety_records")
+@Entity(
+    tableName = "sobriety_records",
+    indices = [
+        Index(value = ["isActive"]),
+        Index(value = ["startDate"])
+    ]
+)
 data class SobrietyRecord(
     @PrimaryKey(autoGenerate = true)
     val id: Long = 0,
@@ -39,12 +52,17 @@ data class SobrietyRecord(
 /**
  * 일일 기분/욕구 기록 엔티티. 하루에 하나씩 생성됩니다.
  *
- * DailyLogScreen에서 작성하며, 같은 날짜로 다시 저장하면 REPLACE 전략에 의해 덮어씁니다.
+ * DailyLogScreen에서 작성하며, 같은 날짜로 다시 저장하면 기존 행이 갱신됩니다.
+ * (date에 UNIQUE 인덱스가 있어 같은 날짜의 행이 두 개 생길 수 없음 — SobrietyDao.upsertDailyLog 참고)
  * StatisticsScreen의 트렌드 차트 및 집계 통계에 사용됩니다.
+ * 메모는 daily_logs_fts(DailyLogFts)로 전문 검색됩니다.
  *
  * 테이블명: daily_logs
  */
-@Entity(tableName = "daily_logs")
+@Entity(
+    tableName = "daily_logs",
+    indices = [Index(value = ["date"], unique = true)]
+)
 data class DailyLog(
     @PrimaryKey(autoGenerate = true)
     val id: Long = 0,
@@ -67,9 +85,19 @@ data class DailyLog(
     /** 오늘의 자유 메모 */
     val note: String = "",
 
-    /** 기록 생성 시각 (자동 설정) */
-    val createdAt: LocalDateTime = LocalDateTime.now()
-)
+    /** 기록 생성 시각. 저장하는 쪽이 TimeSource로 정해 넘깁니다 */
+    val createdAt: LocalDateTime
+) {
+    /**
+     * 메모 전문 검색용 바이그램 토큰 (NoteTokenizer.tokenize(note)). daily_logs_fts가 이 컬럼을 색인합니다.
+     *
+     * note에서 계산되는 값이므로 생성자 인자가 아닙니다. 객체를 만들거나 copy(note = …)할 때마다
+     * 새 note로 다시 계산되고, DB에서 읽을 때는 Room이 저장된 값으로 채웁니다.
+     * DAO의 upsert는 이 값 대신 note로부터 다시 계산해 저장합니다. (SobrietyDao.upsertDailyLog)
+     */
+    @ColumnInfo(defaultValue = "")
+    var noteTokens: String = NoteTokenizer.tokenize(note)
+}
 
 /**
  * 마일스톤 달성 기록 엔티티.
@@ -78,9 +106,21 @@ data class DailyLog(
  * 1·3·7·14·30·60·90·180·365일 총 9개의 기본 마일스톤이 삽입됩니다.
  * 금주 일수가 targetDays에 도달하면 isAchieved=true, achievedAt이 기록됩니다.
  *
+ * 인덱스:
+ * - targetDays: 전체 목록 정렬 (ORDER BY targetDays)
+ * - (isAchieved, targetDays): 미달성 목록 및 달성 후보 조회
+ * - (isAchieved, achievedAt): 달성 목록 최신순 정렬
+ *
  * 테이블명: milestones
  */
-@Entity(tableName = "milestones")
+@Entity(
+    tableName = "milestones",
+    indices = [
+        Index(value = ["targetDays"]),
+        Index(value = ["isAchieved", "targetDays"]),
+        Index(value = ["isAchieved", "achievedAt"])
+    ]
+)
 data class Milestone(
     @PrimaryKey(autoGenerate = true)
     val id: Long = 0,
@@ -104,13 +144,19 @@ data class Milestone(
 /**
  * 동기 부여 명언 엔티티.
  *
- * 홈 화면 하단 "오늘의 한마디" 섹션에 랜덤으로 표시됩니다.
+ * 홈 화면 하단 "오늘의 한마디" 섹션과 매일 기록 알림에 랜덤으로 표시됩니다.
  * 앱 최초 실행 시 기본 명언 10개가 삽입됩니다.
  * author가 빈 문자열이면 출처 없이 명언만 표시됩니다.
  *
+ * 랜덤 선택은 QuoteRepository가 메모리에 캐시한 id 배열에서 처리합니다.
+ * (ORDER BY RANDOM()으로 테이블 전체를 정렬하지 않음)
+ *
  * 테이블명: motivational_quotes
  */
-@Entity(tableName = "motivational_quotes")
+@Entity(
+    tableName = "motivational_quotes",
+    indices = [Index(value = ["category"])]
+)
 data class MotivationalQuote(
     @PrimaryKey(autoGenerate = true)
     val id: Long = 0,
@@ -119,5 +165,31 @@ data class MotivationalQuote(
     val quote: String,
 
     /** 명언 출처/저자. 없으면 빈 문자열 */
-    val author: String = ""
+    val author: String = "",
+
+    /** 명언 분류 (명언 팩 단위 필터링용). 빈 문자열이면 분류 없음 */
+    @ColumnInfo(defaultValue = "")
+    val category: String = ""
+)
+
+/**
+ * 명언 노출 기록 엔티티. 명언별로 마지막 노출 시각 하나만 보관합니다.
+ *
+ * 같은 명언이 일정 기간(QuoteRepository의 no-repeat 기간) 안에 다시 표시되지 않도록
+ * 최근 노출 목록을 구성하는 데 사용됩니다.
+ * motivational_quotes와 별도 테이블이라 노출 기록이 명언 id 캐시를 무효화하지 않습니다.
+ *
+ * 테이블명: quote_impressions
+ */
+@Entity(
+    tableName = "quote_impressions",
+    indices = [Index(value = ["shownAt"])]
+)
+data class QuoteImpression(
+    /** 노출된 명언의 id (motivational_quotes.id) */
+    @PrimaryKey
+    val quoteId: Long,
+
+    /** 마지막 노출 시각 */
+    val shownAt: LocalDateTime
 )
@@ -0,0 +1,181 @@
+package com.sobercompanion.data.local.entity
+
+import androidx.room.Entity
+import java.time.DayOfWeek
+import java.time.LocalDate
+import java.time.temporal.TemporalAdjusters
+
+/**
+ * 통계 집계 구간 단위.
+ * Room 기본 enum 변환으로 이름(TEXT)이 저장되므로 이름을 바꾸면 기존 데이터와 맞지 않습니다.
+ */
+enum class RollupPeriod {
+    /** 하루 (daily_logs 한 행과 1:1) */
+    DAY,
+
+    /** ISO 주 (월요일 시작) */
+    WEEK,
+
+    /** 달력 월 */
+    MONTH,
+
+    /** 달력 연도 */
+    YEAR,
+
+    /** 전체 기간 (periodStart는 항상 [ALL_TIME_START]) */
+    ALL;
+
+    /** [date]가 속한 구간의 시작 날짜 */
+    fun startOf(date: LocalDate): LocalDate = when (this) {
+        DAY -> date
+        WEEK -> date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY))
+        MONTH -> date.withDayOfMonth(1)
+        YEAR -> date.withDayOfYear(1)
+        ALL -> ALL_TIME_START
+    }
+
+    /** [date]가 속한 구간의 마지막 날짜 (포함) */
+    fun endOf(date: LocalDate): LocalDate = when (this) {
+        DAY -> date
+        WEEK -> startOf(date).plusDays(6)
+        MONTH -> date.with(TemporalAdjusters.lastDayOfMonth())
+        YEAR -> date.with(TemporalAdjusters.lastDayOfYear())
+        ALL -> ALL_TIME_END
+    }
+
+    /** 이 구간을 다시 계산할 때 합산하는 하위 구간. DAY는 daily_logs에서 직접 계산 */
+    val source: RollupPeriod?
+        get() = when (this) {
+            DAY -> null
+            WEEK, MONTH -> DAY
+            YEAR -> MONTH
+            ALL -> YEAR
+        }
+
+    companion object {
+        /** ALL 구간의 periodStart (epoch day 0) */
+        val ALL_TIME_START: LocalDate = LocalDate.ofEpochDay(0)
+
+        /** ALL 구간 범위 조회 시 사용하는 상한 */
+        val ALL_TIME_END: LocalDate = LocalDate.of(9999, 12, 31)
+    }
+}
+
+/**
+ * daily_logs를 구간별로 미리 집계해 둔 통계 롤업 엔티티.
+ *
+ * SobrietyRepository.saveDailyLog가 일일 기록을 저장할 때 같은 트랜잭션에서
+ * 해당 날짜가 속한 일/주/월/연/전체 구간만 다시 계산합니다.
+ * (SobrietyDao.upsertDailyLogAndRollups 참고)
+ * 주·월은 DAY 행에서, 연은 MONTH 행에서, 전체는 YEAR 행에서 합산하므로
+ * 한 번 저장할 때 읽는 행 수는 기록 기간과 무관하게 일정합니다.
+ *
+ * 통계 화면은 원본 로그를 다시 집계하지 않고 이 테이블의 몇 행만 읽습니다.
+ * 기록이 없는 구간은 행이 존재하지 않습니다.
+ *
+ * 테이블명: stats_rollups (PK: period + periodStart)
+ */
+@Entity(
+    tableName = "stats_rollups",
+    primaryKeys = ["period", "periodStart"]
+)
+data class StatsRollup(
+    /** 집계 구간 단위 */
+    val period: RollupPeriod,
+
+    /** 구간 시작 날짜 (RollupPeriod.startOf 결과) */
+    val periodStart: LocalDate,
+
+    /** 구간 안의 일일 기록 수 */
+    val logCount: Int,
+
+    val moodSum: Int,
+    val moodMin: Int,
+    val moodMax: Int,
+
+    val cravingSum: Int,
+    val cravingMin: Int,
+    val cravingMax: Int,
+
+    /** 음주한 날 수 */
+    val drinkDays: Int,
+
+    /** 음주량 합계 (표준잔) */
+    val drinkAmount: Int
+) {
+    /** 구간 평균 기분. 기록이 없으면 0 */
+    val averageMood: Double get() = if (logCount > 0) moodSum.toDouble() / logCount else 0.0
+
+    /** 구간 평균 음주 욕구. 기록이 없으면 0 */
+    val averageCraving: Double get() = if (logCount > 0) cravingSum.toDouble() / logCount else 0.0
+}
+
+/**
+ * stats_rollups 전체 재계산 SQL.
+ * SobrietyDao.rebuildRollups()와 마이그레이션(MIGRATION_4_5)이 같은 문장을 사용합니다.
+ *
+ * 주 시작일: epoch day 0(1970-01-01)이 목요일이므로 (day + 3) % 7을 빼면 월요일이 됩니다.
+ * 월/연 시작일: SQLite 날짜 함수의 'start of month' / 'start of year'를 사용합니다.
+ */
+object RollupSql {
+    private const val COLUMNS =
+        "(period, periodStart, logCount, moodSum, moodMin, moodMax, " +
+            "cravingSum, cravingMin, cravingMax, drinkDays, drinkAmount)"
+
+    private const val AGGREGATES =
+        "SUM(logCount), SUM(moodSum), MIN(moodMin), MAX(moodMax), " +
+            "SUM(cravingSum), MIN(cravingMin), MAX(cravingMax), SUM(drinkDays), SUM(drinkAmount)"
+
+    const val DELETE_ALL = "DELETE FROM stats_rollups"
+
+    const val INSERT_ALL_DAYS =
+        "INSERT INTO stats_rollups $COLUMNS " +
+            "SELECT 'DAY', date, 1, mood, mood, mood, cravingLevel, cravingLevel, cravingLevel, " +
+            "didDrink, drinkAmount FROM daily_logs"
+
+    const val INSERT_ALL_WEEKS =
+        "INSERT INTO stats_rollups $COLUMNS " +
+            "SELECT 'WEEK', periodStart - ((periodStart + 3) % 7), $AGGREGATES " +
+            "FROM stats_rollups WHERE period = 'DAY' GROUP BY 2"
+
+    const val INSERT_ALL_MONTHS =
+        "INSERT INTO stats_rollups $COLUMNS " +
+            "SELECT 'MONTH', " +
+            "CAST(strftime('%s', periodStart * 86400, 'unixepoch', 'start of month') AS INTEGER) / 86400, " +
+            "$AGGREGATES FROM stats_rollups WHERE period = 'DAY' GROUP BY 2"
+
+    const val INSERT_ALL_YEARS =
+        "INSERT INTO stats_rollups $COLUMNS " +
+            "SELECT 'YEAR', " +
+            "CAST(strftime('%s', periodStart * 86400, 'unixepoch', 'start of year') AS INTEGER) / 86400, " +
+            "$AGGREGATES FROM stats_rollups WHERE period = 'MONTH' GROUP BY 2"
+
+    const val INSERT_ALL_TIME =
+        "INSERT INTO stats_rollups $COLUMNS " +
+            "SELECT 'ALL', 0, $AGGREGATES FROM stats_rollups WHERE period = 'YEAR' GROUP BY period"
+
+    /** 하루 구간을 daily_logs의 해당 날짜 행에서 다시 만듭니다 (기록이 없으면 삽입하지 않음) */
+    const val INSERT_DAY =
+        "INSERT INTO stats_rollups $COLUMNS " +
+            "SELECT 'DAY', date, 1, mood, mood, mood, cravingLevel, cravingLevel, cravingLevel, " +
+            "didDrink, drinkAmount FROM daily_logs WHERE date = :date"
+
+    /**
+     * 상위 구간 하나를 하위 구간 행에서 합산해 다시 만듭니다.
+     * GROUP BY가 있어 하위 행이 없으면 아무 행도 삽입되지 않습니다.
+     */
+    const val INSERT_FROM_SOURCE =
+        "INSERT INTO stats_rollups $COLUMNS " +
+            "SELECT :period, :periodStart, $AGGREGATES FROM stats_rollups " +
+            "WHERE period = :source AND periodStart BETWEEN :from AND :to GROUP BY period"
+
+    /** 전체 재계산 순서 (하위 구간부터) */
+    val REBUILD = listOf(
+        DELETE_ALL,
+        INSERT_ALL_DAYS,
+        INSERT_ALL_WEEKS,
+        INSERT_ALL_MONTHS,
+        INSERT_ALL_YEARS,
+        INSERT_ALL_TIME
+    )
+}
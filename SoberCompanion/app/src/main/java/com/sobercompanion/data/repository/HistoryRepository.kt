@@ -0,0 +1,100 @@
+package com.sobercompanion.data.repository
+
+import androidx.paging.Pager
+import androidx.paging.PagingConfig
+import androidx.paging.PagingData
+import com.sobercompanion.data.local.NoteTokenizer
+import com.sobercompanion.data.local.SoberDatabase
+import com.sobercompanion.data.local.entity.DailyLog
+import com.sobercompanion.data.local.entity.SobrietyRecord
+import kotlinx.coroutines.flow.Flow
+import kotlinx.coroutines.flow.flowOf
+import java.time.LocalDate
+import java.time.LocalDateTime
+
+/**
+ * 이력 화면(HistoryScreen)의 일일 기록·금주 기록 목록과 메모 검색 결과를 페이지 단위로 제공하는 Repository.
+ *
+ * 전체 목록을 Flow<List>로 구독하면 쓰기마다 테이블 전체를 다시 읽고 객체로 만들지만,
+ * 페이징은 화면에 필요한 페이지만 날짜 인덱스로 읽으므로
+ * 기록이 몇 년 치 쌓여도 메모리와 조회 시간이 일정합니다.
+ *
+ * @param database 페이징 소스가 사용할 Room DB
+ */
+class HistoryRepository(private val database: SoberDatabase) {
+
+    private val dao = database.sobrietyDao()
+
+    /** 일일 기록 최신순 (키: date) */
+    fun dailyLogs(): Flow<PagingData<DailyLog>> =
+        Pager(pagingConfig()) { DailyLogPagingSource() }.flow
+
+    /** 금주 기록 최신순 (키: startDate) */
+    fun sobrietyRecords(): Flow<PagingData<SobrietyRecord>> =
+        Pager(pagingConfig()) { SobrietyRecordPagingSource() }.flow
+
+    /**
+     * 메모 전문 검색 결과를 관련도순으로 발췌와 함께 반환합니다. (NoteSearchPagingSource 참고)
+     * 검색할 단어가 없으면 빈 결과를 반환합니다.
+     */
+    fun searchNotes(query: String): Flow<PagingData<NoteSearchResult>> {
+        val match = NoteTokenizer.toMatchQuery(query) ?: return flowOf(PagingData.empty())
+        return Pager(PagingConfig(pageSize = PAGE_SIZE, enablePlaceholders = false)) {
+            NoteSearchPagingSource(database, match, query)
+        }.flow
+    }
+
+    private fun pagingConfig() = PagingConfig(
+        pageSize = PAGE_SIZE,
+        enablePlaceholders = true,
+        maxSize = MAX_LOADED_ITEMS
+    )
+
+    private inner class DailyLogPagingSource :
+        KeysetPagingSource<LocalDate, DailyLog>(database, "daily_logs") {
+        override fun keyOf(item: DailyLog) = item.date
+        override suspend fun loadLatest(limit: Int) = dao.getLatestDailyLogs(limit)
+        override suspend fun loadAtOrOlder(key: LocalDate, limit: Int) =
+            dao.getDailyLogsAtOrBefore(key, limit)
+        override suspend fun loadOlder(key: LocalDate, limit: Int) =
+            dao.getDailyLogsBefore(key, limit)
+        override suspend fun loadNewer(key: LocalDate, limit: Int) =
+            dao.getDailyLogsAfter(key, limit)
+        override suspend fun countOlder(key: LocalDate) = dao.countDailyLogsBefore(key)
+        override suspend fun countNewer(key: LocalDate) = dao.countDailyLogsAfter(key)
+    }
+
+    /** startDate는 기록 시작 시각(밀리초)이므로 실질적으로 유일합니다 */
+    private inner class SobrietyRecordPagingSource :
+        KeysetPagingSource<LocalDateTime, SobrietyRecord>(database, "sobriety_records") {
+        override fun keyOf(item: SobrietyRecord) = item.startDate
+        override suspend fun loadLatest(limit: Int) = dao.getLatestSobrietyRecords(limit)
+        override suspend fun loadAtOrOlder(key: LocalDateTime, limit: Int) =
+            dao.getSobrietyRecordsAtOrBefore(key, limit)
+        override suspend fun loadOlder(key: LocalDateTime, limit: Int) =
+            dao.getSobrietyRecordsBefore(key, limit)
+        override suspend fun loadNewer(key: LocalDateTime, limit: Int) =
+            dao.getSobrietyRecordsAfter(key, limit)
+        override suspend fun countOlder(key: LocalDateTime) = dao.countSobrietyRecordsBefore(key)
+        override suspend fun countNewer(key: LocalDateTime) = dao.countSobrietyRecordsAfter(key)
+    }
+
+    companion object {
+        /** 한 페이지 항목 수 (한 화면 약 10개의 3배) */
+        private const val PAGE_SIZE = 30
+
+        /** 메모리에 유지하는 최대 항목 수. 넘으면 먼 페이지를 버림 */
+        private const val MAX_LOADED_ITEMS = 300
+    }
+}
+
+/**
+ * 메모 검색 결과 한 건.
+ *
+ * @param log 검색된 일일 기록
+ * @param snippet 검색어 주변 원문 발췌 (목록 표시용)
+ */
+data class NoteSearchResult(
+    val log: DailyLog,
+    val snippet: String
+)
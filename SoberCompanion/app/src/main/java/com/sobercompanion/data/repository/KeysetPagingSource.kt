@@ -0,0 +1,131 @@
+package com.sobercompanion.data.repository
+
+import androidx.paging.PagingSource
+import androidx.paging.PagingState
+import androidx.room.InvalidationTracker
+import com.sobercompanion.data.local.SoberDatabase
+
+/**
+ * 날짜 컬럼을 키로 최신순 목록을 읽는 키셋(keyset) PagingSource.
+ *
+ * Room이 생성하는 PagingSource는 LIMIT/OFFSET 방식이라 뒤 페이지로 갈수록
+ * 건너뛴 행을 모두 읽어야 합니다. 이 클래스는 마지막으로 읽은 날짜 다음부터
+ * 인덱스 범위 스캔으로 읽으므로 페이지 위치와 관계없이 비용이 일정합니다.
+ *
+ * 키 의미 (목록은 최신순):
+ * - REFRESH: 키 날짜와 같거나 이전 항목부터 (null이면 가장 최신부터)
+ * - APPEND: 키 날짜보다 이전(오래된) 항목
+ * - PREPEND: 키 날짜보다 이후(최신) 항목
+ *
+ * REFRESH 시 앞뒤 항목 수를 COUNT로 함께 돌려주므로 placeholder를 사용할 수 있습니다.
+ * 대상 테이블이 바뀌면 Room InvalidationTracker가 알려주어 새 PagingSource로 교체됩니다.
+ *
+ * 목록 조회와 COUNT는 트랜잭션 없이 각각 Room 쿼리 실행기의 읽기 연결에서 실행합니다.
+ * withTransaction은 단일 트랜잭션 실행기에서 BEGIN EXCLUSIVE로 쓰기 잠금을 잡으므로,
+ * 스크롤할 때마다 쓰기와 서로 기다리게 되어 WAL의 동시 읽기를 쓰지 못합니다.
+ * 그 사이에 쓰기가 끼어들면 COUNT가 목록과 조금 어긋날 수 있지만, placeholder 수가 잠시 틀릴 뿐이고
+ * 쓰기가 곧 무효화를 일으켜 새 PagingSource가 다시 읽습니다.
+ *
+ * 키 컬럼 값은 테이블 안에서 유일해야 합니다. (같은 날짜가 여러 행이면 페이지 경계에서 누락될 수 있음)
+ *
+ * @param database InvalidationTracker를 제공하는 Room DB
+ * @param table 변경을 감시할 테이블 이름
+ */
+abstract class KeysetPagingSource<K : Any, T : Any>(
+    private val database: SoberDatabase,
+    table: String
+) : PagingSource<K, T>() {
+
+    private val observer = object : InvalidationTracker.Observer(table) {
+        override fun onInvalidated(tables: Set<String>) {
+            invalidate()
+        }
+    }
+
+    init {
+        database.invalidationTracker.addObserver(observer)
+        registerInvalidatedCallback { database.invalidationTracker.removeObserver(observer) }
+    }
+
+    /** 항목의 키(날짜) */
+    protected abstract fun keyOf(item: T): K
+
+    /** 가장 최신 항목부터 최신순 */
+    protected abstract suspend fun loadLatest(limit: Int): List<T>
+
+    /** [key]와 같거나 이전 항목을 최신순으로 */
+    protected abstract suspend fun loadAtOrOlder(key: K, limit: Int): List<T>
+
+    /** [key]보다 이전 항목을 최신순으로 */
+    protected abstract suspend fun loadOlder(key: K, limit: Int): List<T>
+
+    /** [key]보다 이후 항목을 가까운 순(오름차순)으로 */
+    protected abstract suspend fun loadNewer(key: K, limit: Int): List<T>
+
+    /** [key]보다 이전 항목 수 */
+    protected abstract suspend fun countOlder(key: K): Int
+
+    /** [key]보다 이후 항목 수 */
+    protected abstract suspend fun countNewer(key: K): Int
+
+    override val jumpingSupported: Boolean get() = true
+
+    override suspend fun load(params: LoadParams<K>): LoadResult<K, T> = try {
+        when (params) {
+            is LoadParams.Refresh -> refresh(params.key, params.loadSize)
+            is LoadParams.Append -> {
+                val items = loadOlder(params.key, params.loadSize)
+                val hasMore = items.size >= params.loadSize
+                LoadResult.Page(
+                    data = items,
+                    prevKey = items.firstOrNull()?.let(::keyOf),
+                    nextKey = items.lastOrNull()?.takeIf { hasMore }?.let(::keyOf)
+                )
+            }
+            is LoadParams.Prepend -> {
+                val items = loadNewer(params.key, params.loadSize).asReversed()
+                val hasMore = items.size >= params.loadSize
+                LoadResult.Page(
+                    data = items,
+                    prevKey = items.firstOrNull()?.takeIf { hasMore }?.let(::keyOf),
+                    nextKey = items.lastOrNull()?.let(::keyOf)
+                )
+            }
+        }
+    } catch (e: Exception) {
+        LoadResult.Error(e)
+    }
+
+    private suspend fun refresh(key: K?, limit: Int): LoadResult<K, T> {
+        val items = if (key == null) loadLatest(limit) else loadAtOrOlder(key, limit)
+        if (items.isEmpty()) {
+            // 키 이전에는 항목이 없지만 이후 항목은 남아 있을 수 있음
+            val newer = key?.let { countNewer(it) } ?: 0
+            return LoadResult.Page(
+                data = emptyList(),
+                prevKey = key?.takeIf { newer > 0 },
+                nextKey = null,
+                itemsBefore = newer,
+                itemsAfter = 0
+            )
+        }
+
+        val first = keyOf(items.first())
+        val last = keyOf(items.last())
+        val itemsBefore = countNewer(first)
+        val itemsAfter = countOlder(last)
+        return LoadResult.Page(
+            data = items,
+            prevKey = first.takeIf { itemsBefore > 0 },
+            nextKey = last.takeIf { itemsAfter > 0 },
+            itemsBefore = itemsBefore,
+            itemsAfter = itemsAfter
+        )
+    }
+
+    /** 화면에 보이던 위치의 항목 날짜부터 다시 읽음 */
+    override fun getRefreshKey(state: PagingState<K, T>): K? =
+        state.anchorPosition
+            ?.let { state.closestItemToPosition(it) }
+            ?.let(::keyOf)
+}
@@ -0,0 +1,102 @@
+package com.sobercompanion.data.repository
+
+import androidx.paging.PagingSource
+import androidx.paging.PagingState
+import androidx.room.InvalidationTracker
+import com.sobercompanion.data.local.NoteSearchRanker
+import com.sobercompanion.data.local.NoteTokenizer
+import com.sobercompanion.data.local.SoberDatabase
+import com.sobercompanion.data.local.dao.NoteMatch
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.sync.Mutex
+import kotlinx.coroutines.sync.withLock
+import kotlinx.coroutines.withContext
+
+/**
+ * 메모 검색 결과를 관련도순으로 페이지 단위로 읽는 PagingSource.
+ *
+ * 첫 로드에서 일치한 기록 전체의 (id, 날짜, matchinfo)만 읽어 [NoteSearchRanker] 점수로 정렬하고
+ * 이후 페이지는 그 순서의 id로 본문을 PK 조회합니다. 점수가 같으면 최근 기록이 먼저입니다.
+ * 키는 정렬된 목록에서의 위치입니다.
+ *
+ * daily_logs가 바뀌면 스스로 무효화되어 새 PagingSource가 다시 정렬합니다.
+ *
+ * @param match NoteTokenizer.toMatchQuery로 만든 FTS4 MATCH 식
+ * @param query 발췌를 만들 원래 검색어
+ */
+internal class NoteSearchPagingSource(
+    database: SoberDatabase,
+    private val match: String,
+    private val query: String
+) : PagingSource<Int, NoteSearchResult>() {
+
+    private val dao = database.sobrietyDao()
+
+    /** 관련도순 id. 첫 로드에서 한 번 계산 */
+    private var rankedIds: LongArray? = null
+    private val rankMutex = Mutex()
+
+    private val observer = object : InvalidationTracker.Observer(TABLE) {
+        override fun onInvalidated(tables: Set<String>) = invalidate()
+    }
+
+    init {
+        database.invalidationTracker.addObserver(observer)
+        registerInvalidatedCallback { database.invalidationTracker.removeObserver(observer) }
+    }
+
+    override suspend fun load(params: LoadParams<Int>): LoadResult<Int, NoteSearchResult> = try {
+        val ids = rankedIds()
+        val start = when (params) {
+            is LoadParams.Refresh -> (params.key ?: 0).coerceIn(0, ids.size)
+            is LoadParams.Append -> params.key
+            is LoadParams.Prepend -> (params.key - params.loadSize).coerceAtLeast(0)
+        }
+        val end = when (params) {
+            is LoadParams.Prepend -> params.key
+            else -> (start + params.loadSize).coerceAtMost(ids.size)
+        }
+
+        val pageIds = ids.copyOfRange(start, end)
+        val logsById = dao.getDailyLogsByIds(pageIds.asList()).associateBy { it.id }
+        if (logsById.size < pageIds.size) {
+            // 정렬한 뒤 지워진 기록이 있음: 곧 무효화 알림이 오지만 그 전에 다시 정렬하도록 즉시 무효화
+            invalidate()
+            LoadResult.Invalid()
+        } else {
+            LoadResult.Page(
+                data = pageIds.map { id ->
+                    val log = logsById.getValue(id)
+                    NoteSearchResult(log, NoteTokenizer.snippet(log.note, query))
+                },
+                prevKey = start.takeIf { it > 0 },
+                nextKey = end.takeIf { it < ids.size }
+            )
+        }
+    } catch (e: Exception) {
+        LoadResult.Error(e)
+    }
+
+    /** 마지막으로 보던 위치 앞쪽부터 다시 읽음 */
+    override fun getRefreshKey(state: PagingState<Int, NoteSearchResult>): Int? =
+        state.anchorPosition?.let { (it - state.config.initialLoadSize / 2).coerceAtLeast(0) }
+
+    private suspend fun rankedIds(): LongArray = rankMutex.withLock {
+        rankedIds ?: rank(dao.getNoteMatches(match)).also { rankedIds = it }
+    }
+
+    private suspend fun rank(matches: List<NoteMatch>): LongArray = withContext(Dispatchers.Default) {
+        matches
+            .map { it to NoteSearchRanker.score(it.matchInfo) }
+            .sortedWith(
+                compareByDescending<Pair<NoteMatch, Double>> { it.second }
+                    .thenByDescending { it.first.date }
+            )
+            .map { it.first.id }
+            .toLongArray()
+    }
+
+    private companion object {
+        const val TABLE = "daily_logs"
+    }
+}
@@ -0,0 +1,161 @@
+package com.sobercompanion.data.repository
+
+import androidx.room.InvalidationTracker
+import com.sobercompanion.data.local.SoberDatabase
+import com.sobercompanion.data.local.entity.MotivationalQuote
+import com.sobercompanion.data.local.entity.QuoteImpression
+import com.sobercompanion.util.SystemTimeSource
+import com.sobercompanion.util.TimeSource
+import kotlinx.coroutines.sync.Mutex
+import kotlinx.coroutines.sync.withLock
+import java.time.LocalDateTime
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.AtomicLong
+import kotlin.random.Random
+
+/**
+ * 동기 부여 명언을 랜덤으로 골라주는 Repository.
+ *
+ * 선택 방식:
+ * 1. 분류별 명언 id 배열을 정렬해 메모리에 캐시 (최초 1회 PK만 읽음)
+ * 2. 최근 [noRepeatDays]일 안에 보여준 명언을 뺀 나머지 중에서 균등하게 하나를 뽑음.
+ *    빠질 위치를 이진 탐색으로 찾아 건너뛰므로 비용은 최근 노출 수에만 비례 (명언 수와 무관)
+ * 3. 고른 id 하나만 PK로 조회
+ * → 명언 수와 관계없이 호출당 쿼리 1회
+ *
+ * motivational_quotes 테이블이 바뀌면 Room InvalidationTracker가 알려주므로
+ * 그때만 id 캐시를 비웁니다. 노출 기록(quote_impressions)은 별도 테이블이라 캐시에 영향이 없습니다.
+ * 무효화 전에 시작한 조회 결과가 비운 뒤의 캐시에 들어가지 않도록 무효화 세대를 비교합니다.
+ *
+ * 옵저버가 DB에 등록되므로 앱 전체에서 하나의 인스턴스만 사용하세요.
+ * (AppContainer.quoteRepository)
+ *
+ * @param database 명언 테이블과 InvalidationTracker를 가진 Room DB
+ * @param noRepeatDays 같은 명언을 다시 보여주지 않는 기간(일)
+ * @param timeSource 노출 시각을 정하는 시계
+ */
+class QuoteRepository(
+    database: SoberDatabase,
+    private val noRepeatDays: Long = DEFAULT_NO_REPEAT_DAYS,
+    private val timeSource: TimeSource = SystemTimeSource
+) {
+    private val dao = database.sobrietyDao()
+
+    /** 분류(ALL_CATEGORIES = 전체) → 오름차순 명언 id 배열 */
+    private val idCache = ConcurrentHashMap<String, LongArray>()
+
+    /** 명언 테이블 무효화 횟수. 조회 중에 바뀌면 그 결과는 캐시하지 않음 */
+    private val generation = AtomicLong()
+
+    /**
+     * 명언 id → 최근 노출 시각. 최초 선택 시 quote_impressions에서 복원하고,
+     * 이후 선택마다 no-repeat 기간이 지난 항목을 지웁니다.
+     */
+    private var recentlyShown: MutableMap<Long, LocalDateTime>? = null
+
+    /** recentlyShown 읽기/쓰기 보호 (선택 → 노출 기록이 섞이지 않도록) */
+    private val mutex = Mutex()
+
+    init {
+        database.invalidationTracker.addObserver(
+            object : InvalidationTracker.Observer(QUOTES_TABLE) {
+                override fun onInvalidated(tables: Set<String>) {
+                    generation.incrementAndGet()
+                    idCache.clear()
+                }
+            }
+        )
+    }
+
+    /**
+     * 명언 하나를 랜덤으로 골라 반환하고 노출을 기록합니다.
+     *
+     * 최근 [noRepeatDays]일 안에 보여주지 않은 명언 중에서 균등한 확률로 고릅니다.
+     * 후보가 모두 최근 노출된 경우에만 전체에서 골라 항상 명언을 돌려줍니다.
+     *
+     * @param category 분류 필터. null이면 전체에서 선택
+     * @return 선택된 명언. 해당 분류에 명언이 없으면 null
+     */
+    suspend fun getRandomQuote(category: String? = null): MotivationalQuote? = mutex.withLock {
+        val ids = quoteIds(category)
+        if (ids.isEmpty()) return@withLock null
+
+        val now = timeSource.localNow()
+        val recent = recentlyShown(now)
+
+        // 이 분류에서 최근 노출된 명언의 배열 위치 (오름차순)
+        val excluded = recent.keys
+            .mapNotNull { id -> ids.binarySearch(id).takeIf { it >= 0 } }
+            .sorted()
+
+        val pickedId = if (excluded.size < ids.size) {
+            // 남은 후보 중 r번째 → 앞쪽에서 빠진 위치 수만큼 밀어 실제 배열 위치를 구함
+            var index = Random.nextInt(ids.size - excluded.size)
+            for (position in excluded) {
+                if (position <= index) index++ else break
+            }
+            ids[index]
+        } else {
+            ids[Random.nextInt(ids.size)]
+        }
+
+        // 캐시와 테이블 사이에 삭제가 있었다면 다음 호출에서 id 배열을 다시 읽음
+        val quote = dao.getQuoteById(pickedId) ?: run {
+            idCache.clear()
+            return@withLock null
+        }
+
+        dao.insertQuoteImpression(QuoteImpression(quoteId = quote.id, shownAt = now))
+        recent[quote.id] = now
+        quote
+    }
+
+    /**
+     * 분류별 오름차순 id 배열. 캐시에 없으면 DB에서 PK만 읽어 채웁니다.
+     * 읽는 동안 테이블이 무효화됐으면 결과는 이번 호출에만 쓰고 캐시에 남기지 않습니다.
+     */
+    private suspend fun quoteIds(category: String?): LongArray {
+        val key = category ?: ALL_CATEGORIES
+        idCache[key]?.let { return it }
+
+        val seen = generation.get()
+        val ids = if (category == null) {
+            dao.getAllQuoteIds()
+        } else {
+            dao.getQuoteIdsByCategory(category)
+        }.toLongArray().apply { sort() }
+
+        idCache[key] = ids
+        // 넣은 직후 세대를 다시 확인: 그사이 무효화됐다면 옵저버의 clear보다 늦게 들어갔을 수 있음
+        if (generation.get() != seen) idCache.remove(key, ids)
+        return ids
+    }
+
+    /**
+     * 최근 노출 목록. 처음 호출될 때 no-repeat 기간이 지난 기록을 DB에서 정리하고
+     * 남은 기록을 메모리로 불러옵니다. 이후에는 호출마다 기간이 지난 항목을 메모리에서 지웁니다.
+     */
+    private suspend fun recentlyShown(now: LocalDateTime): MutableMap<Long, LocalDateTime> {
+        val cutoff = now.minusDays(noRepeatDays)
+        recentlyShown?.let { recent ->
+            recent.values.removeIf { it.isBefore(cutoff) }
+            return recent
+        }
+
+        dao.deleteQuoteImpressionsBefore(cutoff)
+        val loaded = dao.getQuoteImpressionsSince(cutoff)
+            .associateTo(HashMap()) { it.quoteId to it.shownAt }
+        recentlyShown = loaded
+        return loaded
+    }
+
+    companion object {
+        /** 기본 no-repeat 기간: 같은 명언을 7일 동안 다시 보여주지 않음 */
+        const val DEFAULT_NO_REPEAT_DAYS = 7L
+
+        private const val QUOTES_TABLE = "motivational_quotes"
+
+        /** 분류 필터 없음을 나타내는 캐시 키 (빈 문자열 분류와 구분) */
+        private const val ALL_CATEGORIES = "*"
+    }
+}
@@ -1,26 +1,61 @@
 package com.sobercompanion.data.repository
 
 import com.sobercompanion.data.local.dao.SobrietyDao
+import com.sobercompanion.data.local.dao.StatisticsSummary
 import com.sobercompanion.data.local.entity.DailyLog
 import com.sobercompanion.data.local.entity.Milestone
-import com.sobercompanion.data.local.entity.MotivationalQuote
+import com.sobercompanion.data.local.entity.RollupPeriod
 import com.sobercompanion.data.local.entity.SobrietyRecord
+import com.sobercompanion.data.local.entity.StatsRollup
+import com.sobercompanion.util.SystemTimeSource
+import com.sobercompanion.util.TimeSource
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.ExperimentalCoroutinesApi
 import kotlinx.coroutines.flow.Flow
+import kotlinx.coroutines.flow.SharedFlow
+import kotlinx.coroutines.flow.SharingStarted
+import kotlinx.coroutines.flow.StateFlow
+import kotlinx.coroutines.flow.distinctUntilChanged
+import kotlinx.coroutines.flow.flatMapLatest
+import kotlinx.coroutines.flow.map
+import kotlinx.coroutines.flow.shareIn
 import java.time.LocalDate
-import java.time.LocalDateTime
+import java.util.concurrent.ConcurrentHashMap
 
-class SobrietyRepository(private val dao: SobrietyDao) {
+/**
+ * 금주 기록·일일 로그·마일스톤·통계 Repository. 앱에 하나만 존재합니다. (AppContainer 참고)
+ *
+ * 여러 화면과 Worker가 자주 읽는 Flow는 [scope]에서 공유되는 핫 Flow입니다.
+ * 마지막 구독자가 사라진 뒤 [SHARING_STOP_TIMEOUT_MS] 동안 Room 구독을 유지하고,
+ * 그동안 마지막 결과를 1개 보관해 새 구독자(화면 회전 등)에게 즉시 전달합니다.
+ * 구독이 멈추면 보관한 값도 버리므로, 다시 구독할 때 멈춰 있던 동안의 오래된 값을 받지 않습니다.
+ * Worker처럼 값이 한 번만 필요한 곳은 공유 Flow 대신 DAO 일회성 조회를 씁니다. (SoberRepository.getCurrentStreak 참고)
+ *
+ * 날짜에 따라 범위가 바뀌는 통계 Flow는 [today]가 바뀌면 새 날짜로 다시 조회합니다.
+ *
+ * @param dao 금주 기록 DAO
+ * @param scope 공유 Flow를 유지하는 앱 수명 스코프
+ * @param today 앱 전체가 함께 쓰는 오늘 날짜 (DayBoundaryMonitor)
+ * @param timeSource 기록·마일스톤 시각을 정하는 시계
+ */
+@OptIn(ExperimentalCoroutinesApi::class)
+class SobrietyRepository(
+    private val dao: SobrietyDao,
+    private val scope: CoroutineScope,
+    private val today: StateFlow<LocalDate>,
+    private val timeSource: TimeSource = SystemTimeSource
+) {
 
     // Sobriety Records
-    val activeSobrietyRecord: Flow<SobrietyRecord?> = dao.getActiveSobrietyRecord()
+    val activeSobrietyRecord: SharedFlow<SobrietyRecord?> = dao.getActiveSobrietyRecord().shared()
     val allSobrietyRecords: Flow<List<SobrietyRecord>> = dao.getAllSobrietyRecords()
 
     suspend fun startNewSobriety(reason: String = "", note: String = ""): Long {
         // End any active sobriety first
-        dao.endCurrentSobriety(LocalDateTime.now())
+        dao.endCurrentSobriety(timeSource.localNow())
 
         val record = SobrietyRecord(
-            startDate = LocalDateTime.now(),
+            startDate = timeSource.localNow(),
             reason = reason,
             note = note,
             isActive = true
@@ -29,17 +64,20 @@ class SobrietyRepository(private val dao: SobrietyDao) {
     }
 
     suspend fun endCurrentSobriety() {
-        dao.endCurrentSobriety(LocalDateTime.now())
+        dao.endCurrentSobriety(timeSource.localNow())
     }
 
+    /** 현재 기록을 종료하고 새로 시작합니다. 마일스톤 되돌리기까지 한 트랜잭션으로 처리됩니다 */
     suspend fun resetSobriety(reason: String = "") {
-        dao.endCurrentSobriety(LocalDateTime.now())
-        startNewSobriety(reason)
+        dao.restartSobriety(timeSource.localNow(), reason)
     }
 
     // Daily Logs
     val allDailyLogs: Flow<List<DailyLog>> = dao.getAllDailyLogs()
 
+    /** 최근 [RECENT_DAYS]일 기록 (통계 화면 차트용 공유 Flow) */
+    val recentDailyLogs: SharedFlow<List<DailyLog>> = dao.getRecentDailyLogs(RECENT_DAYS).shared()
+
     fun getRecentDailyLogs(limit: Int = 7): Flow<List<DailyLog>> = dao.getRecentDailyLogs(limit)
 
     fun getDailyLogsBetween(startDate: LocalDate, endDate: LocalDate): Flow<List<DailyLog>> =
@@ -55,41 +93,92 @@ class SobrietyRepository(private val dao: SobrietyDao) {
         drinkAmount: Int = 0,
         note: String = ""
     ): Long {
-        val existingLog = dao.getDailyLogByDate(date)
+        val now = timeSource.localNow()
         val log = DailyLog(
-            id = existingLog?.id ?: 0,
             date = date,
             mood = mood,
             cravingLevel = cravingLevel,
             didDrink = didDrink,
             drinkAmount = drinkAmount,
-            note = note
+            note = note,
+            createdAt = now
         )
-        return if (existingLog != null) {
-            dao.updateDailyLog(log)
-            log.id
+        // 일일 기록과 통계 롤업(음주했다면 그날의 음주 기록과 금주 기록 재시작까지)을 한 트랜잭션에서 갱신.
+        // 오늘 상태(DataStore)는 SoberRepository.syncRecordedDay로 맞춥니다
+        return if (didDrink) {
+            dao.upsertDailyLogAndRecordDrink(log, now)
         } else {
-            dao.insertDailyLog(log)
+            dao.upsertDailyLogAndRollups(log)
         }
     }
 
+    /** 일일 기록을 삭제합니다. 그 날짜가 속한 통계 롤업도 같은 트랜잭션에서 갱신됩니다 */
+    suspend fun deleteDailyLog(log: DailyLog) = dao.deleteDailyLogAndRollups(log)
+
     // Milestones
-    val allMilestones: Flow<List<Milestone>> = dao.getAllMilestones()
+    val allMilestones: SharedFlow<List<Milestone>> = dao.getAllMilestones().shared()
     val unachievedMilestones: Flow<List<Milestone>> = dao.getUnachievedMilestones()
     val achievedMilestones: Flow<List<Milestone>> = dao.getAchievedMilestones()
 
-    suspend fun checkAndUpdateMilestones(soberDays: Int) {
-        val milestonesToAchieve = dao.getMilestonesToAchieve(soberDays)
-        milestonesToAchieve.forEach { milestone ->
-            dao.updateMilestone(
-                milestone.copy(
-                    isAchieved = true,
-                    achievedAt = LocalDateTime.now()
-                )
-            )
+    /**
+     * 금주 일수가 바뀔 때(성공 기록, 날짜 변경, 음주 후 재시작) 마일스톤 달성 상태를 갱신합니다.
+     * 음주로 일수가 줄어든 경우 그보다 큰 목표의 달성 기록은 되돌려집니다.
+     *
+     * @param soberDays 현재 금주 일수
+     * @return 새로 달성한 마일스톤 목록 (없으면 빈 목록)
+     */
+    suspend fun updateMilestones(soberDays: Int): List<Milestone> =
+        dao.recomputeMilestones(soberDays, timeSource.localNow())
+
+    // Statistics
+
+    /**
+     * 최근 [RECENT_DAYS]일 기준 통계 요약 (공유 Flow).
+     * 금주 일수는 날짜 단위로만 세므로 [today]만 쿼리에 넘기고, 날짜가 바뀌면 새 날짜로 다시 조회합니다.
+     */
+    val statisticsSummary: SharedFlow<StatisticsSummary> =
+        today.flatMapLatest { date -> dao.getStatisticsSummary(date, RECENT_DAYS) }.shared()
+
+    private val rollupFlows = ConcurrentHashMap<RollupPeriod, SharedFlow<StatsRollup?>>()
+
+    /**
+     * 오늘이 속한 [period] 구간의 롤업 (구간별 공유 Flow).
+     * 같은 구간을 요청하면 같은 Flow를 돌려주므로 탭을 바꿔도 다시 조회하지 않습니다.
+     * 날짜가 바뀌어 새 구간(다음 주, 다음 달 등)이 시작되면 그 구간을 조회합니다.
+     */
+    fun currentRollup(period: RollupPeriod): SharedFlow<StatsRollup?> =
+        rollupFlows.getOrPut(period) {
+            today.map { period.startOf(it) }
+                .distinctUntilChanged()
+                .flatMapLatest { periodStart -> dao.getRollup(period, periodStart) }
+                .shared()
         }
-    }
 
-    // Motivational Quotes
-    suspend fun getRandomQuote(): MotivationalQuote? = dao.getRandomQuote()
+    fun getStatisticsSummary(recentDays: Int = 7): Flow<StatisticsSummary> =
+        dao.getStatisticsSummary(today.value, recentDays)
+
+    /** [date]가 속한 구간(이번 주/이번 달/올해/전체)의 롤업. 기록이 없으면 null */
+    fun getRollup(period: RollupPeriod, date: LocalDate = today.value): Flow<StatsRollup?> =
+        dao.getRollup(period, period.startOf(date))
+
+    /** [from]~[to] 사이에 시작하는 구간들의 롤업 목록 (추이 차트용) */
+    fun getRollups(period: RollupPeriod, from: LocalDate, to: LocalDate): Flow<List<StatsRollup>> =
+        dao.getRollups(period, period.startOf(from), to)
+
+    /** 롤업 테이블 전체를 daily_logs로부터 다시 계산합니다 */
+    suspend fun rebuildRollups() = dao.rebuildRollups()
+
+    private fun <T> Flow<T>.shared(): SharedFlow<T> = shareIn(
+        scope = scope,
+        started = SharingStarted.WhileSubscribed(SHARING_STOP_TIMEOUT_MS, replayExpirationMillis = 0),
+        replay = 1
+    )
+
+    companion object {
+        /** 통계 화면의 최근 기간(일) */
+        const val RECENT_DAYS = 7
+
+        /** 마지막 구독자가 사라진 뒤 공유 Flow의 Room 구독을 유지하는 시간 */
+        private const val SHARING_STOP_TIMEOUT_MS = 5_000L
+    }
 }
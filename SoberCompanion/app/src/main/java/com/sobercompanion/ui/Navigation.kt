@@ -1,11 +1,13 @@
 package com.sobercompanion.ui
 
 import androidx.compose.runtime.Composable
+import androidx.compose.runtime.LaunchedEffect
 import androidx.navigation.NavHostController
 import androidx.navigation.compose.NavHost
 import androidx.navigation.compose.composable
 import androidx.navigation.compose.rememberNavController
 import com.sobercompanion.ui.screens.DailyLogScreen
+import com.sobercompanion.ui.screens.HistoryScreen
 import com.sobercompanion.ui.screens.HomeScreen
 import com.sobercompanion.ui.screens.MilestonesScreen
 import com.sobercompanion.ui.screens.SettingsScreen
@@ -17,12 +19,24 @@ sealed class Screen(val route: String) {
     data object Statistics : Screen("statistics")
     data object Milestones : Screen("milestones")
     data object Settings : Screen("settings")
+    data object History : Screen("history")
 }
 
+/**
+ * @param openComfortRequest 흔들림 타이머 알림으로 위로 메시지를 요청받은 횟수.
+ *   값이 바뀌면 다른 화면에 있더라도 홈 화면(위로 메시지 카드)으로 돌아갑니다
+ */
 @Composable
 fun SoberCompanionNavHost(
-    navController: NavHostController = rememberNavController()
+    navController: NavHostController = rememberNavController(),
+    openComfortRequest: Int = 0
 ) {
+    LaunchedEffect(openComfortRequest) {
+        if (openComfortRequest > 0) {
+            navController.popBackStack(Screen.Home.route, inclusive = false)
+        }
+    }
+
     NavHost(
         navController = navController,
         startDestination = Screen.Home.route
@@ -54,5 +68,11 @@ fun SoberCompanionNavHost(
                 onNavigateBack = { navController.popBackStack() }
             )
         }
+
+        composable(Screen.History.route) {
+            HistoryScreen(
+                onNavigateBack = { navController.popBackStack() }
+            )
+        }
     }
 }
@@ -30,42 +30,28 @@ import androidx.compose.material3.TopAppBar
 import androidx.compose.runtime.Composable
 import androidx.compose.runtime.LaunchedEffect
 import androidx.compose.runtime.getValue
-import androidx.compose.runtime.mutableFloatStateOf
-import androidx.compose.runtime.mutableStateOf
 import androidx.compose.runtime.remember
-import androidx.compose.runtime.rememberCoroutineScope
-import androidx.compose.runtime.setValue
 import androidx.compose.ui.Alignment
 import androidx.compose.ui.Modifier
 import androidx.compose.ui.unit.dp
-import com.sobercompanion.SoberCompanionApp
-import com.sobercompanion.data.repository.SobrietyRepository
-import kotlinx.coroutines.launch
-import java.time.LocalDate
-import java.time.format.DateTimeFormatter
+import androidx.lifecycle.compose.collectAsStateWithLifecycle
+import androidx.lifecycle.viewmodel.compose.viewModel
+import com.sobercompanion.viewmodel.DailyLogViewModel
 
 @OptIn(ExperimentalMaterial3Api::class)
 @Composable
 fun DailyLogScreen(
-    onNavigateBack: () -> Unit
+    onNavigateBack: () -> Unit,
+    viewModel: DailyLogViewModel = viewModel()
 ) {
-    val scope = rememberCoroutineScope()
-    val sobrietyRepository = SobrietyRepository(SoberCompanionApp.instance.database.sobrietyDao())
+    val uiState by viewModel.uiState.collectAsStateWithLifecycle()
     val snackbarHostState = remember { SnackbarHostState() }
 
-    var mood by remember { mutableFloatStateOf(3f) }
-    var cravingLevel by remember { mutableFloatStateOf(1f) }
-    var didDrink by remember { mutableStateOf(false) }
-    var note by remember { mutableStateOf("") }
-
-    val today = LocalDate.now()
-
-    LaunchedEffect(Unit) {
-        sobrietyRepository.getDailyLogByDate(today)?.let { existingLog ->
-            mood = existingLog.mood.toFloat()
-            cravingLevel = existingLog.cravingLevel.toFloat()
-            didDrink = existingLog.didDrink
-            note = existingLog.note
+    // 저장이 끝나면 안내 후 뒤로 이동
+    LaunchedEffect(uiState.isSaved) {
+        if (uiState.isSaved) {
+            snackbarHostState.showSnackbar("기록이 저장되었습니다")
+            onNavigateBack()
         }
     }
 
@@ -91,7 +77,7 @@ fun DailyLogScreen(
         ) {
             // Date
             Text(
-                text = today.format(DateTimeFormatter.ofPattern("yyyy년 M월 d일")),
+                text = uiState.dateLabel,
                 style = MaterialTheme.typography.titleMedium,
                 color = MaterialTheme.colorScheme.primary
             )
@@ -124,14 +110,15 @@ fun DailyLogScreen(
                         Text("매우 좋음", style = MaterialTheme.typography.bodySmall)
                     }
                     Slider(
-                        value = mood,
-                        onValueChange = { mood = it },
+                        value = uiState.mood,
+                        onValueChange = viewModel::onMoodChange,
+                        enabled = uiState.isLoaded,
                         valueRange = 1f..5f,
                         steps = 3,
                         modifier = Modifier.fillMaxWidth()
                     )
                     Text(
-                        text = getMoodText(mood.toInt()),
+                        text = uiState.moodLabel,
                         style = MaterialTheme.typography.bodyMedium,
                         color = MaterialTheme.colorScheme.primary,
                         modifier = Modifier.align(Alignment.CenterHorizontally)
@@ -167,14 +154,15 @@ fun DailyLogScreen(
                         Text("매우 강함", style = MaterialTheme.typography.bodySmall)
                     }
                     Slider(
-                        value = cravingLevel,
-                        onValueChange = { cravingLevel = it },
+                        value = uiState.cravingLevel,
+                        onValueChange = viewModel::onCravingLevelChange,
+                        enabled = uiState.isLoaded,
                         valueRange = 1f..5f,
                         steps = 3,
                         modifier = Modifier.fillMaxWidth()
                     )
                     Text(
-                        text = getCravingText(cravingLevel.toInt()),
+                        text = uiState.cravingLabel,
                         style = MaterialTheme.typography.bodyMedium,
                         color = MaterialTheme.colorScheme.secondary,
                         modifier = Modifier.align(Alignment.CenterHorizontally)
@@ -205,13 +193,15 @@ fun DailyLogScreen(
                         horizontalArrangement = Arrangement.spacedBy(8.dp)
                     ) {
                         FilterChip(
-                            selected = !didDrink,
-                            onClick = { didDrink = false },
+                            selected = !uiState.didDrink,
+                            onClick = { viewModel.onDidDrinkChange(false) },
+                            enabled = uiState.isLoaded,
                             label = { Text("마시지 않음") }
                         )
                         FilterChip(
-                            selected = didDrink,
-                            onClick = { didDrink = true },
+                            selected = uiState.didDrink,
+                            onClick = { viewModel.onDidDrinkChange(true) },
+                            enabled = uiState.isLoaded,
                             label = { Text("마심") }
                         )
                     }
@@ -222,8 +212,9 @@ fun DailyLogScreen(
 
             // Note
             OutlinedTextField(
-                value = note,
-                onValueChange = { note = it },
+                value = uiState.note,
+                onValueChange = viewModel::onNoteChange,
+                enabled = uiState.isLoaded,
                 label = { Text("오늘의 메모 (선택)") },
                 placeholder = { Text("오늘 있었던 일이나 느낌을 기록해보세요") },
                 modifier = Modifier.fillMaxWidth(),
@@ -235,24 +226,8 @@ fun DailyLogScreen(
 
             // Save Button
             Button(
-                onClick = {
-                    scope.launch {
-                        sobrietyRepository.saveDailyLog(
-                            date = today,
-                            mood = mood.toInt(),
-                            cravingLevel = cravingLevel.toInt(),
-                            didDrink = didDrink,
-                            note = note
-                        )
-
-                        if (didDrink) {
-                            sobrietyRepository.resetSobriety()
-                        }
-
-                        snackbarHostState.showSnackbar("기록이 저장되었습니다")
-                        onNavigateBack()
-                    }
-                },
+                onClick = viewModel::save,
+                enabled = uiState.isLoaded && !uiState.isSaving && !uiState.isSaved,
                 modifier = Modifier
                     .fillMaxWidth()
                     .height(56.dp)
@@ -262,25 +237,3 @@ fun DailyLogScreen(
         }
     }
 }
-
-private fun getMoodText(mood: Int): String {
-    return when (mood) {
-        1 -> "매우 나빴어요"
-        2 -> "조금 안 좋았어요"
-        3 -> "보통이었어요"
-        4 -> "좋았어요"
-        5 -> "매우 좋았어요"
-        else -> ""
-    }
-}
-
-private fun getCravingText(level: Int): String {
-    return when (level) {
-        1 -> "전혀 없었어요"
-        2 -> "조금 있었어요"
-        3 -> "보통이었어요"
-        4 -> "강했어요"
-        5 -> "매우 강했어요"
-        else -> ""
-    }
-}
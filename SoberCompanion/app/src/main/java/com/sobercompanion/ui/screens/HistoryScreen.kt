@@ -0,0 +1,303 @@
+package com.sobercompanion.ui.screens
+
+import androidx.compose.foundation.layout.Arrangement
+import androidx.compose.foundation.layout.Column
+import androidx.compose.foundation.layout.Row
+import androidx.compose.foundation.layout.Spacer
+import androidx.compose.foundation.layout.fillMaxSize
+import androidx.compose.foundation.layout.fillMaxWidth
+import androidx.compose.foundation.layout.height
+import androidx.compose.foundation.layout.padding
+import androidx.compose.foundation.lazy.LazyColumn
+import androidx.compose.material.icons.Icons
+import androidx.compose.material.icons.filled.ArrowBack
+import androidx.compose.material.icons.filled.Clear
+import androidx.compose.material.icons.filled.Search
+import androidx.compose.material3.Card
+import androidx.compose.material3.CardDefaults
+import androidx.compose.material3.ExperimentalMaterial3Api
+import androidx.compose.material3.Icon
+import androidx.compose.material3.IconButton
+import androidx.compose.material3.MaterialTheme
+import androidx.compose.material3.OutlinedTextField
+import androidx.compose.material3.Scaffold
+import androidx.compose.material3.Tab
+import androidx.compose.material3.TabRow
+import androidx.compose.material3.Text
+import androidx.compose.material3.TopAppBar
+import androidx.compose.runtime.Composable
+import androidx.compose.runtime.getValue
+import androidx.compose.runtime.mutableIntStateOf
+import androidx.compose.runtime.remember
+import androidx.compose.runtime.setValue
+import androidx.compose.ui.Modifier
+import androidx.compose.ui.text.style.TextAlign
+import androidx.compose.ui.text.style.TextOverflow
+import androidx.compose.ui.unit.dp
+import androidx.lifecycle.compose.collectAsStateWithLifecycle
+import androidx.lifecycle.viewmodel.compose.viewModel
+import androidx.paging.LoadState
+import androidx.paging.compose.LazyPagingItems
+import androidx.paging.compose.collectAsLazyPagingItems
+import androidx.paging.compose.itemKey
+import com.sobercompanion.data.local.entity.DailyLog
+import com.sobercompanion.data.local.entity.SobrietyRecord
+import com.sobercompanion.data.repository.NoteSearchResult
+import com.sobercompanion.viewmodel.HistoryViewModel
+import java.time.LocalDateTime
+import java.time.format.DateTimeFormatter
+import java.time.temporal.ChronoUnit
+
+private val DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy.MM.dd")
+
+private val HISTORY_TABS = listOf("일일 기록", "금주 기록")
+
+/**
+ * 지난 일일 기록과 금주 기록을 최신순으로 보여주는 이력 화면.
+ * 목록은 HistoryRepository의 페이징으로 필요한 페이지만 읽고,
+ * 아직 읽지 않은 위치는 placeholder로 표시합니다.
+ *
+ * 일일 기록 탭에서 메모를 검색하면 목록 대신 관련도순 검색 결과와 발췌를 보여줍니다.
+ */
+@OptIn(ExperimentalMaterial3Api::class)
+@Composable
+fun HistoryScreen(
+    onNavigateBack: () -> Unit,
+    viewModel: HistoryViewModel = viewModel()
+) {
+    var selectedTab by remember { mutableIntStateOf(0) }
+
+    Scaffold(
+        topBar = {
+            TopAppBar(
+                title = { Text("기록 보기") },
+                navigationIcon = {
+                    IconButton(onClick = onNavigateBack) {
+                        Icon(Icons.Filled.ArrowBack, contentDescription = "뒤로")
+                    }
+                }
+            )
+        }
+    ) { paddingValues ->
+        Column(
+            modifier = Modifier
+                .fillMaxSize()
+                .padding(paddingValues)
+        ) {
+            TabRow(selectedTabIndex = selectedTab) {
+                HISTORY_TABS.forEachIndexed { index, title ->
+                    Tab(
+                        selected = selectedTab == index,
+                        onClick = { selectedTab = index },
+                        text = { Text(title) }
+                    )
+                }
+            }
+
+            when (selectedTab) {
+                0 -> DailyLogHistory(viewModel)
+                else -> SobrietyRecordHistory(viewModel)
+            }
+        }
+    }
+}
+
+@Composable
+private fun DailyLogHistory(viewModel: HistoryViewModel) {
+    val searchQuery by viewModel.searchQuery.collectAsStateWithLifecycle()
+    val logs = viewModel.dailyLogs.collectAsLazyPagingItems()
+    val searchResults = viewModel.searchResults.collectAsLazyPagingItems()
+
+    Column(modifier = Modifier.fillMaxSize()) {
+        OutlinedTextField(
+            value = searchQuery,
+            onValueChange = viewModel::onSearchQueryChange,
+            modifier = Modifier
+                .fillMaxWidth()
+                .padding(horizontal = 16.dp, vertical = 8.dp),
+            placeholder = { Text("메모 검색") },
+            leadingIcon = { Icon(Icons.Filled.Search, contentDescription = null) },
+            trailingIcon = {
+                if (searchQuery.isNotEmpty()) {
+                    IconButton(onClick = { viewModel.onSearchQueryChange("") }) {
+                        Icon(Icons.Filled.Clear, contentDescription = "검색어 지우기")
+                    }
+                }
+            },
+            singleLine = true
+        )
+
+        if (searchQuery.isBlank()) {
+            DailyLogList(logs)
+        } else {
+            NoteSearchResultList(searchResults)
+        }
+    }
+}
+
+@Composable
+private fun DailyLogList(logs: LazyPagingItems<DailyLog>) {
+    LazyColumn(
+        modifier = Modifier
+            .fillMaxSize()
+            .padding(horizontal = 16.dp),
+        verticalArrangement = Arrangement.spacedBy(8.dp)
+    ) {
+        items(count = logs.itemCount, key = logs.itemKey { it.id }) { index ->
+            val log = logs[index]
+            if (log != null) DailyLogItem(log) else PlaceholderItem()
+        }
+    }
+}
+
+/** 메모 검색 결과 (관련도순). 메모 전체 대신 검색어 주변 발췌를 보여줍니다 */
+@Composable
+private fun NoteSearchResultList(results: LazyPagingItems<NoteSearchResult>) {
+    if (results.itemCount == 0 && results.loadState.refresh is LoadState.NotLoading) {
+        Text(
+            text = "검색 결과가 없습니다",
+            modifier = Modifier
+                .fillMaxWidth()
+                .padding(32.dp),
+            style = MaterialTheme.typography.bodyMedium,
+            color = MaterialTheme.colorScheme.onSurfaceVariant,
+            textAlign = TextAlign.Center
+        )
+        return
+    }
+
+    LazyColumn(
+        modifier = Modifier
+            .fillMaxSize()
+            .padding(horizontal = 16.dp),
+        verticalArrangement = Arrangement.spacedBy(8.dp)
+    ) {
+        items(count = results.itemCount, key = results.itemKey { it.log.id }) { index ->
+            val result = results[index]
+            if (result != null) DailyLogItem(result.log, note = result.snippet) else PlaceholderItem()
+        }
+    }
+}
+
+@Composable
+private fun SobrietyRecordHistory(viewModel: HistoryViewModel) {
+    val records = viewModel.sobrietyRecords.collectAsLazyPagingItems()
+    // 진행 중인 기록의 경과 일수 기준 시각
+    val now = viewModel.timeSource.localNow()
+
+    LazyColumn(
+        modifier = Modifier
+            .fillMaxSize()
+            .padding(horizontal = 16.dp),
+        verticalArrangement = Arrangement.spacedBy(8.dp)
+    ) {
+        item { Spacer(modifier = Modifier.height(8.dp)) }
+
+        items(count = records.itemCount, key = records.itemKey { it.id }) { index ->
+            val record = records[index]
+            if (record != null) SobrietyRecordItem(record, now) else PlaceholderItem()
+        }
+    }
+}
+
+/** @param note 표시할 메모. 검색 결과에서는 발췌 */
+@Composable
+private fun DailyLogItem(log: DailyLog, note: String = log.note) {
+    Card(
+        modifier = Modifier.fillMaxWidth(),
+        colors = CardDefaults.cardColors(
+            containerColor = MaterialTheme.colorScheme.surfaceVariant
+        )
+    ) {
+        Column(modifier = Modifier.padding(16.dp)) {
+            Row(
+                modifier = Modifier.fillMaxWidth(),
+                horizontalArrangement = Arrangement.SpaceBetween
+            ) {
+                Text(
+                    text = log.date.format(DATE_FORMAT),
+                    style = MaterialTheme.typography.titleSmall
+                )
+                Text(
+                    text = if (log.didDrink) "음주 ${log.drinkAmount}잔" else "금주",
+                    style = MaterialTheme.typography.bodySmall,
+                    color = if (log.didDrink) {
+                        MaterialTheme.colorScheme.error
+                    } else {
+                        MaterialTheme.colorScheme.primary
+                    }
+                )
+            }
+            Text(
+                text = "기분 ${log.mood} · 욕구 ${log.cravingLevel}",
+                style = MaterialTheme.typography.bodySmall,
+                color = MaterialTheme.colorScheme.onSurfaceVariant
+            )
+            if (note.isNotBlank()) {
+                Text(
+                    text = note,
+                    style = MaterialTheme.typography.bodyMedium,
+                    maxLines = 2,
+                    overflow = TextOverflow.Ellipsis
+                )
+            }
+        }
+    }
+}
+
+@Composable
+private fun SobrietyRecordItem(record: SobrietyRecord, now: LocalDateTime) {
+    val end = record.endDate ?: now
+    val days = ChronoUnit.DAYS.between(record.startDate, end)
+
+    Card(
+        modifier = Modifier.fillMaxWidth(),
+        colors = CardDefaults.cardColors(
+            containerColor = if (record.isActive) {
+                MaterialTheme.colorScheme.primaryContainer
+            } else {
+                MaterialTheme.colorScheme.surfaceVariant
+            }
+        )
+    ) {
+        Row(
+            modifier = Modifier
+                .fillMaxWidth()
+                .padding(16.dp),
+            horizontalArrangement = Arrangement.SpaceBetween
+        ) {
+            Column {
+                Text(
+                    text = "${record.startDate.format(DATE_FORMAT)} ~ " +
+                        (record.endDate?.format(DATE_FORMAT) ?: "진행 중"),
+                    style = MaterialTheme.typography.titleSmall
+                )
+                if (record.reason.isNotBlank()) {
+                    Text(
+                        text = record.reason,
+                        style = MaterialTheme.typography.bodySmall,
+                        color = MaterialTheme.colorScheme.onSurfaceVariant
+                    )
+                }
+            }
+            Text(
+                text = "${days}일",
+                style = MaterialTheme.typography.titleMedium,
+                color = MaterialTheme.colorScheme.primary
+            )
+        }
+    }
+}
+
+/** 아직 로드되지 않은 위치의 자리 표시 카드 */
+@Composable
+private fun PlaceholderItem() {
+    Card(
+        modifier = Modifier
+            .fillMaxWidth()
+            .height(72.dp),
+        colors = CardDefaults.cardColors(
+            containerColor = MaterialTheme.colorScheme.surfaceVariant.copy(alpha = 0.4f)
+        )
+    ) {}
+}
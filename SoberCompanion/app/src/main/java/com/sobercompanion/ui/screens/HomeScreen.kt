@@ -30,10 +30,11 @@ import androidx.compose.material3.Text
 import android.os.VibrationEffect
 import android.os.Vibrator
 import androidx.compose.runtime.Composable
-import androidx.compose.runtime.collectAsState
 import androidx.compose.runtime.getValue
+import androidx.compose.runtime.produceState
 import androidx.compose.ui.Alignment
 import androidx.compose.ui.platform.LocalContext
+import androidx.compose.ui.platform.LocalLifecycleOwner
 import androidx.compose.ui.Modifier
 import androidx.compose.ui.draw.alpha
 import androidx.compose.ui.draw.clip
@@ -41,6 +42,9 @@ import androidx.compose.ui.draw.scale
 import androidx.compose.ui.text.font.FontWeight
 import androidx.compose.ui.unit.dp
 import androidx.compose.ui.unit.sp
+import androidx.lifecycle.Lifecycle
+import androidx.lifecycle.compose.collectAsStateWithLifecycle
+import androidx.lifecycle.repeatOnLifecycle
 import androidx.lifecycle.viewmodel.compose.viewModel
 import com.sobercompanion.ui.components.ComfortMessageCard
 import com.sobercompanion.ui.theme.AppBackground
@@ -53,13 +57,17 @@ import com.sobercompanion.ui.theme.AppTextTertiary
 import com.sobercompanion.ui.theme.NotoSansKr
 import com.sobercompanion.ui.theme.NotoSerifKr
 import com.sobercompanion.util.ComfortMessageProvider
+import com.sobercompanion.util.TimeSource
 import com.sobercompanion.viewmodel.MainViewModel
+import kotlinx.coroutines.delay
+import java.time.Duration
+import java.time.Instant
 
 @Composable
 fun HomeScreen(
     mainViewModel: MainViewModel = viewModel()
 ) {
-    val uiState by mainViewModel.uiState.collectAsState()
+    val uiState by mainViewModel.uiState.collectAsStateWithLifecycle()
 
     // 지금 좀 흔들려 버튼 우측 dot — 숨쉬는 애니메이션 (2.8초 주기)
     val infiniteTransition = rememberInfiniteTransition(label = "breathe")
@@ -96,6 +104,15 @@ fun HomeScreen(
             modifier  = Modifier.padding(start = 24.dp, end = 24.dp, top = 16.dp)
         )
 
+        // ── 마일스톤 달성 카드 (새로 달성한 마일스톤 중 가장 큰 목표) ────────────
+        val achievedMilestone = uiState.newlyAchievedMilestones.lastOrNull()
+        ComfortMessageCard(
+            show      = achievedMilestone != null,
+            message   = achievedMilestone?.let { "${it.title} 달성 — ${it.description}" } ?: "",
+            onDismiss = { mainViewModel.onMilestoneCelebrationSeen() },
+            modifier  = Modifier.padding(start = 24.dp, end = 24.dp, top = 16.dp)
+        )
+
         // ── 메인 콘텐츠 ───────────────────────────────────────────────────────
         Column(
             modifier = Modifier
@@ -181,10 +198,12 @@ fun HomeScreen(
                     )
                 }
                 ShakyCard(
-                    shakyCount = uiState.shakyCountToday,
-                    dotAlpha   = dotAlpha,
-                    dotScale   = dotScale,
-                    onClick    = { mainViewModel.onShaky() }
+                    shakyCount    = uiState.shakyCountToday,
+                    shakyDeadline = uiState.shakyDeadline,
+                    timeSource    = mainViewModel.timeSource,
+                    dotAlpha      = dotAlpha,
+                    dotScale      = dotScale,
+                    onClick       = { mainViewModel.onShaky() }
                 )
             } else {
                 Column(verticalArrangement = Arrangement.spacedBy(11.dp)) {
@@ -193,10 +212,12 @@ fun HomeScreen(
                         onClick = { mainViewModel.onTodaySuccess() }
                     )
                     ShakyCard(
-                        shakyCount = uiState.shakyCountToday,
-                        dotAlpha   = dotAlpha,
-                        dotScale   = dotScale,
-                        onClick    = { mainViewModel.onShaky() }
+                        shakyCount    = uiState.shakyCountToday,
+                        shakyDeadline = uiState.shakyDeadline,
+                        timeSource    = mainViewModel.timeSource,
+                        dotAlpha      = dotAlpha,
+                        dotScale      = dotScale,
+                        onClick       = { mainViewModel.onShaky() }
                     )
                     ActionCard(
                         label   = "마셨어",
@@ -211,6 +232,8 @@ fun HomeScreen(
 @Composable
 private fun ShakyCard(
     shakyCount: Int,
+    shakyDeadline: Instant?,
+    timeSource: TimeSource,
     dotAlpha: Float,
     dotScale: Float,
     onClick: () -> Unit
@@ -242,9 +265,60 @@ private fun ShakyCard(
             modifier      = Modifier.padding(top = 8.dp),
             letterSpacing = 0.sp,
         )
+
+        if (shakyDeadline != null) {
+            ShakyCountdown(deadline = shakyDeadline, timeSource = timeSource)
+        }
+    }
+}
+
+/**
+ * 흔들림 타이머 남은 시간 표시.
+ *
+ * 남은 시간은 이 컴포저블 안에서만 계산하므로 매초 이 Text 하나만 다시 그려집니다.
+ * 화면이 STARTED 상태일 때만 시계를 돌리고, 초 경계에 맞춰 깨어나 불필요한 갱신이 없습니다.
+ * 타이머가 끝나면 루프를 멈추고 아무것도 그리지 않습니다.
+ * 현재 시각은 앱 시계([TimeSource])에서 읽습니다.
+ */
+@Composable
+private fun ShakyCountdown(deadline: Instant, timeSource: TimeSource) {
+    val lifecycle = LocalLifecycleOwner.current.lifecycle
+    val remainingSeconds by produceState(secondsUntil(deadline, timeSource.now()), deadline, lifecycle) {
+        lifecycle.repeatOnLifecycle(Lifecycle.State.STARTED) {
+            while (true) {
+                val millisLeft = Duration.between(timeSource.now(), deadline).toMillis()
+                value = ceilSeconds(millisLeft)
+                if (millisLeft <= 0) break
+                // 표시 값이 바뀌는 다음 초 경계까지 대기
+                delay(millisLeft % 1_000 + 1)
+            }
+        }
+    }
+
+    if (remainingSeconds > 0) {
+        Text(
+            text          = "${formatCountdown(remainingSeconds)} 뒤에 다시 찾아올게",
+            fontFamily    = NotoSansKr,
+            fontWeight    = FontWeight.Light,
+            fontSize      = 12.sp,
+            color         = AppTextTertiary,
+            modifier      = Modifier.padding(top = 4.dp),
+            letterSpacing = 0.sp,
+        )
     }
 }
 
+private fun secondsUntil(deadline: Instant, now: Instant): Long =
+    ceilSeconds(Duration.between(now, deadline).toMillis())
+
+/** 남은 밀리초를 올림한 초. 끝났으면 0 */
+private fun ceilSeconds(millisLeft: Long): Long =
+    if (millisLeft <= 0) 0 else (millisLeft + 999) / 1_000
+
+/** 10,799초 → "2:59:59" */
+private fun formatCountdown(seconds: Long): String =
+    "%d:%02d:%02d".format(seconds / 3_600, seconds % 3_600 / 60, seconds % 60)
+
 @Composable
 private fun ActionCard(
     label: String,
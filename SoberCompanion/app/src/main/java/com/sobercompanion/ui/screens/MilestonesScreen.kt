@@ -27,31 +27,23 @@ import androidx.compose.material3.Scaffold
 import androidx.compose.material3.Text
 import androidx.compose.material3.TopAppBar
 import androidx.compose.runtime.Composable
-import androidx.compose.runtime.collectAsState
 import androidx.compose.runtime.getValue
 import androidx.compose.ui.Alignment
 import androidx.compose.ui.Modifier
 import androidx.compose.ui.unit.dp
-import com.sobercompanion.SoberCompanionApp
-import com.sobercompanion.data.local.entity.Milestone
-import com.sobercompanion.data.repository.SobrietyRepository
-import java.time.format.DateTimeFormatter
-import java.time.temporal.ChronoUnit
+import androidx.lifecycle.compose.collectAsStateWithLifecycle
+import androidx.lifecycle.viewmodel.compose.viewModel
+import com.sobercompanion.viewmodel.MilestoneItemUi
+import com.sobercompanion.viewmodel.MilestonesViewModel
 
 @OptIn(ExperimentalMaterial3Api::class)
 @Composable
 fun MilestonesScreen(
-    onNavigateBack: () -> Unit
+    onNavigateBack: () -> Unit,
+    viewModel: MilestonesViewModel = viewModel()
 ) {
-    val sobrietyRepository = SobrietyRepository(SoberCompanionApp.instance.database.sobrietyDao())
-    val allMilestones by sobrietyRepository.allMilestones.collectAsState(initial = emptyList())
-    val activeSobriety by sobrietyRepository.activeSobrietyRecord.collectAsState(initial = null)
-
-    val currentSoberDays = activeSobriety?.let {
-        ChronoUnit.DAYS.between(it.startDate, java.time.LocalDateTime.now()).toInt()
-    } ?: 0
-
-    val achievedCount = allMilestones.count { it.isAchieved }
+    // 진행률·남은 일수·달성일 문구는 ViewModel이 미리 계산
+    val uiState by viewModel.uiState.collectAsStateWithLifecycle()
 
     Scaffold(
         topBar = {
@@ -102,7 +94,7 @@ fun MilestonesScreen(
                                 color = MaterialTheme.colorScheme.onPrimaryContainer
                             )
                             Text(
-                                text = "$achievedCount / ${allMilestones.size}",
+                                text = "${uiState.achievedCount} / ${uiState.totalCount}",
                                 style = MaterialTheme.typography.headlineMedium,
                                 color = MaterialTheme.colorScheme.onPrimaryContainer
                             )
@@ -113,11 +105,8 @@ fun MilestonesScreen(
                 Spacer(modifier = Modifier.height(8.dp))
             }
 
-            items(allMilestones) { milestone ->
-                MilestoneItem(
-                    milestone = milestone,
-                    currentSoberDays = currentSoberDays
-                )
+            items(uiState.items, key = { it.id }) { milestone ->
+                MilestoneItem(milestone = milestone)
             }
 
             item {
@@ -128,18 +117,7 @@ fun MilestonesScreen(
 }
 
 @Composable
-private fun MilestoneItem(
-    milestone: Milestone,
-    currentSoberDays: Int
-) {
-    val progress = if (milestone.isAchieved) {
-        1f
-    } else {
-        (currentSoberDays.toFloat() / milestone.targetDays).coerceIn(0f, 1f)
-    }
-
-    val daysRemaining = (milestone.targetDays - currentSoberDays).coerceAtLeast(0)
-
+private fun MilestoneItem(milestone: MilestoneItemUi) {
     Card(
         modifier = Modifier.fillMaxWidth(),
         colors = CardDefaults.cardColors(
@@ -193,15 +171,16 @@ private fun MilestoneItem(
                     }
                 )
 
-                if (milestone.isAchieved && milestone.achievedAt != null) {
+                milestone.achievedLabel?.let { label ->
                     Text(
-                        text = "달성일: ${milestone.achievedAt.format(DateTimeFormatter.ofPattern("yyyy.MM.dd"))}",
+                        text = label,
                         style = MaterialTheme.typography.bodySmall,
                         color = MaterialTheme.colorScheme.primary
                     )
-                } else if (!milestone.isAchieved) {
+                }
+                milestone.progressLabel?.let { label ->
                     Text(
-                        text = "${daysRemaining}일 남음 (${(progress * 100).toInt()}%)",
+                        text = label,
                         style = MaterialTheme.typography.bodySmall,
                         color = MaterialTheme.colorScheme.secondary
                     )
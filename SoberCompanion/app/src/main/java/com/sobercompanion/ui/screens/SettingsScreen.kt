@@ -1,5 +1,9 @@
 package com.sobercompanion.ui.screens
 
+import android.net.Uri
+import androidx.activity.compose.rememberLauncherForActivityResult
+import androidx.activity.result.contract.ActivityResultContracts
+import androidx.compose.foundation.layout.Arrangement
 import androidx.compose.foundation.layout.Column
 import androidx.compose.foundation.layout.Row
 import androidx.compose.foundation.layout.Spacer
@@ -14,43 +18,61 @@ import androidx.compose.material.icons.filled.ArrowBack
 import androidx.compose.material3.Card
 import androidx.compose.material3.CardDefaults
 import androidx.compose.material3.ExperimentalMaterial3Api
+import androidx.compose.material3.HorizontalDivider
 import androidx.compose.material3.Icon
 import androidx.compose.material3.IconButton
 import androidx.compose.material3.MaterialTheme
+import androidx.compose.material3.OutlinedButton
 import androidx.compose.material3.OutlinedTextField
 import androidx.compose.material3.Scaffold
 import androidx.compose.material3.Switch
+import androidx.compose.material3.TextButton
 import androidx.compose.material3.Text
 import androidx.compose.material3.TopAppBar
 import androidx.compose.runtime.Composable
-import androidx.compose.runtime.collectAsState
 import androidx.compose.runtime.getValue
 import androidx.compose.runtime.mutableStateOf
 import androidx.compose.runtime.remember
-import androidx.compose.runtime.rememberCoroutineScope
 import androidx.compose.runtime.setValue
 import androidx.compose.ui.Alignment
 import androidx.compose.ui.Modifier
-import androidx.compose.ui.platform.LocalContext
 import androidx.compose.ui.unit.dp
-import com.sobercompanion.data.datastore.UserPreferencesRepository
-import kotlinx.coroutines.launch
+import androidx.lifecycle.compose.collectAsStateWithLifecycle
+import androidx.lifecycle.viewmodel.compose.viewModel
+import com.sobercompanion.viewmodel.SettingsViewModel
+
+/** 가져오기 파일 선택기에 표시할 형식 (일부 파일 앱은 JSON을 octet-stream으로 알려줌) */
+private val IMPORT_MIME_TYPES = arrayOf("application/json", "application/octet-stream")
 
 @OptIn(ExperimentalMaterial3Api::class)
 @Composable
 fun SettingsScreen(
-    onNavigateBack: () -> Unit
+    onNavigateBack: () -> Unit,
+    viewModel: SettingsViewModel = viewModel()
 ) {
-    val context = LocalContext.current
-    val scope = rememberCoroutineScope()
-    val userPreferencesRepository = UserPreferencesRepository(context)
+    val uiState by viewModel.uiState.collectAsStateWithLifecycle()
 
-    val userName by userPreferencesRepository.userName.collectAsState(initial = "")
-    val isDailyReminderEnabled by userPreferencesRepository.isDailyReminderEnabled.collectAsState(initial = true)
-    val sobrietyGoalReason by userPreferencesRepository.sobrietyGoalReason.collectAsState(initial = "")
+    var editedName by remember(uiState.userName) { mutableStateOf(uiState.userName) }
+    var editedReason by remember(uiState.sobrietyGoalReason) { mutableStateOf(uiState.sobrietyGoalReason) }
 
-    var editedName by remember(userName) { mutableStateOf(userName) }
-    var editedReason by remember(sobrietyGoalReason) { mutableStateOf(sobrietyGoalReason) }
+    // 파일 선택 결과는 ViewModel로 넘겨 화면 회전 중에도 작업이 이어지게 함
+    val exportJsonLauncher = rememberLauncherForActivityResult(
+        ActivityResultContracts.CreateDocument("application/json")
+    ) { uri: Uri? ->
+        uri?.let(viewModel::exportJson)
+    }
+
+    val exportCsvLauncher = rememberLauncherForActivityResult(
+        ActivityResultContracts.CreateDocument("text/csv")
+    ) { uri: Uri? ->
+        uri?.let(viewModel::exportDailyLogsCsv)
+    }
+
+    val importLauncher = rememberLauncherForActivityResult(
+        ActivityResultContracts.OpenDocument()
+    ) { uri: Uri? ->
+        uri?.let(viewModel::importJson)
+    }
 
     Scaffold(
         topBar = {
@@ -95,9 +117,7 @@ fun SettingsScreen(
                         value = editedName,
                         onValueChange = {
                             editedName = it
-                            scope.launch {
-                                userPreferencesRepository.setUserName(it)
-                            }
+                            viewModel.setUserName(it)
                         },
                         label = { Text("이름") },
                         modifier = Modifier.fillMaxWidth(),
@@ -110,9 +130,7 @@ fun SettingsScreen(
                         value = editedReason,
                         onValueChange = {
                             editedReason = it
-                            scope.launch {
-                                userPreferencesRepository.setSobrietyGoalReason(it)
-                            }
+                            viewModel.setSobrietyGoalReason(it)
                         },
                         label = { Text("금주 목표") },
                         modifier = Modifier.fillMaxWidth(),
@@ -151,19 +169,124 @@ fun SettingsScreen(
                             style = MaterialTheme.typography.titleSmall
                         )
                         Text(
-                            text = "매일 저녁 8시에 기록 알림을 받습니다",
+                            text = uiState.reminderDescription,
+                            style = MaterialTheme.typography.bodySmall,
+                            color = MaterialTheme.colorScheme.onSurfaceVariant.copy(alpha = 0.7f)
+                        )
+                    }
+                    Switch(
+                        checked = uiState.isDailyReminderEnabled,
+                        onCheckedChange = viewModel::setDailyReminderEnabled
+                    )
+                }
+
+                HorizontalDivider(modifier = Modifier.padding(horizontal = 16.dp))
+
+                Row(
+                    modifier = Modifier
+                        .fillMaxWidth()
+                        .padding(16.dp),
+                    verticalAlignment = Alignment.CenterVertically
+                ) {
+                    Column(modifier = Modifier.weight(1f)) {
+                        Text(
+                            text = "흔들림 타이머 알림",
+                            style = MaterialTheme.typography.titleSmall
+                        )
+                        Text(
+                            text = "흔들림 기록 후 남은 시간을 알림창에 표시합니다",
                             style = MaterialTheme.typography.bodySmall,
                             color = MaterialTheme.colorScheme.onSurfaceVariant.copy(alpha = 0.7f)
                         )
                     }
                     Switch(
-                        checked = isDailyReminderEnabled,
-                        onCheckedChange = {
-                            scope.launch {
-                                userPreferencesRepository.setDailyReminderEnabled(it)
+                        checked = uiState.isShakyTimerNotificationEnabled,
+                        onCheckedChange = viewModel::setShakyTimerNotificationEnabled
+                    )
+                }
+            }
+
+            Spacer(modifier = Modifier.height(24.dp))
+
+            // Data Section
+            Text(
+                text = "데이터",
+                style = MaterialTheme.typography.titleMedium,
+                color = MaterialTheme.colorScheme.primary
+            )
+
+            Spacer(modifier = Modifier.height(8.dp))
+
+            Card(
+                modifier = Modifier.fillMaxWidth(),
+                colors = CardDefaults.cardColors(
+                    containerColor = MaterialTheme.colorScheme.surfaceVariant
+                )
+            ) {
+                Column(
+                    modifier = Modifier
+                        .fillMaxWidth()
+                        .padding(16.dp),
+                    verticalArrangement = Arrangement.spacedBy(8.dp)
+                ) {
+                    Text(
+                        text = "기기를 옮길 때 모든 기록을 파일로 내보내고 가져올 수 있습니다",
+                        style = MaterialTheme.typography.bodySmall,
+                        color = MaterialTheme.colorScheme.onSurfaceVariant.copy(alpha = 0.7f)
+                    )
+                    val isTransferring = uiState.isTransferring
+                    OutlinedButton(
+                        onClick = { exportJsonLauncher.launch("sober-companion-${viewModel.exportFileDate()}.json") },
+                        enabled = !isTransferring,
+                        modifier = Modifier.fillMaxWidth()
+                    ) {
+                        Text("전체 기록 내보내기 (JSON)")
+                    }
+                    OutlinedButton(
+                        onClick = { exportCsvLauncher.launch("daily-logs-${viewModel.exportFileDate()}.csv") },
+                        enabled = !isTransferring,
+                        modifier = Modifier.fillMaxWidth()
+                    ) {
+                        Text("일일 기록 내보내기 (CSV)")
+                    }
+                    OutlinedButton(
+                        onClick = { importLauncher.launch(IMPORT_MIME_TYPES) },
+                        enabled = !isTransferring,
+                        modifier = Modifier.fillMaxWidth()
+                    ) {
+                        Text("기록 가져오기")
+                    }
+                    OutlinedButton(
+                        onClick = viewModel::createDeviceBackup,
+                        enabled = !isTransferring,
+                        modifier = Modifier.fillMaxWidth()
+                    ) {
+                        Text("기기 백업 만들기")
+                    }
+                    OutlinedButton(
+                        onClick = viewModel::restoreDeviceBackup,
+                        enabled = !isTransferring && uiState.hasDeviceBackup,
+                        modifier = Modifier.fillMaxWidth()
+                    ) {
+                        Text("기기 백업에서 복원")
+                    }
+                    uiState.transferMessage?.let { message ->
+                        Row(
+                            modifier = Modifier.fillMaxWidth(),
+                            verticalAlignment = Alignment.CenterVertically
+                        ) {
+                            Text(
+                                text = message,
+                                style = MaterialTheme.typography.bodySmall,
+                                modifier = Modifier.weight(1f)
+                            )
+                            if (isTransferring) {
+                                TextButton(onClick = viewModel::cancelTransfer) {
+                                    Text("취소")
+                                }
                             }
                         }
-                    )
+                    }
                 }
             }
 
@@ -16,6 +16,7 @@ import androidx.compose.material.icons.filled.ArrowBack
 import androidx.compose.material3.Card
 import androidx.compose.material3.CardDefaults
 import androidx.compose.material3.ExperimentalMaterial3Api
+import androidx.compose.material3.FilterChip
 import androidx.compose.material3.Icon
 import androidx.compose.material3.IconButton
 import androidx.compose.material3.MaterialTheme
@@ -23,7 +24,6 @@ import androidx.compose.material3.Scaffold
 import androidx.compose.material3.Text
 import androidx.compose.material3.TopAppBar
 import androidx.compose.runtime.Composable
-import androidx.compose.runtime.collectAsState
 import androidx.compose.runtime.getValue
 import androidx.compose.ui.Alignment
 import androidx.compose.ui.Modifier
@@ -32,38 +32,22 @@ import androidx.compose.ui.graphics.Color
 import androidx.compose.ui.graphics.Path
 import androidx.compose.ui.graphics.drawscope.Stroke
 import androidx.compose.ui.unit.dp
-import com.sobercompanion.SoberCompanionApp
-import com.sobercompanion.data.local.entity.DailyLog
-import com.sobercompanion.data.repository.SobrietyRepository
-import java.time.format.DateTimeFormatter
-import java.time.temporal.ChronoUnit
+import androidx.lifecycle.compose.collectAsStateWithLifecycle
+import androidx.lifecycle.viewmodel.compose.viewModel
+import com.sobercompanion.data.local.entity.RollupPeriod
+import com.sobercompanion.viewmodel.DailyLogRowUi
+import com.sobercompanion.viewmodel.MoodChartPoint
+import com.sobercompanion.viewmodel.StatisticsViewModel
 
 @OptIn(ExperimentalMaterial3Api::class)
 @Composable
 fun StatisticsScreen(
-    onNavigateBack: () -> Unit
+    onNavigateBack: () -> Unit,
+    viewModel: StatisticsViewModel = viewModel()
 ) {
-    val sobrietyRepository = SobrietyRepository(SoberCompanionApp.instance.database.sobrietyDao())
-    val recentLogs by sobrietyRepository.getRecentDailyLogs(7).collectAsState(initial = emptyList())
-    val allRecords by sobrietyRepository.allSobrietyRecords.collectAsState(initial = emptyList())
-
-    val totalSoberDays = allRecords.sumOf { record ->
-        val endDate = record.endDate ?: java.time.LocalDateTime.now()
-        ChronoUnit.DAYS.between(record.startDate, endDate).toInt()
-    }
-
-    val longestStreak = allRecords.maxOfOrNull { record ->
-        val endDate = record.endDate ?: java.time.LocalDateTime.now()
-        ChronoUnit.DAYS.between(record.startDate, endDate).toInt()
-    } ?: 0
-
-    val averageMood = if (recentLogs.isNotEmpty()) {
-        recentLogs.map { it.mood }.average()
-    } else 0.0
-
-    val averageCraving = if (recentLogs.isNotEmpty()) {
-        recentLogs.map { it.cravingLevel }.average()
-    } else 0.0
+    // 집계·정렬·포맷은 ViewModel이 미리 끝낸 값 (화면은 그리기만 함)
+    val uiState by viewModel.uiState.collectAsStateWithLifecycle()
+    val period = uiState.period
 
     Scaffold(
         topBar = {
@@ -91,13 +75,13 @@ fun StatisticsScreen(
             ) {
                 StatCard(
                     title = "총 금주일",
-                    value = "$totalSoberDays",
+                    value = "${uiState.totalSoberDays}",
                     unit = "일",
                     modifier = Modifier.weight(1f)
                 )
                 StatCard(
                     title = "최장 연속",
-                    value = "$longestStreak",
+                    value = "${uiState.longestStreak}",
                     unit = "일",
                     modifier = Modifier.weight(1f)
                 )
@@ -111,29 +95,73 @@ fun StatisticsScreen(
             ) {
                 StatCard(
                     title = "평균 기분",
-                    value = String.format("%.1f", averageMood),
+                    value = uiState.averageMood,
                     unit = "/ 5",
                     modifier = Modifier.weight(1f)
                 )
                 StatCard(
                     title = "평균 음주욕구",
-                    value = String.format("%.1f", averageCraving),
+                    value = uiState.averageCraving,
+                    unit = "/ 5",
+                    modifier = Modifier.weight(1f)
+                )
+            }
+
+            Spacer(modifier = Modifier.height(24.dp))
+
+            // Period Summary (stats_rollups)
+            Text(
+                text = "기간별 요약",
+                style = MaterialTheme.typography.titleMedium
+            )
+            Spacer(modifier = Modifier.height(8.dp))
+            Row(
+                horizontalArrangement = Arrangement.spacedBy(8.dp)
+            ) {
+                PERIOD_OPTIONS.forEach { (option, label) ->
+                    FilterChip(
+                        selected = uiState.selectedPeriod == option,
+                        onClick = { viewModel.selectPeriod(option) },
+                        label = { Text(label) }
+                    )
+                }
+            }
+            Spacer(modifier = Modifier.height(8.dp))
+            Row(
+                modifier = Modifier.fillMaxWidth(),
+                horizontalArrangement = Arrangement.spacedBy(8.dp)
+            ) {
+                StatCard(
+                    title = "평균 기분",
+                    value = period.averageMood,
+                    unit = "/ 5",
+                    modifier = Modifier.weight(1f)
+                )
+                StatCard(
+                    title = "평균 욕구",
+                    value = period.averageCraving,
                     unit = "/ 5",
                     modifier = Modifier.weight(1f)
                 )
+                StatCard(
+                    title = "음주일",
+                    value = "${period.drinkDays}",
+                    unit = "/ ${period.logCount}",
+                    modifier = Modifier.weight(1f)
+                )
             }
 
             Spacer(modifier = Modifier.height(24.dp))
 
             // Mood Chart
-            if (recentLogs.isNotEmpty()) {
+            if (uiState.recentLogs.isNotEmpty()) {
                 Text(
                     text = "최근 7일 기분 추이",
                     style = MaterialTheme.typography.titleMedium
                 )
                 Spacer(modifier = Modifier.height(8.dp))
                 MoodChart(
-                    logs = recentLogs.sortedBy { it.date },
+                    points = uiState.chartPoints,
                     modifier = Modifier
                         .fillMaxWidth()
                         .height(200.dp)
@@ -148,7 +176,7 @@ fun StatisticsScreen(
                 )
                 Spacer(modifier = Modifier.height(8.dp))
 
-                recentLogs.sortedByDescending { it.date }.forEach { log ->
+                uiState.recentLogs.forEach { log ->
                     DailyLogItem(log = log)
                     Spacer(modifier = Modifier.height(8.dp))
                 }
@@ -170,6 +198,14 @@ fun StatisticsScreen(
     }
 }
 
+/** 기간별 요약 칩 목록 (롤업 구간 → 표시 이름) */
+private val PERIOD_OPTIONS = listOf(
+    RollupPeriod.WEEK to "이번 주",
+    RollupPeriod.MONTH to "이번 달",
+    RollupPeriod.YEAR to "올해",
+    RollupPeriod.ALL to "전체"
+)
+
 @Composable
 private fun StatCard(
     title: String,
@@ -215,7 +251,7 @@ private fun StatCard(
 
 @Composable
 private fun MoodChart(
-    logs: List<DailyLog>,
+    points: List<MoodChartPoint>,
     modifier: Modifier = Modifier
 ) {
     val primaryColor = MaterialTheme.colorScheme.primary
@@ -239,15 +275,16 @@ private fun MoodChart(
                 val height = size.height
                 val padding = 20f
 
-                if (logs.isEmpty()) return@Canvas
+                if (points.isEmpty()) return@Canvas
 
-                val pointSpacing = (width - padding * 2) / (logs.size - 1).coerceAtLeast(1)
+                val pointSpacing = (width - padding * 2) / (points.size - 1).coerceAtLeast(1)
+                val chartHeight = height - padding * 2
 
                 // Draw mood line
                 val moodPath = Path()
-                logs.forEachIndexed { index, log ->
+                points.forEachIndexed { index, point ->
                     val x = padding + index * pointSpacing
-                    val y = height - padding - ((log.mood - 1) / 4f) * (height - padding * 2)
+                    val y = height - padding - point.moodRatio * chartHeight
 
                     if (index == 0) {
                         moodPath.moveTo(x, y)
@@ -259,9 +296,9 @@ private fun MoodChart(
 
                 // Draw craving line
                 val cravingPath = Path()
-                logs.forEachIndexed { index, log ->
+                points.forEachIndexed { index, point ->
                     val x = padding + index * pointSpacing
-                    val y = height - padding - ((log.cravingLevel - 1) / 4f) * (height - padding * 2)
+                    val y = height - padding - point.cravingRatio * chartHeight
 
                     if (index == 0) {
                         cravingPath.moveTo(x, y)
@@ -272,10 +309,10 @@ private fun MoodChart(
                 drawPath(cravingPath, secondaryColor, style = Stroke(width = 3f))
 
                 // Draw points
-                logs.forEachIndexed { index, log ->
+                points.forEachIndexed { index, point ->
                     val x = padding + index * pointSpacing
-                    val moodY = height - padding - ((log.mood - 1) / 4f) * (height - padding * 2)
-                    val cravingY = height - padding - ((log.cravingLevel - 1) / 4f) * (height - padding * 2)
+                    val moodY = height - padding - point.moodRatio * chartHeight
+                    val cravingY = height - padding - point.cravingRatio * chartHeight
 
                     drawCircle(primaryColor, radius = 6f, center = Offset(x, moodY))
                     drawCircle(secondaryColor, radius = 6f, center = Offset(x, cravingY))
@@ -307,7 +344,7 @@ private fun MoodChart(
 }
 
 @Composable
-private fun DailyLogItem(log: DailyLog) {
+private fun DailyLogItem(log: DailyLogRowUi) {
     Card(
         modifier = Modifier.fillMaxWidth(),
         colors = CardDefaults.cardColors(
@@ -323,12 +360,12 @@ private fun DailyLogItem(log: DailyLog) {
         ) {
             Column {
                 Text(
-                    text = log.date.format(DateTimeFormatter.ofPattern("M월 d일")),
+                    text = log.dateLabel,
                     style = MaterialTheme.typography.titleSmall
                 )
-                if (log.note.isNotEmpty()) {
+                if (log.notePreview.isNotEmpty()) {
                     Text(
-                        text = log.note.take(30) + if (log.note.length > 30) "..." else "",
+                        text = log.notePreview,
                         style = MaterialTheme.typography.bodySmall,
                         color = MaterialTheme.colorScheme.onSurface.copy(alpha = 0.7f)
                     )
@@ -0,0 +1,115 @@
+package com.sobercompanion.util
+
+import android.app.AlarmManager
+import android.content.BroadcastReceiver
+import android.content.Context
+import android.content.Intent
+import android.content.IntentFilter
+import android.os.Build
+import android.os.Handler
+import android.os.Looper
+import androidx.core.content.ContextCompat
+import kotlinx.coroutines.flow.MutableSharedFlow
+import kotlinx.coroutines.flow.MutableStateFlow
+import kotlinx.coroutines.flow.SharedFlow
+import kotlinx.coroutines.flow.StateFlow
+import kotlinx.coroutines.flow.asSharedFlow
+import kotlinx.coroutines.flow.asStateFlow
+import java.time.LocalDate
+
+/**
+ * 앱 전체가 함께 쓰는 "오늘 날짜". [com.sobercompanion.AppContainer]가 하나만 만듭니다.
+ *
+ * 날짜에 따라 달라지는 계산(연속 일수, 오늘 흔들림, 통계 구간, 날짜 변경 리셋)은
+ * 각자 현재 날짜를 확인하지 말고 [today]를 구독합니다.
+ *
+ * [today]가 바뀌는 경우:
+ * - 자정: 다음 자정에 맞춘 프로세스 내 알람 (기기를 깨우지 않음. 정확한 알람 권한이 없으면 1분 범위)
+ * - 시스템 날짜 변경 (ACTION_DATE_CHANGED)
+ * - 사용자가 시계를 바꿈 (ACTION_TIME_CHANGED). 날짜가 뒤로 갈 수도 있습니다
+ * - 시간대 변경 (ACTION_TIMEZONE_CHANGED). 여행 중 날짜가 앞뒤로 바뀔 수 있습니다
+ *
+ * 알람과 브로드캐스트는 프로세스가 살아 있는 동안만 필요합니다.
+ * 프로세스가 없을 때의 날짜 변경 처리는 BackgroundScheduler가 예약한 작업이 맡습니다.
+ *
+ * @param context Application Context
+ * @param timeSource 현재 날짜와 다음 자정 시각을 계산하는 시계
+ */
+class DayBoundaryMonitor(
+    context: Context,
+    private val timeSource: TimeSource = SystemTimeSource
+) {
+
+    private val appContext = context.applicationContext
+    private val alarmManager = appContext.getSystemService(AlarmManager::class.java)
+    private val handler = Handler(Looper.getMainLooper())
+
+    private val _today = MutableStateFlow(timeSource.today())
+
+    /** 현재 시간대 기준 오늘 날짜. 같은 날짜로는 다시 emit하지 않습니다 */
+    val today: StateFlow<LocalDate> = _today.asStateFlow()
+
+    private val _clockChanges = MutableSharedFlow<Unit>(extraBufferCapacity = 1)
+
+    /**
+     * 시계나 시간대가 바뀐 순간마다 emit합니다. 날짜가 그대로여도 emit합니다.
+     * 시각 기준으로 예약된 작업(WorkManager 지연 시간)을 다시 계산할 때 구독합니다.
+     */
+    val clockChanges: SharedFlow<Unit> = _clockChanges.asSharedFlow()
+
+    private val midnightListener = AlarmManager.OnAlarmListener { refresh() }
+
+    private val receiver = object : BroadcastReceiver() {
+        override fun onReceive(context: Context, intent: Intent) {
+            if (intent.action != Intent.ACTION_DATE_CHANGED) _clockChanges.tryEmit(Unit)
+            refresh()
+        }
+    }
+
+    init {
+        val filter = IntentFilter().apply {
+            addAction(Intent.ACTION_DATE_CHANGED)
+            addAction(Intent.ACTION_TIME_CHANGED)
+            addAction(Intent.ACTION_TIMEZONE_CHANGED)
+        }
+        // 시스템 브로드캐스트만 받으므로 다른 앱에는 노출하지 않음
+        ContextCompat.registerReceiver(appContext, receiver, filter, ContextCompat.RECEIVER_NOT_EXPORTED)
+        scheduleNextMidnight()
+    }
+
+    /** 오늘 날짜를 다시 확인해 바뀌었으면 emit하고, 다음 자정 알람을 새 시각으로 다시 맞춥니다 */
+    private fun refresh() {
+        _today.value = timeSource.today()
+        scheduleNextMidnight()
+    }
+
+    /**
+     * 다음 자정에 [refresh]를 호출하는 알람을 맞춥니다. 기존 알람은 교체됩니다.
+     * 시간대가 바뀌면 자정 시각도 바뀌므로 [refresh]마다 다시 계산합니다.
+     */
+    private fun scheduleNextMidnight() {
+        val zone = timeSource.zone()
+        val nextMidnight = timeSource.today().plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli()
+
+        alarmManager.cancel(midnightListener)
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.S || alarmManager.canScheduleExactAlarms()) {
+            alarmManager.setExact(AlarmManager.RTC, nextMidnight, ALARM_TAG, midnightListener, handler)
+        } else {
+            alarmManager.setWindow(
+                AlarmManager.RTC,
+                nextMidnight,
+                INEXACT_WINDOW_MS,
+                ALARM_TAG,
+                midnightListener,
+                handler
+            )
+        }
+    }
+
+    companion object {
+        private const val ALARM_TAG = "sobercompanion:midnight"
+
+        /** 정확한 알람을 쓸 수 없을 때 자정 이후 허용하는 지연 */
+        private const val INEXACT_WINDOW_MS = 60_000L
+    }
+}
@@ -0,0 +1,59 @@
+package com.sobercompanion.util
+
+import android.Manifest
+import android.app.PendingIntent
+import android.content.Context
+import android.content.Intent
+import android.content.pm.PackageManager
+import androidx.core.app.ActivityCompat
+import androidx.core.app.NotificationCompat
+import androidx.core.app.NotificationManagerCompat
+import com.sobercompanion.MainActivity
+import com.sobercompanion.R
+import com.sobercompanion.SoberCompanionApp
+
+/**
+ * 매일 기록 알림. 언제 보낼지는 com.sobercompanion.workers.BackgroundScheduler가 정하고,
+ * 예약된 Worker가 깨어났을 때 [show]를 호출합니다.
+ */
+object ReminderNotification {
+
+    private const val NOTIFICATION_ID = 1001
+
+    /** 알림 권한이 없으면 아무것도 하지 않습니다 */
+    fun show(context: Context, message: String) {
+        val intent = Intent(context, MainActivity::class.java).apply {
+            flags = Intent.FLAG_ACTIVITY_NEW_TASK or Intent.FLAG_ACTIVITY_CLEAR_TASK
+        }
+        val pendingIntent = PendingIntent.getActivity(
+            context,
+            0,
+            intent,
+            PendingIntent.FLAG_IMMUTABLE
+        )
+
+        val notification = NotificationCompat.Builder(
+            context,
+            SoberCompanionApp.NOTIFICATION_CHANNEL_ID
+        )
+            .setSmallIcon(R.drawable.ic_notification)
+            .setContentTitle("금주 동반자")
+            .setContentText(message)
+            .setStyle(NotificationCompat.BigTextStyle().bigText(message))
+            .setPriority(NotificationCompat.PRIORITY_DEFAULT)
+            .setContentIntent(pendingIntent)
+            .setAutoCancel(true)
+            .build()
+
+        if (ActivityCompat.checkSelfPermission(
+                context,
+                Manifest.permission.POST_NOTIFICATIONS
+            ) == PackageManager.PERMISSION_GRANTED
+        ) {
+            NotificationManagerCompat.from(context).notify(
+                NOTIFICATION_ID,
+                notification
+            )
+        }
+    }
+}
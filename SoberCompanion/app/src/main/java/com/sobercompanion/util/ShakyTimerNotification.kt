@@ -0,0 +1,93 @@
+package com.sobercompanion.util
+
+import android.Manifest
+import android.app.PendingIntent
+import android.content.Context
+import android.content.Intent
+import android.content.pm.PackageManager
+import androidx.core.app.ActivityCompat
+import androidx.core.app.NotificationCompat
+import androidx.core.app.NotificationManagerCompat
+import com.sobercompanion.MainActivity
+import com.sobercompanion.R
+import com.sobercompanion.SoberCompanionApp
+import java.time.Duration
+import java.time.Instant
+
+/**
+ * 흔들림 타이머를 알림창에 카운트다운으로 띄우는 진행 중 알림.
+ *
+ * 남은 시간은 시스템이 [NotificationCompat.Builder.setUsesChronometer]로 직접 그리므로
+ * 앱 프로세스가 없어도 흐르고, 앱은 매초 갱신할 필요가 없습니다.
+ * 종료 시각이 지나면 [NotificationCompat.Builder.setTimeoutAfter]로 시스템이 알림을 거둡니다.
+ * 알림을 누르면 [MainActivity]가 [EXTRA_OPEN_COMFORT]를 받아 홈 화면의 위로 메시지 카드를 엽니다.
+ *
+ * 설정에서 켠 경우에만 사용합니다. (UserSettings.shakyTimerNotificationEnabled)
+ */
+object ShakyTimerNotification {
+
+    /** 알림을 눌러 앱을 열었을 때 위로 메시지 카드를 보여달라는 Intent extra */
+    const val EXTRA_OPEN_COMFORT = "com.sobercompanion.extra.OPEN_COMFORT"
+
+    private const val NOTIFICATION_ID = 1002
+
+    /**
+     * [deadline]까지 카운트다운하는 알림을 띄웁니다. 이미 떠 있으면 새 종료 시각으로 교체합니다.
+     * 종료 시각이 지났거나 알림 권한이 없으면 아무것도 하지 않습니다.
+     *
+     * @param now 호출한 쪽 시계(TimeSource)의 현재 시각. 남은 시간과 알림 만료 시간을 정합니다
+     */
+    fun show(context: Context, deadline: Instant, now: Instant) {
+        val remaining = Duration.between(now, deadline)
+        if (remaining.isNegative || remaining.isZero) return
+
+        if (ActivityCompat.checkSelfPermission(
+                context,
+                Manifest.permission.POST_NOTIFICATIONS
+            ) != PackageManager.PERMISSION_GRANTED
+        ) {
+            return
+        }
+
+        val intent = Intent(context, MainActivity::class.java).apply {
+            // 이미 떠 있는 MainActivity가 있으면 onNewIntent로 전달됨
+            flags = Intent.FLAG_ACTIVITY_NEW_TASK or
+                Intent.FLAG_ACTIVITY_CLEAR_TOP or
+                Intent.FLAG_ACTIVITY_SINGLE_TOP
+            putExtra(EXTRA_OPEN_COMFORT, true)
+        }
+        val pendingIntent = PendingIntent.getActivity(
+            context,
+            NOTIFICATION_ID,
+            intent,
+            PendingIntent.FLAG_IMMUTABLE or PendingIntent.FLAG_UPDATE_CURRENT
+        )
+
+        val notification = NotificationCompat.Builder(
+            context,
+            SoberCompanionApp.SHAKY_TIMER_CHANNEL_ID
+        )
+            .setSmallIcon(R.drawable.ic_notification)
+            .setContentTitle("잠시 흔들리는 중")
+            .setContentText("시간이 지나면 다시 찾아올게요. 누르면 위로 메시지를 볼 수 있어요")
+            .setWhen(deadline.toEpochMilli())
+            .setShowWhen(true)
+            .setUsesChronometer(true)
+            .setChronometerCountDown(true)
+            .setTimeoutAfter(remaining.toMillis())
+            .setOngoing(true)
+            .setOnlyAlertOnce(true)
+            .setSilent(true)
+            .setCategory(NotificationCompat.CATEGORY_PROGRESS)
+            .setPriority(NotificationCompat.PRIORITY_LOW)
+            .setContentIntent(pendingIntent)
+            .build()
+
+        NotificationManagerCompat.from(context).notify(NOTIFICATION_ID, notification)
+    }
+
+    /** 떠 있는 카운트다운 알림을 내립니다. 없으면 아무것도 하지 않습니다 */
+    fun cancel(context: Context) {
+        NotificationManagerCompat.from(context).cancel(NOTIFICATION_ID)
+    }
+}
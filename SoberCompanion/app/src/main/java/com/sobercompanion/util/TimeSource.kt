@@ -0,0 +1,34 @@
+package com.sobercompanion.util
+
+import java.time.Instant
+import java.time.LocalDate
+import java.time.LocalDateTime
+import java.time.ZoneId
+
+/**
+ * 현재 시각과 시간대를 제공하는 시계.
+ *
+ * Repository·ViewModel·Worker·화면·백업은 Instant.now()나 LocalDate.now()를 직접 부르지 않고
+ * [com.sobercompanion.AppContainer]가 넘겨주는 이 시계를 씁니다.
+ * 앱에서는 [SystemTimeSource]를 쓰고, 시간을 임의로 돌려야 하는 곳에서는 다른 구현으로 바꿔 끼웁니다.
+ */
+interface TimeSource {
+
+    /** 현재 시각 */
+    fun now(): Instant
+
+    /** 현재 시간대. 기기 시간대가 바뀌면 다른 값을 돌려줄 수 있습니다 */
+    fun zone(): ZoneId
+
+    /** 현재 시간대 기준 현재 날짜·시각 */
+    fun localNow(): LocalDateTime = LocalDateTime.ofInstant(now(), zone())
+
+    /** 현재 시간대 기준 오늘 날짜 */
+    fun today(): LocalDate = localNow().toLocalDate()
+}
+
+/** 기기 시계와 시스템 기본 시간대를 그대로 쓰는 [TimeSource] */
+object SystemTimeSource : TimeSource {
+    override fun now(): Instant = Instant.now()
+    override fun zone(): ZoneId = ZoneId.systemDefault()
+}
@@ -0,0 +1,162 @@
+package com.sobercompanion.viewmodel
+
+import android.app.Application
+import androidx.compose.runtime.Immutable
+import androidx.lifecycle.AndroidViewModel
+import androidx.lifecycle.viewModelScope
+import com.sobercompanion.AppContainerOwner
+import kotlinx.coroutines.flow.MutableStateFlow
+import kotlinx.coroutines.flow.StateFlow
+import kotlinx.coroutines.flow.asStateFlow
+import kotlinx.coroutines.flow.update
+import kotlinx.coroutines.launch
+import java.time.LocalDate
+import java.time.format.DateTimeFormatter
+
+/**
+ * 오늘의 기록 화면 UI 상태. 입력값과 그에 맞는 안내 문구를 함께 담습니다.
+ */
+@Immutable
+data class DailyLogUiState(
+    /** 화면 상단 날짜 ("yyyy년 M월 d일") */
+    val dateLabel: String = "",
+
+    /** 기분 슬라이더 값 (1~5) */
+    val mood: Float = 3f,
+
+    /** 기분 안내 문구 */
+    val moodLabel: String = moodText(3),
+
+    /** 음주 욕구 슬라이더 값 (1~5) */
+    val cravingLevel: Float = 1f,
+
+    /** 음주 욕구 안내 문구 */
+    val cravingLabel: String = cravingText(1),
+
+    /** 오늘 음주 여부 */
+    val didDrink: Boolean = false,
+
+    /** 메모 */
+    val note: String = "",
+
+    /** 오늘 이미 저장한 기록을 다 읽었으면 true. 그 전에는 입력과 저장을 받지 않습니다 */
+    val isLoaded: Boolean = false,
+
+    /** 저장 중이면 true (중복 저장 방지) */
+    val isSaving: Boolean = false,
+
+    /** 저장이 끝났으면 true. 화면은 안내 후 뒤로 이동합니다 */
+    val isSaved: Boolean = false
+)
+
+/**
+ * 오늘의 기록 화면 ViewModel.
+ *
+ * 오늘 이미 저장한 기록이 있으면 읽어 와 입력값을 채웁니다. 읽기가 끝나기 전에는 입력을 받지 않으므로
+ * 늦게 도착한 기존 기록이 사용자가 막 입력한 값을 덮어쓰지 않습니다. ([DailyLogUiState.isLoaded])
+ * 입력 변경은 텍스트 필드 커서가 튀지 않도록 스레드 전환 없이 상태에 바로 반영합니다.
+ */
+class DailyLogViewModel(application: Application) : AndroidViewModel(application) {
+
+    private val container = (application as AppContainerOwner).container
+    private val repository = container.sobrietyRepository
+    private val soberRepository = container.soberRepository
+
+    /** 화면을 연 날짜. 자정을 넘겨 저장해도 연 날짜의 기록으로 저장됩니다 */
+    private val date: LocalDate = container.dayBoundaryMonitor.today.value
+
+    private val _uiState = MutableStateFlow(
+        DailyLogUiState(dateLabel = date.format(DATE_FORMATTER))
+    )
+    val uiState: StateFlow<DailyLogUiState> = _uiState.asStateFlow()
+
+    init {
+        viewModelScope.launch {
+            // Room suspend 쿼리는 자체 스레드에서 실행됨
+            val existingLog = repository.getDailyLogByDate(date)
+            _uiState.update {
+                if (existingLog == null) {
+                    it.copy(isLoaded = true)
+                } else {
+                    it.copy(
+                        mood = existingLog.mood.toFloat(),
+                        moodLabel = moodText(existingLog.mood),
+                        cravingLevel = existingLog.cravingLevel.toFloat(),
+                        cravingLabel = cravingText(existingLog.cravingLevel),
+                        didDrink = existingLog.didDrink,
+                        note = existingLog.note,
+                        isLoaded = true
+                    )
+                }
+            }
+        }
+    }
+
+    fun onMoodChange(value: Float) {
+        updateInput { it.copy(mood = value, moodLabel = moodText(value.toInt())) }
+    }
+
+    fun onCravingLevelChange(value: Float) {
+        updateInput { it.copy(cravingLevel = value, cravingLabel = cravingText(value.toInt())) }
+    }
+
+    fun onDidDrinkChange(didDrink: Boolean) {
+        updateInput { it.copy(didDrink = didDrink) }
+    }
+
+    fun onNoteChange(note: String) {
+        updateInput { it.copy(note = note) }
+    }
+
+    /** 기존 기록을 다 읽은 뒤에만 입력을 반영합니다 (화면도 그 전에는 입력을 비활성화함) */
+    private inline fun updateInput(crossinline transform: (DailyLogUiState) -> DailyLogUiState) {
+        _uiState.update { if (it.isLoaded) transform(it) else it }
+    }
+
+    /**
+     * 입력값을 저장합니다. 음주했다면 그날의 음주 기록(금주 기록 재시작 포함)도 저장과 같은 트랜잭션에서 처리하고,
+     * 홈 화면의 오늘 상태를 그 기록에 맞춥니다.
+     */
+    fun save() {
+        val state = _uiState.value
+        if (!state.isLoaded || state.isSaving || state.isSaved) return
+        _uiState.update { it.copy(isSaving = true) }
+        viewModelScope.launch {
+            repository.saveDailyLog(
+                date = date,
+                mood = state.mood.toInt(),
+                cravingLevel = state.cravingLevel.toInt(),
+                didDrink = state.didDrink,
+                note = state.note
+            )
+            if (state.didDrink) soberRepository.syncRecordedDay(date)
+            _uiState.update { it.copy(isSaving = false, isSaved = true) }
+        }
+    }
+
+    companion object {
+        private val DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy년 M월 d일")
+    }
+}
+
+private fun moodText(mood: Int): String {
+    return when (mood) {
+        1 -> "매우 나빴어요"
+        2 -> "조금 안 좋았어요"
+        3 -> "보통이었어요"
+        4 -> "좋았어요"
+        5 -> "매우 좋았어요"
+        else -> ""
+    }
+}
+
+private fun cravingText(level: Int): String {
+    return when (level) {
+        1 -> "전혀 없었어요"
+        2 -> "조금 있었어요"
+        3 -> "보통이었어요"
+        4 -> "강했어요"
+        5 -> "매우 강했어요"
+        else -> ""
+    }
+}
@@ -0,0 +1,71 @@
+package com.sobercompanion.viewmodel
+
+import android.app.Application
+import androidx.lifecycle.AndroidViewModel
+import androidx.lifecycle.viewModelScope
+import androidx.paging.PagingData
+import androidx.paging.cachedIn
+import com.sobercompanion.AppContainerOwner
+import com.sobercompanion.data.local.entity.DailyLog
+import com.sobercompanion.data.local.entity.SobrietyRecord
+import com.sobercompanion.data.repository.NoteSearchResult
+import com.sobercompanion.util.TimeSource
+import kotlinx.coroutines.ExperimentalCoroutinesApi
+import kotlinx.coroutines.FlowPreview
+import kotlinx.coroutines.flow.Flow
+import kotlinx.coroutines.flow.MutableStateFlow
+import kotlinx.coroutines.flow.StateFlow
+import kotlinx.coroutines.flow.asStateFlow
+import kotlinx.coroutines.flow.debounce
+import kotlinx.coroutines.flow.distinctUntilChanged
+import kotlinx.coroutines.flow.flatMapLatest
+import kotlinx.coroutines.flow.map
+
+/**
+ * 이력 화면 ViewModel.
+ *
+ * 일일 기록·금주 기록 목록과 메모 검색 결과를 페이징 Flow로 제공합니다.
+ * viewModelScope에 캐시하므로 탭을 바꾸거나 화면이 회전해도 읽은 페이지를 다시 읽지 않습니다.
+ *
+ * 검색은 입력이 [SEARCH_DEBOUNCE_MS] 동안 멈춘 뒤 시작하고,
+ * 새 검색어가 들어오면 이전 검색의 페이징은 취소됩니다.
+ */
+@OptIn(FlowPreview::class, ExperimentalCoroutinesApi::class)
+class HistoryViewModel(application: Application) : AndroidViewModel(application) {
+
+    private val container = (application as AppContainerOwner).container
+    private val historyRepository = container.historyRepository
+
+    /** 앱 시계. 진행 중인 금주 기록의 경과 일수를 계산할 때 씁니다 */
+    val timeSource: TimeSource = container.timeSource
+
+    /** 일일 기록 최신순 */
+    val dailyLogs: Flow<PagingData<DailyLog>> =
+        historyRepository.dailyLogs().cachedIn(viewModelScope)
+
+    /** 금주 기록 최신순 */
+    val sobrietyRecords: Flow<PagingData<SobrietyRecord>> =
+        historyRepository.sobrietyRecords().cachedIn(viewModelScope)
+
+    private val _searchQuery = MutableStateFlow("")
+
+    /** 검색창에 입력된 그대로의 검색어 */
+    val searchQuery: StateFlow<String> = _searchQuery.asStateFlow()
+
+    /** 메모 검색 결과 관련도순. 검색어가 비어 있으면 빈 결과 */
+    val searchResults: Flow<PagingData<NoteSearchResult>> = _searchQuery
+        .debounce { if (it.isBlank()) 0L else SEARCH_DEBOUNCE_MS }
+        .map { it.trim() }
+        .distinctUntilChanged()
+        .flatMapLatest { historyRepository.searchNotes(it) }
+        .cachedIn(viewModelScope)
+
+    fun onSearchQueryChange(query: String) {
+        _searchQuery.value = query
+    }
+
+    companion object {
+        /** 입력이 멈춘 뒤 검색을 시작하기까지의 시간 */
+        private const val SEARCH_DEBOUNCE_MS = 300L
+    }
+}
@@ -3,25 +3,21 @@ package com.sobercompanion.viewmodel
 import android.app.Application
 import androidx.lifecycle.AndroidViewModel
 import androidx.lifecycle.viewModelScope
-import com.sobercompanion.data.AppDataStore
+import com.sobercompanion.AppContainerOwner
 import com.sobercompanion.data.RecordStatus
-import com.sobercompanion.data.SoberRepository
-import com.sobercompanion.workers.ComfortMessageWorker
-import kotlinx.coroutines.Job
-import kotlinx.coroutines.delay
+import com.sobercompanion.data.local.entity.Milestone
+import com.sobercompanion.util.ShakyTimerNotification
+import com.sobercompanion.util.TimeSource
 import kotlinx.coroutines.flow.MutableStateFlow
 import kotlinx.coroutines.flow.SharingStarted
 import kotlinx.coroutines.flow.StateFlow
-import kotlinx.coroutines.flow.asStateFlow
 import kotlinx.coroutines.flow.combine
 import kotlinx.coroutines.flow.first
 import kotlinx.coroutines.flow.stateIn
 import kotlinx.coroutines.launch
-import java.time.Duration
+import java.time.Instant
 import java.time.LocalDate
 import java.time.LocalDateTime
-import java.time.LocalTime
-import java.time.temporal.ChronoUnit
 
 /**
  * 홈 화면의 UI 상태를 나타내는 불변 데이터 클래스.
@@ -42,14 +38,18 @@ data class MainUiState(
     /** 오늘 흔들림 버튼을 누른 횟수 */
     val shakyCountToday: Int = 0,
 
-    /** 오늘 흔들림이 발생한 시각 목록 */
-    val shakyTimestamps: List<LocalDateTime> = emptyList(),
+    /** 오늘 마지막 흔들림 시각. 오늘 흔들림이 없으면 null */
+    val lastShakyAt: LocalDateTime? = null,
 
     /** 마지막으로 성공/실패를 기록한 날짜 */
     val lastRecordDate: LocalDate? = null,
 
-    /** 흔들림 타이머 남은 시간(초). 0이면 타이머 비활성 */
-    val shakyTimerRemainingSeconds: Long = 0,
+    /**
+     * 흔들림 타이머 종료 시각. null이면 타이머 비활성.
+     * 남은 시간은 상태에 넣지 않고 카운트다운을 그리는 컴포저블이 보이는 동안만 계산합니다.
+     * (매초 상태를 새로 만들면 홈 화면 전체가 매초 다시 그려지기 때문)
+     */
+    val shakyDeadline: Instant? = null,
 
     /** 위로 메시지를 표시할 준비가 됐는지 여부 */
     val comfortReady: Boolean = false,
@@ -57,6 +57,15 @@ data class MainUiState(
     /** 이번 흔들림 이벤트에서 위로 메시지를 이미 확인했는지 여부 */
     val comfortShown: Boolean = false,
 
+    /** 이번에 새로 달성한 마일스톤 (목표 일수 오름차순). 비어 있으면 축하 카드를 숨김 */
+    val newlyAchievedMilestones: List<Milestone> = emptyList(),
+
+    /**
+     * 오늘 날짜 (DayBoundaryMonitor). 자정이 지나면 바뀌어 [hasRecordedToday]도 다시 계산됩니다.
+     * 기본값은 어떤 기록 날짜와도 같지 않은 값이며, ViewModel은 항상 실제 날짜를 채웁니다.
+     */
+    val today: LocalDate = LocalDate.MIN,
+
     /** 초기 데이터 로딩 중 여부. true이면 로딩 인디케이터를 표시 */
     val isLoading: Boolean = true
 ) {
@@ -64,10 +73,11 @@ data class MainUiState(
     val isTracking: Boolean get() = startDate != null
 
     /** 오늘 이미 상태를 기록했는지 여부 (성공/실패 중복 방지에 사용) */
-    val hasRecordedToday: Boolean get() = lastRecordDate == LocalDate.now()
+    val hasRecordedToday: Boolean get() = lastRecordDate == today
 
-    /** 흔들림 타이머가 현재 카운트다운 중인지 여부 */
-    val isShakyTimerActive: Boolean get() = shakyTimerRemainingSeconds > 0
+    /** [now] 시점에 흔들림 타이머가 카운트다운 중인지 여부 */
+    fun isShakyTimerActive(now: Instant): Boolean =
+        shakyDeadline?.isAfter(now) == true
 }
 
 /**
@@ -75,108 +85,81 @@ data class MainUiState(
  *
  * 주요 책임:
  * 1. SoberRepository의 Flow를 UI State로 변환
- * 2. 흔들림 타이머 관리 (3시간 카운트다운 + 앱 재시작 시 복원)
- * 3. 자정 리셋 스케줄링 (매일 자정에 데이터 초기화 실행)
+ * 2. 흔들림 타이머 카운트다운 알림 관리 (종료 시각은 DataStore에 저장되고,
+ *    종료 시점의 위로 메시지 준비는 BackgroundScheduler가 종료 시각을 보고 예약함)
+ * 3. 날짜 변경 처리 (DayBoundaryMonitor의 오늘 날짜가 바뀌면 오늘 상태 리셋·마일스톤 갱신)
  * 4. 사용자 액션 처리 (성공/흔들림/음주 기록)
  *
  * AndroidViewModel을 상속해 Application Context에 접근합니다.
- * WorkManager 스케줄링에 Context가 필요하기 때문입니다.
+ * 알림을 띄우고 내리는 데 Context가 필요하기 때문입니다.
  */
 class MainViewModel(application: Application) : AndroidViewModel(application) {
 
-    private val dataStore = AppDataStore(application)
-    private val repository = SoberRepository(dataStore)
-
-    /** 흔들림 타이머 남은 시간(초). Repository와 별도로 관리하는 UI 전용 상태 */
-    private val _shakyTimerRemaining = MutableStateFlow(0L)
+    private val container = (application as AppContainerOwner).container
+    private val dataStore = container.appDataStore
+    private val repository = container.soberRepository
+    private val sobrietyRepository = container.sobrietyRepository
+    private val userPreferences = container.userPreferencesRepository
+    private val dayBoundary = container.dayBoundaryMonitor
 
-    /** 흔들림 타이머 코루틴 Job. cancel()로 타이머를 중단합니다 */
-    private var shakyTimerJob: Job? = null
+    /** 앱 시계. 홈 화면의 흔들림 타이머 카운트다운도 이 시계로 남은 시간을 계산합니다 */
+    val timeSource: TimeSource = container.timeSource
 
-    /** 자정 리셋 코루틴 Job. ViewModel 생명주기 동안 계속 실행됩니다 */
-    private var midnightResetJob: Job? = null
+    /** 축하 카드로 보여줄 새로 달성한 마일스톤. 카드를 닫으면 비움 */
+    private val _newlyAchievedMilestones = MutableStateFlow<List<Milestone>>(emptyList())
 
     /**
      * 홈 화면이 구독하는 메인 UI State.
      *
-     * repository.fullState와 _shakyTimerRemaining을 합쳐서 하나의 상태로 만듭니다.
+     * repository.fullState, _newlyAchievedMilestones, 오늘 날짜를 합쳐서 하나의 상태로 만듭니다.
+     * 흔들림 타이머는 종료 시각만 담으므로 타이머가 도는 동안에도 이 상태는 다시 만들어지지 않습니다.
      * WhileSubscribed(5_000): 마지막 구독자가 사라진 후 5초 동안 Flow를 유지합니다.
      * (화면 회전 등 일시적 구독 해제 시 불필요한 재계산 방지)
      */
     val uiState: StateFlow<MainUiState> = combine(
         repository.fullState,
-        _shakyTimerRemaining
-    ) { state, timerRemaining ->
+        _newlyAchievedMilestones,
+        dayBoundary.today
+    ) { state, newMilestones, today ->
         MainUiState(
             startDate = state.startDate,
             currentStreak = state.currentStreak,
             dailyStatus = state.todayState.status,
             shakyCountToday = state.todayState.shakyCount,
-            shakyTimestamps = state.todayState.shakyTimestamps,
+            lastShakyAt = state.todayState.lastShakyAt,
             lastRecordDate = state.lastRecordDate,
-            shakyTimerRemainingSeconds = timerRemaining,
+            shakyDeadline = state.todayState.shakyDeadline,
             comfortReady = state.todayState.comfortReady,
             comfortShown = state.todayState.comfortShown,
+            newlyAchievedMilestones = newMilestones,
+            today = today,
             isLoading = false
         )
     }.stateIn(
         scope = viewModelScope,
         started = SharingStarted.WhileSubscribed(5_000),
-        initialValue = MainUiState()
+        initialValue = MainUiState(today = dayBoundary.today.value)
     )
 
-    /** 마지막으로 날짜 변경을 확인한 날짜. UI 폴링에서 중복 처리 방지에 사용 */
-    private val _lastCheckedDate = MutableStateFlow(LocalDate.now())
-    val lastCheckedDate: StateFlow<LocalDate> = _lastCheckedDate.asStateFlow()
-
     init {
         viewModelScope.launch {
-            // 최초 실행이면 오늘 날짜로 금주 추적 시작
-            initializeIfFirstLaunch()
-
-            // 자정을 넘겼다면 리셋, 아니라면 타이머 복원
-            val didReset = repository.checkAndResetIfNewDay()
-            if (didReset) {
-                clearShakyTimer()
-            } else {
-                // 앱이 꺼진 동안 경과한 시간을 계산해 타이머 재시작
-                restoreShakyTimerIfNeeded()
-            }
-            _lastCheckedDate.value = LocalDate.now()
-        }
-        // 자정마다 자동 리셋을 위한 코루틴 시작
-        scheduleMidnightReset()
-    }
-
-    /**
-     * 날짜 변경 여부를 확인하고 필요하면 리셋합니다.
-     * HomeScreen에서 30초마다 LaunchedEffect로 호출됩니다.
-     * (앱이 포그라운드에 있을 때 자정 리셋을 보장하기 위한 폴링)
-     */
-    fun checkDateChange() {
-        viewModelScope.launch {
-            val today = LocalDate.now()
-            if (_lastCheckedDate.value.isBefore(today)) {
-                val didReset = repository.checkAndResetIfNewDay()
-                if (didReset) {
-                    clearShakyTimer()
+            // 활성 금주 기록이 없으면 추적 시작 (이전 버전의 시작일은 Room으로 이전)
+            repository.ensureTracking()
+
+            // 앱이 꺼진 동안 자정을 넘겼을 수 있으므로 시작 시 한 번 확인
+            var checkedDate = dayBoundary.today.value
+            onDayChanged()
+
+            // 이후 날짜 변경(자정, 시계·시간대 변경)은 DayBoundaryMonitor가 알려줌
+            dayBoundary.today.collect { date ->
+                if (date != checkedDate) {
+                    checkedDate = date
+                    onDayChanged()
                 }
-                _lastCheckedDate.value = today
             }
         }
     }
 
-    /**
-     * DataStore에 startDate가 없으면 오늘부터 추적을 시작합니다.
-     * 온보딩을 건너뛴 경우나 데이터가 초기화된 경우를 대비합니다.
-     */
-    private suspend fun initializeIfFirstLaunch() {
-        val startDate = dataStore.startDate.first()
-        if (startDate == null) {
-            repository.startTracking(LocalDate.now())
-        }
-    }
-
     // ========== Button Actions ==========
 
     /**
@@ -186,8 +169,10 @@ class MainViewModel(application: Application) : AndroidViewModel(application) {
     fun onTodaySuccess() {
         viewModelScope.launch {
             if (hasRecordedToday()) return@launch
-            repository.recordSuccess()
+            // 마일스톤 갱신은 성공 기록과 같은 트랜잭션에서 처리됨
+            val achieved = repository.recordSuccess()
             clearShakyTimer()
+            showNewlyAchieved(achieved)
         }
     }
 
@@ -199,6 +184,7 @@ class MainViewModel(application: Application) : AndroidViewModel(application) {
     fun onDrink() {
         viewModelScope.launch {
             if (hasRecordedToday()) return@launch
+            // 금주 기록 재시작과 마일스톤 되돌리기가 한 트랜잭션으로 처리됨
             repository.recordFail()
             clearShakyTimer()
         }
@@ -207,14 +193,16 @@ class MainViewModel(application: Application) : AndroidViewModel(application) {
     /**
      * 홈 화면 "흔들려요" 버튼 핸들러.
      * 하루에 여러 번 누를 수 있습니다.
-     * 3시간 타이머를 시작하고, 3시간 후 위로 메시지가 표시됩니다.
+     * 타이머 종료 시각을 3시간 뒤로 저장하고, 3시간 후 위로 메시지가 표시됩니다.
+     * 설정에서 켰다면 알림창에도 카운트다운을 띄웁니다.
      */
     fun onShaky() {
         viewModelScope.launch {
-            repository.recordShaky()
-            startShakyTimer()
-            // WorkManager로 3시간 후 comfort_ready_flag를 true로 설정
-            ComfortMessageWorker.schedule(getApplication())
+            // 저장된 종료 시각을 보고 BackgroundScheduler가 위로 메시지 준비 작업을 예약함
+            val deadline = repository.recordShaky()
+            if (userPreferences.isShakyTimerNotificationEnabled.first()) {
+                ShakyTimerNotification.show(getApplication(), deadline, timeSource.now())
+            }
         }
     }
 
@@ -228,93 +216,53 @@ class MainViewModel(application: Application) : AndroidViewModel(application) {
         }
     }
 
-    // ========== Shaky Timer ==========
-
     /**
-     * 3시간(10,800초) 카운트다운 타이머를 시작합니다.
-     * 이미 실행 중인 타이머가 있으면 취소하고 새로 시작합니다.
-     * (흔들림 버튼을 여러 번 누르면 타이머가 매번 3시간으로 리셋됨)
+     * 마일스톤 축하 카드를 닫을 때 호출됩니다.
      */
-    private fun startShakyTimer() {
-        shakyTimerJob?.cancel()
-        val threeHoursInSeconds = 3 * 60 * 60L
-        _shakyTimerRemaining.value = threeHoursInSeconds
-
-        shakyTimerJob = viewModelScope.launch {
-            while (_shakyTimerRemaining.value > 0) {
-                delay(1_000)
-                _shakyTimerRemaining.value -= 1
-            }
-        }
+    fun onMilestoneCelebrationSeen() {
+        _newlyAchievedMilestones.value = emptyList()
     }
 
+    // ========== Milestones ==========
+
     /**
-     * 앱 재시작 시 이전에 실행 중이던 흔들림 타이머를 복원합니다.
-     *
-     * 마지막 흔들림 타임스탬프와 현재 시간의 차이를 계산해
-     * 3시간이 아직 지나지 않았으면 남은 시간으로 타이머를 재시작합니다.
+     * 현재 금주 일수로 마일스톤 달성 상태를 한 번에 갱신합니다.
+     * 성공/음주 기록 외에 금주 일수가 바뀌는 시점(앱 시작, 날짜 변경)마다 호출됩니다.
      */
-    private suspend fun restoreShakyTimerIfNeeded() {
-        val timestamps = dataStore.shakyTimestamps.first()
-        if (timestamps.isEmpty()) return
-
-        val lastShaky = timestamps.last()
-        val now = LocalDateTime.now()
-        val elapsed = Duration.between(lastShaky, now)
-        val threeHours = Duration.ofHours(3)
-
-        if (elapsed < threeHours) {
-            val remaining = threeHours.minus(elapsed).seconds
-            _shakyTimerRemaining.value = remaining
-
-            shakyTimerJob?.cancel()
-            shakyTimerJob = viewModelScope.launch {
-                while (_shakyTimerRemaining.value > 0) {
-                    delay(1_000)
-                    _shakyTimerRemaining.value -= 1
-                }
-            }
+    private suspend fun refreshMilestones() {
+        val soberDays = repository.getCurrentStreak()
+        showNewlyAchieved(sobrietyRepository.updateMilestones(soberDays))
+    }
+
+    /** 새로 달성한 마일스톤이 있으면 축하 카드에 표시합니다 */
+    private fun showNewlyAchieved(achieved: List<Milestone>) {
+        if (achieved.isNotEmpty()) {
+            _newlyAchievedMilestones.value = achieved
         }
     }
 
+    // ========== Shaky Timer ==========
+
     /**
-     * 흔들림 타이머를 중단하고 0으로 초기화합니다.
-     * 성공/음주 기록 또는 자정 리셋 시 호출됩니다.
+     * 흔들림 타이머 카운트다운 알림을 내립니다.
+     * 성공/음주 기록 또는 자정 리셋 시 호출됩니다. (종료 시각은 Repository가 같은 쓰기에서 지우고,
+     * 예약된 위로 메시지 작업은 BackgroundScheduler가 바뀐 상태를 보고 다시 예약함)
      */
     private fun clearShakyTimer() {
-        shakyTimerJob?.cancel()
-        _shakyTimerRemaining.value = 0
-        // 예약된 WorkManager 작업도 함께 취소
-        ComfortMessageWorker.cancel(getApplication())
+        ShakyTimerNotification.cancel(getApplication())
     }
 
-    // ========== Midnight Reset ==========
+    // ========== Day Change ==========
 
     /**
-     * 매일 자정에 checkDateChange()를 자동으로 호출하는 코루틴을 시작합니다.
-     *
-     * 동작 원리:
-     * 1. 현재 시각에서 다음 자정까지의 시간을 계산
-     * 2. 그만큼 delay 후 checkDateChange() 호출
-     * 3. while(true)로 반복하여 매일 자정마다 실행
-     *
-     * ViewModel이 소멸되면 viewModelScope와 함께 자동으로 취소됩니다.
+     * 날짜가 바뀌었으면 오늘 상태를 리셋하고, 늘어난 금주 일수로 마일스톤을 갱신합니다.
+     * 연속 일수·오늘 흔들림은 Repository가 같은 날짜 Flow를 구독하므로 따로 갱신할 필요가 없습니다.
      */
-    private fun scheduleMidnightReset() {
-        midnightResetJob?.cancel()
-        midnightResetJob = viewModelScope.launch {
-            while (true) {
-                val now = LocalDateTime.now()
-                val nextMidnight = LocalDateTime.of(
-                    now.toLocalDate().plusDays(1),
-                    LocalTime.MIDNIGHT
-                )
-                val delayMs = Duration.between(now, nextMidnight).toMillis()
-                delay(delayMs)
-
-                checkDateChange()
-            }
+    private suspend fun onDayChanged() {
+        if (repository.checkAndResetIfNewDay()) {
+            clearShakyTimer()
         }
+        refreshMilestones()
     }
 
     // ========== Helpers ==========
@@ -326,6 +274,6 @@ class MainViewModel(application: Application) : AndroidViewModel(application) {
      */
     private suspend fun hasRecordedToday(): Boolean {
         val lastDate = dataStore.lastRecordDate.first()
-        return lastDate == LocalDate.now()
+        return lastDate == dayBoundary.today.value
     }
 }
@@ -0,0 +1,104 @@
+package com.sobercompanion.viewmodel
+
+import android.app.Application
+import androidx.compose.runtime.Immutable
+import androidx.lifecycle.AndroidViewModel
+import androidx.lifecycle.viewModelScope
+import com.sobercompanion.AppContainerOwner
+import com.sobercompanion.data.local.entity.Milestone
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.flow.SharingStarted
+import kotlinx.coroutines.flow.StateFlow
+import kotlinx.coroutines.flow.combine
+import kotlinx.coroutines.flow.flowOn
+import kotlinx.coroutines.flow.stateIn
+import java.time.format.DateTimeFormatter
+
+/**
+ * 업적 화면의 UI 상태.
+ */
+@Immutable
+data class MilestonesUiState(
+    /** 달성한 업적 수 */
+    val achievedCount: Int = 0,
+
+    /** 전체 업적 수 */
+    val totalCount: Int = 0,
+
+    /** 업적 목록 (목표 일수 오름차순) */
+    val items: List<MilestoneItemUi> = emptyList()
+)
+
+/**
+ * 업적 목록 한 행. 진행률과 남은 일수는 현재 금주 일수로 미리 계산되어 있습니다.
+ */
+@Immutable
+data class MilestoneItemUi(
+    val id: Long,
+    val title: String,
+    val description: String,
+    val targetDays: Int,
+    val isAchieved: Boolean,
+
+    /** "달성일: yyyy.MM.dd". 미달성이거나 달성 시각이 없으면 null */
+    val achievedLabel: String?,
+
+    /** "N일 남음 (P%)". 달성했으면 null */
+    val progressLabel: String?
+)
+
+/**
+ * 업적 화면 ViewModel.
+ *
+ * 마일스톤 목록과 현재 금주 일수(홈 화면과 같은 SoberRepository.currentStreak)를 합쳐
+ * Dispatchers.Default에서 [MilestonesUiState]로 변환합니다.
+ */
+class MilestonesViewModel(application: Application) : AndroidViewModel(application) {
+
+    private val container = (application as AppContainerOwner).container
+
+    val uiState: StateFlow<MilestonesUiState> = combine(
+        container.sobrietyRepository.allMilestones,
+        container.soberRepository.currentStreak
+    ) { milestones, soberDays ->
+        toUiState(milestones, soberDays)
+    }
+        .flowOn(Dispatchers.Default)
+        .stateIn(
+            scope = viewModelScope,
+            started = SharingStarted.WhileSubscribed(5_000),
+            initialValue = MilestonesUiState()
+        )
+
+    private fun toUiState(milestones: List<Milestone>, soberDays: Int): MilestonesUiState =
+        MilestonesUiState(
+            achievedCount = milestones.count { it.isAchieved },
+            totalCount = milestones.size,
+            items = milestones.map { milestone -> toItem(milestone, soberDays) }
+        )
+
+    private fun toItem(milestone: Milestone, soberDays: Int): MilestoneItemUi {
+        val progressLabel = if (milestone.isAchieved) {
+            null
+        } else {
+            val progress = (soberDays.toFloat() / milestone.targetDays).coerceIn(0f, 1f)
+            val daysRemaining = (milestone.targetDays - soberDays).coerceAtLeast(0)
+            "${daysRemaining}일 남음 (${(progress * 100).toInt()}%)"
+        }
+        return MilestoneItemUi(
+            id = milestone.id,
+            title = milestone.title,
+            description = milestone.description,
+            targetDays = milestone.targetDays,
+            isAchieved = milestone.isAchieved,
+            achievedLabel = milestone.achievedAt
+                ?.takeIf { milestone.isAchieved }
+                ?.let { "달성일: ${it.format(ACHIEVED_DATE_FORMATTER)}" },
+            progressLabel = progressLabel
+        )
+    }
+
+    companion object {
+        private val ACHIEVED_DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy.MM.dd")
+    }
+}
@@ -0,0 +1,205 @@
+package com.sobercompanion.viewmodel
+
+import android.app.Application
+import android.net.Uri
+import androidx.compose.runtime.Immutable
+import androidx.lifecycle.AndroidViewModel
+import androidx.lifecycle.viewModelScope
+import com.sobercompanion.AppContainerOwner
+import com.sobercompanion.data.backup.BinaryBackup
+import com.sobercompanion.data.backup.DataExporter
+import com.sobercompanion.data.backup.DataImporter
+import com.sobercompanion.data.backup.TransferProgress
+import com.sobercompanion.util.ShakyTimerNotification
+import kotlinx.coroutines.CancellationException
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.Job
+import kotlinx.coroutines.flow.MutableStateFlow
+import kotlinx.coroutines.flow.SharingStarted
+import kotlinx.coroutines.flow.StateFlow
+import kotlinx.coroutines.flow.combine
+import kotlinx.coroutines.flow.first
+import kotlinx.coroutines.flow.flowOn
+import kotlinx.coroutines.flow.stateIn
+import kotlinx.coroutines.launch
+import java.time.LocalDate
+
+/**
+ * 설정 화면의 UI 상태.
+ */
+@Immutable
+data class SettingsUiState(
+    val userName: String = "",
+    val sobrietyGoalReason: String = "",
+    val isDailyReminderEnabled: Boolean = true,
+
+    /** 흔들림 타이머를 알림창에 카운트다운으로 띄울지 여부 */
+    val isShakyTimerNotificationEnabled: Boolean = false,
+
+    /** 알림 설정 설명 ("매일 오후 8시에 기록 알림을 받습니다") */
+    val reminderDescription: String = "",
+
+    /** 내보내기/가져오기/백업 진행 상황 또는 결과 문구. 작업 전이면 null */
+    val transferMessage: String? = null,
+
+    /** 내보내기/가져오기/백업 작업이 실행 중인지 여부 */
+    val isTransferring: Boolean = false,
+
+    /** 기기 백업 파일이 있는지 여부 (복원 버튼 활성화) */
+    val hasDeviceBackup: Boolean = false
+)
+
+/**
+ * 설정 화면 ViewModel.
+ *
+ * 사용자 설정 Flow를 Dispatchers.Default에서 [SettingsUiState]로 합치고,
+ * 내보내기/가져오기/기기 백업 작업을 viewModelScope에서 실행합니다.
+ * 작업이 ViewModel에 있으므로 화면 회전 중에도 취소되지 않고 진행 상황이 유지됩니다.
+ */
+class SettingsViewModel(application: Application) : AndroidViewModel(application) {
+
+    private val container = (application as AppContainerOwner).container
+    private val userPreferences = container.userPreferencesRepository
+
+    private val exporter = DataExporter(container.database, container.appDataStore, container.timeSource)
+
+    // 기기 백업: filesDir 아래 한 파일이라 안드로이드 자동 백업에도 함께 올라감
+    private val binaryBackup =
+        BinaryBackup(container.database, container.appDataStore, userPreferences, container.timeSource)
+    private val backupFile = BinaryBackup.defaultFile(application)
+
+    private val transferMessage = MutableStateFlow<String?>(null)
+    private val transferJob = MutableStateFlow<Job?>(null)
+    private val hasDeviceBackup = MutableStateFlow(backupFile.exists())
+
+    /** 사용자 설정 5개를 한 번에 묶은 값 (combine 인자 수 제한 때문에 먼저 합침) */
+    private val profile = combine(
+        userPreferences.userName,
+        userPreferences.sobrietyGoalReason,
+        userPreferences.isDailyReminderEnabled,
+        userPreferences.reminderTime,
+        userPreferences.isShakyTimerNotificationEnabled
+    ) { name, reason, reminderEnabled, (hour, minute), shakyTimerNotificationEnabled ->
+        SettingsUiState(
+            userName = name,
+            sobrietyGoalReason = reason,
+            isDailyReminderEnabled = reminderEnabled,
+            isShakyTimerNotificationEnabled = shakyTimerNotificationEnabled,
+            reminderDescription = "매일 ${formatReminderTime(hour, minute)}에 기록 알림을 받습니다"
+        )
+    }
+
+    val uiState: StateFlow<SettingsUiState> = combine(
+        profile,
+        transferMessage,
+        transferJob,
+        hasDeviceBackup
+    ) { state, message, job, backupExists ->
+        state.copy(
+            transferMessage = message,
+            isTransferring = job != null,
+            hasDeviceBackup = backupExists
+        )
+    }
+        .flowOn(Dispatchers.Default)
+        .stateIn(
+            scope = viewModelScope,
+            started = SharingStarted.WhileSubscribed(5_000),
+            initialValue = SettingsUiState()
+        )
+
+    // ========== Profile / Notification ==========
+
+    fun setUserName(name: String) {
+        viewModelScope.launch { userPreferences.setUserName(name) }
+    }
+
+    fun setSobrietyGoalReason(reason: String) {
+        viewModelScope.launch { userPreferences.setSobrietyGoalReason(reason) }
+    }
+
+    fun setDailyReminderEnabled(enabled: Boolean) {
+        viewModelScope.launch { userPreferences.setDailyReminderEnabled(enabled) }
+    }
+
+    /** 흔들림 타이머 알림 설정. 타이머가 도는 중이면 알림도 바로 띄우거나 내립니다 */
+    fun setShakyTimerNotificationEnabled(enabled: Boolean) {
+        viewModelScope.launch {
+            userPreferences.setShakyTimerNotificationEnabled(enabled)
+            val app = getApplication<Application>()
+            val deadline = container.appDataStore.snapshot.first().shakyDeadline
+            if (enabled && deadline != null) {
+                ShakyTimerNotification.show(app, deadline, container.timeSource.now())
+            } else {
+                ShakyTimerNotification.cancel(app)
+            }
+        }
+    }
+
+    // ========== Export / Import / Backup ==========
+
+    /** 내보내기 파일 이름에 붙일 오늘 날짜 */
+    fun exportFileDate(): LocalDate = container.timeSource.today()
+
+    fun exportJson(uri: Uri) = runTransfer { onProgress ->
+        val rows = contentResolver().openOutputStream(uri)!!.use { output ->
+            exporter.exportJson(output, onProgress)
+        }
+        "내보냈습니다 (${rows}건)"
+    }
+
+    fun exportDailyLogsCsv(uri: Uri) = runTransfer { onProgress ->
+        val rows = contentResolver().openOutputStream(uri)!!.use { output ->
+            exporter.exportDailyLogsCsv(output, onProgress)
+        }
+        "내보냈습니다 (${rows}건)"
+    }
+
+    fun importJson(uri: Uri) = runTransfer { onProgress ->
+        val rows = contentResolver().openInputStream(uri)!!.use { input ->
+            DataImporter(container.database, container.appDataStore).importJson(input, onProgress)
+        }
+        "가져왔습니다 (${rows}건)"
+    }
+
+    fun createDeviceBackup() = runTransfer {
+        val bytes = binaryBackup.write(backupFile)
+        hasDeviceBackup.value = backupFile.exists()
+        "기기 백업을 만들었습니다 (${(bytes + 1023) / 1024}KB)"
+    }
+
+    fun restoreDeviceBackup() = runTransfer {
+        binaryBackup.restore(backupFile)
+        "기기 백업에서 복원했습니다"
+    }
+
+    fun cancelTransfer() {
+        transferJob.value?.cancel()
+    }
+
+    /** 내보내기/가져오기/백업을 실행하고 진행 상황과 완료 문구([block]의 반환값)를 표시 */
+    private fun runTransfer(block: suspend ((TransferProgress) -> Unit) -> String) {
+        transferJob.value?.cancel()
+        transferJob.value = viewModelScope.launch {
+            transferMessage.value = "준비 중…"
+            transferMessage.value = try {
+                block { progress -> transferMessage.value = "${progress.totalRows}건 처리 중…" }
+            } catch (e: CancellationException) {
+                "취소되었습니다"
+            } catch (e: Exception) {
+                "실패했습니다: ${e.message}"
+            } finally {
+                transferJob.value = null
+            }
+        }
+    }
+
+    private fun contentResolver() = getApplication<Application>().contentResolver
+
+    /** 20:00 → "오후 8시", 7:30 → "오전 7시 30분" */
+    private fun formatReminderTime(hour: Int, minute: Int): String {
+        val amPm = if (hour < 12) "오전" else "오후"
+        val hour12 = (hour % 12).let { if (it == 0) 12 else it }
+        return if (minute == 0) "$amPm ${hour12}시" else "$amPm ${hour12}시 ${minute}분"
+    }
+}
@@ -0,0 +1,173 @@
+package com.sobercompanion.viewmodel
+
+import android.app.Application
+import androidx.compose.runtime.Immutable
+import androidx.lifecycle.AndroidViewModel
+import androidx.lifecycle.viewModelScope
+import com.sobercompanion.AppContainerOwner
+import com.sobercompanion.data.local.dao.StatisticsSummary
+import com.sobercompanion.data.local.entity.DailyLog
+import com.sobercompanion.data.local.entity.RollupPeriod
+import com.sobercompanion.data.local.entity.StatsRollup
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.ExperimentalCoroutinesApi
+import kotlinx.coroutines.flow.MutableStateFlow
+import kotlinx.coroutines.flow.SharingStarted
+import kotlinx.coroutines.flow.StateFlow
+import kotlinx.coroutines.flow.combine
+import kotlinx.coroutines.flow.flatMapLatest
+import kotlinx.coroutines.flow.flowOn
+import kotlinx.coroutines.flow.map
+import kotlinx.coroutines.flow.stateIn
+import java.time.format.DateTimeFormatter
+
+/**
+ * 통계 화면의 UI 상태. 화면은 이 값을 그대로 그리기만 합니다.
+ * 숫자 포맷, 정렬, 차트 좌표 계산은 ViewModel이 백그라운드에서 미리 끝냅니다.
+ */
+@Immutable
+data class StatisticsUiState(
+    /** 총 금주일 */
+    val totalSoberDays: Int = 0,
+
+    /** 최장 연속 금주일 */
+    val longestStreak: Int = 0,
+
+    /** 최근 7일 평균 기분 ("3.5" 형식) */
+    val averageMood: String = "0.0",
+
+    /** 최근 7일 평균 음주 욕구 ("3.5" 형식) */
+    val averageCraving: String = "0.0",
+
+    /** 선택된 기간별 요약 구간 */
+    val selectedPeriod: RollupPeriod = RollupPeriod.WEEK,
+
+    /** 선택된 구간의 요약 */
+    val period: PeriodSummaryUi = PeriodSummaryUi(),
+
+    /** 기분 추이 차트 점 (날짜 오름차순) */
+    val chartPoints: List<MoodChartPoint> = emptyList(),
+
+    /** 최근 기록 목록 (날짜 내림차순) */
+    val recentLogs: List<DailyLogRowUi> = emptyList()
+)
+
+/** 기간별 요약 카드 값 */
+@Immutable
+data class PeriodSummaryUi(
+    val averageMood: String = "0.0",
+    val averageCraving: String = "0.0",
+    val drinkDays: Int = 0,
+    val logCount: Int = 0
+)
+
+/**
+ * 차트 한 점의 세로 위치 비율 (0 = 바닥, 1 = 꼭대기).
+ * 1~5 척도를 미리 0~1로 바꿔 두어 Canvas는 높이만 곱하면 됩니다.
+ */
+@Immutable
+data class MoodChartPoint(
+    val moodRatio: Float,
+    val cravingRatio: Float
+)
+
+/** 최근 기록 목록 한 행 */
+@Immutable
+data class DailyLogRowUi(
+    val id: Long,
+    val dateLabel: String,
+    /** 메모 앞부분 (30자 초과 시 "..."). 메모가 없으면 빈 문자열 */
+    val notePreview: String,
+    val mood: Int,
+    val cravingLevel: Int
+)
+
+/**
+ * 통계 화면 ViewModel.
+ *
+ * 앱 전역 SobrietyRepository의 공유 Flow(요약, 구간 롤업, 최근 기록)를 합쳐
+ * Dispatchers.Default에서 [StatisticsUiState]로 변환합니다.
+ * 화면이 백그라운드로 가면 collectAsStateWithLifecycle이 구독을 멈추고,
+ * 5초 뒤 상위 Flow 구독도 해제됩니다.
+ */
+class StatisticsViewModel(application: Application) : AndroidViewModel(application) {
+
+    private val repository = (application as AppContainerOwner).container.sobrietyRepository
+
+    private val selectedPeriod = MutableStateFlow(RollupPeriod.WEEK)
+
+    @OptIn(ExperimentalCoroutinesApi::class)
+    private val periodRollup = selectedPeriod.flatMapLatest { period ->
+        repository.currentRollup(period).map { rollup -> period to rollup }
+    }
+
+    val uiState: StateFlow<StatisticsUiState> = combine(
+        repository.statisticsSummary,
+        periodRollup,
+        repository.recentDailyLogs
+    ) { summary, (period, rollup), logs ->
+        toUiState(summary, period, rollup, logs)
+    }
+        .flowOn(Dispatchers.Default)
+        .stateIn(
+            scope = viewModelScope,
+            started = SharingStarted.WhileSubscribed(5_000),
+            initialValue = StatisticsUiState()
+        )
+
+    /** 기간별 요약 칩 선택 */
+    fun selectPeriod(period: RollupPeriod) {
+        selectedPeriod.value = period
+    }
+
+    private fun toUiState(
+        summary: StatisticsSummary,
+        period: RollupPeriod,
+        rollup: StatsRollup?,
+        logs: List<DailyLog>
+    ): StatisticsUiState {
+        val ascending = logs.sortedBy { it.date }
+        return StatisticsUiState(
+            totalSoberDays = summary.totalSoberDays,
+            longestStreak = summary.longestStreak,
+            averageMood = formatAverage(summary.averageMood),
+            averageCraving = formatAverage(summary.averageCraving),
+            selectedPeriod = period,
+            period = PeriodSummaryUi(
+                averageMood = formatAverage(rollup?.averageMood ?: 0.0),
+                averageCraving = formatAverage(rollup?.averageCraving ?: 0.0),
+                drinkDays = rollup?.drinkDays ?: 0,
+                logCount = rollup?.logCount ?: 0
+            ),
+            chartPoints = ascending.map { log ->
+                MoodChartPoint(
+                    moodRatio = scaleRatio(log.mood),
+                    cravingRatio = scaleRatio(log.cravingLevel)
+                )
+            },
+            recentLogs = ascending.asReversed().map { log ->
+                DailyLogRowUi(
+                    id = log.id,
+                    dateLabel = log.date.format(ROW_DATE_FORMATTER),
+                    notePreview = if (log.note.length > NOTE_PREVIEW_LENGTH) {
+                        log.note.take(NOTE_PREVIEW_LENGTH) + "..."
+                    } else {
+                        log.note
+                    },
+                    mood = log.mood,
+                    cravingLevel = log.cravingLevel
+                )
+            }
+        )
+    }
+
+    private fun formatAverage(value: Double): String = String.format("%.1f", value)
+
+    /** 1~5 척도를 0~1 비율로 변환 */
+    private fun scaleRatio(level: Int): Float = (level - 1) / 4f
+
+    companion object {
+        private val ROW_DATE_FORMATTER = DateTimeFormatter.ofPattern("M월 d일")
+        private const val NOTE_PREVIEW_LENGTH = 30
+    }
+}
@@ -0,0 +1,212 @@
+package com.sobercompanion.workers
+
+import android.content.Context
+import androidx.work.Constraints
+import androidx.work.ExistingWorkPolicy
+import androidx.work.OneTimeWorkRequestBuilder
+import androidx.work.WorkInfo
+import androidx.work.WorkManager
+import androidx.work.workDataOf
+import com.sobercompanion.data.AppDataStore
+import com.sobercompanion.data.SoberSnapshot
+import com.sobercompanion.data.datastore.UserPreferencesRepository
+import com.sobercompanion.util.DayBoundaryMonitor
+import com.sobercompanion.util.SystemTimeSource
+import com.sobercompanion.util.TimeSource
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.flow.Flow
+import kotlinx.coroutines.flow.collectLatest
+import kotlinx.coroutines.flow.combine
+import kotlinx.coroutines.flow.distinctUntilChanged
+import kotlinx.coroutines.flow.first
+import kotlinx.coroutines.launch
+import kotlinx.coroutines.sync.Mutex
+import kotlinx.coroutines.sync.withLock
+import java.time.Duration
+import java.time.Instant
+import java.time.LocalDate
+import java.time.LocalTime
+import java.util.concurrent.TimeUnit
+
+/**
+ * 백그라운드 작업 예약을 한곳에서 맡는 스케줄러. [com.sobercompanion.AppContainer]가 하나만 만듭니다.
+ *
+ * 매일 기록 알림(사용자가 정한 시각), 흔들림 타이머 종료(위로 메시지 준비), 날짜 변경 리셋의
+ * 다음 실행 시각을 모두 계산해 가장 이른 시각 하나에 [ScheduledTasksWorker]를 예약합니다.
+ * 깨어난 Worker는 그 시점에 필요한 일을 모두 처리한 뒤 다음 시각을 다시 예약하므로
+ * WorkManager 작업은 항상 하나뿐이고, 하루에 깨어나는 횟수가 가장 적습니다.
+ *
+ * - 기록 알림은 다른 작업과 [REMINDER_FLEX] 안에 있으면 그 작업과 함께 실행합니다.
+ * - 날짜 변경 리셋은 지울 오늘 상태(위로 메시지, 흔들림 타이머)가 있을 때만 예약합니다.
+ *   없으면 다음 앱 실행 때 처리해도 결과가 같으므로 깨우지 않습니다.
+ * - 날짜 변경 리셋만 있는 실행은 늦어져도 괜찮으므로 배터리 부족 시 미루도록 제약을 겁니다.
+ *
+ * 오늘 상태, 알림 설정, 오늘 날짜가 바뀔 때마다 [start]에서 구독한 Flow가 다시 예약합니다.
+ * (예약이 바뀌지 않으면 WorkManager를 건드리지 않음)
+ * WorkManager 지연은 상대 시간이므로 시계·시간대가 바뀌면 계획이 같아도 다시 예약합니다.
+ *
+ * @param workQueue 작업을 예약할 곳. 앱에서는 [WorkManager]를 그대로 씁니다
+ */
+class BackgroundScheduler(
+    context: Context,
+    private val dataStore: AppDataStore,
+    private val userPreferences: UserPreferencesRepository,
+    private val dayBoundary: DayBoundaryMonitor,
+    private val scope: CoroutineScope,
+    private val timeSource: TimeSource = SystemTimeSource,
+    private val workQueue: WorkQueue = WorkManagerQueue(WorkManager.getInstance(context))
+) {
+
+    /** 앱 쪽 구독과 Worker의 재예약이 겹쳐도 한 번에 하나씩만 예약 */
+    private val mutex = Mutex()
+
+    /** 예약 계산에 쓰는 값. 이 값이 바뀔 때만 다시 예약합니다 */
+    private data class Inputs(
+        val snapshot: SoberSnapshot,
+        val today: LocalDate,
+        val reminderEnabled: Boolean,
+        val reminderHour: Int,
+        val reminderMinute: Int
+    )
+
+    private val inputs: Flow<Inputs> = combine(
+        dataStore.snapshot,
+        dayBoundary.today,
+        userPreferences.isDailyReminderEnabled,
+        userPreferences.reminderTime
+    ) { snapshot, today, reminderEnabled, (hour, minute) ->
+        Inputs(snapshot, today, reminderEnabled, hour, minute)
+    }.distinctUntilChanged()
+
+    /**
+     * 앱 시작 시 한 번 호출합니다. 이전 버전이 개별로 예약한 작업을 지우고,
+     * 이후 오늘 상태·알림 설정이 바뀔 때마다 다시 예약합니다.
+     */
+    fun start() {
+        LEGACY_WORK_NAMES.forEach { workQueue.cancelUniqueWork(it) }
+        scope.launch {
+            inputs.collectLatest { reschedule(it, fromWorker = false) }
+        }
+        scope.launch {
+            dayBoundary.clockChanges.collectLatest {
+                reschedule(inputs.first(), fromWorker = false, force = true)
+            }
+        }
+    }
+
+    /**
+     * 현재 상태로 다음 실행을 예약합니다. [ScheduledTasksWorker]가 할 일을 마친 뒤 호출합니다.
+     * 실행 중인 자기 자신을 취소하지 않도록 Worker에서는 현재 작업 뒤에 이어 붙입니다.
+     */
+    suspend fun rescheduleFromWorker() {
+        reschedule(inputs.first(), fromWorker = true)
+    }
+
+    /** @param force 같은 계획이 대기 중이어도 다시 예약 (시계가 바뀌어 남은 지연이 틀어진 경우) */
+    private suspend fun reschedule(inputs: Inputs, fromWorker: Boolean, force: Boolean = false) = mutex.withLock {
+        val plan = plan(inputs, timeSource.now())
+        if (!fromWorker) {
+            val existing = workQueue.getWork(WORK_NAME)
+            // 실행 중인 Worker는 끝날 때 최신 상태로 다시 예약함
+            if (existing.any { it.state == WorkInfo.State.RUNNING }) return@withLock
+            if (plan == null) {
+                if (existing.isNotEmpty()) workQueue.cancelUniqueWork(WORK_NAME)
+                return@withLock
+            }
+            // 같은 예약이 이미 대기 중이면 그대로 둠
+            if (!force && existing.any { it.state == WorkInfo.State.ENQUEUED && plan.tag in it.tags }) return@withLock
+        }
+        if (plan == null) return@withLock
+
+        val request = OneTimeWorkRequestBuilder<ScheduledTasksWorker>()
+            .setInitialDelay(plan.delayMillis, TimeUnit.MILLISECONDS)
+            .setConstraints(
+                Constraints.Builder()
+                    .setRequiresBatteryNotLow(plan.reminderDate == null && !plan.comfort)
+                    .build()
+            )
+            .setInputData(
+                workDataOf(ScheduledTasksWorker.KEY_REMINDER_DATE to plan.reminderDate?.toString())
+            )
+            .addTag(plan.tag)
+            .build()
+
+        workQueue.enqueueUniqueWork(
+            WORK_NAME,
+            if (fromWorker) ExistingWorkPolicy.APPEND_OR_REPLACE else ExistingWorkPolicy.REPLACE,
+            request
+        )
+    }
+
+    /**
+     * 다음 실행 계획.
+     *
+     * @property at 깨어날 시각
+     * @property delayMillis 지금부터 [at]까지의 지연 (이미 지났으면 0)
+     * @property reminderDate 이번 실행에서 보낼 기록 알림의 날짜. 보내지 않으면 null
+     * @property comfort 이번 실행이 흔들림 타이머 종료를 위한 것인지 여부
+     */
+    private class Plan(
+        val at: Instant,
+        val delayMillis: Long,
+        val reminderDate: LocalDate?,
+        val comfort: Boolean
+    ) {
+        val tag: String get() = "$TAG_PREFIX${at.toEpochMilli()}:$reminderDate:$comfort"
+    }
+
+    private fun plan(inputs: Inputs, now: Instant): Plan? {
+        val zone = timeSource.zone()
+        val today = inputs.today
+        val snapshot = inputs.snapshot
+
+        val comfortAt = snapshot.shakyDeadline?.takeUnless { snapshot.comfortShown }
+
+        val hasDayState = snapshot.comfortReady || snapshot.comfortShown || snapshot.shakyDeadline != null
+        val rolloverAt = if (hasDayState) today.plusDays(1).atStartOfDay(zone).toInstant() else null
+
+        // 오늘 알림을 아직 안 보냈고 알림 시각이 조금 전까지였다면 지금 보냄. 아니면 내일 알림 시각
+        val reminder: Pair<LocalDate, Instant>? = if (inputs.reminderEnabled) {
+            val reminderTime = LocalTime.of(inputs.reminderHour, inputs.reminderMinute)
+            val todayAt = today.atTime(reminderTime).atZone(zone).toInstant()
+            if (snapshot.lastReminderDate != today && todayAt.isAfter(now.minus(REMINDER_GRACE))) {
+                today to todayAt
+            } else {
+                val tomorrow = today.plusDays(1)
+                tomorrow to tomorrow.atTime(reminderTime).atZone(zone).toInstant()
+            }
+        } else {
+            null
+        }
+
+        val fixed = listOfNotNull(comfortAt, rolloverAt)
+        // 알림은 시각이 정확하지 않아도 되므로 가까운 다른 작업에 맞춰 함께 실행
+        val reminderAt = reminder?.let { (_, at) ->
+            fixed.filter { Duration.between(at, it).abs() <= REMINDER_FLEX }.minOrNull() ?: at
+        }
+
+        val wakeAt = (fixed + listOfNotNull(reminderAt)).minOrNull() ?: return null
+        return Plan(
+            at = wakeAt,
+            delayMillis = Duration.between(now, wakeAt).toMillis().coerceAtLeast(0),
+            reminderDate = reminder?.first?.takeIf { reminderAt == wakeAt },
+            comfort = comfortAt != null && !comfortAt.isAfter(wakeAt)
+        )
+    }
+
+    companion object {
+        /** 통합 예약 작업의 고유 이름. 항상 이 이름으로 하나만 예약됩니다 */
+        private const val WORK_NAME = "scheduled_tasks_work"
+
+        private const val TAG_PREFIX = "scheduled_tasks:"
+
+        /** 이전 버전이 따로 예약하던 작업 이름 (ComfortMessageWorker, ReminderWorker) */
+        private val LEGACY_WORK_NAMES = listOf("comfort_message_work", "daily_reminder_work")
+
+        /** 기록 알림을 다른 작업에 맞춰 앞당기거나 미룰 수 있는 범위 */
+        private val REMINDER_FLEX: Duration = Duration.ofMinutes(15)
+
+        /** 알림 시각이 지나도 이 시간 안이면 오늘 알림을 보냄 (기기가 잠들어 늦게 깨어난 경우) */
+        private val REMINDER_GRACE: Duration = Duration.ofHours(1)
+    }
+}
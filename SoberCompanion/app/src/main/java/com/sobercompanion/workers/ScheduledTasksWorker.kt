@@ -0,0 +1,76 @@
+package com.sobercompanion.workers
+
+import android.content.Context
+import androidx.work.CoroutineWorker
+import androidx.work.WorkerParameters
+import com.sobercompanion.AppContainerOwner
+import com.sobercompanion.util.ReminderNotification
+import com.sobercompanion.util.ShakyTimerNotification
+import kotlinx.coroutines.flow.first
+import java.time.LocalDate
+
+/**
+ * [BackgroundScheduler]가 예약하는 유일한 백그라운드 Worker.
+ *
+ * 깨어난 시점에 필요한 일을 모두 처리합니다.
+ * 1. 날짜가 바뀌었으면 오늘 상태(위로 메시지, 흔들림 타이머)를 리셋
+ * 2. 흔들림 타이머가 끝났으면 위로 메시지 표시를 준비하고 카운트다운 알림을 내림
+ * 3. 이번 실행에 기록 알림이 포함됐고 그날 아직 보내지 않았으면 알림 전송
+ *
+ * 각 단계는 저장된 상태를 보고 판단하므로 여러 번 실행돼도 결과가 같습니다.
+ * 마지막으로 다음 실행을 예약합니다.
+ */
+class ScheduledTasksWorker(
+    context: Context,
+    params: WorkerParameters
+) : CoroutineWorker(context, params) {
+
+    override suspend fun doWork(): Result {
+        val container = (applicationContext as AppContainerOwner).container
+        val soberRepository = container.soberRepository
+
+        if (soberRepository.checkAndResetIfNewDay()) {
+            ShakyTimerNotification.cancel(applicationContext)
+        }
+
+        if (soberRepository.completeShakyTimer()) {
+            // 시스템 timeoutAfter와 같은 시점이지만 늦게 깨어난 경우를 위해 직접 내림
+            ShakyTimerNotification.cancel(applicationContext)
+        }
+
+        val reminderDate = inputData.getString(KEY_REMINDER_DATE)?.let(LocalDate::parse)
+        if (reminderDate != null) sendReminderIfNeeded(reminderDate)
+
+        container.backgroundScheduler.rescheduleFromWorker()
+        return Result.success()
+    }
+
+    private suspend fun sendReminderIfNeeded(date: LocalDate) {
+        val container = (applicationContext as AppContainerOwner).container
+        if (!container.userPreferencesRepository.isDailyReminderEnabled.first()) return
+        if (container.appDataStore.snapshot.first().lastReminderDate == date) return
+
+        // 공유 Flow에 남은 값 대신 DB를 한 번 조회 (앱이 꺼져 있을 때도 구독을 만들지 않음)
+        val soberDays = container.soberRepository.getCurrentStreak()
+
+        val quote = container.quoteRepository.getRandomQuote()
+
+        val message = buildString {
+            append("금주 ${soberDays}일째입니다! ")
+            if (quote != null) {
+                append(quote.quote)
+            } else {
+                append("오늘도 화이팅!")
+            }
+        }
+
+        ReminderNotification.show(applicationContext, message)
+        // 알림 권한이 없어 보이지 않았더라도 같은 날 다시 깨우지 않도록 보낸 것으로 기록
+        container.soberRepository.markReminderSent(date)
+    }
+
+    companion object {
+        /** 이번 실행에서 보낼 기록 알림의 날짜 (ISO-8601). 없으면 알림을 보내지 않음 */
+        const val KEY_REMINDER_DATE = "reminder_date"
+    }
+}
@@ -0,0 +1,52 @@
+package com.sobercompanion.workers
+
+import androidx.work.ExistingWorkPolicy
+import androidx.work.OneTimeWorkRequest
+import androidx.work.WorkInfo
+import androidx.work.WorkManager
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.withContext
+
+/**
+ * [BackgroundScheduler]가 쓰는 WorkManager 기능만 모은 인터페이스.
+ *
+ * 앱에서는 [WorkManagerQueue]를 쓰고, 테스트에서는 예약 횟수를 세거나 작업을 직접 실행하는 구현으로 바꿔 끼웁니다.
+ */
+interface WorkQueue {
+
+    /** [name]으로 예약된 작업들의 상태. 없으면 빈 목록 */
+    suspend fun getWork(name: String): List<QueuedWork>
+
+    /** [name]으로 [request]를 예약합니다. 같은 이름의 작업은 [policy]에 따라 교체하거나 뒤에 붙입니다 */
+    fun enqueueUniqueWork(name: String, policy: ExistingWorkPolicy, request: OneTimeWorkRequest)
+
+    /** [name]으로 예약된 작업을 취소합니다 */
+    fun cancelUniqueWork(name: String)
+}
+
+/**
+ * 예약된 작업 하나의 상태.
+ *
+ * @property state 대기·실행 중 등 WorkManager 상태
+ * @property tags 예약할 때 붙인 태그 (BackgroundScheduler는 실행 계획을 태그로 구분함)
+ */
+data class QueuedWork(
+    val state: WorkInfo.State,
+    val tags: Set<String>
+)
+
+/** [WorkManager]에 그대로 넘기는 [WorkQueue]. 조회는 IO 스레드에서 기다립니다 */
+class WorkManagerQueue(private val workManager: WorkManager) : WorkQueue {
+
+    override suspend fun getWork(name: String): List<QueuedWork> = withContext(Dispatchers.IO) {
+        workManager.getWorkInfosForUniqueWork(name).get().map { QueuedWork(it.state, it.tags) }
+    }
+
+    override fun enqueueUniqueWork(name: String, policy: ExistingWorkPolicy, request: OneTimeWorkRequest) {
+        workManager.enqueueUniqueWork(name, policy, request)
+    }
+
+    override fun cancelUniqueWork(name: String) {
+        workManager.cancelUniqueWork(name)
+    }
+}
@@ -0,0 +1,516 @@
+package com.sobercompanion
+
+import android.app.Application
+import android.content.Intent
+import android.os.Looper
+import androidx.datastore.core.DataStoreFactory
+import androidx.lifecycle.ViewModelProvider
+import androidx.lifecycle.ViewModelStore
+import androidx.room.RoomDatabase
+import androidx.test.core.app.ApplicationProvider
+import androidx.work.ListenableWorker
+import androidx.work.testing.TestListenableWorkerBuilder
+import com.sobercompanion.data.AppDataStore
+import com.sobercompanion.data.CountingSerializer
+import com.sobercompanion.data.datastore.UserPreferencesRepository
+import com.sobercompanion.data.local.SoberDatabase
+import com.sobercompanion.data.local.entity.Milestone
+import com.sobercompanion.data.local.inMemoryDatabase
+import com.sobercompanion.util.FakeTimeSource
+import com.sobercompanion.viewmodel.MainViewModel
+import com.sobercompanion.workers.CountingWorkQueue
+import com.sobercompanion.workers.ScheduledTasksWorker
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.ExperimentalCoroutinesApi
+import kotlinx.coroutines.Job
+import kotlinx.coroutines.SupervisorJob
+import kotlinx.coroutines.cancelAndJoin
+import kotlinx.coroutines.flow.first
+import kotlinx.coroutines.launch
+import kotlinx.coroutines.test.StandardTestDispatcher
+import kotlinx.coroutines.test.TestScope
+import kotlinx.coroutines.test.advanceTimeBy
+import kotlinx.coroutines.test.resetMain
+import kotlinx.coroutines.test.runCurrent
+import kotlinx.coroutines.test.runTest
+import kotlinx.coroutines.test.setMain
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Before
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.Shadows.shadowOf
+import org.robolectric.annotation.Config
+import org.robolectric.annotation.SQLiteMode
+import java.io.File
+import java.time.Duration
+import java.time.Instant
+import java.time.LocalDate
+import java.time.LocalTime
+import java.time.ZoneId
+import java.util.concurrent.Executor
+import java.util.concurrent.atomic.AtomicInteger
+import kotlin.coroutines.EmptyCoroutineContext
+import kotlin.random.Random
+import kotlin.time.Duration.Companion.minutes
+
+/**
+ * 1년치 사용을 가상 시간으로 재생하며 하루에 DataStore·DB·WorkManager를 얼마나 건드리는지 세는 테스트.
+ *
+ * 고정 시드로 만든 일정에 따라 매일 앱을 열고, 흔들림을 기록하고, 성공이나 음주를 기록합니다.
+ * 밤사이 또는 사용 중에 프로세스가 종료되기도 하며, 그동안 예약된 작업은 새 프로세스에서 실행됩니다.
+ * 시계는 [FakeTimeSource]이고 코루틴 지연은 같은 만큼 가상 시간으로 흐르므로 1년이 몇 초 만에 끝납니다.
+ *
+ * 앱 코드를 흉내 내지 않고 그대로 실행합니다.
+ * - 프로세스마다 가짜 시계·sober_state.pb·작업 큐로 [AppContainer]를 만들어 [ReplayApplication]에 넣음
+ * - 홈 화면 액션은 [MainViewModel]의 버튼 핸들러를 호출
+ * - 예약 작업은 때가 되면 TestListenableWorkerBuilder로 만든 [ScheduledTasksWorker]의 doWork를 실행
+ * Room 쿼리와 DataStore도 테스트 디스패처에서 돌기 때문에 runCurrent가 끝나면 그 시각의 일이 모두 끝나 있습니다.
+ *
+ * 세는 값 (하루 단위, 자정 처리는 전날에 포함):
+ * - sober_state.pb 디코드·쓰기 ([CountingSerializer])
+ * - Room SQL 읽기·쓰기 (QueryCallback. InvalidationTracker 내부 쿼리 제외)
+ * - WorkManager 예약·취소·조회 ([CountingWorkQueue])
+ *
+ * 하루 값이 그날 일어난 일로 설명되는 범위를 넘는지 확인합니다. 하루별 요약은
+ * `./gradlew testDebugUnitTest -PyearReplayReport`로 실행했을 때만 build/reports/year-replay.txt에 남깁니다.
+ * 한계: Room DB와 사용자 설정 DataStore는 프로세스가 종료돼도 다시 열지 않습니다.
+ */
+@RunWith(RobolectricTestRunner::class)
+@SQLiteMode(SQLiteMode.Mode.NATIVE)
+@Config(application = YearReplayTest.ReplayApplication::class)
+@OptIn(ExperimentalCoroutinesApi::class)
+class YearReplayTest {
+
+    /**
+     * 실제 SoberCompanionApp 대신 쓰는 Application. DB·WorkManager를 초기화하지 않고,
+     * 테스트가 프로세스를 시작할 때마다 그 프로세스의 컨테이너를 넣습니다.
+     */
+    class ReplayApplication : Application(), AppContainerOwner {
+        override lateinit var container: AppContainer
+    }
+
+    @get:Rule
+    val folder = TemporaryFolder()
+
+    private val app = ApplicationProvider.getApplicationContext<ReplayApplication>()
+    private val time = FakeTimeSource(FIRST_DAY.atStartOfDay(ZONE).toInstant(), ZONE)
+
+    /** viewModelScope(Dispatchers.Main)와 Room 실행기가 함께 쓰는 테스트 디스패처 */
+    private val dispatcher = StandardTestDispatcher()
+
+    private val serializer = CountingSerializer()
+    private val sql = SqlCounter()
+    private val workQueue = CountingWorkQueue(time)
+
+    private lateinit var database: SoberDatabase
+    private lateinit var stateFile: File
+
+    /** 살아 있는 프로세스. 종료된 상태면 null */
+    private var process: AppProcess? = null
+
+    private var processStarts = 0
+    private var homeOpens = 0
+    private var userActions = 0
+    private var workerRuns = 0
+    private var remindersSent = 0
+
+    @Before
+    fun setUp() {
+        Dispatchers.setMain(dispatcher)
+        database = inMemoryDatabase(sql, executor = Executor { dispatcher.dispatch(EmptyCoroutineContext, it) })
+        stateFile = File(folder.root, "sober_state.pb")
+    }
+
+    @After
+    fun tearDown() {
+        database.close()
+        Dispatchers.resetMain()
+    }
+
+    @Test
+    fun yearOfUseStaysWithinDailyBudgets() = runTest(timeout = 2.minutes) {
+        database.sobrietyDao().insertMilestones(MILESTONES)
+        // 사용자 설정 DataStore는 IO 스레드에서 열리므로 재생 전에 미리 열어 둠 (기본값: 매일 20시 알림)
+        UserPreferencesRepository(app).isDailyReminderEnabled.first()
+        sql.reset()
+
+        val script = Script.generate(FIRST_DAY, DAYS, Random(SEED))
+        val reports = script.mapIndexed { index, day ->
+            val before = counters()
+            // 설치 직후 첫 실행. 이때 처음 예약한 작업이 이후 프로세스 종료와 무관하게 이어짐
+            if (index == 0) {
+                openHome()
+                leaveHome()
+            }
+            for (event in day.events) {
+                advanceTo(day.date.atTime(event.at).atZone(ZONE).toInstant())
+                perform(event.action)
+            }
+            advanceTo(day.date.plusDays(1).atStartOfDay(ZONE).toInstant())
+            DayReport(day.date, counters() - before)
+        }
+        process?.kill()
+
+        System.getProperty(REPORT_PROPERTY)?.let { path -> File(path).writeText(summary(reports)) }
+
+        // 재생한 일정이 그대로 기록됐는지
+        val dao = database.sobrietyDao()
+        assertEquals(script.count(Action.DRINK) + 1, dao.getAllSobrietyRecords().first().size)
+        assertEquals(script.count(Action.SUCCESS) + script.count(Action.DRINK), rowCount("day_outcomes"))
+        assertEquals(script.count(Action.SHAKY), rowCount("shaky_events"))
+        // 프로세스가 몇 번 죽어도 매일 기록 알림은 하루 한 번씩 빠짐없이 나감
+        assertEquals(DAYS, remindersSent)
+        // 디코드는 프로세스 시작마다 한 번뿐 (구독자 수, 쓰기 횟수와 무관). 첫 실행은 파일이 없어 기본값으로 시작
+        assertEquals(processStarts - 1, serializer.reads.get())
+
+        for ((date, c) in reports) {
+            // 사용자 액션마다 한 번, Worker 단계(날짜 리셋·타이머 종료·알림)마다 한 번,
+            // 홈 화면을 새로 열 때 초기화·날짜 리셋으로 최대 두 번, 자정에 열려 있던 홈 화면의 날짜 리셋 한 번
+            val stateChanges = c.userActions + 3 * c.workerRuns + 2 * c.homeOpens + 1
+            assertTrue("$date DataStore 쓰기 ${c.encodes}", c.encodes <= stateChanges)
+            // 예약은 상태가 바뀔 때, Worker가 끝날 때, 프로세스가 시작할 때, 자정에 많아야 한 번씩
+            // (같은 예약이 대기 중이면 건너뜀)
+            assertTrue(
+                "$date WorkManager 예약 ${c.enqueues}",
+                c.enqueues <= c.encodes + c.workerRuns + c.processStarts + 1
+            )
+            // Worker는 기록 알림, 흔들림 타이머 종료, 날짜 변경 리셋 때만 깨어남
+            assertTrue("$date Worker 실행 ${c.workerRuns}", c.workerRuns <= 2 + c.shakyTaps)
+        }
+    }
+
+    // ========== 재생 ==========
+
+    private suspend fun TestScope.perform(action: Action) {
+        if (action == Action.KILL) {
+            process?.kill()
+            process = null
+            return
+        }
+        val home = openHome()
+        when (action) {
+            Action.OPEN_APP -> Unit
+            Action.SHAKY -> {
+                userActions++
+                home.onShaky()
+            }
+            Action.DISMISS_COMFORT -> if (home.uiState.value.comfortReady) {
+                userActions++
+                home.onComfortMessageSeen()
+            }
+            Action.SUCCESS -> {
+                userActions++
+                home.onTodaySuccess()
+            }
+            Action.DRINK -> {
+                userActions++
+                home.onDrink()
+            }
+            Action.KILL -> Unit
+        }
+        runCurrent()
+        leaveHome()
+    }
+
+    /**
+     * [target]까지 시각을 돌립니다. 그 사이 자정이 되면 날짜 변경을 알리고,
+     * 예약된 작업의 시각이 되면 그 자리에서 실행합니다.
+     */
+    private suspend fun TestScope.advanceTo(target: Instant) {
+        repeat(MAX_STEPS_PER_ADVANCE) {
+            val midnight = time.today().plusDays(1).atStartOfDay(ZONE).toInstant()
+            val step = listOfNotNull(workQueue.nextDueAt(), midnight)
+                .map { maxOf(it, time.now()) }
+                .filter { !it.isAfter(target) }
+                .minOrNull()
+            if (step == null) {
+                advanceClock(target)
+                return
+            }
+            advanceClock(step)
+            if (step == midnight) onMidnight()
+            workQueue.takeDue(time.now())?.let { (name, work) -> runWorker(name, work) }
+        }
+        error("${time.now()}에서 작업이 계속 바로 다시 예약됩니다")
+    }
+
+    /** 시계와 코루틴 가상 시간을 함께 돌리고, 그 시각까지 예정된 코루틴을 실행합니다 */
+    private fun TestScope.advanceClock(to: Instant) {
+        val duration = Duration.between(time.now(), to)
+        if (duration.isNegative || duration.isZero) return
+        time.advanceBy(duration)
+        advanceTimeBy(duration.toMillis())
+        runCurrent()
+    }
+
+    /**
+     * 자정 알람 대신 날짜 변경 브로드캐스트로 DayBoundaryMonitor를 깨웁니다.
+     * 홈 화면 ViewModel이 살아 있으면 바뀐 날짜를 받아 스스로 날짜 변경을 처리합니다.
+     */
+    private fun TestScope.onMidnight() {
+        app.sendBroadcast(Intent(Intent.ACTION_DATE_CHANGED))
+        shadowOf(Looper.getMainLooper()).idle()
+        runCurrent()
+    }
+
+    /** 예약된 작업을 ScheduledTasksWorker로 실행합니다. 프로세스가 없으면 이 작업만을 위해 띄움 */
+    private suspend fun TestScope.runWorker(name: String, work: CountingWorkQueue.Scheduled) {
+        workerRuns++
+        val alive = process
+        val worker = alive ?: startProcess()
+        val dataStore = worker.container.appDataStore
+        val lastReminder = dataStore.snapshot.first().lastReminderDate
+
+        val result = TestListenableWorkerBuilder<ScheduledTasksWorker>(app, inputData = work.input).build().doWork()
+        assertEquals(ListenableWorker.Result.success(), result)
+        if (dataStore.snapshot.first().lastReminderDate != lastReminder) remindersSent++
+
+        workQueue.finish(name)
+        runCurrent()
+        if (alive == null) worker.kill()
+    }
+
+    /** SoberCompanionApp.onCreate처럼 컨테이너를 만들고 백그라운드 예약을 시작합니다 */
+    private fun TestScope.startProcess(): AppProcess {
+        processStarts++
+        return AppProcess(this).also {
+            app.container = it.container
+            it.container.backgroundScheduler.start()
+            runCurrent()
+        }
+    }
+
+    /** 홈 화면을 엽니다. 프로세스가 없으면 띄우고, ViewModel이 없으면 새로 만듭니다 */
+    private fun TestScope.openHome(): MainViewModel {
+        val current = process ?: startProcess().also { process = it }
+        return current.openHome().also { runCurrent() }
+    }
+
+    /** 홈 화면을 벗어남 (화면 구독만 멈추고 ViewModel은 프로세스가 살아 있는 동안 유지) */
+    private fun TestScope.leaveHome() {
+        process?.leaveHome()
+        runCurrent()
+    }
+
+    /**
+     * 프로세스 하나. 가짜 시계, 이 프로세스에서 새로 연 sober_state.pb, 테스트 작업 큐로 [AppContainer]를 만들고
+     * 홈 화면 ViewModel을 ViewModelStore에 보관합니다. 종료하면 앱 스코프와 viewModelScope가 모두 취소됩니다.
+     */
+    private inner class AppProcess(testScope: TestScope) {
+        private val job = SupervisorJob(testScope.backgroundScope.coroutineContext[Job])
+        private val scope = CoroutineScope(testScope.backgroundScope.coroutineContext + job)
+
+        val container = AppContainer(
+            context = app,
+            database = database,
+            timeSource = time,
+            appScope = scope,
+            appDataStore = AppDataStore(
+                app,
+                DataStoreFactory.create(serializer = serializer, scope = scope, produceFile = { stateFile })
+            ),
+            workQueue = workQueue
+        )
+
+        private var viewModels: ViewModelStore? = null
+        private var screen: Job? = null
+
+        fun openHome(): MainViewModel {
+            val store = viewModels ?: ViewModelStore().also {
+                viewModels = it
+                homeOpens++
+            }
+            val home = ViewModelProvider(store, ViewModelProvider.AndroidViewModelFactory.getInstance(app))[
+                MainViewModel::class.java
+            ]
+            // 화면이 떠 있는 동안 uiState를 구독 (collectAsStateWithLifecycle)
+            if (screen == null) screen = scope.launch { home.uiState.collect {} }
+            return home
+        }
+
+        fun leaveHome() {
+            screen?.cancel()
+            screen = null
+        }
+
+        /** 프로세스 종료. 같은 파일을 다음 프로세스가 열 수 있도록 DataStore 스코프가 끝날 때까지 기다림 */
+        suspend fun kill() {
+            leaveHome()
+            viewModels?.clear()
+            job.cancelAndJoin()
+        }
+    }
+
+    // ========== 집계 ==========
+
+    private data class Counters(
+        val decodes: Int = 0,
+        val encodes: Int = 0,
+        val sqlReads: Int = 0,
+        val sqlWrites: Int = 0,
+        val enqueues: Int = 0,
+        val cancels: Int = 0,
+        val lookups: Int = 0,
+        val workerRuns: Int = 0,
+        val processStarts: Int = 0,
+        val homeOpens: Int = 0,
+        val userActions: Int = 0,
+        val shakyTaps: Int = 0
+    ) {
+        operator fun minus(other: Counters) = Counters(
+            decodes - other.decodes,
+            encodes - other.encodes,
+            sqlReads - other.sqlReads,
+            sqlWrites - other.sqlWrites,
+            enqueues - other.enqueues,
+            cancels - other.cancels,
+            lookups - other.lookups,
+            workerRuns - other.workerRuns,
+            processStarts - other.processStarts,
+            homeOpens - other.homeOpens,
+            userActions - other.userActions,
+            shakyTaps - other.shakyTaps
+        )
+    }
+
+    private data class DayReport(val date: LocalDate, val counters: Counters)
+
+    private fun counters() = Counters(
+        decodes = serializer.reads.get(),
+        encodes = serializer.writes.get(),
+        sqlReads = sql.reads.get(),
+        sqlWrites = sql.writes.get(),
+        enqueues = workQueue.enqueues,
+        cancels = workQueue.cancels,
+        lookups = workQueue.lookups,
+        workerRuns = workerRuns,
+        processStarts = processStarts,
+        homeOpens = homeOpens,
+        userActions = userActions,
+        shakyTaps = sql.shakyInserts.get()
+    )
+
+    /** 항목별 합계·하루 평균·최대 */
+    private fun summary(reports: List<DayReport>): String = buildString {
+        fun line(label: String, value: (Counters) -> Int) {
+            val values = reports.map { value(it.counters) }
+            appendLine(
+                "%-22s 합계 %6d / 하루 평균 %5.1f / 최대 %3d".format(
+                    label, values.sum(), values.average(), values.maxOrNull() ?: 0
+                )
+            )
+        }
+        appendLine("=== ${reports.first().date} ~ ${reports.last().date} 재생 (${reports.size}일) ===")
+        line("DataStore 디코드") { it.decodes }
+        line("DataStore 쓰기") { it.encodes }
+        line("SQL 읽기") { it.sqlReads }
+        line("SQL 쓰기") { it.sqlWrites }
+        line("WorkManager 예약") { it.enqueues }
+        line("WorkManager 취소") { it.cancels }
+        line("WorkManager 조회") { it.lookups }
+        line("Worker 실행") { it.workerRuns }
+        line("프로세스 시작") { it.processStarts }
+        line("홈 화면 ViewModel 생성") { it.homeOpens }
+    }
+
+    private fun rowCount(table: String): Int =
+        database.query("SELECT COUNT(*) FROM $table", null).use { cursor ->
+            cursor.moveToFirst()
+            cursor.getInt(0)
+        }
+
+    /** 실행된 SQL을 읽기·쓰기로 나눠 세는 Room QueryCallback */
+    private class SqlCounter : RoomDatabase.QueryCallback {
+        val reads = AtomicInteger()
+        val writes = AtomicInteger()
+        val shakyInserts = AtomicInteger()
+
+        override fun onQuery(sqlQuery: String, bindArgs: List<Any?>) {
+            val statement = sqlQuery.trimStart()
+            // InvalidationTracker가 변경 테이블을 확인하는 내부 쿼리는 앱 쿼리가 아니므로 제외
+            if ("room_table_modification_log" in statement) return
+            when (statement.substringBefore(' ').uppercase()) {
+                "SELECT", "WITH" -> reads.incrementAndGet()
+                "INSERT", "UPDATE", "DELETE", "REPLACE" -> {
+                    writes.incrementAndGet()
+                    if (statement.contains("INTO `shaky_events`")) shakyInserts.incrementAndGet()
+                }
+            }
+        }
+
+        fun reset() {
+            reads.set(0)
+            writes.set(0)
+            shakyInserts.set(0)
+        }
+    }
+
+    // ========== 일정 ==========
+
+    private enum class Action { OPEN_APP, SHAKY, DISMISS_COMFORT, SUCCESS, DRINK, KILL }
+
+    private data class Event(val at: LocalTime, val action: Action)
+
+    private data class Day(val date: LocalDate, val events: List<Event>)
+
+    private object Script {
+
+        /**
+         * 하루 일정: 밤사이 종료(35%), 아침에 앱 열기(80%), 오후 흔들림 0~2번,
+         * 저녁 기록(음주 3%, 성공 92%, 나머지는 기록 안 함), 흔들림 뒤 위로 메시지 확인(70%), 자기 전 종료(20%)
+         */
+        fun generate(firstDay: LocalDate, days: Int, random: Random): List<Day> = (0 until days).map { index ->
+            val events = mutableListOf<Event>()
+            fun at(hour: Int, minuteRange: Int = 60) = LocalTime.of(hour, random.nextInt(minuteRange))
+
+            if (random.nextDouble() < 0.35) events += Event(at(3), Action.KILL)
+            if (random.nextDouble() < 0.8) events += Event(at(8 + random.nextInt(2)), Action.OPEN_APP)
+
+            val shakyRoll = random.nextDouble()
+            val shakyTaps = when {
+                shakyRoll < 0.05 -> 2
+                shakyRoll < 0.25 -> 1
+                else -> 0
+            }
+            repeat(shakyTaps) { events += Event(at(13 + random.nextInt(6)), Action.SHAKY) }
+
+            val outcomeRoll = random.nextDouble()
+            when {
+                outcomeRoll < 0.03 -> events += Event(at(21), Action.DRINK)
+                outcomeRoll < 0.95 -> events += Event(at(21), Action.SUCCESS)
+            }
+            if (shakyTaps > 0 && random.nextDouble() < 0.7) events += Event(at(22, 30), Action.DISMISS_COMFORT)
+            if (random.nextDouble() < 0.2) events += Event(at(23), Action.KILL)
+
+            Day(firstDay.plusDays(index.toLong()), events.sortedBy { it.at })
+        }
+    }
+
+    private fun List<Day>.count(action: Action): Int = sumOf { day -> day.events.count { it.action == action } }
+
+    private companion object {
+        val ZONE: ZoneId = ZoneId.of("Asia/Seoul")
+        val FIRST_DAY: LocalDate = LocalDate.of(2024, 1, 1)
+        const val DAYS = 366 // 2024년은 윤년
+        const val SEED = 2024
+
+        /** 요약을 남길 파일 경로를 담는 시스템 속성 (app/build.gradle.kts의 -PyearReplayReport) */
+        const val REPORT_PROPERTY = "yearReplayReport"
+
+        /** 한 번 시각을 돌리는 동안 실행할 수 있는 최대 단계 (무한 재예약 방지) */
+        const val MAX_STEPS_PER_ADVANCE = 1_000
+
+        val MILESTONES = listOf(
+            Milestone(title = "첫 걸음", description = "1일", targetDays = 1),
+            Milestone(title = "일주일", description = "7일", targetDays = 7),
+            Milestone(title = "한 달", description = "30일", targetDays = 30),
+            Milestone(title = "백일", description = "100일", targetDays = 100)
+        )
+    }
+}
@@ -0,0 +1,108 @@
+package com.sobercompanion.data
+
+import android.content.Context
+import androidx.datastore.core.DataStoreFactory
+import androidx.test.core.app.ApplicationProvider
+import kotlinx.coroutines.CompletableDeferred
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.Job
+import kotlinx.coroutines.cancel
+import kotlinx.coroutines.flow.first
+import kotlinx.coroutines.flow.launchIn
+import kotlinx.coroutines.flow.onEach
+import kotlinx.coroutines.runBlocking
+import kotlinx.coroutines.withTimeout
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Before
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import java.io.File
+import java.time.LocalDate
+
+/**
+ * 오늘 상태를 구독하는 Flow가 여러 개여도 파일 디코드는 처음 한 번뿐이고,
+ * 쓰기마다 파일에 한 번만 기록되는지 확인합니다. 같은 값으로 바꾸는 update는 파일을 쓰지 않아야 합니다.
+ */
+@RunWith(RobolectricTestRunner::class)
+class AppDataStoreTest {
+
+    @get:Rule
+    val folder = TemporaryFolder()
+
+    private lateinit var scope: CoroutineScope
+    private lateinit var serializer: CountingSerializer
+    private lateinit var dataStore: AppDataStore
+
+    @Before
+    fun setUp() {
+        scope = CoroutineScope(Dispatchers.IO + Job())
+        serializer = CountingSerializer()
+        val store = DataStoreFactory.create(
+            serializer = serializer,
+            scope = scope,
+            produceFile = { File(folder.root, "sober_state.pb") }
+        )
+        dataStore = AppDataStore(ApplicationProvider.getApplicationContext<Context>(), store)
+    }
+
+    @After
+    fun tearDown() {
+        scope.cancel()
+    }
+
+    @Test
+    fun subscribersShareOneDecodeAndEachWriteEncodesOnce() = runBlocking {
+        val today = LocalDate.of(2024, 5, 8)
+        val statuses = mutableListOf<RecordStatus>()
+        val sawFail = CompletableDeferred<Unit>()
+        // 화면처럼 필드 Flow 여러 개를 동시에 구독
+        val collectors = listOf(
+            dataStore.snapshot.launchIn(scope),
+            dataStore.lastRecordDate.launchIn(scope),
+            dataStore.dailyStatus.onEach {
+                synchronized(statuses) { statuses.add(it) }
+                if (it == RecordStatus.FAIL) sawFail.complete(Unit)
+            }.launchIn(scope)
+        )
+        dataStore.snapshot.first()
+
+        dataStore.update { it.copy(dailyStatus = RecordStatus.SHAKY) }
+        dataStore.setComfortReadyFlag(true)
+        dataStore.setComfortMessageShown(true)
+        dataStore.update { it.copy(dailyStatus = RecordStatus.FAIL, lastRecordDate = today) }
+        dataStore.resetComfortData()
+        // 값이 같으므로 파일을 다시 쓰지 않아야 함
+        dataStore.setDailyStatus(RecordStatus.FAIL)
+
+        withTimeout(5_000) { sawFail.await() }
+        dataStore.lastRecordDate.first { it == today }
+        collectors.forEach { it.cancel() }
+
+        assertEquals(1, serializer.reads.get())
+        assertEquals(5, serializer.writes.get())
+        // 필드 Flow는 값이 바뀔 때만 emit (중간 값은 합쳐질 수 있지만 같은 값이 연달아 오지 않음)
+        synchronized(statuses) {
+            assertEquals(statuses, statuses.distinctUntilChangedList())
+            assertEquals(RecordStatus.FAIL, statuses.last())
+        }
+    }
+
+    @Test
+    fun newSubscriberAfterWritesDoesNotDecodeAgain() = runBlocking {
+        dataStore.setDailyStatus(RecordStatus.SHAKY)
+        dataStore.setComfortReadyFlag(true)
+
+        assertEquals(RecordStatus.SHAKY, dataStore.dailyStatus.first())
+        assertEquals(true, dataStore.comfortReadyFlag.first())
+        assertEquals(1, serializer.reads.get())
+        assertEquals(2, serializer.writes.get())
+    }
+
+    private fun <T> List<T>.distinctUntilChangedList(): List<T> =
+        filterIndexed { index, value -> index == 0 || this[index - 1] != value }
+}
@@ -0,0 +1,29 @@
+package com.sobercompanion.data
+
+import androidx.datastore.core.Serializer
+import java.io.InputStream
+import java.io.OutputStream
+import java.util.concurrent.atomic.AtomicInteger
+
+/**
+ * [SoberSnapshotSerializer]에 위임하면서 파일을 읽은(디코드) 횟수와 쓴 횟수를 세는 테스트용 직렬화기.
+ */
+class CountingSerializer(
+    private val delegate: Serializer<SoberSnapshot> = SoberSnapshotSerializer
+) : Serializer<SoberSnapshot> {
+
+    val reads = AtomicInteger()
+    val writes = AtomicInteger()
+
+    override val defaultValue: SoberSnapshot get() = delegate.defaultValue
+
+    override suspend fun readFrom(input: InputStream): SoberSnapshot {
+        reads.incrementAndGet()
+        return delegate.readFrom(input)
+    }
+
+    override suspend fun writeTo(t: SoberSnapshot, output: OutputStream) {
+        writes.incrementAndGet()
+        delegate.writeTo(t, output)
+    }
+}
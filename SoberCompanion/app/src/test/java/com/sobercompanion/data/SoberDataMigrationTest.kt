@@ -0,0 +1,91 @@
+package com.sobercompanion.data
+
+import androidx.datastore.core.DataStore
+import androidx.datastore.core.DataStoreFactory
+import androidx.datastore.preferences.core.PreferenceDataStoreFactory
+import androidx.datastore.preferences.core.Preferences
+import androidx.datastore.preferences.core.booleanPreferencesKey
+import androidx.datastore.preferences.core.edit
+import androidx.datastore.preferences.core.stringPreferencesKey
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.Job
+import kotlinx.coroutines.cancel
+import kotlinx.coroutines.flow.first
+import kotlinx.coroutines.runBlocking
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Before
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+import java.io.File
+import java.time.LocalDate
+
+/**
+ * 이전 Preferences 파일(sober_data)의 오늘 상태가 sober_state.pb로 한 번 옮겨지는지 확인합니다.
+ * 옮긴 키만 지워지고, Room으로 옮겨질 시작일 키는 남아 있어야 합니다.
+ */
+class SoberDataMigrationTest {
+
+    @get:Rule
+    val folder = TemporaryFolder()
+
+    private val scope = CoroutineScope(Dispatchers.IO + Job())
+
+    private lateinit var legacyFile: File
+    private lateinit var legacyStore: DataStore<Preferences>
+
+    @Before
+    fun setUp() {
+        legacyFile = File(folder.root, "sober_data.preferences_pb")
+        legacyStore = PreferenceDataStoreFactory.create(scope = scope, produceFile = { legacyFile })
+    }
+
+    @After
+    fun tearDown() {
+        scope.cancel()
+    }
+
+    @Test
+    fun sessionKeysMoveAndStartDateStays() = runBlocking {
+        legacyStore.edit { prefs ->
+            prefs[START_DATE] = "2024-04-01"
+            prefs[LAST_RECORD_DATE] = "2024-05-08"
+            prefs[DAILY_STATUS] = "FAIL"
+            prefs[COMFORT_READY_FLAG] = true
+            prefs[COMFORT_MESSAGE_SHOWN] = false
+        }
+
+        assertEquals(
+            SoberSnapshot(lastRecordDate = LocalDate.of(2024, 5, 8), dailyStatus = RecordStatus.FAIL, comfortReady = true),
+            openStore().data.first()
+        )
+
+        val remaining = legacyStore.data.first().asMap().keys
+        assertEquals(setOf<Preferences.Key<*>>(START_DATE), remaining)
+    }
+
+    @Test
+    fun missingLegacyFileIsNotCreated() = runBlocking {
+        assertEquals(SoberSnapshot(), openStore().data.first())
+        assertFalse(legacyFile.exists())
+    }
+
+    private fun openStore(): DataStore<SoberSnapshot> = DataStoreFactory.create(
+        serializer = SoberSnapshotSerializer,
+        migrations = listOf(SoberDataMigration(legacyFile, legacyStore)),
+        scope = scope,
+        produceFile = { File(folder.root, "sober_state.pb") }
+    )
+
+    private companion object {
+        // 이전 sober_data 파일의 키 이름 (기존 파일과 일치해야 함)
+        val START_DATE = stringPreferencesKey("start_date")
+        val LAST_RECORD_DATE = stringPreferencesKey("last_record_date")
+        val DAILY_STATUS = stringPreferencesKey("daily_status")
+        val COMFORT_READY_FLAG = booleanPreferencesKey("comfort_ready_flag")
+        val COMFORT_MESSAGE_SHOWN = booleanPreferencesKey("comfort_message_shown")
+    }
+}
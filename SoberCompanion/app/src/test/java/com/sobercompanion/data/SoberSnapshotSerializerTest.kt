@@ -0,0 +1,147 @@
+package com.sobercompanion.data
+
+import androidx.datastore.core.CorruptionException
+import androidx.datastore.core.DataStoreFactory
+import androidx.datastore.core.handlers.ReplaceFileCorruptionHandler
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.Job
+import kotlinx.coroutines.cancel
+import kotlinx.coroutines.flow.first
+import kotlinx.coroutines.runBlocking
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+import java.io.ByteArrayInputStream
+import java.io.ByteArrayOutputStream
+import java.io.DataOutputStream
+import java.io.File
+import java.time.Instant
+import java.time.LocalDate
+
+/**
+ * sober_state.pb 형식의 버전별 호환성을 확인합니다.
+ * 이전 버전(v1, v2)이 쓴 파일은 없는 필드를 기본값으로 읽고, 현재 버전(v3)은 모든 필드가 그대로 돌아와야 합니다.
+ * 읽을 수 없는 파일은 [CorruptionException]으로 알려 ReplaceFileCorruptionHandler가 기본값으로 바꿔야 합니다.
+ */
+class SoberSnapshotSerializerTest {
+
+    @get:Rule
+    val folder = TemporaryFolder()
+
+    private val scope = CoroutineScope(Dispatchers.IO + Job())
+
+    private val date = LocalDate.of(2024, 5, 8)
+    private val deadline = Instant.parse("2024-05-08T12:30:00Z")
+
+    @After
+    fun tearDown() {
+        scope.cancel()
+    }
+
+    @Test
+    fun v1FileReadsWithoutLaterFields() = runBlocking {
+        // v1: 버전, 플래그, 마지막 기록 날짜, 상태 코드 (타이머·알림 플래그가 켜져 있어도 값이 없음)
+        val bytes = encode {
+            writeByte(1)
+            writeByte(FLAG_HAS_LAST_RECORD_DATE or FLAG_COMFORT_READY or FLAG_HAS_SHAKY_DEADLINE)
+            writeLong(date.toEpochDay())
+            writeByte(1)
+        }
+
+        assertEquals(
+            SoberSnapshot(lastRecordDate = date, dailyStatus = RecordStatus.SHAKY, comfortReady = true),
+            decode(bytes)
+        )
+    }
+
+    @Test
+    fun v2FileReadsShakyDeadline() = runBlocking {
+        val bytes = encode {
+            writeByte(2)
+            writeByte(FLAG_COMFORT_SHOWN or FLAG_HAS_SHAKY_DEADLINE)
+            writeByte(2)
+            writeLong(deadline.toEpochMilli())
+        }
+
+        assertEquals(
+            SoberSnapshot(dailyStatus = RecordStatus.FAIL, comfortShown = true, shakyDeadline = deadline),
+            decode(bytes)
+        )
+    }
+
+    @Test
+    fun v3RoundTripKeepsEveryField() = runBlocking {
+        val snapshots = listOf(
+            SoberSnapshot(),
+            SoberSnapshot(
+                lastRecordDate = date,
+                dailyStatus = RecordStatus.SHAKY,
+                comfortReady = true,
+                comfortShown = true,
+                shakyDeadline = deadline,
+                lastReminderDate = date.minusDays(1)
+            ),
+            SoberSnapshot(dailyStatus = RecordStatus.FAIL, lastReminderDate = date)
+        )
+
+        for (snapshot in snapshots) {
+            assertEquals(snapshot, decode(write(snapshot)))
+        }
+    }
+
+    @Test
+    fun newerVersionReadsKnownFields() = runBlocking {
+        // 뒤에 붙은 모르는 필드는 무시
+        val bytes = write(SoberSnapshot(lastRecordDate = date, lastReminderDate = date)).also { it[0] = 9 } +
+            byteArrayOf(1, 2, 3)
+
+        assertEquals(SoberSnapshot(lastRecordDate = date, lastReminderDate = date), decode(bytes))
+    }
+
+    @Test(expected = CorruptionException::class)
+    fun truncatedFileIsCorruption() {
+        runBlocking { decode(write(SoberSnapshot(lastRecordDate = date)).copyOf(5)) }
+    }
+
+    @Test(expected = CorruptionException::class)
+    fun versionZeroIsCorruption() {
+        runBlocking { decode(byteArrayOf(0, 0, 0)) }
+    }
+
+    @Test
+    fun corruptFileIsReplacedWithDefaults() = runBlocking {
+        val file = File(folder.root, "sober_state.pb")
+        file.writeBytes(byteArrayOf(3, FLAG_HAS_LAST_RECORD_DATE.toByte(), 0, 0))
+        val store = DataStoreFactory.create(
+            serializer = SoberSnapshotSerializer,
+            corruptionHandler = ReplaceFileCorruptionHandler { SoberSnapshot() },
+            scope = scope,
+            produceFile = { file }
+        )
+
+        assertEquals(SoberSnapshot(), store.data.first())
+        // 손상된 파일은 기본값으로 다시 써져 다음 실행에서 정상적으로 읽힘
+        assertTrue(file.readBytes().contentEquals(write(SoberSnapshot())))
+    }
+
+    private suspend fun write(snapshot: SoberSnapshot): ByteArray =
+        ByteArrayOutputStream().also { SoberSnapshotSerializer.writeTo(snapshot, it) }.toByteArray()
+
+    private suspend fun decode(bytes: ByteArray): SoberSnapshot =
+        SoberSnapshotSerializer.readFrom(ByteArrayInputStream(bytes))
+
+    private fun encode(block: DataOutputStream.() -> Unit): ByteArray =
+        ByteArrayOutputStream().also { DataOutputStream(it).apply(block).flush() }.toByteArray()
+
+    private companion object {
+        // SoberSnapshotSerializer의 플래그 비트 (파일 형식이므로 테스트에 고정)
+        const val FLAG_HAS_LAST_RECORD_DATE = 1
+        const val FLAG_COMFORT_READY = 1 shl 1
+        const val FLAG_COMFORT_SHOWN = 1 shl 2
+        const val FLAG_HAS_SHAKY_DEADLINE = 1 shl 3
+    }
+}
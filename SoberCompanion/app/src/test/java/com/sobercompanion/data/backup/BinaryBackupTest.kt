@@ -0,0 +1,201 @@
+package com.sobercompanion.data.backup
+
+import android.content.Context
+import android.database.Cursor
+import androidx.test.core.app.ApplicationProvider
+import com.sobercompanion.data.AppDataStore
+import com.sobercompanion.data.datastore.UserPreferencesRepository
+import com.sobercompanion.data.local.SoberDatabase
+import com.sobercompanion.data.local.dao.SobrietyDao
+import com.sobercompanion.data.local.entity.DailyLog
+import com.sobercompanion.data.local.entity.Milestone
+import com.sobercompanion.data.local.entity.ShakyEvent
+import com.sobercompanion.data.local.entity.SobrietyRecord
+import com.sobercompanion.data.local.inMemoryDatabase
+import kotlinx.coroutines.runBlocking
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Before
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.annotation.SQLiteMode
+import java.io.File
+import java.nio.ByteBuffer
+import java.time.LocalDate
+import java.time.LocalDateTime
+
+/**
+ * 바이너리 백업을 쓰고 다시 읽었을 때 모든 테이블이 그대로 돌아오는지,
+ * 손상되거나 잘린 파일은 기존 데이터를 건드리지 않고 거부되는지 확인합니다.
+ */
+@RunWith(RobolectricTestRunner::class)
+@SQLiteMode(SQLiteMode.Mode.NATIVE)
+class BinaryBackupTest {
+
+    @get:Rule
+    val folder = TemporaryFolder()
+
+    private lateinit var database: SoberDatabase
+    private lateinit var dao: SobrietyDao
+    private lateinit var backup: BinaryBackup
+    private lateinit var file: File
+
+    @Before
+    fun setUp() {
+        val context = ApplicationProvider.getApplicationContext<Context>()
+        database = inMemoryDatabase()
+        dao = database.sobrietyDao()
+        backup = BinaryBackup(database, AppDataStore(context), UserPreferencesRepository(context))
+        file = File(folder.root, "backup.scbk")
+        runBlocking { seed() }
+    }
+
+    @After
+    fun tearDown() {
+        database.close()
+    }
+
+    @Test
+    fun roundTripRestoresEveryTable() = runBlocking {
+        val before = dumpTables()
+        backup.write(file)
+
+        // 백업 뒤에 바뀐 내용은 복원으로 모두 되돌아가야 함
+        changeData()
+        backup.restore(file)
+
+        assertEquals(before, dumpTables())
+    }
+
+    @Test
+    fun crcMismatchIsRejectedWithoutChanges() = runBlocking {
+        backup.write(file)
+        val bytes = file.readBytes()
+        // 첫 섹션 내용의 첫 바이트 (헤더 14 + 섹션 종류 1 + 길이 4)
+        bytes[HEADER_SIZE + 5] = (bytes[HEADER_SIZE + 5].toInt() xor 0x01).toByte()
+        file.writeBytes(bytes)
+
+        assertRejectedWithoutChanges()
+    }
+
+    @Test
+    fun truncatedSectionIsRejectedWithoutChanges() = runBlocking {
+        backup.write(file)
+        val bytes = file.readBytes()
+        file.writeBytes(bytes.copyOf(bytes.size - 20))
+
+        assertRejectedWithoutChanges()
+    }
+
+    @Test
+    fun backupWithoutShakySectionClearsShakyEvents() = runBlocking {
+        backup.write(file)
+        file.writeBytes(withoutSection(file.readBytes(), SHAKY_SECTION))
+        val expected = dumpTables().mapValues { (table, rows) -> if (table == "shaky_events") emptyList() else rows }
+
+        changeData()
+        backup.restore(file)
+
+        assertEquals(expected, dumpTables())
+    }
+
+    private suspend fun assertRejectedWithoutChanges() {
+        changeData()
+        val changed = dumpTables()
+
+        val result = runCatching { backup.restore(file) }
+
+        assertTrue(result.exceptionOrNull() is InvalidTransferFileException)
+        assertEquals(changed, dumpTables())
+    }
+
+    private suspend fun seed() {
+        val start = LocalDateTime.of(2024, 3, 1, 9, 30)
+        dao.insertSobrietyRecord(
+            SobrietyRecord(startDate = start, endDate = start.plusDays(40), isActive = false, reason = "회식")
+        )
+        dao.insertSobrietyRecord(SobrietyRecord(startDate = start.plusDays(41), note = "다시 시작"))
+        for (day in 0 until 20) {
+            val date = LocalDate.of(2024, 4, 1).plusDays(day.toLong())
+            dao.insertDailyLog(
+                DailyLog(
+                    date = date,
+                    mood = day % 5 + 1,
+                    cravingLevel = (day * 2) % 5 + 1,
+                    didDrink = day == 7,
+                    drinkAmount = if (day == 7) 3 else 0,
+                    note = if (day % 3 == 0) "산책 $day" else "",
+                    createdAt = date.atTime(22, day)
+                )
+            )
+        }
+        dao.insertMilestones(
+            listOf(
+                Milestone(title = "첫 걸음", description = "1일", targetDays = 1, achievedAt = start, isAchieved = true),
+                Milestone(title = "한 달", description = "30일", targetDays = 30)
+            )
+        )
+        dao.insertShakyEvent(
+            ShakyEvent(day = LocalDate.of(2024, 4, 3), occurredAt = LocalDateTime.of(2024, 4, 3, 20, 15), cravingLevel = 4)
+        )
+        dao.insertShakyEvent(
+            ShakyEvent(day = LocalDate.of(2024, 4, 9), occurredAt = LocalDateTime.of(2024, 4, 9, 23, 50), situation = "퇴근길")
+        )
+        dao.rebuildRollups()
+    }
+
+    private suspend fun changeData() {
+        val date = LocalDate.of(2024, 6, 1)
+        dao.insertDailyLog(DailyLog(date = date, mood = 1, cravingLevel = 5, note = "백업 뒤", createdAt = date.atTime(8, 0)))
+        dao.insertShakyEvent(ShakyEvent(day = date, occurredAt = date.atTime(9, 0)))
+        dao.insertSobrietyRecord(SobrietyRecord(startDate = date.atTime(10, 0)))
+    }
+
+    /** 백업 대상 테이블과 통계 롤업의 모든 행 (테이블 이름 → 행 목록) */
+    private fun dumpTables(): Map<String, List<List<Any?>>> =
+        (TransferFormat.TABLES.map { it.name } + "stats_rollups").associateWith { table ->
+            database.query("SELECT * FROM $table ORDER BY 1, 2", null).use { cursor ->
+                buildList {
+                    while (cursor.moveToNext()) {
+                        add((0 until cursor.columnCount).map { cursor.value(it) })
+                    }
+                }
+            }
+        }
+
+    private fun Cursor.value(index: Int): Any? = when (getType(index)) {
+        Cursor.FIELD_TYPE_NULL -> null
+        Cursor.FIELD_TYPE_INTEGER -> getLong(index)
+        Cursor.FIELD_TYPE_FLOAT -> getDouble(index)
+        else -> getString(index)
+    }
+
+    /** 섹션 하나를 뺀 백업 파일 (이전 버전이 만든 파일 흉내) */
+    private fun withoutSection(bytes: ByteArray, type: Int): ByteArray {
+        val input = ByteBuffer.wrap(bytes)
+        val output = ByteBuffer.allocate(bytes.size)
+        output.put(bytes, 0, HEADER_SIZE)
+        input.position(HEADER_SIZE)
+        while (true) {
+            val sectionStart = input.position()
+            val sectionType = input.get().toInt()
+            if (sectionType == 0) {
+                output.put(0.toByte())
+                break
+            }
+            val sectionSize = 1 + 4 + input.int + 4
+            if (sectionType != type) output.put(bytes, sectionStart, sectionSize)
+            input.position(sectionStart + sectionSize)
+        }
+        return output.array().copyOf(output.position())
+    }
+
+    private companion object {
+        const val HEADER_SIZE = 4 + 2 + 8
+        const val SHAKY_SECTION = 6
+    }
+}
@@ -0,0 +1,115 @@
+package com.sobercompanion.data.backup
+
+import android.content.Context
+import androidx.test.core.app.ApplicationProvider
+import com.sobercompanion.data.AppDataStore
+import com.sobercompanion.data.local.SoberDatabase
+import com.sobercompanion.data.local.dao.SobrietyDao
+import com.sobercompanion.data.local.entity.DailyLog
+import com.sobercompanion.data.local.entity.RollupPeriod
+import com.sobercompanion.data.local.inMemoryDatabase
+import kotlinx.coroutines.flow.first
+import kotlinx.coroutines.runBlocking
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.annotation.SQLiteMode
+import java.time.LocalDate
+import java.time.ZoneOffset
+
+/**
+ * 가져오기가 헤더를 먼저 확인하고, 파일 끝까지 읽은 뒤에만 기록을 교체하는지 확인합니다.
+ * 중간에 실패하면 기존 기록과 롤업이 그대로 남아야 합니다.
+ */
+@RunWith(RobolectricTestRunner::class)
+@SQLiteMode(SQLiteMode.Mode.NATIVE)
+class DataImporterTest {
+
+    private lateinit var database: SoberDatabase
+    private lateinit var dao: SobrietyDao
+    private lateinit var importer: DataImporter
+
+    @Before
+    fun setUp() {
+        database = inMemoryDatabase()
+        dao = database.sobrietyDao()
+        importer = DataImporter(database, AppDataStore(ApplicationProvider.getApplicationContext<Context>()))
+        runBlocking {
+            for (day in 1..3) {
+                val date = LocalDate.of(2024, 5, day)
+                dao.insertDailyLog(
+                    DailyLog(date = date, mood = 3, cravingLevel = 2, note = "기존 $day", createdAt = date.atTime(21, 0))
+                )
+            }
+            dao.rebuildRollups()
+        }
+    }
+
+    @After
+    fun tearDown() {
+        database.close()
+    }
+
+    @Test
+    fun missingHeaderChangesNothing() = runBlocking {
+        val result = runCatching { import("""{"daily_logs": ${rows(2)}}""") }
+
+        assertTrue(result.exceptionOrNull() is InvalidTransferFileException)
+        assertExistingDataKept()
+    }
+
+    @Test
+    fun unsupportedFormatChangesNothing() = runBlocking {
+        val result = runCatching { import("""{"format": "other-app", "version": 1, "daily_logs": ${rows(2)}}""") }
+
+        assertTrue(result.exceptionOrNull() is InvalidTransferFileException)
+        assertExistingDataKept()
+    }
+
+    @Test
+    fun truncatedFileChangesNothing() = runBlocking {
+        // 스테이징 청크가 여러 번 커밋된 뒤 파일이 끊김
+        val rowCount = TransferFormat.IMPORT_CHUNK_SIZE * 2 + 10
+        val full = "$HEADER, \"daily_logs\": ${rows(rowCount)}}"
+        val result = runCatching { import(full.substring(0, full.length - 40)) }
+
+        assertTrue(result.isFailure)
+        assertExistingDataKept()
+    }
+
+    @Test
+    fun completeFileReplacesRecordsAndRollups() = runBlocking {
+        val total = import("$HEADER, \"daily_logs\": ${rows(2)}}")
+
+        assertEquals(2, total)
+        val logs = dao.getAllDailyLogs().first()
+        assertEquals(listOf("가져옴 1", "가져옴 0"), logs.map { it.note })
+        assertEquals(2, dayRollups().size)
+    }
+
+    private suspend fun import(json: String): Int = importer.importJson(json.byteInputStream())
+
+    private suspend fun assertExistingDataKept() {
+        assertEquals(listOf("기존 3", "기존 2", "기존 1"), dao.getAllDailyLogs().first().map { it.note })
+        assertEquals(3, dayRollups().size)
+    }
+
+    private suspend fun dayRollups() =
+        dao.getRollups(RollupPeriod.DAY, RollupPeriod.ALL_TIME_START, RollupPeriod.ALL_TIME_END).first()
+
+    /** 2025-01-01부터 하루씩 이어지는 daily_logs JSON 배열 */
+    private fun rows(count: Int): String = (0 until count).joinToString(", ", "[", "]") { i ->
+        val date = LocalDate.of(2025, 1, 1).plusDays(i.toLong())
+        val createdAt = date.atTime(21, 0).toInstant(ZoneOffset.UTC).toEpochMilli()
+        """{"id": ${i + 1}, "date": ${date.toEpochDay()}, "mood": 4, "cravingLevel": 1, "didDrink": 0, """ +
+            """"drinkAmount": 0, "note": "가져옴 $i", "createdAt": $createdAt}"""
+    }
+
+    private companion object {
+        const val HEADER = """{"format": "sober-companion", "version": 1"""
+    }
+}
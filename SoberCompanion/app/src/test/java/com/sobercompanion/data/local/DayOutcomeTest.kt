@@ -0,0 +1,110 @@
+package com.sobercompanion.data.local
+
+import com.sobercompanion.data.local.dao.SobrietyDao
+import com.sobercompanion.data.local.entity.DailyLog
+import com.sobercompanion.data.local.entity.Milestone
+import kotlinx.coroutines.flow.first
+import kotlinx.coroutines.runBlocking
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertNull
+import org.junit.Assert.assertTrue
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.annotation.SQLiteMode
+import java.time.LocalDateTime
+
+/**
+ * 성공/음주 기록이 날짜당 한 번만 반영되는지 확인합니다.
+ * 같은 날 다시 호출되면(중복 탭, DataStore를 쓰기 전에 종료된 뒤 재시도) 금주 기록과 마일스톤이 그대로여야 합니다.
+ * 일일 기록 화면의 음주 저장도 같은 기준을 따라, 몇 번 다시 저장해도 금주 기록은 한 번만 다시 시작됩니다.
+ */
+@RunWith(RobolectricTestRunner::class)
+@SQLiteMode(SQLiteMode.Mode.NATIVE)
+class DayOutcomeTest {
+
+    private lateinit var database: SoberDatabase
+    private lateinit var dao: SobrietyDao
+
+    private val start = LocalDateTime.of(2024, 5, 1, 0, 0)
+    private val now = LocalDateTime.of(2024, 5, 8, 21, 0)
+    private val today = now.toLocalDate()
+
+    @Before
+    fun setUp() {
+        database = inMemoryDatabase()
+        dao = database.sobrietyDao()
+        runBlocking {
+            dao.insertMilestones(listOf(Milestone(title = "일주일", description = "7일", targetDays = 7)))
+            dao.ensureActiveSobriety(start)
+        }
+    }
+
+    @After
+    fun tearDown() {
+        database.close()
+    }
+
+    @Test
+    fun soberDayIsRecordedOnce() = runBlocking {
+        assertEquals(listOf("일주일"), dao.recordSoberDay(today, now)?.map { it.title })
+        assertNull(dao.recordSoberDay(today, now.plusMinutes(1)))
+
+        assertFalse(dao.getDayOutcome(today)!!.didDrink)
+    }
+
+    @Test
+    fun drinkAfterSuccessOnSameDayChangesNothing() = runBlocking {
+        dao.recordSoberDay(today, now)
+
+        assertFalse(dao.recordDrinkDay(today, now.plusHours(1)))
+        assertEquals(start, dao.getActiveSobrietyRecordOnce()!!.startDate)
+        assertEquals(1, dao.getAllSobrietyRecords().first().size)
+        assertTrue(dao.getAllMilestones().first().single().isAchieved)
+    }
+
+    @Test
+    fun drinkDayRestartsOnce() = runBlocking {
+        assertTrue(dao.recordDrinkDay(today, now))
+        assertFalse(dao.recordDrinkDay(today, now.plusMinutes(5)))
+
+        assertEquals(now, dao.getActiveSobrietyRecordOnce()!!.startDate)
+        assertEquals(2, dao.getAllSobrietyRecords().first().size)
+    }
+
+    @Test
+    fun drinkLogSavedTwiceThenDrinkTapRestartsOnce() = runBlocking {
+        val log = DailyLog(date = today, mood = 2, cravingLevel = 4, didDrink = true, drinkAmount = 3, createdAt = now)
+        dao.upsertDailyLogAndRecordDrink(log, now)
+        // 같은 날 기록을 고쳐 다시 저장
+        dao.upsertDailyLogAndRecordDrink(log.copy(note = "회식", createdAt = now.plusMinutes(10)), now.plusMinutes(10))
+
+        assertFalse(dao.recordDrinkDay(today, now.plusMinutes(20)))
+        assertEquals(now, dao.getActiveSobrietyRecordOnce()!!.startDate)
+        assertEquals(2, dao.getAllSobrietyRecords().first().size)
+        assertTrue(dao.getDayOutcome(today)!!.didDrink)
+        assertEquals("회식", dao.getDailyLogByDate(today)!!.note)
+    }
+
+    @Test
+    fun drinkLogSavedAfterMidnightRestartsOnItsOwnDate() = runBlocking {
+        val afterMidnight = today.plusDays(1).atTime(0, 30)
+        val log = DailyLog(date = today, mood = 2, cravingLevel = 4, didDrink = true, createdAt = afterMidnight)
+        dao.upsertDailyLogAndRecordDrink(log, afterMidnight)
+
+        assertEquals(today, dao.getActiveSobrietyRecordOnce()!!.startDate.toLocalDate())
+        assertNull(dao.getDayOutcome(today.plusDays(1)))
+    }
+
+    @Test
+    fun stopTrackingAllowsRecordingAgain() = runBlocking {
+        dao.recordDrinkDay(today, now)
+        dao.stopTracking(now.plusHours(1), today)
+
+        assertNull(dao.getDayOutcome(today))
+        assertEquals(emptyList<Milestone>(), dao.recordSoberDay(today, now.plusHours(2)))
+    }
+}
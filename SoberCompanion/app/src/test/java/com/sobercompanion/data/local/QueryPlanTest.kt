@@ -0,0 +1,262 @@
+package com.sobercompanion.data.local
+
+import androidx.sqlite.db.SimpleSQLiteQuery
+import com.sobercompanion.data.local.dao.SobrietyDao
+import com.sobercompanion.data.local.entity.DailyLog
+import com.sobercompanion.data.local.entity.DayOutcome
+import com.sobercompanion.data.local.entity.Milestone
+import com.sobercompanion.data.local.entity.MotivationalQuote
+import com.sobercompanion.data.local.entity.QuoteImpression
+import com.sobercompanion.data.local.entity.RollupPeriod
+import com.sobercompanion.data.local.entity.ShakyEvent
+import com.sobercompanion.data.local.entity.SobrietyRecord
+import kotlinx.coroutines.flow.first
+import kotlinx.coroutines.runBlocking
+import org.junit.After
+import org.junit.Assert.assertTrue
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.annotation.SQLiteMode
+import java.lang.reflect.InvocationTargetException
+import java.lang.reflect.Proxy
+import java.time.LocalDateTime
+import java.util.Collections
+
+/**
+ * SobrietyDao의 모든 함수를 한 번씩 호출하고, 실행된 문장마다 EXPLAIN QUERY PLAN을 확인합니다.
+ *
+ * 인덱스 없는 전체 스캔(SCAN 테이블)이나 임시 B-tree 정렬(USE TEMP B-TREE)이 나오면 실패합니다.
+ * 쿼리를 추가하거나 바꿔 인덱스를 벗어나면, 또는 새 DAO 함수를 이 테스트에서 호출하지 않으면 실패합니다.
+ * 의도적으로 전체를 읽는 문장은 [ALLOWED]에 이유와 함께 적습니다.
+ *
+ * 안드로이드와 같은 SQLite 계획기를 쓰도록 Robolectric의 네이티브 SQLite로 실행합니다.
+ */
+@RunWith(RobolectricTestRunner::class)
+@SQLiteMode(SQLiteMode.Mode.NATIVE)
+class QueryPlanTest {
+
+    private val statements = Collections.synchronizedList(mutableListOf<Pair<String, List<Any?>>>())
+    private val invoked = Collections.synchronizedList(mutableListOf<String>())
+    private val called = mutableSetOf<String>()
+    private val violations = mutableListOf<String>()
+
+    private lateinit var database: SoberDatabase
+    private lateinit var dao: SobrietyDao
+    private lateinit var tables: Set<String>
+
+    @Before
+    fun setUp() {
+        database = inMemoryDatabase { sql, args -> statements += sql to args.toList() }
+        dao = recording(database.sobrietyDao())
+        tables = database.openHelper.writableDatabase
+            .query("SELECT name FROM sqlite_master WHERE type = 'table' AND sql NOT LIKE 'CREATE VIRTUAL%'")
+            .use { cursor -> buildSet { while (cursor.moveToNext()) add(cursor.getString(0)) } }
+    }
+
+    @After
+    fun tearDown() {
+        database.close()
+    }
+
+    @Test
+    fun everyDaoQueryUsesAnIndex() {
+        val now = LocalDateTime.of(2024, 3, 15, 21, 30)
+        val today = now.toLocalDate()
+        val log = DailyLog(date = today, mood = 4, cravingLevel = 2, note = "저녁 산책", createdAt = now)
+
+        // ----- 금주 기록 -----
+        val ended = SobrietyRecord(startDate = now.minusDays(40), endDate = now.minusDays(10), isActive = false)
+        explain { insertSobrietyRecord(ended) }
+        explain { ensureActiveSobriety(now.minusDays(10)) }
+        explain { confirmSoberDay(now) }
+        explain { getActiveSobrietyRecord().first() }
+        explain { getActiveSobrietyRecordOnce() }
+        explain { getAllSobrietyRecords().first() }
+        explain { getLatestSobrietyRecords(20) }
+        explain { getSobrietyRecordsAtOrBefore(now, 20) }
+        explain { getSobrietyRecordsBefore(now, 20) }
+        explain { getSobrietyRecordsAfter(now.minusDays(50), 20) }
+        explain { countSobrietyRecordsBefore(now) }
+        explain { countSobrietyRecordsAfter(now.minusDays(50)) }
+        val active = runBlocking { dao.getActiveSobrietyRecordOnce()!! }
+        explain { updateSobrietyRecord(active.copy(reason = "건강")) }
+        explain { endCurrentSobriety(now) }
+        explain { restartSobriety(now, reason = "") }
+        explain { deleteSobrietyRecord(active) }
+
+        // ----- 하루 성공/음주 -----
+        explain { insertDayOutcome(DayOutcome(date = today.minusDays(2), didDrink = false, recordedAt = now)) }
+        explain { recordSoberDay(today.minusDays(1), now) }
+        explain { recordDrinkDay(today, now) }
+        explain { getDayOutcome(today) }
+        explain { deleteDayOutcome(today.minusDays(2)) }
+        explain { stopTracking(now, today) }
+
+        // ----- 일일 기록 -----
+        explain { insertDailyLog(log.copy(date = today.minusDays(3))) }
+        explain { insertDailyLogIfAbsent(log.copy(date = today.minusDays(2))) }
+        explain { upsertDailyLog(log) }
+        explain { updateDailyLogByDate(today, 3, 3, false, 0, "비 오는 날", NoteTokenizer.tokenize("비 오는 날")) }
+        explain { getDailyLogIdByDate(today) }
+        explain { getDailyLogByDate(today) }
+        val saved = runBlocking { dao.getDailyLogByDate(today.minusDays(3))!! }
+        explain { updateDailyLog(saved.copy(mood = 5)) }
+        explain { deleteDailyLogRow(saved) }
+        val other = runBlocking { dao.getDailyLogByDate(today.minusDays(2))!! }
+        explain { deleteDailyLogAndRollups(other) }
+        explain { getAllDailyLogs().first() }
+        explain { getLatestDailyLogs(30) }
+        explain { getDailyLogsAtOrBefore(today, 30) }
+        explain { getDailyLogsBefore(today, 30) }
+        explain { getDailyLogsAfter(today.minusDays(30), 30) }
+        explain { countDailyLogsBefore(today) }
+        explain { countDailyLogsAfter(today.minusDays(30)) }
+        explain { getDailyLogsBetween(today.minusDays(30), today).first() }
+        explain { getRecentDailyLogs(7).first() }
+        explain { getNoteMatches(NoteTokenizer.toMatchQuery("산책")!!) }
+        explain { getDailyLogsByIds(listOf(1L, 2L, 3L)) }
+
+        // ----- 흔들림 -----
+        explain { insertShakyEvent(ShakyEvent(day = today, occurredAt = now)) }
+        explain { insertShakyEvents(listOf(ShakyEvent(day = today.minusDays(1), occurredAt = now.minusDays(1)))) }
+        explain { getShakyDaySummary(today).first() }
+        explain { getLatestShakyAt() }
+        explain { getShakyEventsBetween(today.minusDays(7), today).first() }
+
+        // ----- 마일스톤 -----
+        val milestone = Milestone(title = "일주일", description = "금주 7일", targetDays = 7)
+        explain { insertMilestone(milestone) }
+        explain { insertMilestones(listOf(milestone.copy(title = "한 달", targetDays = 30))) }
+        explain { getAllMilestones().first() }
+        explain { getUnachievedMilestones().first() }
+        explain { getAchievedMilestones().first() }
+        explain { getMilestonesToAchieve(10) }
+        explain { markMilestonesAchieved(10, now) }
+        explain { resetMilestonesAbove(0) }
+        explain { recomputeMilestones(10, now) }
+        val storedMilestone = runBlocking { dao.getAllMilestones().first().first() }
+        explain { updateMilestone(storedMilestone.copy(description = "7일")) }
+
+        // ----- 명언 -----
+        explain { insertQuote(MotivationalQuote(quote = "오늘 하루만", category = "daily")) }
+        explain { insertQuotes(listOf(MotivationalQuote(quote = "천천히", category = "calm"))) }
+        explain { getQuoteById(1) }
+        explain { getAllQuoteIds() }
+        explain { getQuoteIdsByCategory("daily") }
+        explain { insertQuoteImpression(QuoteImpression(quoteId = 1, shownAt = now)) }
+        explain { getQuoteImpressionsSince(now.minusDays(7)) }
+        explain { deleteQuoteImpressionsBefore(now.minusDays(7)) }
+        explain { getQuoteCount() }
+
+        // ----- 통계·롤업 -----
+        explain { getStatisticsSummary(today, 7).first() }
+        explain { upsertDailyLogAndRollups(log.copy(date = today.minusDays(1))) }
+        explain { upsertDailyLogAndRecordDrink(log.copy(didDrink = true, drinkAmount = 2), now) }
+        explain { refreshRollupsFor(today) }
+        explain { getRollups(RollupPeriod.WEEK, today.minusDays(60), today).first() }
+        explain { getRollup(RollupPeriod.MONTH, RollupPeriod.MONTH.startOf(today)).first() }
+        explain { deleteRollup(RollupPeriod.DAY, today) }
+        explain { insertDayRollup(today) }
+        explain {
+            insertRollupFromSource(
+                period = RollupPeriod.WEEK,
+                periodStart = RollupPeriod.WEEK.startOf(today),
+                source = RollupPeriod.DAY,
+                from = RollupPeriod.WEEK.startOf(today),
+                to = RollupPeriod.WEEK.endOf(today)
+            )
+        }
+        explain { deleteAllRollups() }
+        explain { insertAllDayRollups() }
+        explain { insertAllWeekRollups() }
+        explain { insertAllMonthRollups() }
+        explain { insertAllYearRollups() }
+        explain { insertAllTimeRollup() }
+        explain { rebuildRollups() }
+
+        val uncovered = SobrietyDao::class.java.declaredMethods.map { it.name }.toSet() - called
+        assertTrue("이 테스트에서 호출하지 않은 DAO 함수: $uncovered", uncovered.isEmpty())
+        assertTrue("인덱스를 쓰지 않는 실행 계획:\n" + violations.joinToString("\n"), violations.isEmpty())
+    }
+
+    /**
+     * [block]에서 호출한 DAO 함수가 실행한 문장마다 실행 계획을 확인해 위반을 모읍니다.
+     * 트랜잭션 함수 안에서 호출된 문장은 바깥 함수 이름으로 보고됩니다.
+     */
+    private fun explain(block: suspend SobrietyDao.() -> Unit) {
+        statements.clear()
+        invoked.clear()
+        runBlocking { dao.block() }
+
+        val methods = invoked.toList()
+        val executed = statements.toList().filter { (sql, _) -> isDaoStatement(sql) }
+        called += methods
+
+        val allowed = methods.flatMap { ALLOWED[it].orEmpty() }
+        for ((sql, args) in executed) {
+            queryPlan(sql, args)
+                .filter { isSlowPath(it) && allowed.none { prefix -> it.startsWith(prefix) } }
+                .forEach { violations += "${methods.joinToString()}: $it\n    $sql" }
+        }
+    }
+
+    /** 실행 계획의 detail 열. SQLite 버전에 따라 붙는 "SCAN TABLE"의 TABLE은 떼어냅니다 */
+    private fun queryPlan(sql: String, args: List<Any?>): List<String> =
+        database.openHelper.writableDatabase
+            .query(SimpleSQLiteQuery("EXPLAIN QUERY PLAN $sql", args.toTypedArray()))
+            .use { cursor ->
+                val detail = cursor.getColumnIndexOrThrow("detail")
+                buildList {
+                    while (cursor.moveToNext()) add(cursor.getString(detail).replace(TABLE_WORD, "$1 "))
+                }
+            }
+
+    /** 인덱스 없이 실제 테이블을 처음부터 끝까지 읽거나, 결과를 따로 정렬하는 단계 */
+    private fun isSlowPath(detail: String): Boolean =
+        detail.startsWith("USE TEMP B-TREE") ||
+            FULL_SCAN.matchEntire(detail)?.let { it.groupValues[1] in tables } == true
+
+    /** Room 내부 테이블(무효화 추적)과 트랜잭션 제어문을 제외한 DAO 문장 */
+    private fun isDaoStatement(sql: String): Boolean =
+        DML.containsMatchIn(sql) && !sql.contains("room_table_modification_log") &&
+            !sql.contains("room_master_table")
+
+    /** 호출된 DAO 함수 이름을 기록하고 실제 구현으로 넘기는 프록시 (suspend 함수 포함) */
+    private fun recording(real: SobrietyDao): SobrietyDao =
+        Proxy.newProxyInstance(
+            SobrietyDao::class.java.classLoader,
+            arrayOf(SobrietyDao::class.java)
+        ) { _, method, args ->
+            invoked += method.name
+            try {
+                method.invoke(real, *(args ?: emptyArray()))
+            } catch (e: InvocationTargetException) {
+                throw e.targetException
+            }
+        } as SobrietyDao
+
+    companion object {
+        private val TABLE_WORD = Regex("^(SCAN|SEARCH) TABLE ")
+        private val FULL_SCAN = Regex("SCAN (\\w+)")
+        private val DML = Regex("^\\s*(SELECT|INSERT|UPDATE|DELETE|REPLACE|WITH)\\b", RegexOption.IGNORE_CASE)
+
+        /**
+         * 의도적으로 허용하는 실행 계획 (DAO 함수 이름 → detail 접두사).
+         * 여기에 추가할 때는 왜 인덱스로 줄일 수 없는지 함께 적습니다.
+         */
+        private val ALLOWED: Map<String, List<String>> = mapOf(
+            // id 캐시를 채우려고 모든 id를 읽음 (QuoteRepository, 명언 테이블이 바뀔 때만)
+            "getAllQuoteIds" to listOf("SCAN motivational_quotes"),
+            // 모든 금주 기록의 일수 합계·최댓값. 기록 수는 재시작 횟수만큼이라 작음
+            "getStatisticsSummary" to listOf("SCAN sobriety_records"),
+            // 전체 재계산 (마이그레이션·가져오기 후 한 번). 모든 일일 기록을 읽고 구간별로 묶음
+            "insertAllDayRollups" to listOf("SCAN daily_logs"),
+            "insertAllWeekRollups" to listOf("USE TEMP B-TREE FOR GROUP BY"),
+            "insertAllMonthRollups" to listOf("USE TEMP B-TREE FOR GROUP BY"),
+            "insertAllYearRollups" to listOf("USE TEMP B-TREE FOR GROUP BY"),
+            "rebuildRollups" to listOf("SCAN daily_logs", "USE TEMP B-TREE FOR GROUP BY")
+        )
+    }
+}
@@ -0,0 +1,27 @@
+package com.sobercompanion.data.local
+
+import android.content.Context
+import androidx.room.Room
+import androidx.room.RoomDatabase
+import androidx.test.core.app.ApplicationProvider
+import java.util.concurrent.Executor
+
+/**
+ * 테스트용 메모리 DB. 앱과 같은 스키마(인덱스, FTS 색인과 동기화 트리거 포함)로 만들어지며
+ * 기본 마일스톤·명언은 넣지 않습니다.
+ *
+ * @param queryCallback 실행된 SQL과 바인딩 값을 받는 콜백. 실행한 스레드에서 바로 호출됩니다
+ * @param executor 쿼리·트랜잭션을 실행할 실행기. 가상 시간 테스트는 테스트 디스패처로 넘겨
+ *   DB 작업도 runCurrent 안에서 순서대로 끝나게 합니다. null이면 Room 기본 스레드 풀
+ */
+internal fun inMemoryDatabase(
+    queryCallback: RoomDatabase.QueryCallback? = null,
+    executor: Executor? = null
+): SoberDatabase {
+    val context = ApplicationProvider.getApplicationContext<Context>()
+    return Room.inMemoryDatabaseBuilder(context, SoberDatabase::class.java)
+        .allowMainThreadQueries()
+        .apply { if (queryCallback != null) setQueryCallback(queryCallback, Executor { it.run() }) }
+        .apply { if (executor != null) setQueryExecutor(executor).setTransactionExecutor(executor) }
+        .build()
+}
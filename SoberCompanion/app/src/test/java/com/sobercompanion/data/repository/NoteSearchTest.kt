@@ -0,0 +1,94 @@
+package com.sobercompanion.data.repository
+
+import androidx.paging.PagingSource
+import com.sobercompanion.data.local.NoteTokenizer
+import com.sobercompanion.data.local.SoberDatabase
+import com.sobercompanion.data.local.dao.SobrietyDao
+import com.sobercompanion.data.local.entity.DailyLog
+import com.sobercompanion.data.local.inMemoryDatabase
+import kotlinx.coroutines.runBlocking
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNull
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.annotation.SQLiteMode
+import java.time.LocalDate
+
+/**
+ * 메모 검색이 matchinfo 기반 관련도순으로 정렬되고,
+ * 점수가 같으면 최근 기록이 먼저 오며, 페이지가 정렬 순서대로 이어지는지 확인합니다.
+ */
+@RunWith(RobolectricTestRunner::class)
+@SQLiteMode(SQLiteMode.Mode.NATIVE)
+class NoteSearchTest {
+
+    private lateinit var database: SoberDatabase
+
+    @Before
+    fun setUp() {
+        database = inMemoryDatabase()
+        runBlocking {
+            val dao = database.sobrietyDao()
+            insert(dao = dao, day = 1, note = "산책 산책 산책")
+            insert(dao = dao, day = 2, note = "점심 먹고 산책")
+            insert(dao = dao, day = 3, note = "점심 먹고 산책")
+            insert(dao = dao, day = 4, note = "술자리")
+        }
+    }
+
+    @After
+    fun tearDown() {
+        database.close()
+    }
+
+    @Test
+    fun resultsAreOrderedByRelevanceThenDate() = runBlocking {
+        val page = search("산책", loadSize = 30)
+
+        // 일치 횟수가 가장 많은 오래된 기록이 먼저, 같은 메모는 최근 날짜가 먼저
+        assertEquals(listOf(1, 3, 2), page.data.map { it.log.date.dayOfMonth })
+        assertEquals("점심 먹고 산책", page.data[1].snippet)
+        assertNull(page.nextKey)
+    }
+
+    @Test
+    fun pagesFollowRankedOrder() = runBlocking {
+        val source = source("산책")
+        val first = source.load(PagingSource.LoadParams.Refresh(null, 2, false))
+            as PagingSource.LoadResult.Page<Int, NoteSearchResult>
+        val second = source.load(PagingSource.LoadParams.Append(first.nextKey!!, 2, false))
+            as PagingSource.LoadResult.Page<Int, NoteSearchResult>
+
+        assertEquals(listOf(1, 3), first.data.map { it.log.date.dayOfMonth })
+        assertEquals(listOf(2), second.data.map { it.log.date.dayOfMonth })
+        assertEquals(2, second.prevKey)
+        assertNull(second.nextKey)
+    }
+
+    @Test
+    fun editedNoteIsIndexedByItsNewText() = runBlocking {
+        val dao = database.sobrietyDao()
+        val log = dao.getDailyLogByDate(LocalDate.of(2025, 1, 4))!!
+        dao.upsertDailyLog(log.copy(note = "요가 수업"))
+
+        assertEquals(listOf(4), search("요가", loadSize = 30).data.map { it.log.date.dayOfMonth })
+        assertEquals(emptyList<NoteSearchResult>(), search("술자리", loadSize = 30).data)
+    }
+
+    private suspend fun search(query: String, loadSize: Int) =
+        source(query).load(PagingSource.LoadParams.Refresh(null, loadSize, false))
+            as PagingSource.LoadResult.Page<Int, NoteSearchResult>
+
+    private fun source(query: String) =
+        NoteSearchPagingSource(database, NoteTokenizer.toMatchQuery(query)!!, query)
+
+    private suspend fun insert(dao: SobrietyDao, day: Int, note: String) {
+        val date = LocalDate.of(2025, 1, day)
+        dao.insertDailyLog(
+            DailyLog(date = date, mood = 3, cravingLevel = 2, note = note, createdAt = date.atTime(21, 0))
+        )
+    }
+}
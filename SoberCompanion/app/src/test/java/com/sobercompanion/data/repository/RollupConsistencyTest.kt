@@ -0,0 +1,135 @@
+package com.sobercompanion.data.repository
+
+import com.sobercompanion.data.local.SoberDatabase
+import com.sobercompanion.data.local.dao.SobrietyDao
+import com.sobercompanion.data.local.entity.DailyLog
+import com.sobercompanion.data.local.entity.RollupPeriod
+import com.sobercompanion.data.local.entity.StatsRollup
+import com.sobercompanion.data.local.inMemoryDatabase
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.SupervisorJob
+import kotlinx.coroutines.cancel
+import kotlinx.coroutines.flow.MutableStateFlow
+import kotlinx.coroutines.flow.first
+import kotlinx.coroutines.runBlocking
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.annotation.SQLiteMode
+import java.time.LocalDate
+
+/**
+ * 일일 기록을 저장·덮어쓰기·삭제할 때마다 증분 갱신된 stats_rollups가
+ * daily_logs 전체를 Kotlin에서 다시 집계한 값, 그리고 rebuildRollups() 결과와 같은지 확인합니다.
+ *
+ * 날짜는 주·월·연 경계에 걸치도록 고릅니다.
+ * (2024-12-30 월요일에 시작하는 주는 12월과 1월, 2024년과 2025년에 걸침)
+ */
+@RunWith(RobolectricTestRunner::class)
+@SQLiteMode(SQLiteMode.Mode.NATIVE)
+class RollupConsistencyTest {
+
+    private lateinit var database: SoberDatabase
+    private lateinit var dao: SobrietyDao
+    private lateinit var scope: CoroutineScope
+    private lateinit var repository: SobrietyRepository
+
+    @Before
+    fun setUp() {
+        database = inMemoryDatabase()
+        dao = database.sobrietyDao()
+        scope = CoroutineScope(SupervisorJob())
+        repository = SobrietyRepository(dao, scope, MutableStateFlow(LocalDate.of(2025, 1, 31)))
+    }
+
+    @After
+    fun tearDown() {
+        scope.cancel()
+        database.close()
+    }
+
+    @Test
+    fun incrementalRollupsMatchRecount() = runBlocking {
+        // 2024-12-20 ~ 2025-01-12: 주·월·연 경계를 모두 지남. 사흘에 한 번 음주
+        var date = LocalDate.of(2024, 12, 20)
+        var i = 0
+        while (!date.isAfter(LocalDate.of(2025, 1, 12))) {
+            save(date, mood = i % 5 + 1, craving = (i * 3) % 5 + 1, drinks = if (i % 3 == 0) i % 4 + 1 else 0)
+            date = date.plusDays(1)
+            i++
+        }
+        // 기록이 없는 주가 끼도록 한 달 뒤에 하나 더
+        save(LocalDate.of(2025, 2, 3), mood = 2, craving = 4, drinks = 0)
+        assertRollupsMatchRecount()
+
+        // 같은 날짜 다시 저장: 값만 바뀌고 기록 수는 그대로
+        save(LocalDate.of(2024, 12, 31), mood = 5, craving = 1, drinks = 0)
+        save(LocalDate.of(2025, 1, 1), mood = 1, craving = 5, drinks = 0)
+        assertRollupsMatchRecount()
+
+        // 음주 ↔ 비음주 전환
+        save(LocalDate.of(2024, 12, 30), mood = 3, craving = 3, drinks = 4)
+        save(LocalDate.of(2025, 1, 2), mood = 3, craving = 3, drinks = 0)
+        save(LocalDate.of(2025, 1, 2), mood = 4, craving = 2, drinks = 1)
+        assertRollupsMatchRecount()
+
+        // 삭제: 구간의 마지막 기록이 지워지면 그 구간 행도 사라져야 함
+        delete(LocalDate.of(2025, 2, 3))
+        delete(LocalDate.of(2024, 12, 31))
+        assertRollupsMatchRecount()
+    }
+
+    private suspend fun save(date: LocalDate, mood: Int, craving: Int, drinks: Int) {
+        repository.saveDailyLog(
+            date = date,
+            mood = mood,
+            cravingLevel = craving,
+            didDrink = drinks > 0,
+            drinkAmount = drinks
+        )
+    }
+
+    private suspend fun delete(date: LocalDate) {
+        repository.deleteDailyLog(dao.getDailyLogByDate(date)!!)
+    }
+
+    /** 증분 결과 == 원본 재집계 == 전체 재계산 */
+    private suspend fun assertRollupsMatchRecount() {
+        val logs = dao.getAllDailyLogs().first()
+        val incremental = storedRollups()
+        assertEquals(recount(logs), incremental)
+
+        dao.rebuildRollups()
+        assertEquals(incremental, storedRollups())
+    }
+
+    private suspend fun storedRollups(): List<StatsRollup> =
+        RollupPeriod.values().flatMap { period ->
+            dao.getRollups(period, RollupPeriod.ALL_TIME_START, RollupPeriod.ALL_TIME_END).first()
+        }
+
+    /** daily_logs 전체를 구간별로 직접 다시 집계 (RollupPeriod 순서, 구간 시작 오름차순) */
+    private fun recount(logs: List<DailyLog>): List<StatsRollup> =
+        RollupPeriod.values().flatMap { period ->
+            logs.groupBy { period.startOf(it.date) }
+                .toSortedMap()
+                .map { (periodStart, group) ->
+                    StatsRollup(
+                        period = period,
+                        periodStart = periodStart,
+                        logCount = group.size,
+                        moodSum = group.sumOf { it.mood },
+                        moodMin = group.minOf { it.mood },
+                        moodMax = group.maxOf { it.mood },
+                        cravingSum = group.sumOf { it.cravingLevel },
+                        cravingMin = group.minOf { it.cravingLevel },
+                        cravingMax = group.maxOf { it.cravingLevel },
+                        drinkDays = group.count { it.didDrink },
+                        drinkAmount = group.sumOf { it.drinkAmount }
+                    )
+                }
+        }
+}
@@ -0,0 +1,27 @@
+package com.sobercompanion.util
+
+import java.time.Duration
+import java.time.Instant
+import java.time.ZoneId
+
+/**
+ * 테스트가 직접 돌리는 [TimeSource]. [advanceBy]를 부르기 전에는 시각이 멈춰 있습니다.
+ *
+ * @param start 처음 시각
+ * @param zone 고정 시간대
+ */
+class FakeTimeSource(start: Instant, private val zone: ZoneId) : TimeSource {
+
+    @Volatile
+    private var current: Instant = start
+
+    override fun now(): Instant = current
+
+    override fun zone(): ZoneId = zone
+
+    /** 시각을 [duration]만큼 앞으로 돌립니다. 뒤로는 돌릴 수 없습니다 */
+    fun advanceBy(duration: Duration) {
+        require(!duration.isNegative) { "시각을 되돌릴 수 없습니다: $duration" }
+        current = current.plus(duration)
+    }
+}
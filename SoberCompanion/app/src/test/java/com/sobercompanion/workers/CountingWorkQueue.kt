@@ -0,0 +1,96 @@
+package com.sobercompanion.workers
+
+import android.annotation.SuppressLint
+import androidx.work.Data
+import androidx.work.ExistingWorkPolicy
+import androidx.work.OneTimeWorkRequest
+import androidx.work.WorkInfo
+import com.sobercompanion.util.TimeSource
+import java.time.Duration
+import java.time.Instant
+
+/**
+ * WorkManager 대신 메모리에 예약을 보관하며 호출 횟수를 세는 [WorkQueue].
+ *
+ * 작업을 스스로 실행하지 않습니다. 테스트가 시각을 돌리다가 [takeDue]로 때가 된 작업을 꺼내
+ * 실행 중으로 표시하고, 할 일을 마치면 [finish]를 부릅니다.
+ * 고유 작업 정책은 BackgroundScheduler가 쓰는 두 가지만 흉내 냅니다.
+ * - REPLACE: 대기·실행 중인 작업을 모두 버리고 새 작업만 남김
+ * - APPEND_OR_REPLACE: 실행 중인 작업이 끝난 뒤에 이어 붙임 (BackgroundScheduler는 Worker 안에서만 씀)
+ */
+@SuppressLint("RestrictedApi") // 예약 지연과 입력값을 읽으려고 workSpec을 봄
+class CountingWorkQueue(private val timeSource: TimeSource) : WorkQueue {
+
+    /** 예약된 작업과 실행될 시각 */
+    class Scheduled(val request: OneTimeWorkRequest, val dueAt: Instant) {
+        /** Worker에 넘길 입력값 */
+        val input: Data get() = request.workSpec.input
+    }
+
+    private class Slot(var running: Scheduled? = null, var pending: Scheduled? = null)
+
+    private val slots = mutableMapOf<String, Slot>()
+
+    /** enqueueUniqueWork 호출 횟수 */
+    var enqueues = 0
+        private set
+
+    /** cancelUniqueWork 호출 횟수 */
+    var cancels = 0
+        private set
+
+    /** getWork 호출 횟수 (WorkManager DB 조회에 해당) */
+    var lookups = 0
+        private set
+
+    override suspend fun getWork(name: String): List<QueuedWork> {
+        lookups++
+        val slot = slots[name] ?: return emptyList()
+        return listOfNotNull(
+            slot.running?.let { QueuedWork(WorkInfo.State.RUNNING, it.request.tags) },
+            slot.pending?.let { QueuedWork(WorkInfo.State.ENQUEUED, it.request.tags) }
+        )
+    }
+
+    override fun enqueueUniqueWork(name: String, policy: ExistingWorkPolicy, request: OneTimeWorkRequest) {
+        enqueues++
+        val scheduled = Scheduled(request, timeSource.now().plus(Duration.ofMillis(request.workSpec.initialDelay)))
+        val slot = slots.getOrPut(name) { Slot() }
+        when (policy) {
+            ExistingWorkPolicy.APPEND_OR_REPLACE -> slot.pending = scheduled
+            ExistingWorkPolicy.REPLACE -> {
+                slot.running = null
+                slot.pending = scheduled
+            }
+            else -> error("BackgroundScheduler가 쓰지 않는 정책: $policy")
+        }
+    }
+
+    override fun cancelUniqueWork(name: String) {
+        cancels++
+        slots.remove(name)
+    }
+
+    /** 가장 먼저 실행될 대기 작업의 시각. 없으면 null */
+    fun nextDueAt(): Instant? =
+        slots.values.filter { it.running == null }.mapNotNull { it.pending?.dueAt }.minOrNull()
+
+    /** [now]까지 실행될 때가 된 대기 작업 하나를 실행 중으로 바꿔 돌려줍니다. 없으면 null */
+    fun takeDue(now: Instant): Pair<String, Scheduled>? {
+        val (name, slot) = slots.entries
+            .filter { (_, slot) -> slot.running == null && slot.pending?.dueAt?.isAfter(now) == false }
+            .minByOrNull { (_, slot) -> slot.pending!!.dueAt }
+            ?: return null
+        val work = slot.pending!!
+        slot.running = work
+        slot.pending = null
+        return name to work
+    }
+
+    /** 실행 중인 [name] 작업을 끝냅니다. 실행 중에 이어 붙인 작업이 있으면 그 작업이 대기 상태가 됩니다 */
+    fun finish(name: String) {
+        val slot = slots[name] ?: return
+        slot.running = null
+        if (slot.pending == null) slots.remove(name)
+    }
+}